@@ -0,0 +1,171 @@
+package com.gym_project.benchmark;
+
+import com.gym_project.config.ApplicationConfig;
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.response.PageDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.entity.TrainingType;
+import com.gym_project.repository.TraineeRepository;
+import com.gym_project.repository.TrainerRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Training listings and profile lookups through the JPA read path against the plain JDBC one
+ * ({@code repository.read-path}), against a real PostgreSQL database.
+ * <p>
+ * Each trial starts the application context with one read path and seeds a trainer and trainee
+ * with {@code benchmark.trainings} trainings (1000 by default) and {@code benchmark.links}
+ * more trainers linked to the trainee, so point it at a scratch database:
+ * {@code gradle jmh -Ddb.url=... -Dhibernate.show_sql=false}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadPathBenchmark {
+
+    private static final int TRAININGS = Integer.getInteger("benchmark.trainings", 1_000);
+    private static final int LINKS = Integer.getInteger("benchmark.links", 20);
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"jpa", "jdbc"})
+    public String readPath;
+
+    private AnnotationConfigApplicationContext context;
+    private TraineeRepository traineeRepository;
+    private TrainerRepository trainerRepository;
+
+    private final String runId = Long.toString(System.nanoTime(), 36);
+    private String traineeUsername;
+    private String trainerUsername;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        System.setProperty("repository.read-path", readPath);
+        context = new AnnotationConfigApplicationContext(ApplicationConfig.class);
+        traineeRepository = context.getBean(TraineeRepository.class);
+        trainerRepository = context.getBean(TrainerRepository.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+        System.clearProperty("repository.read-path");
+    }
+
+    @Benchmark
+    public List<TrainingResponseDto> traineeTrainingHistory() {
+        return traineeRepository.findTrainingDtosByTraineeAndFilter(traineeUsername, new TraineeTrainingFilterDto());
+    }
+
+    @Benchmark
+    public PageDto<TrainingResponseDto> traineeTrainingPage() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        filter.setPageSize(PAGE_SIZE);
+        return traineeRepository.findTrainingDtoPageByTraineeAndFilter(traineeUsername, filter);
+    }
+
+    @Benchmark
+    public PageDto<TrainingResponseDto> trainerTrainingPage() {
+        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
+        filter.setPageSize(PAGE_SIZE);
+        return trainerRepository.findTrainingDtoPageByTrainerAndFilter(trainerUsername, filter);
+    }
+
+    @Benchmark
+    public Optional<TraineeResponseDto> traineeProfile() {
+        return traineeRepository.findProfileByUsername(traineeUsername);
+    }
+
+    @Benchmark
+    public Optional<TrainerResponseDto> trainerProfile() {
+        return trainerRepository.findProfileByUsername(trainerUsername);
+    }
+
+    private void seed() {
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        traineeUsername = "bench." + runId + ".trainee";
+        trainerUsername = "bench." + runId + ".trainer";
+
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            TrainingType type = new TrainingType();
+            type.setTrainingTypeName("readpath-" + runId);
+            entityManager.persist(type);
+
+            Trainee trainee = new Trainee();
+            trainee.setFirstName("Bench");
+            trainee.setLastName("Trainee");
+            trainee.setUsername(traineeUsername);
+            trainee.setPassword("password");
+            trainee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            entityManager.persist(trainee);
+
+            Trainer trainer = new Trainer();
+            trainer.setFirstName("Bench");
+            trainer.setLastName("Trainer");
+            trainer.setUsername(trainerUsername);
+            trainer.setPassword("password");
+            trainer.setSpecialization("benchmark");
+            entityManager.persist(trainer);
+
+            List<Trainer> linkedTrainers = new ArrayList<>(List.of(trainer));
+            for (int i = 0; i < LINKS; i++) {
+                Trainer linked = new Trainer();
+                linked.setFirstName("Bench");
+                linked.setLastName("Linked");
+                linked.setUsername("bench." + runId + ".linked" + i);
+                linked.setPassword("password");
+                linked.setSpecialization("benchmark");
+                entityManager.persist(linked);
+                linkedTrainers.add(linked);
+            }
+            entityManager.flush();
+
+            entityManager.createNativeQuery(
+                            "INSERT INTO trainer_trainee (trainer_id, trainee_id) " +
+                                    "SELECT id, :trainee FROM trainers WHERE id IN (:trainers)")
+                    .setParameter("trainee", trainee.getId())
+                    .setParameter("trainers", linkedTrainers.stream().map(Trainer::getId).toList())
+                    .executeUpdate();
+
+            entityManager.createNativeQuery(
+                            "INSERT INTO trainings (id, trainee_id, trainer_id, training_type_id, " +
+                                    "training_name, training_date, training_duration) " +
+                                    "SELECT nextval('trainings_seq'), :trainee, :trainer, :type, 'bench ' || i, " +
+                                    "DATE '2024-01-01' + (i % 365), 30 + i % 60 " +
+                                    "FROM generate_series(1, :count) AS i")
+                    .setParameter("trainee", trainee.getId())
+                    .setParameter("trainer", trainer.getId())
+                    .setParameter("type", type.getId())
+                    .setParameter("count", TRAININGS)
+                    .executeUpdate();
+        });
+    }
+}
@@ -5,6 +5,7 @@ import com.gym_project.dto.create.TrainerCreateDto;
 import com.gym_project.dto.create.TrainingCreateDto;
 import com.gym_project.dto.filter.TraineeTrainingFilterDto;
 import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.response.PageDto;
 import com.gym_project.dto.response.TrainerResponseDto;
 import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.dto.update.TraineeTrainersUpdateDto;
@@ -20,7 +21,6 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Scanner;
 
 @Component
@@ -78,6 +78,7 @@ public class AppRunner {
 
             var trainee = traineeService.create(dto);
             System.out.println("Trainee registered successfully. Username: " + trainee.getUsername());
+            System.out.println("Password (shown only once): " + trainee.getPassword());
 
         } catch (Exception e) {
             System.out.println("Failed to register trainee: " + e.getMessage());
@@ -99,6 +100,7 @@ public class AppRunner {
 
             TrainerResponseDto trainer = trainerService.create(dto);
             System.out.println("Trainer registered successfully. Username: " + trainer.getUsername());
+            System.out.println("Password (shown only once): " + trainer.getPassword());
 
         } catch (Exception e) {
             System.out.println("Failed to register trainer: " + e.getMessage());
@@ -235,11 +237,12 @@ public class AppRunner {
             if (!trainingType.isBlank()) filterDto.setTrainingTypeName(trainingType);
 
 
-        List<TrainingResponseDto> trainings = traineeService.getTrainings(username, filterDto);
-        if (trainings.isEmpty()) {
-            System.out.println("No trainings found.");
-        } else {
-            trainings.forEach(System.out::println);
+        PageDto<TrainingResponseDto> page = traineeService.getTrainingsPage(username, filterDto);
+        while (printPage(page)) {
+            TrainingResponseDto last = page.getLast();
+            filterDto.setCursorDate(last.getTrainingDate());
+            filterDto.setCursorId(last.getId());
+            page = traineeService.getTrainingsPage(username, filterDto);
         }
     }
 
@@ -292,12 +295,31 @@ public class AppRunner {
             if (!traineeName.isBlank()) filterDto.setTraineeName(traineeName);
 
 
-        var trainings = trainerService.getTrainings(username, filterDto);
-        if (trainings.isEmpty()) {
+        var page = trainerService.getTrainingsPage(username, filterDto);
+        while (printPage(page)) {
+            TrainingResponseDto last = page.getLast();
+            filterDto.setCursorDate(last.getTrainingDate());
+            filterDto.setCursorId(last.getId());
+            page = trainerService.getTrainingsPage(username, filterDto);
+        }
+    }
+
+    /**
+     * Prints one page and returns true when the user asked for the next one.
+     */
+    private boolean printPage(PageDto<TrainingResponseDto> page) {
+        if (page.getContent().isEmpty()) {
             System.out.println("No trainings found.");
-        } else {
-            trainings.forEach(System.out::println);
+            return false;
+        }
+
+        page.getContent().forEach(System.out::println);
+
+        if (!page.isHasNext()) {
+            return false;
         }
+        System.out.print("Press Enter for the next page or type 'q' to stop: ");
+        return !scanner.nextLine().trim().equalsIgnoreCase("q");
     }
 
 
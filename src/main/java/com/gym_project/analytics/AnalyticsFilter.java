@@ -0,0 +1,22 @@
+package com.gym_project.analytics;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Restricts an aggregation; null fields do not filter. Dates are inclusive.
+ */
+@Getter
+@Setter
+public class AnalyticsFilter {
+
+    private Set<Long> trainerIds;
+    private Set<Long> traineeIds;
+    private Set<Long> trainingTypeIds;
+
+    private LocalDate fromDate;
+    private LocalDate toDate;
+}
@@ -0,0 +1,16 @@
+package com.gym_project.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class AnalyticsTotal {
+
+    private final long totalMinutes;
+    private final long trainingCount;
+}
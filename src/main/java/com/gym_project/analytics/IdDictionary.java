@@ -0,0 +1,45 @@
+package com.gym_project.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense int codes for entity ids, so columns can store them as {@code int} and group-by can
+ * index plain arrays. Not thread-safe; guarded by the owning store.
+ */
+final class IdDictionary {
+
+    private final Map<Long, Integer> codes = new HashMap<>();
+    private long[] ids = new long[64];
+
+    int encode(long id) {
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        int next = codes.size();
+        if (next == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[next] = id;
+        codes.put(id, next);
+        return next;
+    }
+
+    /**
+     * Code of {@code id}, or -1 when it has never been encoded.
+     */
+    int lookup(long id) {
+        Integer code = codes.get(id);
+        return code == null ? -1 : code;
+    }
+
+    long decode(int code) {
+        return ids[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,117 @@
+package com.gym_project.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Map from {@code long} keys to non-negative {@code int} values in two primitive arrays, open
+ * addressed with linear probing: 12 bytes per slot, kept at most three quarters full, instead of
+ * the boxed keys, values and entries of a {@code HashMap}. Removal shifts the following entries
+ * back rather than leaving tombstones. Not thread-safe; guarded by the owning store.
+ */
+final class LongIntMap {
+
+    private static final int FREE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] values = newValues(INITIAL_CAPACITY);
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+
+    /**
+     * Value of {@code key}, or -1 when it is absent.
+     */
+    int get(long key) {
+        int slot = find(key);
+        return slot < 0 ? FREE : values[slot];
+    }
+
+    /**
+     * Maps {@code key} to {@code value} and returns the previous value, or -1 when there was none.
+     */
+    int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        int slot = home(key);
+        while (values[slot] != FREE) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) / 4 * 3) {
+            rehash((mask + 1) * 2);
+        }
+        return FREE;
+    }
+
+    /**
+     * Removes {@code key} and returns its value, or -1 when it was absent.
+     */
+    int remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return FREE;
+        }
+        int previous = values[slot];
+        int hole = slot;
+        for (int next = (hole + 1) & mask; values[next] != FREE; next = (next + 1) & mask) {
+            // an entry may fill the hole only if the hole lies between its home slot and where it sits
+            if (((next - home(keys[next])) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        values[hole] = FREE;
+        size--;
+        return previous;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int find(long key) {
+        for (int slot = home(key); values[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int home(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = newValues(capacity);
+        mask = capacity - 1;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldValues[slot] != FREE) {
+                int target = home(oldKeys[slot]);
+                while (values[target] != FREE) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private static int[] newValues(int capacity) {
+        int[] values = new int[capacity];
+        Arrays.fill(values, FREE);
+        return values;
+    }
+}
@@ -0,0 +1,286 @@
+package com.gym_project.analytics;
+
+import com.gym_project.analytics.TrainingColumns.Grouping;
+import com.gym_project.analytics.TrainingColumns.Totals;
+import com.gym_project.entity.Training;
+import com.gym_project.sharding.Shards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory columnar copy of training facts for ad-hoc aggregations (minutes by trainer, trainee,
+ * type or month) without loading entities. Loaded from every shard on startup and kept current by
+ * the training write paths, which apply their changes once the transaction commits.
+ * <p>
+ * Those changes only reach the instance that made them, and rows moved by a shard rebalance or
+ * written around a failed commit are not seen at all, so the store is also reloaded on a schedule.
+ * Changes applied while a reload runs are replayed onto the new store before it replaces the old one.
+ * <p>
+ * Aggregations scan the columns in parallel chunks under a read lock; writes take the write lock
+ * briefly. Updates and deletes tombstone rows, and tombstones are compacted away once they make
+ * up half of the store.
+ */
+@Slf4j
+@Component
+public class TrainingAnalytics implements InitializingBean {
+
+    static final String LOAD_SQL =
+            "SELECT id, trainer_id, trainee_id, training_type_id, training_date, training_duration FROM trainings";
+
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    private final Shards shards;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TrainingColumns columns = new TrainingColumns();
+    // changes seen while a reload is running, replayed onto the reloaded store; guarded by the write lock
+    private List<Function<TrainingColumns, ?>> pending;
+
+    public TrainingAnalytics(Shards shards, @Value("${analytics.trainings.enabled}") boolean enabled) {
+        this.shards = shards;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(cron = "${analytics.trainings.reload-cron}")
+    public void reload() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Replaces the store with the current contents of {@code trainings} on every shard.
+     */
+    synchronized void load() {
+        long start = System.nanoTime();
+        TrainingColumns loaded = new TrainingColumns();
+        setPending(new ArrayList<>());
+        try {
+            loadFromShards(loaded);
+        } catch (RuntimeException e) {
+            setPending(null);
+            throw e;
+        }
+
+        int rows;
+        lock.writeLock().lock();
+        try {
+            pending.forEach(change -> change.apply(loaded));
+            pending = null;
+            columns = loaded;
+            rows = loaded.liveRows();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} trainings into analytics in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void loadFromShards(TrainingColumns loaded) {
+        for (int shard = 0; shard < shards.count(); shard++) {
+            shards.call(shard, (index, dataSource) -> {
+                // a cursor instead of the whole result set needs a transaction on PostgreSQL
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.setAutoCommit(false);
+                    try (PreparedStatement statement = connection.prepareStatement(LOAD_SQL)) {
+                        statement.setFetchSize(LOAD_FETCH_SIZE);
+                        try (ResultSet rs = statement.executeQuery()) {
+                            while (rs.next()) {
+                                loaded.append(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                                        (int) rs.getDate(5).toLocalDate().toEpochDay(), rs.getInt(6));
+                            }
+                        }
+                    } finally {
+                        connection.rollback();
+                        connection.setAutoCommit(true);
+                    }
+                }
+                return List.of();
+            });
+        }
+    }
+
+    public void add(long id, long trainerId, long traineeId, long trainingTypeId, LocalDate date, int duration) {
+        write(store -> {
+            store.append(id, trainerId, traineeId, trainingTypeId, (int) date.toEpochDay(), duration);
+            return null;
+        });
+    }
+
+    public void remove(long id) {
+        write(store -> store.deleteById(id));
+    }
+
+    public void removeTrainee(long traineeId) {
+        write(store -> store.deleteByTrainee(traineeId));
+    }
+
+    public void removeTrainer(long trainerId) {
+        write(store -> store.deleteByTrainer(trainerId));
+    }
+
+    public void recordCreated(Training training) {
+        afterCommit(() -> add(training));
+    }
+
+    public void recordUpdated(Training training) {
+        afterCommit(() -> {
+            remove(training.getId());
+            add(training);
+        });
+    }
+
+    public void recordDeleted(Long trainingId) {
+        afterCommit(() -> remove(trainingId));
+    }
+
+    public void recordTraineeDeleted(Long traineeId) {
+        afterCommit(() -> removeTrainee(traineeId));
+    }
+
+    public void recordTrainerDeleted(Long trainerId) {
+        afterCommit(() -> removeTrainer(trainerId));
+    }
+
+    public Map<Long, AnalyticsTotal> minutesByTrainer(AnalyticsFilter filter) {
+        return byId(Grouping.TRAINER, filter);
+    }
+
+    public Map<Long, AnalyticsTotal> minutesByTrainee(AnalyticsFilter filter) {
+        return byId(Grouping.TRAINEE, filter);
+    }
+
+    public Map<Long, AnalyticsTotal> minutesByTrainingType(AnalyticsFilter filter) {
+        return byId(Grouping.TRAINING_TYPE, filter);
+    }
+
+    public Map<YearMonth, AnalyticsTotal> minutesByMonth(AnalyticsFilter filter) {
+        return read(() -> {
+            Totals totals = columns.aggregate(Grouping.MONTH, columns.filter(filter));
+            Map<YearMonth, AnalyticsTotal> result = new TreeMap<>();
+            if (totals.minutes.length == 0) {
+                return result;
+            }
+            YearMonth first = YearMonth.from(LocalDate.ofEpochDay(columns.minDay()));
+            for (int group = 0; group < totals.minutes.length; group++) {
+                if (totals.counts[group] > 0) {
+                    result.put(first.plusMonths(group), new AnalyticsTotal(totals.minutes[group], totals.counts[group]));
+                }
+            }
+            return result;
+        });
+    }
+
+    public AnalyticsTotal total(AnalyticsFilter filter) {
+        return read(() -> {
+            Totals totals = columns.aggregate(Grouping.NONE, columns.filter(filter));
+            return new AnalyticsTotal(totals.minutes[0], totals.counts[0]);
+        });
+    }
+
+    /**
+     * Live (not tombstoned) trainings in the store.
+     */
+    public int size() {
+        return read(() -> columns.liveRows());
+    }
+
+    private Map<Long, AnalyticsTotal> byId(Grouping grouping, AnalyticsFilter filter) {
+        return read(() -> {
+            Totals totals = columns.aggregate(grouping, columns.filter(filter));
+            IdDictionary dictionary = grouping == Grouping.TRAINER ? columns.trainerCodes
+                    : grouping == Grouping.TRAINEE ? columns.traineeCodes
+                    : columns.typeCodes;
+            Map<Long, AnalyticsTotal> result = new TreeMap<>();
+            for (int group = 0; group < totals.minutes.length; group++) {
+                if (totals.counts[group] > 0) {
+                    result.put(dictionary.decode(group), new AnalyticsTotal(totals.minutes[group], totals.counts[group]));
+                }
+            }
+            return result;
+        });
+    }
+
+    private void add(Training training) {
+        add(training.getId(), training.getTrainer().getId(), training.getTrainee().getId(),
+                training.getTrainingType().getId(), training.getTrainingDate(), training.getTrainingDuration());
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private <T> T read(Supplier<T> query) {
+        if (!enabled) {
+            throw new IllegalStateException("Training analytics is disabled");
+        }
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void setPending(List<Function<TrainingColumns, ?>> changes) {
+        lock.writeLock().lock();
+        try {
+            pending = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T write(Function<TrainingColumns, T> change) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            }
+            return change.apply(columns);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.gym_project.analytics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Training facts stored column by column in primitive arrays: dictionary-encoded trainer,
+ * trainee and type, epoch-day date and duration, plus the training id so rows can be
+ * tombstoned. About 28 bytes per row, plus 16 to 32 bytes for the {@link LongIntMap} from id to
+ * live row that keeps a delete by id from scanning the store. An id is live in at most one row: appending it again tombstones the
+ * older row. Not thread-safe; {@link TrainingAnalytics} guards it.
+ */
+final class TrainingColumns {
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    final IdDictionary trainerCodes = new IdDictionary();
+    final IdDictionary traineeCodes = new IdDictionary();
+    final IdDictionary typeCodes = new IdDictionary();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] trainers = new int[INITIAL_CAPACITY];
+    private int[] trainees = new int[INITIAL_CAPACITY];
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+
+    private final LongIntMap rowById = new LongIntMap();
+    private final BitSet deleted = new BitSet();
+    private int size;
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+
+    void append(long id, long trainerId, long traineeId, long typeId, int epochDay, int duration) {
+        if (size == ids.length) {
+            grow(size * 2);
+        }
+        ids[size] = id;
+        trainers[size] = trainerCodes.encode(trainerId);
+        trainees[size] = traineeCodes.encode(traineeId);
+        types[size] = typeCodes.encode(typeId);
+        days[size] = epochDay;
+        durations[size] = duration;
+        minDay = Math.min(minDay, epochDay);
+        maxDay = Math.max(maxDay, epochDay);
+        int previous = rowById.put(id, size);
+        if (previous >= 0) {
+            deleted.set(previous);
+        }
+        size++;
+    }
+
+    int deleteById(long id) {
+        int row = rowById.remove(id);
+        if (row < 0) {
+            return 0;
+        }
+        deleted.set(row);
+        return compactIfSparse(1);
+    }
+
+    int deleteByTrainer(long trainerId) {
+        return deleteByCode(trainers, trainerCodes.lookup(trainerId));
+    }
+
+    int deleteByTrainee(long traineeId) {
+        return deleteByCode(trainees, traineeCodes.lookup(traineeId));
+    }
+
+    int liveRows() {
+        return size - deleted.cardinality();
+    }
+
+    /**
+     * Sums minutes and counts rows per group over all live rows matching {@code filter}, scanning
+     * chunks of {@link #CHUNK_SIZE} rows in parallel.
+     */
+    Totals aggregate(Grouping grouping, Filter filter) {
+        int groups = grouping.groups(this);
+        int[] keys = grouping.keys(this);
+        int[] remap = grouping == Grouping.MONTH ? monthIndexByDay() : null;
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> scan(chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE),
+                        groups, keys, remap, filter))
+                .reduce(Totals::add)
+                .orElseGet(() -> new Totals(groups));
+    }
+
+    Filter filter(AnalyticsFilter filter) {
+        if (filter == null) {
+            return new Filter(null, null, null, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+        return new Filter(
+                mask(trainerCodes, filter.getTrainerIds()),
+                mask(traineeCodes, filter.getTraineeIds()),
+                mask(typeCodes, filter.getTrainingTypeIds()),
+                filter.getFromDate() == null ? Integer.MIN_VALUE : (int) filter.getFromDate().toEpochDay(),
+                filter.getToDate() == null ? Integer.MAX_VALUE : (int) filter.getToDate().toEpochDay());
+    }
+
+    int minDay() {
+        return minDay;
+    }
+
+    private Totals scan(int from, int to, int groups, int[] keys, int[] remap, Filter filter) {
+        Totals totals = new Totals(groups);
+        for (int row = from; row < to; row++) {
+            int day = days[row];
+            if (day < filter.fromDay || day > filter.toDay
+                    || !filter.matches(filter.trainers, trainers[row])
+                    || !filter.matches(filter.trainees, trainees[row])
+                    || !filter.matches(filter.types, types[row])
+                    || deleted.get(row)) {
+                continue;
+            }
+            int group = keys == null ? 0 : remap == null ? keys[row] : remap[keys[row] - minDay];
+            totals.minutes[group] += durations[row];
+            totals.counts[group]++;
+        }
+        return totals;
+    }
+
+    /**
+     * Index of each day's month relative to the month of {@link #minDay}, for days between the
+     * smallest and largest stored date.
+     */
+    private int[] monthIndexByDay() {
+        if (size == 0) {
+            return new int[0];
+        }
+        int[] monthIndex = new int[maxDay - minDay + 1];
+        long firstMonth = epochMonth(minDay);
+        for (int day = minDay; day <= maxDay; day++) {
+            monthIndex[day - minDay] = (int) (epochMonth(day) - firstMonth);
+        }
+        return monthIndex;
+    }
+
+    int monthGroups() {
+        return size == 0 ? 0 : (int) (epochMonth(maxDay) - epochMonth(minDay)) + 1;
+    }
+
+    static long epochMonth(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+
+    private int deleteByCode(int[] column, int code) {
+        if (code < 0) {
+            return 0;
+        }
+        int removed = 0;
+        for (int row = deleted.nextClearBit(0); row < size; row = deleted.nextClearBit(row + 1)) {
+            if (column[row] == code) {
+                deleted.set(row);
+                rowById.remove(ids[row]);
+                removed++;
+            }
+        }
+        return compactIfSparse(removed);
+    }
+
+    /**
+     * Drops tombstoned rows once they make up half of the store.
+     */
+    private int compactIfSparse(int removed) {
+        int dead = deleted.cardinality();
+        if (dead == 0 || dead < size / 2) {
+            return removed;
+        }
+        int live = 0;
+        for (int row = deleted.nextClearBit(0); row < size; row = deleted.nextClearBit(row + 1)) {
+            ids[live] = ids[row];
+            trainers[live] = trainers[row];
+            trainees[live] = trainees[row];
+            types[live] = types[row];
+            days[live] = days[row];
+            durations[live] = durations[row];
+            rowById.put(ids[live], live);
+            live++;
+        }
+        size = live;
+        deleted.clear();
+        return removed;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        trainers = Arrays.copyOf(trainers, capacity);
+        trainees = Arrays.copyOf(trainees, capacity);
+        types = Arrays.copyOf(types, capacity);
+        days = Arrays.copyOf(days, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+    }
+
+    private static boolean[] mask(IdDictionary dictionary, Set<Long> ids) {
+        if (ids == null) {
+            return null;
+        }
+        boolean[] mask = new boolean[dictionary.size()];
+        for (Long id : ids) {
+            int code = dictionary.lookup(id);
+            if (code >= 0) {
+                mask[code] = true;
+            }
+        }
+        return mask;
+    }
+
+    enum Grouping {
+        NONE, TRAINER, TRAINEE, TRAINING_TYPE, MONTH;
+
+        int groups(TrainingColumns columns) {
+            switch (this) {
+                case TRAINER:
+                    return columns.trainerCodes.size();
+                case TRAINEE:
+                    return columns.traineeCodes.size();
+                case TRAINING_TYPE:
+                    return columns.typeCodes.size();
+                case MONTH:
+                    return columns.monthGroups();
+                default:
+                    return 1;
+            }
+        }
+
+        int[] keys(TrainingColumns columns) {
+            switch (this) {
+                case TRAINER:
+                    return columns.trainers;
+                case TRAINEE:
+                    return columns.trainees;
+                case TRAINING_TYPE:
+                    return columns.types;
+                case MONTH:
+                    return columns.days;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static final class Filter {
+
+        private final boolean[] trainers;
+        private final boolean[] trainees;
+        private final boolean[] types;
+        private final int fromDay;
+        private final int toDay;
+
+        Filter(boolean[] trainers, boolean[] trainees, boolean[] types, int fromDay, int toDay) {
+            this.trainers = trainers;
+            this.trainees = trainees;
+            this.types = types;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        private boolean matches(boolean[] mask, int code) {
+            return mask == null || (code < mask.length && mask[code]);
+        }
+    }
+
+    static final class Totals {
+
+        final long[] minutes;
+        final long[] counts;
+
+        Totals(int groups) {
+            this.minutes = new long[groups];
+            this.counts = new long[groups];
+        }
+
+        Totals add(Totals other) {
+            for (int group = 0; group < minutes.length; group++) {
+                minutes[group] += other.minutes[group];
+                counts[group] += other.counts[group];
+            }
+            return this;
+        }
+    }
+}
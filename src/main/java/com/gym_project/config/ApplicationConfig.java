@@ -2,23 +2,52 @@ package com.gym_project.config;
 
 import javax.persistence.EntityManagerFactory;
 
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.gym_project.entity.CacheRegions;
+import com.gym_project.sharding.Shards;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableTransactionManagement
+@EnableScheduling
 @PropertySource("classpath:/application.properties")
 @ComponentScan("com.gym_project")
 public class ApplicationConfig {
@@ -35,6 +64,63 @@ public class ApplicationConfig {
     @Value("${db.password}")
     private String databasePassword;
 
+    @Value("${db.pool.name}")
+    private String poolName;
+
+    @Value("${db.pool.min-idle}")
+    private int poolMinIdle;
+
+    @Value("${db.pool.max-size}")
+    private int poolMaxSize;
+
+    @Value("${db.pool.connection-timeout-ms}")
+    private long poolConnectionTimeoutMs;
+
+    @Value("${db.pool.idle-timeout-ms}")
+    private long poolIdleTimeoutMs;
+
+    @Value("${db.pool.max-lifetime-ms}")
+    private long poolMaxLifetimeMs;
+
+    @Value("${db.pool.leak-detection-threshold-ms}")
+    private long poolLeakDetectionThresholdMs;
+
+    @Value("${db.pool.prepare-threshold}")
+    private int prepareThreshold;
+
+    @Value("${db.pool.prepared-statement-cache-queries}")
+    private int preparedStatementCacheQueries;
+
+    @Value("${db.pool.prepared-statement-cache-size-mib}")
+    private int preparedStatementCacheSizeMib;
+
+    @Value("${db.replicas.urls}")
+    private String replicaUrls;
+
+    @Value("${db.replicas.max-lag-ms}")
+    private long replicaMaxLagMs;
+
+    @Value("${db.r2dbc.url}")
+    private String r2dbcUrl;
+
+    @Value("${db.r2dbc.pool.initial-size}")
+    private int r2dbcPoolInitialSize;
+
+    @Value("${db.r2dbc.pool.max-size}")
+    private int r2dbcPoolMaxSize;
+
+    @Value("${db.r2dbc.pool.max-acquire-time-ms}")
+    private long r2dbcPoolMaxAcquireTimeMs;
+
+    @Value("${sharding.shard-urls}")
+    private String shardUrls;
+
+    @Value("${sharding.fan-out.threads}")
+    private int shardFanOutThreads;
+
+    @Value("${sharding.fan-out.timeout-ms}")
+    private long shardFanOutTimeoutMs;
+
     @Value("${hibernate.dialect}")
     private String hibernateDialect;
 
@@ -47,34 +133,230 @@ public class ApplicationConfig {
     @Value("${hibernate.format_sql}")
     private String hibernateFormatSql;
 
+    @Value("${hibernate.jdbc.batch_size}")
+    private String hibernateBatchSize;
+
+    @Value("${hibernate.order_inserts}")
+    private String hibernateOrderInserts;
+
+    @Value("${hibernate.order_updates}")
+    private String hibernateOrderUpdates;
+
+    @Value("${cache.enabled}")
+    private boolean cacheEnabled;
+
+    @Value("${cache.max-entries}")
+    private long cacheMaxEntries;
+
+    @Value("${cache.users.ttl-seconds}")
+    private long usersCacheTtlSeconds;
+
+    @Value("${cache.collections.ttl-seconds}")
+    private long collectionsCacheTtlSeconds;
+
+    @Value("${db.migration.locations}")
+    private String migrationLocations;
+
+    @Value("${db.migration.baseline-on-migrate}")
+    private boolean migrationBaselineOnMigrate;
+
+
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(ConnectionPoolMetrics connectionPoolMetrics) {
+        return new HikariDataSource(poolConfig(poolName, databaseUrl, connectionPoolMetrics));
+    }
+
+    /**
+     * One pool per URL in {@code db.replicas.urls}; empty when no replicas are configured.
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaSet replicaSet(ConnectionPoolMetrics connectionPoolMetrics) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        String[] urls = replicaUrls.isBlank() ? new String[0] : replicaUrls.split(",");
+        for (int i = 0; i < urls.length; i++) {
+            String name = poolName + "-replica-" + (i + 1);
+            HikariConfig config = poolConfig(name, urls[i].trim(), connectionPoolMetrics);
+            config.setReadOnly(true);
+            replicas.put(name, new HikariDataSource(config));
+        }
+        return new ReplicaSet(replicas, replicaMaxLagMs);
+    }
+
+    /**
+     * The data source everything else uses. Without replicas this is the primary pool itself;
+     * otherwise read-only transactions are routed to replicas by {@link ReplicaRoutingDataSource}.
+     */
+    @Bean(destroyMethod = "")
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaSet replicaSet,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        if (replicaSet.isEmpty()) {
+            return primaryDataSource;
+        }
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaSet, readYourWritesTracker));
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    /**
+     * Training shards: the main database plus one pool per URL in {@code sharding.shard-urls}.
+     * Additional shards get their own {@code db/shard} migrations.
+     */
+    @Bean(destroyMethod = "close")
+    @DependsOn("flyway")
+    public Shards shards(DataSource dataSource, ConnectionPoolMetrics connectionPoolMetrics) {
+        List<DataSource> additional = new ArrayList<>();
+        String[] urls = shardUrls.isBlank() ? new String[0] : shardUrls.split(",");
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource shard = new HikariDataSource(
+                    poolConfig(poolName + "-shard-" + (i + 1), urls[i].trim(), connectionPoolMetrics));
+            Flyway.configure()
+                    .dataSource(shard)
+                    .locations("classpath:db/shard")
+                    .load()
+                    .migrate();
+            additional.add(shard);
+        }
+        return new Shards(dataSource, additional, shardFanOutThreads, shardFanOutTimeoutMs);
+    }
+
+    /**
+     * Non-blocking pool on the main database for the reactive repositories. It connects on first
+     * use, so it costs nothing while only the JPA services are in use.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionPool() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, databaseUsername)
+                .option(ConnectionFactoryOptions.PASSWORD, databasePassword)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name(poolName + "-reactive")
+                .initialSize(r2dbcPoolInitialSize)
+                .maxSize(r2dbcPoolMaxSize)
+                .maxAcquireTime(Duration.ofMillis(r2dbcPoolMaxAcquireTimeMs))
+                .build());
+    }
 
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(databaseDriver);
-        dataSource.setUrl(databaseUrl);
-        dataSource.setUsername(databaseUsername);
-        dataSource.setPassword(databasePassword);
-        return dataSource;
+    public DatabaseClient databaseClient(ConnectionPool reactiveConnectionPool) {
+        return DatabaseClient.create(reactiveConnectionPool);
+    }
+
+    /**
+     * The R2DBC transaction manager is kept out of the context on purpose: a second
+     * {@code TransactionManager} bean would make {@code @Transactional} ambiguous.
+     */
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionPool reactiveConnectionPool) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(reactiveConnectionPool));
+    }
+
+    private HikariConfig poolConfig(String name, String url, ConnectionPoolMetrics connectionPoolMetrics) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDriverClassName(databaseDriver);
+        config.setJdbcUrl(url);
+        config.setUsername(databaseUsername);
+        config.setPassword(databasePassword);
+
+        config.setMinimumIdle(poolMinIdle);
+        config.setMaximumPoolSize(poolMaxSize);
+        config.setConnectionTimeout(poolConnectionTimeoutMs);
+        config.setIdleTimeout(poolIdleTimeoutMs);
+        config.setMaxLifetime(poolMaxLifetimeMs);
+        config.setLeakDetectionThreshold(poolLeakDetectionThresholdMs);
+
+        // PostgreSQL driver: switch to server-side prepared statements after N executions
+        config.addDataSourceProperty("prepareThreshold", prepareThreshold);
+        config.addDataSourceProperty("preparedStatementCacheQueries", preparedStatementCacheQueries);
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", preparedStatementCacheSizeMib);
+
+        config.setMetricsTrackerFactory(connectionPoolMetrics);
+        config.setRegisterMbeans(true);
+
+        return config;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager jcacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        createCacheRegion(cacheManager, CacheRegions.USERS, usersCacheTtlSeconds);
+        createCacheRegion(cacheManager, CacheRegions.USER_NATURAL_IDS, usersCacheTtlSeconds);
+        createCacheRegion(cacheManager, CacheRegions.TRAINER_TRAINEES, collectionsCacheTtlSeconds);
+        createCacheRegion(cacheManager, CacheRegions.TRAINEE_TRAINERS, collectionsCacheTtlSeconds);
+
+        return cacheManager;
+    }
+
+    private void createCacheRegion(CacheManager cacheManager, String region, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+        config.setMaximumSize(OptionalLong.of(cacheMaxEntries));
+        config.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        config.setStatisticsEnabled(true);
+
+        cacheManager.createCache(region, config);
+    }
+
+    /**
+     * Versioned schema migrations, applied before Hibernate starts so that
+     * {@code hbm2ddl.auto=validate} checks the migrated schema. Baselining at version 0 lets
+     * databases created by the old {@code hbm2ddl.auto=update} run the idempotent V1 as well.
+     */
+    @Bean(initMethod = "migrate")
+    public Flyway flyway(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations(migrationLocations.split(","))
+                .baselineOnMigrate(migrationBaselineOnMigrate)
+                .baselineVersion("0")
+                .load();
     }
 
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+    @DependsOn("flyway")
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource, CacheManager jcacheManager) {
         LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
         entityManagerFactory.setDataSource(dataSource);
         entityManagerFactory.setPackagesToScan("com.gym_project.entity");
         entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
-        entityManagerFactory.setJpaProperties(getHibernateProperties());
+        entityManagerFactory.setJpaProperties(getHibernateProperties(jcacheManager));
 
         return entityManagerFactory;
     }
 
-    private Properties getHibernateProperties(){
+    private Properties getHibernateProperties(CacheManager jcacheManager){
         Properties props = new Properties();
         props.put("hibernate.dialect", hibernateDialect);
         props.put("hibernate.hbm2ddl.auto", hibernateHbm2ddl);
+        // trainings is a partitioned table, which schema validation would otherwise not see
+        props.put("hibernate.hbm2ddl.extra_physical_table_types", "PARTITIONED TABLE");
         props.put("hibernate.show_sql", hibernateShowSql);
         props.put("hibernate.format_sql", hibernateFormatSql);
+        props.put("hibernate.jdbc.batch_size", hibernateBatchSize);
+        props.put("hibernate.jdbc.batch_versioned_data", "true");
+        props.put("hibernate.order_inserts", hibernateOrderInserts);
+        props.put("hibernate.order_updates", hibernateOrderUpdates);
+
+        if (cacheEnabled) {
+            props.put("hibernate.cache.use_second_level_cache", "true");
+            props.put("hibernate.cache.region.factory_class", "jcache");
+            props.put("hibernate.javax.cache.cache_manager", jcacheManager);
+            props.put("hibernate.javax.cache.missing_cache_strategy", "create-warn");
+            props.put("javax.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        } else {
+            props.put("hibernate.cache.use_second_level_cache", "false");
+        }
         return props;
     }
 
@@ -0,0 +1,58 @@
+package com.gym_project.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Reads hit/miss/put/eviction counters of the second-level cache regions from the
+ * standard JCache statistics MBeans registered by the caching provider.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics {
+
+    private final CacheManager jcacheManager;
+
+    public Map<String, CacheRegionSnapshot> snapshots() {
+        Map<String, CacheRegionSnapshot> result = new TreeMap<>();
+        for (String region : jcacheManager.getCacheNames()) {
+            snapshot(region).ifPresent(snapshot -> result.put(region, snapshot));
+        }
+        return result;
+    }
+
+    public Optional<CacheRegionSnapshot> snapshot(String region) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName pattern = new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*");
+            return server.queryNames(pattern, null).stream()
+                    .findFirst()
+                    .map(name -> read(server, region, name));
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot read statistics of cache region " + region, e);
+        }
+    }
+
+    private CacheRegionSnapshot read(MBeanServer server, String region, ObjectName name) {
+        try {
+            return new CacheRegionSnapshot(
+                    region,
+                    (Long) server.getAttribute(name, "CacheHits"),
+                    (Long) server.getAttribute(name, "CacheMisses"),
+                    (Long) server.getAttribute(name, "CachePuts"),
+                    (Long) server.getAttribute(name, "CacheEvictions")
+            );
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot read statistics of cache region " + region, e);
+        }
+    }
+}
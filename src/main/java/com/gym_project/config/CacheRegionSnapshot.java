@@ -0,0 +1,23 @@
+package com.gym_project.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class CacheRegionSnapshot {
+
+    private final String region;
+
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long evictions;
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,76 @@
+package com.gym_project.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects runtime metrics of every Hikari pool created by {@link ApplicationConfig}.
+ * Active/idle/pending counts come from the pool itself, connection wait times are
+ * recorded into a {@link WaitTimeHistogram} per pool.
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final Map<String, PoolTracker> trackers = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolTracker tracker = new PoolTracker(poolStats);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    public Optional<ConnectionPoolSnapshot> snapshot(String poolName) {
+        return Optional.ofNullable(trackers.get(poolName))
+                .map(tracker -> tracker.snapshot(poolName));
+    }
+
+    public Map<String, ConnectionPoolSnapshot> snapshots() {
+        Map<String, ConnectionPoolSnapshot> result = new TreeMap<>();
+        trackers.forEach((name, tracker) -> result.put(name, tracker.snapshot(name)));
+        return result;
+    }
+
+    private static class PoolTracker implements IMetricsTracker {
+
+        private final PoolStats poolStats;
+        private final WaitTimeHistogram waitTimes = new WaitTimeHistogram();
+        private final LongAdder timeouts = new LongAdder();
+
+        PoolTracker(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            waitTimes.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        ConnectionPoolSnapshot snapshot(String poolName) {
+            return new ConnectionPoolSnapshot(
+                    poolName,
+                    poolStats.getActiveConnections(),
+                    poolStats.getIdleConnections(),
+                    poolStats.getTotalConnections(),
+                    poolStats.getPendingThreads(),
+                    timeouts.sum(),
+                    waitTimes.getCount(),
+                    waitTimes.getAverageMicros(),
+                    waitTimes.getMaxMicros(),
+                    waitTimes.getBucketUpperBoundsMicros(),
+                    waitTimes.getBucketCounts()
+            );
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.gym_project.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ConnectionPoolSnapshot {
+
+    private final String poolName;
+
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int pendingThreads;
+
+    private final long connectionTimeouts;
+
+    private final long acquisitions;
+    private final long averageWaitMicros;
+    private final long maxWaitMicros;
+    private final long[] waitBucketUpperBoundsMicros;
+    private final long[] waitBucketCounts;
+}
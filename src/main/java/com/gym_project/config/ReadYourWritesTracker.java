@@ -0,0 +1,74 @@
+package com.gym_project.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Remembers which authenticated users committed a write in the last {@code windowMs}, so that
+ * their following reads are served by the primary instead of a replica that may not have
+ * replayed the write yet. A window of 0 disables the guarantee.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(@Value("${db.replicas.read-your-writes-ms}") long windowMs,
+                                 @Value("${db.replicas.read-your-writes-max-users}") long maxEntries) {
+        this.recentWriters = windowMs > 0
+                ? Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .maximumSize(maxEntries)
+                .build()
+                : null;
+    }
+
+    public boolean hasRecentWrite() {
+        return recentWriters != null
+                && currentPrincipal().map(recentWriters::getIfPresent).isPresent();
+    }
+
+    public void recordWrite() {
+        currentPrincipal().ifPresent(this::recordWrite);
+    }
+
+    /**
+     * Records a write by {@code principal}, for reactive pipelines where the authentication is
+     * not on the {@code SecurityContextHolder}.
+     */
+    public void recordWrite(String principal) {
+        if (recentWriters != null) {
+            recentWriters.put(principal, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Records the write once the surrounding transaction commits; a rollback leaves nothing
+     * for the replica to catch up on.
+     */
+    void recordWriteOnCommit() {
+        if (recentWriters == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite();
+            }
+        });
+    }
+
+    private static Optional<String> currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return Optional.ofNullable(authentication).map(Authentication::getName);
+    }
+}
@@ -0,0 +1,124 @@
+package com.gym_project.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas behind {@link ReplicaRoutingDataSource}, with their replication lag.
+ * <p>
+ * Lag is sampled on a fixed delay; a replica only receives reads while it is reachable and
+ * its lag is within {@code maxLagMs}. Replicas start out excluded until the first check has
+ * run, so a cold start never reads stale data. Healthy replicas are handed out round-robin.
+ */
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+
+    /**
+     * Milliseconds since the last replayed transaction, or 0 when the replica has replayed
+     * everything it received (an idle primary must not make a caught-up replica look stale).
+     */
+    static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+                    "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                    "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSet(Map<String, DataSource> replicas, long maxLagMs) {
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxLagMs = maxLagMs;
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    public Map<Object, Object> targets() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        replicas.forEach(replica -> targets.put(replica.name, replica.dataSource));
+        return targets;
+    }
+
+    /**
+     * Next healthy replica in round-robin order, or empty when reads must go to the primary.
+     */
+    public Optional<String> pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return Optional.of(replica.name);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${db.replicas.health-check-interval-ms}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+
+                rs.next();
+                replica.lagMs = rs.getLong(1);
+                replica.healthy = replica.lagMs <= maxLagMs;
+            } catch (SQLException e) {
+                replica.lagMs = -1;
+                replica.healthy = false;
+                log.debug("Lag check failed for replica {}: {}", replica.name, e.getMessage());
+            }
+
+            if (wasHealthy != replica.healthy) {
+                log.warn("Replica {} is now {} (lag {} ms, limit {} ms)",
+                        replica.name, replica.healthy ? "in rotation" : "out of rotation", replica.lagMs, maxLagMs);
+            }
+        }
+    }
+
+    /**
+     * Last sampled lag per replica in milliseconds; -1 when the replica was unreachable.
+     */
+    public Map<String, Long> lagSnapshot() {
+        Map<String, Long> lag = new LinkedHashMap<>();
+        replicas.forEach(replica -> lag.put(replica.name, replica.lagMs));
+        return lag;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMs = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
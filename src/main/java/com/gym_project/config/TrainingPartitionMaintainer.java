@@ -0,0 +1,235 @@
+package com.gym_project.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code trainings} (see {@code V4__partition_trainings_by_month})
+ * rolling: partitions for the next {@code months-ahead} months are created in advance, and
+ * partitions older than {@code retention-months} are detached and moved to the archive schema,
+ * where they stay queryable but no longer take part in planning. A retention of 0 keeps
+ * everything attached.
+ * <p>
+ * Rows whose month had no partition yet (future-dated trainings at migration time, or rows
+ * inserted past the created window) sit in the default partition. PostgreSQL refuses to create a
+ * partition whose range the default partition holds rows for, so such a month is created by
+ * moving its rows out of the default partition into a standalone table and attaching that, in one
+ * transaction. Every month found in the default partition is created this way, not only the
+ * months in the window.
+ * <p>
+ * Runs once right after startup and then on a fixed delay. Other statements are autocommitted,
+ * so a failure only skips that partition.
+ */
+@Slf4j
+@Component
+@DependsOn("flyway")
+public class TrainingPartitionMaintainer {
+
+    static final String PARENT_TABLE = "trainings";
+    static final String DEFAULT_PARTITION = "trainings_default";
+
+    private static final String COLUMNS =
+            "id, trainee_id, trainer_id, training_type_id, training_name, training_date, training_duration";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("trainings_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final DataSource dataSource;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String archiveSchema;
+    private final Clock clock;
+
+    @Autowired
+    public TrainingPartitionMaintainer(DataSource dataSource,
+                                       @Value("${trainings.partitions.months-ahead}") int monthsAhead,
+                                       @Value("${trainings.partitions.retention-months}") int retentionMonths,
+                                       @Value("${trainings.partitions.archive-schema}") String archiveSchema) {
+        this(dataSource, monthsAhead, retentionMonths, archiveSchema, Clock.systemDefaultZone());
+    }
+
+    TrainingPartitionMaintainer(DataSource dataSource, int monthsAhead, int retentionMonths,
+                                String archiveSchema, Clock clock) {
+        if (monthsAhead < 0 || retentionMonths < 0) {
+            throw new IllegalArgumentException("Partition months-ahead and retention-months must not be negative");
+        }
+        this.dataSource = dataSource;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveSchema = archiveSchema;
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${trainings.partitions.maintenance-interval-ms}")
+    public void maintain() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            List<YearMonth> existing = findPartitions(statement);
+            List<YearMonth> inDefault = findMonthsInDefault(statement);
+            YearMonth current = YearMonth.now(clock);
+
+            int created = 0;
+            for (YearMonth month : monthsToCreate(current, existing, inDefault)) {
+                boolean done = inDefault.contains(month)
+                        ? moveOutOfDefault(connection, month)
+                        : execute(statement, createSql(month));
+                created += done ? 1 : 0;
+            }
+
+            int archived = 0;
+            List<YearMonth> expired = monthsToArchive(current, existing);
+            if (!expired.isEmpty()) {
+                execute(statement, "CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+                for (YearMonth month : expired) {
+                    if (execute(statement, detachSql(month))) {
+                        archived += execute(statement, archiveSql(month)) ? 1 : 0;
+                    }
+                }
+            }
+
+            log.info("Training partitions maintained: {} existing, {} created, {} archived",
+                    existing.size(), created, archived);
+        } catch (SQLException e) {
+            log.error("Training partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    List<YearMonth> monthsToCreate(YearMonth current, List<YearMonth> existing, List<YearMonth> inDefault) {
+        TreeSet<YearMonth> months = new TreeSet<>(inDefault);
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(current.plusMonths(i));
+        }
+        months.removeAll(existing);
+        return List.copyOf(months);
+    }
+
+    List<YearMonth> monthsToArchive(YearMonth current, List<YearMonth> existing) {
+        if (retentionMonths == 0) {
+            return List.of();
+        }
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        return existing.stream()
+                .filter(month -> month.isBefore(oldestKept))
+                .sorted()
+                .toList();
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARENT_TABLE + "_p" + month.format(NAME_FORMAT);
+    }
+
+    static Optional<YearMonth> parsePartitionName(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+    }
+
+    static String createSql(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + PARENT_TABLE
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    /**
+     * Statements that create the month's partition from the rows it already has in the default
+     * partition; they must run in one transaction.
+     */
+    static List<String> moveOutOfDefaultSql(YearMonth month) {
+        String partition = partitionName(month);
+        return List.of(
+                "CREATE TABLE " + partition + " (LIKE " + PARENT_TABLE + " INCLUDING DEFAULTS)",
+                "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                        + " WHERE training_date >= '" + month.atDay(1) + "'"
+                        + " AND training_date < '" + month.plusMonths(1).atDay(1) + "'"
+                        + " RETURNING " + COLUMNS + ") "
+                        + "INSERT INTO " + partition + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved",
+                "ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + partition
+                        + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    static String detachSql(YearMonth month) {
+        return "ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partitionName(month);
+    }
+
+    String archiveSql(YearMonth month) {
+        return "ALTER TABLE " + partitionName(month) + " SET SCHEMA " + archiveSchema;
+    }
+
+    private List<YearMonth> findPartitions(Statement statement) throws SQLException {
+        List<YearMonth> months = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = '" + PARENT_TABLE + "' AND p.relnamespace = current_schema()::regnamespace")) {
+            while (rs.next()) {
+                parsePartitionName(rs.getString(1)).ifPresent(months::add);
+            }
+        }
+        return months;
+    }
+
+    private List<YearMonth> findMonthsInDefault(Statement statement) throws SQLException {
+        List<YearMonth> months = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT DISTINCT to_char(training_date, 'YYYY_MM') FROM " + DEFAULT_PARTITION)) {
+            while (rs.next()) {
+                months.add(YearMonth.parse(rs.getString(1), NAME_FORMAT));
+            }
+        }
+        return months;
+    }
+
+    private boolean moveOutOfDefault(Connection connection, YearMonth month) {
+        try {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : moveOutOfDefaultSql(month)) {
+                    statement.execute(sql);
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                log.warn("Moving {} out of the default partition failed: {}", partitionName(month), e.getMessage());
+                return false;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.warn("Moving {} out of the default partition failed: {}", partitionName(month), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean execute(Statement statement, String sql) {
+        try {
+            statement.execute(sql);
+            return true;
+        } catch (SQLException e) {
+            log.warn("Partition maintenance statement failed [{}]: {}", sql, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.gym_project.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WaitTimeHistogram {
+
+    private static final long[] BUCKET_UPPER_BOUNDS_MICROS =
+            {100, 500, 1_000, 5_000, 10_000, 50_000, 100_000, 500_000, 1_000_000, 5_000_000};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_UPPER_BOUNDS_MICROS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public WaitTimeHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long elapsedNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+
+        int index = 0;
+        while (index < BUCKET_UPPER_BOUNDS_MICROS.length && micros > BUCKET_UPPER_BOUNDS_MICROS[index]) {
+            index++;
+        }
+
+        buckets[index].increment();
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getAverageMicros() {
+        long samples = count.sum();
+        return samples == 0 ? 0 : totalMicros.sum() / samples;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Upper bounds of the buckets in microseconds; the last bucket returned by
+     * {@link #getBucketCounts()} has no upper bound.
+     */
+    public long[] getBucketUpperBoundsMicros() {
+        return BUCKET_UPPER_BOUNDS_MICROS.clone();
+    }
+
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+}
@@ -12,4 +12,8 @@ public class TraineeTrainingFilterDto {
     private LocalDate toDate;
     private String trainerName;
     private String trainingTypeName;
-}
\ No newline at end of file
+
+    private LocalDate cursorDate;
+    private Long cursorId;
+    private Integer pageSize;
+}
@@ -11,4 +11,8 @@ public class TrainerTrainingFilterDto {
     private LocalDate fromDate;
     private LocalDate toDate;
     private String traineeName;
-}
\ No newline at end of file
+
+    private LocalDate cursorDate;
+    private Long cursorId;
+    private Integer pageSize;
+}
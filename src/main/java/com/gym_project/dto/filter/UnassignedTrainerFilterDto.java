@@ -0,0 +1,14 @@
+package com.gym_project.dto.filter;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class UnassignedTrainerFilterDto {
+    private String specialization;
+    private boolean activeOnly;
+
+    private String cursorUsername;
+    private Integer pageSize;
+}
@@ -0,0 +1,21 @@
+package com.gym_project.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Rows removed by deleting a trainee or trainer together with everything that depends on it.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletionResultDto {
+    private long trainings;
+    private int trainerTraineeLinks;
+    private int users;
+}
@@ -0,0 +1,48 @@
+package com.gym_project.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) paginated listing. The next page is requested by passing
+ * the sort key of the last element of {@link #getContent()} back as the cursor.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PageDto<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final List<T> content;
+    private final boolean hasNext;
+
+    /**
+     * Builds a page from a query that fetched {@code pageSize + 1} rows; the extra row only
+     * signals that another page exists and is dropped.
+     */
+    public static <T> PageDto<T> of(List<T> rows, int pageSize) {
+        if (rows.size() > pageSize) {
+            return new PageDto<>(List.copyOf(rows.subList(0, pageSize)), true);
+        }
+        return new PageDto<>(List.copyOf(rows), false);
+    }
+
+    public static int resolvePageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (requested <= 0 || requested > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return requested;
+    }
+
+    public T getLast() {
+        return content.isEmpty() ? null : content.get(content.size() - 1);
+    }
+}
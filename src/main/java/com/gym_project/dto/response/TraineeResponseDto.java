@@ -18,6 +18,13 @@ public class TraineeResponseDto {
     private String lastName;
     private boolean active;
 
+    /**
+     * The generated password, set only on the response to {@code create}; it is stored
+     * hashed and cannot be read back later.
+     */
+    @ToString.Exclude
+    private String password;
+
     private LocalDate dateOfBirth;
     private String address;
 
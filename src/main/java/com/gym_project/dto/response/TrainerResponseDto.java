@@ -16,6 +16,13 @@ public class TrainerResponseDto {
     private String lastName;
     private boolean active;
 
+    /**
+     * The generated password, set only on the response to {@code create}; it is stored
+     * hashed and cannot be read back later.
+     */
+    @ToString.Exclude
+    private String password;
+
     private String specialization;
 
     private Set<String> traineeUsernames;
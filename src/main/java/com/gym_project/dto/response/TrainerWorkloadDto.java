@@ -0,0 +1,22 @@
+package com.gym_project.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.YearMonth;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrainerWorkloadDto {
+    private String trainerUsername;
+    private YearMonth month;
+
+    private long totalMinutes;
+    private int trainingCount;
+}
@@ -0,0 +1,16 @@
+package com.gym_project.entity;
+
+/**
+ * Second-level cache region names. Each region is created as its own JCache cache
+ * in {@code ApplicationConfig}, so size and TTL can be tuned per region.
+ */
+public final class CacheRegions {
+
+    public static final String USERS = "users";
+    public static final String USER_NATURAL_IDS = "users.natural-ids";
+    public static final String TRAINER_TRAINEES = "trainer.trainees";
+    public static final String TRAINEE_TRAINERS = "trainee.trainers";
+
+    private CacheRegions() {
+    }
+}
@@ -3,6 +3,9 @@ package com.gym_project.entity;
 import javax.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.Set;
@@ -24,6 +27,8 @@ public class Trainee extends User{
     private Set<Training> trainings;
 
     @ManyToMany(mappedBy = "trainees")
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TRAINEE_TRAINERS)
     private Set<Trainer> trainers;
 
 }
@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -26,10 +29,14 @@ public class Trainer extends User{
     private Set<Training> trainings = new HashSet<>();
 
     @ManyToMany
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TRAINER_TRAINEES)
     @JoinTable(
             name = "trainer_trainee",
             joinColumns = @JoinColumn(name = "trainer_id"),
-            inverseJoinColumns = @JoinColumn(name = "trainee_id")
+            inverseJoinColumns = @JoinColumn(name = "trainee_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_trainer_trainee",
+                    columnNames = {"trainer_id", "trainee_id"})
     )
     private Set<Trainee> trainees = new HashSet<>();
 }
\ No newline at end of file
@@ -14,7 +14,8 @@ import java.util.Set;
 public class TrainingType {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "training_types_seq")
+    @SequenceGenerator(name = "training_types_seq", sequenceName = "training_types_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "training_type_name", nullable = false)
@@ -0,0 +1,29 @@
+package com.gym_project.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Next free numeric suffix for a "firstName.lastName" username base. Suffix 0 stands
+ * for the bare base itself.
+ */
+@Entity
+@Table(name = "username_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UsernameCounter {
+
+    @Id
+    @Column(name = "base", nullable = false)
+    private String base;
+
+    @Column(name = "next_suffix", nullable = false)
+    private long nextSuffix;
+}
@@ -25,13 +25,7 @@ public class TrainerMapper {
 
     public static TrainerResponseDto toDto(Trainer trainer) {
 
-        TrainerResponseDto dto = new TrainerResponseDto();
-
-        dto.setUsername(trainer.getUsername());
-        dto.setFirstName(trainer.getFirstName());
-        dto.setLastName(trainer.getLastName());
-        dto.setActive(trainer.isActive());
-        dto.setSpecialization(trainer.getSpecialization());
+        TrainerResponseDto dto = toSummaryDto(trainer);
 
         if (trainer.getTrainees() != null) {
             dto.setTraineeUsernames(
@@ -46,6 +40,23 @@ public class TrainerMapper {
         return dto;
     }
 
+    /**
+     * Maps the trainer's own fields only and leaves {@code traineeUsernames} unset,
+     * so the lazy trainees collection is not initialized.
+     */
+    public static TrainerResponseDto toSummaryDto(Trainer trainer) {
+
+        TrainerResponseDto dto = new TrainerResponseDto();
+
+        dto.setUsername(trainer.getUsername());
+        dto.setFirstName(trainer.getFirstName());
+        dto.setLastName(trainer.getLastName());
+        dto.setActive(trainer.isActive());
+        dto.setSpecialization(trainer.getSpecialization());
+
+        return dto;
+    }
+
     public static void updateEntity(Trainer trainer, TrainerUpdateDto dto) {
 
         if (dto.getFirstName() != null) {
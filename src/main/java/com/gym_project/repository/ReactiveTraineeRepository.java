@@ -0,0 +1,22 @@
+package com.gym_project.repository;
+
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking reads of trainees over R2DBC, on the main database only.
+ */
+public interface ReactiveTraineeRepository {
+
+    Mono<Long> findIdByUsername(String username);
+
+    Mono<TraineeResponseDto> findProfileByUsername(String username);
+
+    /**
+     * Trainings matching the filter, newest first; rows are fetched from the database as they are requested.
+     */
+    Flux<TrainingResponseDto> findTrainingsByTraineeAndFilter(String traineeUsername, TraineeTrainingFilterDto filter);
+}
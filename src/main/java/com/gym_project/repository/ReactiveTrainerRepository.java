@@ -0,0 +1,31 @@
+package com.gym_project.repository;
+
+import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking access to trainers over R2DBC, on the main database only.
+ */
+public interface ReactiveTrainerRepository {
+
+    Mono<Long> findIdByUsername(String username);
+
+    Mono<TrainerResponseDto> findProfileByUsername(String username);
+
+    /**
+     * Trainings matching the filter, newest first; rows are fetched from the database as they are requested.
+     */
+    Flux<TrainingResponseDto> findTrainingsByTrainerAndFilter(String trainerUsername, TrainerTrainingFilterDto filter);
+
+    /**
+     * Links the pair unless it is already linked; emits whether a row was inserted.
+     */
+    Mono<Boolean> linkTrainee(Long trainerId, Long traineeId);
+
+    Mono<Void> addToWorkload(Long trainerId, LocalDate trainingDate, long minutes, int trainings);
+}
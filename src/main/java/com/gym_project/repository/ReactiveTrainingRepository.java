@@ -0,0 +1,19 @@
+package com.gym_project.repository;
+
+import com.gym_project.sharding.TrainingRow;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking writes of trainings over R2DBC, on the main database only.
+ */
+public interface ReactiveTrainingRepository {
+
+    /**
+     * Next id from {@code trainings_seq}, allocated in the same blocks as Hibernate uses.
+     */
+    Mono<Long> nextId();
+
+    Mono<Void> insert(TrainingRow row);
+
+    Mono<String> findTrainingTypeName(Long trainingTypeId);
+}
@@ -1,8 +1,13 @@
 package com.gym_project.repository;
 
 import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.entity.Trainee;
 import com.gym_project.entity.Training;
+import com.gym_project.security.UserCredentials;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -10,6 +15,7 @@ import javax.persistence.PersistenceContext;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,24 +31,51 @@ public interface TraineeRepository {
 
     List<Trainee> findAll();
 
-    List<Trainee> findByAddress(String address);
+    /**
+     * Up to {@code limit} trainees ordered by username, after {@code afterUsername} when given,
+     * with their trainers already loaded.
+     */
+    List<Trainee> findPage(String afterUsername, int limit);
 
-    Optional<Trainee> findByUsernameAndPassword(String username, String password);
+    List<Trainee> findByAddress(String address);
 
     Optional<Trainee> findByUsername(String username);
 
+    /**
+     * The trainee's profile with trainer usernames, read through JPA or plain JDBC
+     * depending on {@code repository.read-path}.
+     */
+    Optional<TraineeResponseDto> findProfileByUsername(String username);
+
+    Optional<UserCredentials> findCredentialsByUsername(String username);
+
     boolean existsByUsername(String username);
 
-    List<String> findUsernamesStartingWith(String prefix);
+    int activate(String username);
 
-    void activate(String username);
+    int activate(Collection<String> usernames);
 
-    void deactivate(String username);
+    int deactivate(String username);
 
-    void deleteByUsername(String username);
+    int deactivate(Collection<String> usernames);
 
-    void changePassword(String username, String newPassword);
+    /**
+     * Deletes the trainee with its trainings and trainer/trainee links using one statement per table;
+     * returns an empty result when there is no such trainee.
+     */
+    DeletionResultDto deleteByUsername(String username);
+
+    /**
+     * Deletes the trainee with its trainings and trainer/trainee links using one statement per table.
+     */
+    DeletionResultDto deleteCascading(Trainee trainee);
+
+    int changePassword(String username, String newPassword);
 
     List<Training> findTrainingsByTraineeAndFilter(String traineeUsername, TraineeTrainingFilterDto filter);
 
+    List<TrainingResponseDto> findTrainingDtosByTraineeAndFilter(String traineeUsername, TraineeTrainingFilterDto filter);
+
+    PageDto<TrainingResponseDto> findTrainingDtoPageByTraineeAndFilter(String traineeUsername, TraineeTrainingFilterDto filter);
+
 }
\ No newline at end of file
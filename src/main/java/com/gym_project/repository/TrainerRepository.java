@@ -1,12 +1,20 @@
 package com.gym_project.repository;
 
 import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.filter.UnassignedTrainerFilterDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.entity.Trainer;
 import com.gym_project.entity.Training;
+import com.gym_project.security.UserCredentials;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface TrainerRepository {
 
@@ -20,23 +28,63 @@ public interface TrainerRepository {
 
     List<Trainer> findAll();
 
-    List<Trainer> findBySpecialization(String specialization);
+    /**
+     * Up to {@code limit} trainers ordered by username, after {@code afterUsername} when given,
+     * with their trainees already loaded.
+     */
+    List<Trainer> findPage(String afterUsername, int limit);
 
-    Optional<Trainer> findByUsernameAndPassword(String username, String password);
+    List<Trainer> findBySpecialization(String specialization);
 
     Optional<Trainer> findByUsername(String username);
 
-    void changePassword(String username, String newPassword);
+    /**
+     * The trainer's profile with trainee usernames, read through JPA or plain JDBC
+     * depending on {@code repository.read-path}.
+     */
+    Optional<TrainerResponseDto> findProfileByUsername(String username);
+
+    Optional<UserCredentials> findCredentialsByUsername(String username);
+
+    int changePassword(String username, String newPassword);
+
+    int activate(String username);
+
+    int activate(Collection<String> usernames);
+
+    int deactivate(String username);
 
-    void activate(String username);
+    int deactivate(Collection<String> usernames);
 
-    void deactivate(String username);
+    /**
+     * Deletes the trainer with its trainings and trainer/trainee links using one statement per table;
+     * returns an empty result when there is no such trainer.
+     */
+    DeletionResultDto deleteByUsername(String username);
 
-    void deleteByUsername(String username);
+    /**
+     * Deletes the trainer with its trainings and trainer/trainee links using one statement per table.
+     */
+    DeletionResultDto deleteCascading(Trainer trainer);
 
-    List<Trainer> findUnassignedTrainersByTraineeUsername(String traineeUsername);
+    PageDto<TrainerResponseDto> findUnassignedTrainerPage(Long traineeId, UnassignedTrainerFilterDto filter);
 
-    List<String> findUsernamesStartingWith(String base);
+    List<Trainer> findByUsernames(Collection<String> usernames);
+
+    Set<Long> findTrainerIdsByTraineeId(Long traineeId);
+
+    void linkTrainers(Long traineeId, Collection<Long> trainerIds);
+
+    /**
+     * Links the pair unless it is already linked; returns whether a row was inserted.
+     */
+    boolean linkTrainee(Long trainerId, Long traineeId);
+
+    void unlinkTrainers(Long traineeId, Collection<Long> trainerIds);
 
     List<Training> findTrainingsByTrainerAndFilter(String trainerUsername, TrainerTrainingFilterDto filter);
+
+    List<TrainingResponseDto> findTrainingDtosByTrainerAndFilter(String trainerUsername, TrainerTrainingFilterDto filter);
+
+    PageDto<TrainingResponseDto> findTrainingDtoPageByTrainerAndFilter(String trainerUsername, TrainerTrainingFilterDto filter);
 }
\ No newline at end of file
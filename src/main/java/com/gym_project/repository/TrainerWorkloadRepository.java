@@ -0,0 +1,30 @@
+package com.gym_project.repository;
+
+import com.gym_project.dto.response.TrainerWorkloadDto;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Monthly training totals per trainer, kept in step with {@code trainings} by the training write
+ * paths, which call it inside their own transaction.
+ */
+public interface TrainerWorkloadRepository {
+
+    /**
+     * Adds the given deltas to the trainer's total for the month of {@code trainingDate};
+     * negative deltas take a training back out.
+     */
+    void add(Long trainerId, LocalDate trainingDate, long minutes, int trainings);
+
+    /**
+     * Takes all trainings of the trainee out of the totals; call before the trainings are deleted.
+     */
+    void subtractTraineeTrainings(Long traineeId);
+
+    Optional<TrainerWorkloadDto> findByTrainerAndMonth(String trainerUsername, YearMonth month);
+
+    List<TrainerWorkloadDto> findByTrainer(String trainerUsername);
+}
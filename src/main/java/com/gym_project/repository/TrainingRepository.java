@@ -1,5 +1,6 @@
 package com.gym_project.repository;
 
+import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.entity.Training;
 import com.gym_project.entity.Trainee;
 import com.gym_project.entity.Trainer;
@@ -8,6 +9,7 @@ import com.gym_project.entity.TrainingType;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TrainingRepository {
 
@@ -15,6 +17,13 @@ public interface TrainingRepository {
 
     Training update(Training training);
 
+    /**
+     * Like {@link #update(Training)}, for a training that may have been moved away from
+     * {@code previousTrainerId}: when the new trainer's trainings live on another shard, the
+     * training is inserted there under the same id and deleted from the old shard.
+     */
+    Training update(Training training, Long previousTrainerId);
+
     void delete(Training training);
 
     Optional<Training> findById(Long id);
@@ -30,4 +39,10 @@ public interface TrainingRepository {
     List<Training> findByDate(LocalDate date);
 
     List<Training> findByDateRange(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Streams every training to {@code action} through a stateless session, without building a
+     * persistence context; returns the number of trainings visited.
+     */
+    long scanAll(Consumer<TrainingResponseDto> action);
 }
\ No newline at end of file
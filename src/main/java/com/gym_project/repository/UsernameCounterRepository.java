@@ -0,0 +1,23 @@
+package com.gym_project.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UsernameCounterRepository {
+
+    /**
+     * Advances an existing counter by {@code blockSize} and returns its new value,
+     * or an empty result when there is no counter for the base yet.
+     */
+    Optional<Long> incrementIfPresent(String base, int blockSize);
+
+    /**
+     * Creates the counter with {@code initialValue}, or advances it by {@code blockSize}
+     * when another node created it first, and returns the resulting value.
+     */
+    long insertOrIncrement(String base, long initialValue, int blockSize);
+
+    List<String> findUsernamesStartingWith(String base);
+
+    boolean usernameExists(String username);
+}
@@ -0,0 +1,243 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Plain JDBC implementation of the hottest read paths: training listings and profile lookups.
+ * <p>
+ * Selected with {@code repository.read-path=jdbc}. Rows are mapped straight from the
+ * {@link ResultSet} into response DTOs, so no entities, proxies or persistence-context entries
+ * are created. Statements run on the connection of the current Hibernate session and therefore
+ * take part in its transaction (and replica routing), but they do not see changes that are still
+ * pending in the persistence context.
+ */
+@Component
+public class JdbcReads {
+
+    static final String JPA = "jpa";
+    static final String JDBC = "jdbc";
+
+    static final String TRAINING_SELECT =
+            "SELECT tr.id, te.username, t.username, tt.training_type_name, " +
+                    "tr.training_name, tr.training_date, tr.training_duration " +
+                    "FROM trainings tr " +
+                    "JOIN users te ON te.id = tr.trainee_id " +
+                    "JOIN users t ON t.id = tr.trainer_id " +
+                    "JOIN training_types tt ON tt.id = tr.training_type_id";
+
+    static final String TRAINEE_PROFILE_SQL =
+            "SELECT u.username, u.first_name, u.last_name, u.is_active, te.date_of_birth, te.address, tu.username " +
+                    "FROM users u JOIN trainees te ON te.id = u.id " +
+                    "LEFT JOIN trainer_trainee l ON l.trainee_id = te.id " +
+                    "LEFT JOIN users tu ON tu.id = l.trainer_id " +
+                    "WHERE u.username = ?";
+
+    static final String TRAINER_PROFILE_SQL =
+            "SELECT u.username, u.first_name, u.last_name, u.is_active, t.specialization, tu.username " +
+                    "FROM users u JOIN trainers t ON t.id = u.id " +
+                    "LEFT JOIN trainer_trainee l ON l.trainer_id = t.id " +
+                    "LEFT JOIN users tu ON tu.id = l.trainee_id " +
+                    "WHERE u.username = ?";
+
+    private static final String PAGE_CURSOR =
+            " AND (tr.training_date < ? OR (tr.training_date = ? AND tr.id < ?))";
+
+    private static final String PAGE_ORDER = " ORDER BY tr.training_date DESC, tr.id DESC LIMIT ?";
+
+    private final boolean enabled;
+    private final int fetchSize;
+
+    public JdbcReads(@Value("${repository.read-path}") String readPath,
+                     @Value("${repository.jdbc.fetch-size}") int fetchSize) {
+        if (!JPA.equals(readPath) && !JDBC.equals(readPath)) {
+            throw new IllegalArgumentException("Unsupported repository read path: " + readPath);
+        }
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("JDBC fetch size must be positive");
+        }
+        this.enabled = JDBC.equals(readPath);
+        this.fetchSize = fetchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Trainings of a trainee on the main database. With a {@code limit} the rows are the newest
+     * ones past the filter's cursor; without one the cursor is ignored and the order is unspecified.
+     */
+    public List<TrainingResponseDto> findTraineeTrainings(EntityManager entityManager, String traineeUsername,
+                                                          TraineeTrainingFilterDto filter, Integer limit) {
+        StringBuilder sql = new StringBuilder(TRAINING_SELECT).append(" WHERE te.username = ?");
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(traineeUsername);
+
+        appendDateRange(sql, parameters, filter.getFromDate(), filter.getToDate());
+        if (filter.getTrainerName() != null && !filter.getTrainerName().isBlank()) {
+            appendNameCondition(sql, parameters, "t", filter.getTrainerName());
+        }
+        if (filter.getTrainingTypeName() != null && !filter.getTrainingTypeName().isBlank()) {
+            sql.append(" AND tt.training_type_name = ?");
+            parameters.add(filter.getTrainingTypeName());
+        }
+        appendPage(sql, parameters, filter.getCursorDate(), filter.getCursorId(), limit);
+
+        return queryTrainings(entityManager, sql.toString(), parameters);
+    }
+
+    /**
+     * Trainings of a trainer on the main database; see {@link #findTraineeTrainings} for {@code limit}.
+     */
+    public List<TrainingResponseDto> findTrainerTrainings(EntityManager entityManager, String trainerUsername,
+                                                          TrainerTrainingFilterDto filter, Integer limit) {
+        StringBuilder sql = new StringBuilder(TRAINING_SELECT).append(" WHERE t.username = ?");
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(trainerUsername);
+
+        appendDateRange(sql, parameters, filter.getFromDate(), filter.getToDate());
+        if (filter.getTraineeName() != null && !filter.getTraineeName().isBlank()) {
+            appendNameCondition(sql, parameters, "te", filter.getTraineeName());
+        }
+        appendPage(sql, parameters, filter.getCursorDate(), filter.getCursorId(), limit);
+
+        return queryTrainings(entityManager, sql.toString(), parameters);
+    }
+
+    public Optional<TraineeResponseDto> findTraineeProfile(EntityManager entityManager, String username) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(TRAINEE_PROFILE_SQL)) {
+                statement.setFetchSize(fetchSize);
+                statement.setString(1, username);
+                try (ResultSet rs = statement.executeQuery()) {
+                    TraineeResponseDto dto = null;
+                    // one row per linked trainer, or a single row with a null trainer
+                    while (rs.next()) {
+                        if (dto == null) {
+                            dto = new TraineeResponseDto();
+                            dto.setUsername(rs.getString(1));
+                            dto.setFirstName(rs.getString(2));
+                            dto.setLastName(rs.getString(3));
+                            dto.setActive(rs.getBoolean(4));
+                            dto.setDateOfBirth(rs.getObject(5, LocalDate.class));
+                            dto.setAddress(rs.getString(6));
+                            dto.setTrainerUsernames(new HashSet<>());
+                        }
+                        String trainer = rs.getString(7);
+                        if (trainer != null) {
+                            dto.getTrainerUsernames().add(trainer);
+                        }
+                    }
+                    return Optional.ofNullable(dto);
+                }
+            }
+        });
+    }
+
+    public Optional<TrainerResponseDto> findTrainerProfile(EntityManager entityManager, String username) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(TRAINER_PROFILE_SQL)) {
+                statement.setFetchSize(fetchSize);
+                statement.setString(1, username);
+                try (ResultSet rs = statement.executeQuery()) {
+                    TrainerResponseDto dto = null;
+                    while (rs.next()) {
+                        if (dto == null) {
+                            dto = new TrainerResponseDto();
+                            dto.setUsername(rs.getString(1));
+                            dto.setFirstName(rs.getString(2));
+                            dto.setLastName(rs.getString(3));
+                            dto.setActive(rs.getBoolean(4));
+                            dto.setSpecialization(rs.getString(5));
+                            dto.setTraineeUsernames(new HashSet<>());
+                        }
+                        String trainee = rs.getString(6);
+                        if (trainee != null) {
+                            dto.getTraineeUsernames().add(trainee);
+                        }
+                    }
+                    return Optional.ofNullable(dto);
+                }
+            }
+        });
+    }
+
+    private List<TrainingResponseDto> queryTrainings(EntityManager entityManager, String sql, List<Object> parameters) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    List<TrainingResponseDto> trainings = new ArrayList<>();
+                    while (rs.next()) {
+                        trainings.add(toTrainingDto(rs));
+                    }
+                    return trainings;
+                }
+            }
+        });
+    }
+
+    private static TrainingResponseDto toTrainingDto(ResultSet rs) throws SQLException {
+        return new TrainingResponseDto(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getObject(6, LocalDate.class),
+                rs.getInt(7));
+    }
+
+    private static void appendDateRange(StringBuilder sql, List<Object> parameters, LocalDate from, LocalDate to) {
+        if (from != null) {
+            sql.append(" AND tr.training_date >= ?");
+            parameters.add(from);
+        }
+        if (to != null) {
+            sql.append(" AND tr.training_date <= ?");
+            parameters.add(to);
+        }
+    }
+
+    private static void appendNameCondition(StringBuilder sql, List<Object> parameters, String alias, String name) {
+        String pattern = NameSearch.pattern(name);
+        sql.append(" AND ").append(NameSearch.sqlCondition(alias, "?"));
+        parameters.add(pattern);
+        parameters.add(pattern);
+    }
+
+    private static void appendPage(StringBuilder sql, List<Object> parameters,
+                                   LocalDate cursorDate, Long cursorId, Integer limit) {
+        if (limit == null) {
+            return;
+        }
+        if (cursorDate != null) {
+            sql.append(PAGE_CURSOR);
+            parameters.add(cursorDate);
+            parameters.add(cursorDate);
+            parameters.add(cursorId);
+        }
+        sql.append(PAGE_ORDER);
+        parameters.add(limit);
+    }
+}
@@ -0,0 +1,40 @@
+package com.gym_project.repository.impl;
+
+import java.util.Locale;
+
+/**
+ * Case-insensitive substring match on a user's first or last name.
+ * <p>
+ * The condition compares {@code LOWER(column)} so that it lines up with the
+ * {@code gin_trgm_ops} expression indexes created by the {@code V7__trigram_name_indexes}
+ * migration; without those indexes it is still correct, just evaluated by scanning.
+ */
+final class NameSearch {
+
+    private NameSearch() {
+    }
+
+    static String condition(String alias, String parameter) {
+        return "(LOWER(" + alias + ".firstName) LIKE :" + parameter + " ESCAPE '\\'"
+                + " OR LOWER(" + alias + ".lastName) LIKE :" + parameter + " ESCAPE '\\')";
+    }
+
+    /**
+     * SQL form of {@link #condition} over the {@code users} columns, with the pattern bound at
+     * both occurrences of {@code marker} ({@code ?} for JDBC, {@code :name} for R2DBC).
+     */
+    static String sqlCondition(String alias, String marker) {
+        return "(LOWER(" + alias + ".first_name) LIKE " + marker + " ESCAPE '\\'"
+                + " OR LOWER(" + alias + ".last_name) LIKE " + marker + " ESCAPE '\\')";
+    }
+
+    static String pattern(String name) {
+        return "%" + escapeLike(name.trim().toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,86 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.repository.ReactiveTraineeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Repository
+public class ReactiveTraineeRepositoryImpl implements ReactiveTraineeRepository {
+
+    static final String PROFILE_SQL =
+            "SELECT u.username, u.first_name, u.last_name, u.is_active, te.date_of_birth, te.address, " +
+                    "ARRAY(SELECT tu.username FROM trainer_trainee l JOIN users tu ON tu.id = l.trainer_id " +
+                    "WHERE l.trainee_id = te.id) " +
+                    "FROM users u JOIN trainees te ON te.id = u.id WHERE u.username = :username";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveTraineeRepositoryImpl(DatabaseClient databaseClient,
+                                         @Value("${db.r2dbc.fetch-size}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Mono<Long> findIdByUsername(String username) {
+        return databaseClient.sql("SELECT te.id FROM trainees te JOIN users u ON u.id = te.id WHERE u.username = :username")
+                .bind("username", username)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    @Override
+    public Mono<TraineeResponseDto> findProfileByUsername(String username) {
+        return databaseClient.sql(PROFILE_SQL)
+                .bind("username", username)
+                .map(row -> {
+                    TraineeResponseDto dto = new TraineeResponseDto();
+                    dto.setUsername(row.get(0, String.class));
+                    dto.setFirstName(row.get(1, String.class));
+                    dto.setLastName(row.get(2, String.class));
+                    dto.setActive(Boolean.TRUE.equals(row.get(3, Boolean.class)));
+                    dto.setDateOfBirth(row.get(4, LocalDate.class));
+                    dto.setAddress(row.get(5, String.class));
+                    dto.setTrainerUsernames(new HashSet<>(Arrays.asList(row.get(6, String[].class))));
+                    return dto;
+                })
+                .one();
+    }
+
+    @Override
+    public Flux<TrainingResponseDto> findTrainingsByTraineeAndFilter(String traineeUsername,
+                                                                     TraineeTrainingFilterDto filter) {
+        StringBuilder sql = new StringBuilder(JdbcReads.TRAINING_SELECT).append(" WHERE te.username = :username");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("username", traineeUsername);
+
+        ReactiveTrainingQueries.appendDateRange(sql, parameters, filter.getFromDate(), filter.getToDate());
+        if (filter.getTrainerName() != null && !filter.getTrainerName().isBlank()) {
+            ReactiveTrainingQueries.appendNameCondition(sql, parameters, "t", "trainerName", filter.getTrainerName());
+        }
+        if (filter.getTrainingTypeName() != null && !filter.getTrainingTypeName().isBlank()) {
+            sql.append(" AND tt.training_type_name = :trainingTypeName");
+            parameters.put("trainingTypeName", filter.getTrainingTypeName());
+        }
+        sql.append(ReactiveTrainingQueries.NEWEST_FIRST);
+
+        // the fetch size makes the driver pull rows in batches as downstream demand arrives
+        return ReactiveTrainingQueries.bindAll(databaseClient.sql(sql.toString()), parameters)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveTrainingQueries::toDto)
+                .all();
+    }
+}
@@ -0,0 +1,110 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.repository.ReactiveTrainerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Repository
+public class ReactiveTrainerRepositoryImpl implements ReactiveTrainerRepository {
+
+    static final String PROFILE_SQL =
+            "SELECT u.username, u.first_name, u.last_name, u.is_active, t.specialization, " +
+                    "ARRAY(SELECT tu.username FROM trainer_trainee l JOIN users tu ON tu.id = l.trainee_id " +
+                    "WHERE l.trainer_id = t.id) " +
+                    "FROM users u JOIN trainers t ON t.id = u.id WHERE u.username = :username";
+
+    static final String LINK_SQL =
+            "INSERT INTO trainer_trainee (trainer_id, trainee_id) VALUES (:trainerId, :traineeId) ON CONFLICT DO NOTHING";
+
+    static final String WORKLOAD_SQL =
+            "INSERT INTO trainer_workload (trainer_id, workload_month, total_minutes, training_count) " +
+                    "VALUES (:trainerId, :month, :minutes, :trainings) " +
+                    "ON CONFLICT (trainer_id, workload_month) DO UPDATE SET " +
+                    "total_minutes = trainer_workload.total_minutes + EXCLUDED.total_minutes, " +
+                    "training_count = trainer_workload.training_count + EXCLUDED.training_count";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveTrainerRepositoryImpl(DatabaseClient databaseClient,
+                                         @Value("${db.r2dbc.fetch-size}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Mono<Long> findIdByUsername(String username) {
+        return databaseClient.sql("SELECT t.id FROM trainers t JOIN users u ON u.id = t.id WHERE u.username = :username")
+                .bind("username", username)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    @Override
+    public Mono<TrainerResponseDto> findProfileByUsername(String username) {
+        return databaseClient.sql(PROFILE_SQL)
+                .bind("username", username)
+                .map(row -> {
+                    TrainerResponseDto dto = new TrainerResponseDto();
+                    dto.setUsername(row.get(0, String.class));
+                    dto.setFirstName(row.get(1, String.class));
+                    dto.setLastName(row.get(2, String.class));
+                    dto.setActive(Boolean.TRUE.equals(row.get(3, Boolean.class)));
+                    dto.setSpecialization(row.get(4, String.class));
+                    dto.setTraineeUsernames(new HashSet<>(Arrays.asList(row.get(5, String[].class))));
+                    return dto;
+                })
+                .one();
+    }
+
+    @Override
+    public Flux<TrainingResponseDto> findTrainingsByTrainerAndFilter(String trainerUsername,
+                                                                     TrainerTrainingFilterDto filter) {
+        StringBuilder sql = new StringBuilder(JdbcReads.TRAINING_SELECT).append(" WHERE t.username = :username");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("username", trainerUsername);
+
+        ReactiveTrainingQueries.appendDateRange(sql, parameters, filter.getFromDate(), filter.getToDate());
+        if (filter.getTraineeName() != null && !filter.getTraineeName().isBlank()) {
+            ReactiveTrainingQueries.appendNameCondition(sql, parameters, "te", "traineeName", filter.getTraineeName());
+        }
+        sql.append(ReactiveTrainingQueries.NEWEST_FIRST);
+
+        return ReactiveTrainingQueries.bindAll(databaseClient.sql(sql.toString()), parameters)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveTrainingQueries::toDto)
+                .all();
+    }
+
+    @Override
+    public Mono<Boolean> linkTrainee(Long trainerId, Long traineeId) {
+        return databaseClient.sql(LINK_SQL)
+                .bind("trainerId", trainerId)
+                .bind("traineeId", traineeId)
+                .fetch()
+                .rowsUpdated()
+                .map(inserted -> inserted > 0);
+    }
+
+    @Override
+    public Mono<Void> addToWorkload(Long trainerId, LocalDate trainingDate, long minutes, int trainings) {
+        return databaseClient.sql(WORKLOAD_SQL)
+                .bind("trainerId", trainerId)
+                .bind("month", trainingDate.withDayOfMonth(1))
+                .bind("minutes", minutes)
+                .bind("trainings", trainings)
+                .then();
+    }
+}
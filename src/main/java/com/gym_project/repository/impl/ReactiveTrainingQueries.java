@@ -0,0 +1,58 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.response.TrainingResponseDto;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * SQL and row mapping shared by the reactive trainee and trainer repositories.
+ */
+final class ReactiveTrainingQueries {
+
+    static final String NEWEST_FIRST = " ORDER BY tr.training_date DESC, tr.id DESC";
+
+    private ReactiveTrainingQueries() {
+    }
+
+    static void appendDateRange(StringBuilder sql, Map<String, Object> parameters, LocalDate from, LocalDate to) {
+        if (from != null) {
+            sql.append(" AND tr.training_date >= :fromDate");
+            parameters.put("fromDate", from);
+        }
+        if (to != null) {
+            sql.append(" AND tr.training_date <= :toDate");
+            parameters.put("toDate", to);
+        }
+    }
+
+    static void appendNameCondition(StringBuilder sql, Map<String, Object> parameters,
+                                    String alias, String parameter, String name) {
+        sql.append(" AND ").append(NameSearch.sqlCondition(alias, ":" + parameter));
+        parameters.put(parameter, NameSearch.pattern(name));
+    }
+
+    static DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec,
+                                                     Map<String, Object> parameters) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec;
+    }
+
+    /**
+     * Maps a row selected with {@link JdbcReads#TRAINING_SELECT}.
+     */
+    static TrainingResponseDto toDto(Row row) {
+        return new TrainingResponseDto(
+                row.get(0, Long.class),
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, String.class),
+                row.get(4, String.class),
+                row.get(5, LocalDate.class),
+                row.get(6, Integer.class));
+    }
+}
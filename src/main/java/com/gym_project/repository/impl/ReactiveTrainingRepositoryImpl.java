@@ -0,0 +1,88 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.repository.ReactiveTrainingRepository;
+import com.gym_project.sharding.ShardedTrainingStore;
+import com.gym_project.sharding.TrainingRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Repository
+@RequiredArgsConstructor
+public class ReactiveTrainingRepositoryImpl implements ReactiveTrainingRepository {
+
+    static final String INSERT_SQL =
+            "INSERT INTO trainings (id, trainee_id, trainer_id, training_type_id, training_name, training_date, " +
+                    "training_duration) VALUES (:id, :traineeId, :trainerId, :trainingTypeId, :trainingName, " +
+                    ":trainingDate, :trainingDuration)";
+
+    private final DatabaseClient databaseClient;
+
+    private final AtomicReference<IdBlock> idBlock = new AtomicReference<>(new IdBlock(1, 0));
+
+    @Override
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            long id = idBlock.get().take();
+            if (id > 0) {
+                return Mono.just(id);
+            }
+            // concurrent callers may each fetch a block; the one replaced first only leaves a gap in the ids
+            return databaseClient.sql("SELECT nextval('trainings_seq')")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(hi -> {
+                        IdBlock block = new IdBlock(Math.max(hi - ShardedTrainingStore.ID_BLOCK_SIZE + 1, 1), hi);
+                        long first = block.take();
+                        idBlock.set(block);
+                        return first;
+                    });
+        });
+    }
+
+    @Override
+    public Mono<Void> insert(TrainingRow row) {
+        return databaseClient.sql(INSERT_SQL)
+                .bind("id", row.getId())
+                .bind("traineeId", row.getTraineeId())
+                .bind("trainerId", row.getTrainerId())
+                .bind("trainingTypeId", row.getTrainingTypeId())
+                .bind("trainingName", row.getTrainingName())
+                .bind("trainingDate", row.getTrainingDate())
+                .bind("trainingDuration", row.getTrainingDuration())
+                .then();
+    }
+
+    @Override
+    public Mono<String> findTrainingTypeName(Long trainingTypeId) {
+        return databaseClient.sql("SELECT training_type_name FROM training_types WHERE id = :id")
+                .bind("id", trainingTypeId)
+                .map(row -> row.get(0, String.class))
+                .one();
+    }
+
+    /**
+     * Ids {@code next..last} of one {@code trainings_seq} block, handed out without locking.
+     */
+    private static final class IdBlock {
+        private final AtomicLong next;
+        private final long last;
+
+        private IdBlock(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        /**
+         * The next id, or -1 once the block is used up.
+         */
+        long take() {
+            long id = next.getAndIncrement();
+            return id <= last ? id : -1;
+        }
+    }
+}
@@ -1,24 +1,53 @@
 package com.gym_project.repository.impl;
 
 import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
 import com.gym_project.entity.Training;
+import com.gym_project.entity.User;
+import com.gym_project.mapper.TraineeMapper;
 import com.gym_project.repository.TraineeRepository;
+import com.gym_project.security.UserCredentials;
+import com.gym_project.sharding.TrainingShardQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class TraineeRepositoryImpl implements TraineeRepository {
 
+    private static final String TRAINING_DTO_SELECT =
+            "SELECT new com.gym_project.dto.response.TrainingResponseDto(" +
+                    "tr.id, te.username, t.username, tt.trainingTypeName, " +
+                    "tr.trainingName, tr.trainingDate, tr.trainingDuration)";
+
+    private static final String TRAINING_FROM =
+            " FROM Training tr JOIN tr.trainee te JOIN tr.trainer t JOIN tr.trainingType tt";
+
+    private static final String TRAINING_PAGE_ORDER = " ORDER BY tr.trainingDate DESC, tr.id DESC";
+
     @PersistenceContext
     EntityManager entityManager;
 
+    private final TrainingShards trainingShards;
+
+    private final JdbcReads jdbcReads;
+
     @Transactional
     public void save(Trainee trainee) {
         entityManager.persist(trainee);
@@ -31,6 +60,7 @@ public class TraineeRepositoryImpl implements TraineeRepository {
 
     @Transactional
     public void delete(Trainee trainee) {
+        trainingShards.deleteTraineeTrainings(trainee.getId());
         entityManager.remove(entityManager.contains(trainee) ? trainee : entityManager.merge(trainee));
     }
 
@@ -46,6 +76,31 @@ public class TraineeRepositoryImpl implements TraineeRepository {
                 .getResultList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Trainee> findPage(String afterUsername, int limit) {
+        // page ids first: a fetch join combined with a row limit would be paged in memory
+        TypedQuery<Long> ids = entityManager.createQuery(
+                        "SELECT t.id FROM Trainee t" +
+                                (afterUsername == null ? "" : " WHERE t.username > :after") +
+                                " ORDER BY t.username", Long.class)
+                .setMaxResults(limit);
+        if (afterUsername != null) {
+            ids.setParameter("after", afterUsername);
+        }
+        List<Long> pageIds = ids.getResultList();
+        if (pageIds.isEmpty()) {
+            return List.of();
+        }
+
+        return entityManager.createQuery(
+                        "SELECT DISTINCT t FROM Trainee t LEFT JOIN FETCH t.trainers " +
+                                "WHERE t.id IN :ids ORDER BY t.username", Trainee.class)
+                .setParameter("ids", pageIds)
+                .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)
+                .getResultList();
+    }
+
 
     @Transactional(readOnly = true)
     public List<Trainee> findByAddress(String address) {
@@ -55,19 +110,30 @@ public class TraineeRepositoryImpl implements TraineeRepository {
     }
 
     @Transactional(readOnly = true)
-    public Optional<Trainee> findByUsernameAndPassword(String username, String password) {
-        return entityManager.createQuery(
-                        "SELECT t FROM Trainee t WHERE t.username = :username AND t.password = :password", Trainee.class)
-                .setParameter("username", username)
-                .setParameter("password", password)
-                .getResultStream()
-                .findFirst();
+    public Optional<Trainee> findByUsername(String username) {
+        // resolved through the persistence context and the natural-id cache before falling back to SQL
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username)
+                .filter(Trainee.class::isInstance)
+                .map(Trainee.class::cast);
     }
 
+    @Override
     @Transactional(readOnly = true)
-    public Optional<Trainee> findByUsername(String username) {
+    public Optional<TraineeResponseDto> findProfileByUsername(String username) {
+        if (jdbcReads.isEnabled()) {
+            return jdbcReads.findTraineeProfile(entityManager, username);
+        }
+        return findByUsername(username).map(TraineeMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserCredentials> findCredentialsByUsername(String username) {
         return entityManager.createQuery(
-                        "SELECT t FROM Trainee t WHERE t.username = :username", Trainee.class)
+                        "SELECT new com.gym_project.security.UserCredentials(t.username, t.password, t.isActive) " +
+                                "FROM Trainee t WHERE t.username = :username", UserCredentials.class)
                 .setParameter("username", username)
                 .getResultStream()
                 .findFirst();
@@ -86,77 +152,184 @@ public class TraineeRepositoryImpl implements TraineeRepository {
         return count > 0;
     }
 
+    @Transactional
+    public int changePassword(String username, String newPassword) {
+        return UserBulkUpdates.setPassword(entityManager, Trainee.class, "trainees", username, newPassword);
+    }
+
     @Transactional(readOnly = true)
-    public List<String> findUsernamesStartingWith(String prefix) {
-        return entityManager.createQuery(
-                        "SELECT t.username FROM Trainee t WHERE t.username LIKE :prefix",
-                        String.class)
-                .setParameter("prefix", prefix + "%")
-                .getResultList();
+    @Override
+    public List<Training> findTrainingsByTraineeAndFilter(String traineeUsername, TraineeTrainingFilterDto filter) {
+        var query = entityManager.createQuery(
+                "SELECT tr" + TRAINING_FROM + buildFilterWhere(filter), Training.class);
+        bindFilter(query, traineeUsername, filter);
+
+        Optional<TrainingShardQuery> shardQuery = additionalShardQuery(traineeUsername, filter);
+        if (shardQuery.isEmpty()) {
+            return query.getResultList();
+        }
+        return TrainingShards.mergeEntitiesNewestFirst(query.getResultList(),
+                trainingShards.findEntitiesOnAdditionalShards(entityManager, shardQuery.get()));
     }
 
-    @Transactional
-    public void changePassword(String username, String newPassword) {
-        Optional<Trainee> traineeOpt = findByUsername(username);
-        if (traineeOpt.isPresent()) {
-            Trainee trainee = traineeOpt.get();
-            trainee.setPassword(newPassword);
-            entityManager.merge(trainee);
-        } else {
-            throw new IllegalArgumentException("Trainee not found with username " + username);
+    @Transactional(readOnly = true)
+    @Override
+    public List<TrainingResponseDto> findTrainingDtosByTraineeAndFilter(String traineeUsername,
+                                                                        TraineeTrainingFilterDto filter) {
+        List<TrainingResponseDto> local = findLocalTrainingDtos(traineeUsername, filter, null);
+
+        Optional<TrainingShardQuery> shardQuery = additionalShardQuery(traineeUsername, filter);
+        if (shardQuery.isEmpty()) {
+            return local;
         }
+        List<TrainingResponseDto> remote =
+                trainingShards.toDtos(entityManager, trainingShards.findOnAdditionalShards(shardQuery.get()));
+        return TrainingShards.mergeNewestFirst(local, remote, Integer.MAX_VALUE);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<Training> findTrainingsByTraineeAndFilter(String traineeUsername, TraineeTrainingFilterDto filter) {
-        StringBuilder sb = new StringBuilder("SELECT tr FROM Training tr WHERE tr.trainee.username = :username");
+    public PageDto<TrainingResponseDto> findTrainingDtoPageByTraineeAndFilter(String traineeUsername,
+                                                                             TraineeTrainingFilterDto filter) {
+        int pageSize = PageDto.resolvePageSize(filter.getPageSize());
+        List<TrainingResponseDto> local = findLocalTrainingDtos(traineeUsername, filter, pageSize + 1);
+
+        Optional<TrainingShardQuery> shardQuery = additionalShardQuery(traineeUsername, filter);
+        if (shardQuery.isEmpty()) {
+            return PageDto.of(local, pageSize);
+        }
+        // every shard returns its own newest pageSize + 1 rows past the cursor; the merged head is the global page
+        shardQuery.get().setCursorDate(filter.getCursorDate());
+        shardQuery.get().setCursorId(filter.getCursorId());
+        shardQuery.get().setLimit(pageSize + 1);
+        List<TrainingResponseDto> remote =
+                trainingShards.toDtos(entityManager, trainingShards.findOnAdditionalShards(shardQuery.get()));
+
+        return PageDto.of(TrainingShards.mergeNewestFirst(local, remote, pageSize + 1), pageSize);
+    }
+
+    /**
+     * Trainings on the main database; a {@code limit} selects the newest rows past the cursor.
+     */
+    private List<TrainingResponseDto> findLocalTrainingDtos(String traineeUsername, TraineeTrainingFilterDto filter,
+                                                            Integer limit) {
+        if (jdbcReads.isEnabled()) {
+            return jdbcReads.findTraineeTrainings(entityManager, traineeUsername, filter, limit);
+        }
+        if (limit == null) {
+            var query = entityManager.createQuery(
+                    TRAINING_DTO_SELECT + TRAINING_FROM + buildFilterWhere(filter), TrainingResponseDto.class);
+            bindFilter(query, traineeUsername, filter);
+            return query.getResultList();
+        }
+
+        var query = entityManager.createQuery(
+                TRAINING_DTO_SELECT + TRAINING_FROM + buildFilterWhere(filter) + buildCursorCondition(filter)
+                        + TRAINING_PAGE_ORDER, TrainingResponseDto.class);
+        bindFilter(query, traineeUsername, filter);
+        bindCursor(query, filter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    private Optional<TrainingShardQuery> additionalShardQuery(String traineeUsername, TraineeTrainingFilterDto filter) {
+        if (!trainingShards.isSharded()) {
+            return Optional.empty();
+        }
+        Long traineeId = trainingShards.userIdByUsername(entityManager, Trainee.class, traineeUsername);
+        if (traineeId == null) {
+            return Optional.empty();
+        }
+
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setTraineeId(traineeId);
+        query.setFromDate(filter.getFromDate());
+        query.setToDate(filter.getToDate());
+        if (filter.getTrainerName() != null && !filter.getTrainerName().isBlank()) {
+            query.setTrainerIds(trainingShards.userIdsMatchingName(entityManager, Trainer.class, filter.getTrainerName()));
+        }
+        if (filter.getTrainingTypeName() != null && !filter.getTrainingTypeName().isBlank()) {
+            query.setTrainingTypeIds(trainingShards.trainingTypeIdsByName(entityManager, filter.getTrainingTypeName()));
+        }
+        return Optional.of(query);
+    }
+
+    private String buildFilterWhere(TraineeTrainingFilterDto filter) {
+        StringBuilder sb = new StringBuilder(" WHERE te.username = :username");
 
         if (filter.getFromDate() != null) sb.append(" AND tr.trainingDate >= :fromDate");
         if (filter.getToDate() != null) sb.append(" AND tr.trainingDate <= :toDate");
         if (filter.getTrainerName() != null && !filter.getTrainerName().isBlank()) {
-            sb.append(" AND (tr.trainer.firstName LIKE :trainerName OR tr.trainer.lastName LIKE :trainerName)");
+            sb.append(" AND ").append(NameSearch.condition("t", "trainerName"));
         }
         if (filter.getTrainingTypeName() != null && !filter.getTrainingTypeName().isBlank()) {
-            sb.append(" AND tr.trainingType.trainingTypeName = :trainingTypeName");
+            sb.append(" AND tt.trainingTypeName = :trainingTypeName");
         }
 
-        var query = entityManager.createQuery(sb.toString(), Training.class)
-                .setParameter("username", traineeUsername);
+        return sb.toString();
+    }
+
+    private void bindFilter(TypedQuery<?> query, String traineeUsername, TraineeTrainingFilterDto filter) {
+        query.setParameter("username", traineeUsername);
 
         if (filter.getFromDate() != null) query.setParameter("fromDate", filter.getFromDate());
         if (filter.getToDate() != null) query.setParameter("toDate", filter.getToDate());
         if (filter.getTrainerName() != null && !filter.getTrainerName().isBlank()) {
-            query.setParameter("trainerName", "%" + filter.getTrainerName() + "%");
+            query.setParameter("trainerName", NameSearch.pattern(filter.getTrainerName()));
         }
         if (filter.getTrainingTypeName() != null && !filter.getTrainingTypeName().isBlank()) {
             query.setParameter("trainingTypeName", filter.getTrainingTypeName());
         }
+    }
 
-        return query.getResultList();
+    private String buildCursorCondition(TraineeTrainingFilterDto filter) {
+        if (filter.getCursorDate() == null) {
+            return "";
+        }
+        return " AND (tr.trainingDate < :cursorDate OR (tr.trainingDate = :cursorDate AND tr.id < :cursorId))";
+    }
+
+    private void bindCursor(TypedQuery<?> query, TraineeTrainingFilterDto filter) {
+        if (filter.getCursorDate() != null) {
+            query.setParameter("cursorDate", filter.getCursorDate());
+            query.setParameter("cursorId", filter.getCursorId());
+        }
     }
 
     @Transactional
-    public void activate(String username) {
-        findByUsername(username).ifPresent(trainee -> {
-            trainee.setActive(true);
-            entityManager.merge(trainee);
-        });
+    public int activate(String username) {
+        return activate(List.of(username));
     }
 
     @Transactional
-    public void deactivate(String username) {
-        findByUsername(username).ifPresent(trainee -> {
-            trainee.setActive(false);
-            entityManager.merge(trainee);
-        });
+    public int activate(Collection<String> usernames) {
+        return UserBulkUpdates.setActive(entityManager, Trainee.class, "trainees", usernames, true);
     }
 
     @Transactional
-    public void deleteByUsername(String username) {
-        findByUsername(username).ifPresent(trainee -> {
-            entityManager.remove(entityManager.contains(trainee) ? trainee : entityManager.merge(trainee));
-        });
+    public int deactivate(String username) {
+        return deactivate(List.of(username));
+    }
+
+    @Transactional
+    public int deactivate(Collection<String> usernames) {
+        return UserBulkUpdates.setActive(entityManager, Trainee.class, "trainees", usernames, false);
+    }
+
+    @Transactional
+    public DeletionResultDto deleteByUsername(String username) {
+        return findByUsername(username)
+                .map(this::deleteCascading)
+                .orElseGet(DeletionResultDto::new);
+    }
+
+    @Override
+    @Transactional
+    public DeletionResultDto deleteCascading(Trainee trainee) {
+        int remoteTrainings = trainingShards.deleteTraineeTrainings(trainee.getId());
+        DeletionResultDto result = UserDeletes.deleteTrainee(entityManager, trainee);
+        result.setTrainings(result.getTrainings() + remoteTrainings);
+        return result;
     }
 
 
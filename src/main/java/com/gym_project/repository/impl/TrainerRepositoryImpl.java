@@ -1,24 +1,66 @@
 package com.gym_project.repository.impl;
 
 import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.filter.UnassignedTrainerFilterDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.entity.Trainee;
 import com.gym_project.entity.Trainer;
 import com.gym_project.entity.Training;
+import com.gym_project.entity.User;
+import com.gym_project.mapper.TrainerMapper;
 import com.gym_project.repository.TrainerRepository;
+import com.gym_project.security.UserCredentials;
+import com.gym_project.sharding.TrainingRow;
+import com.gym_project.sharding.TrainingShardQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.sql.PreparedStatement;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Repository
+@RequiredArgsConstructor
 public class TrainerRepositoryImpl implements TrainerRepository {
 
+    private static final String TRAINING_DTO_SELECT =
+            "SELECT new com.gym_project.dto.response.TrainingResponseDto(" +
+                    "tr.id, te.username, t.username, tt.trainingTypeName, " +
+                    "tr.trainingName, tr.trainingDate, tr.trainingDuration)";
+
+    private static final String TRAINING_FROM =
+            " FROM Training tr JOIN tr.trainee te JOIN tr.trainer t JOIN tr.trainingType tt";
+
+    private static final String TRAINING_PAGE_ORDER = " ORDER BY tr.trainingDate DESC, tr.id DESC";
+
+    private static final String TRAINER_TRAINEES_ROLE = Trainer.class.getName() + ".trainees";
+
+    private static final String TRAINEE_TRAINERS_ROLE = Trainee.class.getName() + ".trainers";
+
+    private static final String LINK_SQL =
+            "INSERT INTO trainer_trainee (trainer_id, trainee_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+
     @PersistenceContext
     EntityManager entityManager;
 
+    private final TrainingShards trainingShards;
+
+    private final JdbcReads jdbcReads;
+
     @Override
     @Transactional
     public void save(Trainer trainer) {
@@ -34,6 +76,7 @@ public class TrainerRepositoryImpl implements TrainerRepository {
     @Override
     @Transactional
     public void delete(Trainer trainer) {
+        trainingShards.deleteTrainerTrainings(trainer.getId());
         entityManager.remove(entityManager.contains(trainer) ? trainer : entityManager.merge(trainer));
     }
 
@@ -50,6 +93,31 @@ public class TrainerRepositoryImpl implements TrainerRepository {
                 .getResultList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Trainer> findPage(String afterUsername, int limit) {
+        // page ids first: a fetch join combined with a row limit would be paged in memory
+        TypedQuery<Long> ids = entityManager.createQuery(
+                        "SELECT t.id FROM Trainer t" +
+                                (afterUsername == null ? "" : " WHERE t.username > :after") +
+                                " ORDER BY t.username", Long.class)
+                .setMaxResults(limit);
+        if (afterUsername != null) {
+            ids.setParameter("after", afterUsername);
+        }
+        List<Long> pageIds = ids.getResultList();
+        if (pageIds.isEmpty()) {
+            return List.of();
+        }
+
+        return entityManager.createQuery(
+                        "SELECT DISTINCT t FROM Trainer t LEFT JOIN FETCH t.trainees " +
+                                "WHERE t.id IN :ids ORDER BY t.username", Trainer.class)
+                .setParameter("ids", pageIds)
+                .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)
+                .getResultList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Trainer> findBySpecialization(String specialization) {
@@ -60,20 +128,29 @@ public class TrainerRepositoryImpl implements TrainerRepository {
 
     @Override
     @Transactional(readOnly = true)
-    public Optional<Trainer> findByUsernameAndPassword(String username, String password) {
-        return entityManager.createQuery(
-                        "SELECT t FROM Trainer t WHERE t.username = :username AND t.password = :password", Trainer.class)
-                .setParameter("username", username)
-                .setParameter("password", password)
-                .getResultStream()
-                .findFirst();
+    public Optional<Trainer> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username)
+                .filter(Trainer.class::isInstance)
+                .map(Trainer.class::cast);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Optional<Trainer> findByUsername(String username) {
+    public Optional<TrainerResponseDto> findProfileByUsername(String username) {
+        if (jdbcReads.isEnabled()) {
+            return jdbcReads.findTrainerProfile(entityManager, username);
+        }
+        return findByUsername(username).map(TrainerMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserCredentials> findCredentialsByUsername(String username) {
         return entityManager.createQuery(
-                        "SELECT t FROM Trainer t WHERE t.username = :username", Trainer.class)
+                        "SELECT new com.gym_project.security.UserCredentials(t.username, t.password, t.isActive) " +
+                                "FROM Trainer t WHERE t.username = :username", UserCredentials.class)
                 .setParameter("username", username)
                 .getResultStream()
                 .findFirst();
@@ -81,87 +158,337 @@ public class TrainerRepositoryImpl implements TrainerRepository {
 
     @Override
     @Transactional
-    public void changePassword(String username, String newPassword) {
-        Optional<Trainer> traineeOpt = findByUsername(username);
-        if (traineeOpt.isPresent()) {
-            Trainer trainer = traineeOpt.get();
-            trainer.setPassword(newPassword);
-            entityManager.merge(trainer);
-        } else {
-            throw new IllegalArgumentException("Trainer not found with username " + username);
-        }
+    public int changePassword(String username, String newPassword) {
+        return UserBulkUpdates.setPassword(entityManager, Trainer.class, "trainers", username, newPassword);
     }
 
     @Override
     @Transactional
-    public void activate(String username) {
-        findByUsername(username).ifPresent(trainer -> {
-            trainer.setActive(true);
-            entityManager.merge(trainer);
-        });
+    public int activate(String username) {
+        return activate(List.of(username));
     }
 
     @Override
     @Transactional
-    public void deactivate(String username) {
-        findByUsername(username).ifPresent(trainer -> {
-            trainer.setActive(false);
-            entityManager.merge(trainer);
-        });
+    public int activate(Collection<String> usernames) {
+        return UserBulkUpdates.setActive(entityManager, Trainer.class, "trainers", usernames, true);
     }
 
     @Override
     @Transactional
-    public void deleteByUsername(String username) {
-        findByUsername(username).ifPresent(trainer -> {
-            entityManager.remove(entityManager.contains(trainer) ? trainer : entityManager.merge(trainer));
-        });
+    public int deactivate(String username) {
+        return deactivate(List.of(username));
+    }
+
+    @Override
+    @Transactional
+    public int deactivate(Collection<String> usernames) {
+        return UserBulkUpdates.setActive(entityManager, Trainer.class, "trainers", usernames, false);
+    }
+
+    @Override
+    @Transactional
+    public DeletionResultDto deleteByUsername(String username) {
+        return findByUsername(username)
+                .map(this::deleteCascading)
+                .orElseGet(DeletionResultDto::new);
+    }
+
+    @Override
+    @Transactional
+    public DeletionResultDto deleteCascading(Trainer trainer) {
+        int remoteTrainings = trainingShards.deleteTrainerTrainings(trainer.getId());
+        DeletionResultDto result = UserDeletes.deleteTrainer(entityManager, trainer);
+        result.setTrainings(result.getTrainings() + remoteTrainings);
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDto<TrainerResponseDto> findUnassignedTrainerPage(Long traineeId, UnassignedTrainerFilterDto filter) {
+        int pageSize = PageDto.resolvePageSize(filter.getPageSize());
+
+        // NOT EXISTS lets PostgreSQL plan an anti-join probing the (trainer_id, trainee_id) unique index
+        StringBuilder sql = new StringBuilder(
+                "SELECT u.username, u.first_name, u.last_name, u.is_active, t.specialization " +
+                        "FROM trainers t JOIN users u ON u.id = t.id " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM trainer_trainee tt " +
+                        "WHERE tt.trainer_id = t.id AND tt.trainee_id = :traineeId)");
+        if (filter.getSpecialization() != null && !filter.getSpecialization().isBlank()) {
+            sql.append(" AND t.specialization = :specialization");
+        }
+        if (filter.isActiveOnly()) {
+            sql.append(" AND u.is_active = true");
+        }
+        if (filter.getCursorUsername() != null) {
+            sql.append(" AND u.username > :cursorUsername");
+        }
+        sql.append(" ORDER BY u.username");
+
+        var query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("traineeId", traineeId)
+                .setMaxResults(pageSize + 1);
+        if (filter.getSpecialization() != null && !filter.getSpecialization().isBlank()) {
+            query.setParameter("specialization", filter.getSpecialization());
+        }
+        if (filter.getCursorUsername() != null) {
+            query.setParameter("cursorUsername", filter.getCursorUsername());
+        }
+
+        List<?> rows = query.getResultList();
+        List<TrainerResponseDto> trainers = rows.stream()
+                .map(row -> toUnassignedTrainerDto((Object[]) row))
+                .toList();
+
+        return PageDto.of(trainers, pageSize);
+    }
+
+    private static TrainerResponseDto toUnassignedTrainerDto(Object[] row) {
+        TrainerResponseDto dto = new TrainerResponseDto();
+        dto.setUsername((String) row[0]);
+        dto.setFirstName((String) row[1]);
+        dto.setLastName((String) row[2]);
+        dto.setActive((Boolean) row[3]);
+        dto.setSpecialization((String) row[4]);
+        return dto;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Trainer> findUnassignedTrainersByTraineeUsername(String traineeUsername) {
+    public List<Trainer> findByUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return List.of();
+        }
         return entityManager.createQuery(
-                        "SELECT tr FROM Trainer tr " +
-                                "WHERE :trainee NOT MEMBER OF tr.trainees", Trainer.class)
-                .setParameter("trainee",
-                        entityManager.createQuery(
-                                        "SELECT t FROM Trainee t WHERE t.username = :username", Trainee.class)
-                                .setParameter("username", traineeUsername)
-                                .getSingleResult()
-                )
+                        "SELECT t FROM Trainer t WHERE t.username IN :usernames", Trainer.class)
+                .setParameter("usernames", usernames)
                 .getResultList();
     }
 
-    @Transactional(readOnly = true)
     @Override
-    public List<String> findUsernamesStartingWith(String base) {
-        return entityManager.createQuery(
-                        "SELECT t.username FROM Trainer t WHERE t.username LIKE :pattern", String.class)
-                .setParameter("pattern", base + "%")
+    @Transactional(readOnly = true)
+    public Set<Long> findTrainerIdsByTraineeId(Long traineeId) {
+        List<?> ids = entityManager.createNativeQuery(
+                        "SELECT trainer_id FROM trainer_trainee WHERE trainee_id = :traineeId")
+                .setParameter("traineeId", traineeId)
                 .getResultList();
+
+        return ids.stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    @Transactional
+    public void linkTrainers(Long traineeId, Collection<Long> trainerIds) {
+        // ON CONFLICT keeps a concurrent assignment of the same pair from failing the batch
+        updateLinks(LINK_SQL, traineeId, trainerIds);
+    }
+
+    @Override
+    @Transactional
+    public boolean linkTrainee(Long trainerId, Long traineeId) {
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+
+        int inserted = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(LINK_SQL)) {
+                statement.setLong(1, trainerId);
+                statement.setLong(2, traineeId);
+                return statement.executeUpdate();
+            }
+        });
+
+        if (inserted > 0) {
+            evictLinkedCollections(session, traineeId, List.of(trainerId));
+        }
+        return inserted > 0;
+    }
+
+    @Override
+    @Transactional
+    public void unlinkTrainers(Long traineeId, Collection<Long> trainerIds) {
+        updateLinks("DELETE FROM trainer_trainee WHERE trainer_id = ? AND trainee_id = ?",
+                traineeId, trainerIds);
+    }
+
+    /**
+     * Writes join-table rows as one JDBC batch without touching either side's collection,
+     * then drops the affected collections from the second-level cache.
+     */
+    private void updateLinks(String sql, Long traineeId, Collection<Long> trainerIds) {
+        if (trainerIds.isEmpty()) {
+            return;
+        }
+
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Long trainerId : trainerIds) {
+                    statement.setLong(1, trainerId);
+                    statement.setLong(2, traineeId);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+
+        evictLinkedCollections(session, traineeId, trainerIds);
+    }
+
+    /**
+     * Evicts the rosters now and again after commit: a reader between the two can still load the
+     * old links and put them back in the cache.
+     */
+    private void evictLinkedCollections(Session session, Long traineeId, Collection<Long> trainerIds) {
+        Cache cache = session.getSessionFactory().getCache();
+        List<Long> trainers = List.copyOf(trainerIds);
+        Runnable evict = () -> {
+            cache.evictCollectionData(TRAINEE_TRAINERS_ROLE, traineeId);
+            trainers.forEach(trainerId -> cache.evictCollectionData(TRAINER_TRAINEES_ROLE, trainerId));
+        };
+        evict.run();
+        AfterCommit.run(evict);
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<Training> findTrainingsByTrainerAndFilter(String trainerUsername, TrainerTrainingFilterDto filter) {
-        StringBuilder sb = new StringBuilder("SELECT tr FROM Training tr WHERE tr.trainer.username = :username");
+        Optional<ShardRoute> route = additionalShardRoute(trainerUsername, filter);
+        if (route.isPresent()) {
+            return trainingShards.toEntities(entityManager, route.get().find(trainingShards));
+        }
+
+        var query = entityManager.createQuery(
+                "SELECT tr" + TRAINING_FROM + buildFilterWhere(filter), Training.class);
+        bindFilter(query, trainerUsername, filter);
+
+        return query.getResultList();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<TrainingResponseDto> findTrainingDtosByTrainerAndFilter(String trainerUsername,
+                                                                        TrainerTrainingFilterDto filter) {
+        Optional<ShardRoute> route = additionalShardRoute(trainerUsername, filter);
+        if (route.isPresent()) {
+            return trainingShards.toDtos(entityManager, route.get().find(trainingShards));
+        }
+        if (jdbcReads.isEnabled()) {
+            return jdbcReads.findTrainerTrainings(entityManager, trainerUsername, filter, null);
+        }
+
+        var query = entityManager.createQuery(
+                TRAINING_DTO_SELECT + TRAINING_FROM + buildFilterWhere(filter), TrainingResponseDto.class);
+        bindFilter(query, trainerUsername, filter);
+
+        return query.getResultList();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public PageDto<TrainingResponseDto> findTrainingDtoPageByTrainerAndFilter(String trainerUsername,
+                                                                             TrainerTrainingFilterDto filter) {
+        int pageSize = PageDto.resolvePageSize(filter.getPageSize());
+
+        Optional<ShardRoute> route = additionalShardRoute(trainerUsername, filter);
+        if (route.isPresent()) {
+            TrainingShardQuery shardQuery = route.get().query();
+            shardQuery.setCursorDate(filter.getCursorDate());
+            shardQuery.setCursorId(filter.getCursorId());
+            shardQuery.setLimit(pageSize + 1);
+            return PageDto.of(trainingShards.toDtos(entityManager, route.get().find(trainingShards)), pageSize);
+        }
+        if (jdbcReads.isEnabled()) {
+            return PageDto.of(
+                    jdbcReads.findTrainerTrainings(entityManager, trainerUsername, filter, pageSize + 1), pageSize);
+        }
+
+        var query = entityManager.createQuery(
+                TRAINING_DTO_SELECT + TRAINING_FROM + buildFilterWhere(filter) + buildCursorCondition(filter)
+                        + TRAINING_PAGE_ORDER, TrainingResponseDto.class);
+        bindFilter(query, trainerUsername, filter);
+        bindCursor(query, filter);
+        query.setMaxResults(pageSize + 1);
+
+        return PageDto.of(query.getResultList(), pageSize);
+    }
+
+    /**
+     * All trainings of a trainer live on one shard; empty when that is the main database.
+     */
+    private Optional<ShardRoute> additionalShardRoute(String trainerUsername, TrainerTrainingFilterDto filter) {
+        if (!trainingShards.isSharded()) {
+            return Optional.empty();
+        }
+        Long trainerId = trainingShards.userIdByUsername(entityManager, Trainer.class, trainerUsername);
+        OptionalInt shard = trainingShards.additionalShardOf(trainerId);
+        if (shard.isEmpty()) {
+            return Optional.empty();
+        }
+
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setTrainerId(trainerId);
+        query.setFromDate(filter.getFromDate());
+        query.setToDate(filter.getToDate());
+        if (filter.getTraineeName() != null && !filter.getTraineeName().isBlank()) {
+            query.setTraineeIds(trainingShards.userIdsMatchingName(entityManager, Trainee.class, filter.getTraineeName()));
+        }
+        return Optional.of(new ShardRoute(shard.getAsInt(), query));
+    }
+
+    private static final class ShardRoute {
+        private final int shard;
+        private final TrainingShardQuery query;
+
+        private ShardRoute(int shard, TrainingShardQuery query) {
+            this.shard = shard;
+            this.query = query;
+        }
+
+        TrainingShardQuery query() {
+            return query;
+        }
+
+        List<TrainingRow> find(TrainingShards trainingShards) {
+            return trainingShards.find(shard, query);
+        }
+    }
+
+    private String buildFilterWhere(TrainerTrainingFilterDto filter) {
+        StringBuilder sb = new StringBuilder(" WHERE t.username = :username");
 
         if (filter.getFromDate() != null) sb.append(" AND tr.trainingDate >= :fromDate");
         if (filter.getToDate() != null) sb.append(" AND tr.trainingDate <= :toDate");
         if (filter.getTraineeName() != null && !filter.getTraineeName().isBlank()) {
-            sb.append(" AND (tr.trainee.firstName LIKE :traineeName OR tr.trainee.lastName LIKE :traineeName)");
+            sb.append(" AND ").append(NameSearch.condition("te", "traineeName"));
         }
 
-        var query = entityManager.createQuery(sb.toString(), Training.class)
-                .setParameter("username", trainerUsername);
+        return sb.toString();
+    }
+
+    private void bindFilter(TypedQuery<?> query, String trainerUsername, TrainerTrainingFilterDto filter) {
+        query.setParameter("username", trainerUsername);
 
         if (filter.getFromDate() != null) query.setParameter("fromDate", filter.getFromDate());
         if (filter.getToDate() != null) query.setParameter("toDate", filter.getToDate());
         if (filter.getTraineeName() != null && !filter.getTraineeName().isBlank()) {
-            query.setParameter("traineeName", "%" + filter.getTraineeName() + "%");
+            query.setParameter("traineeName", NameSearch.pattern(filter.getTraineeName()));
         }
+    }
 
-        return query.getResultList();
+    private String buildCursorCondition(TrainerTrainingFilterDto filter) {
+        if (filter.getCursorDate() == null) {
+            return "";
+        }
+        return " AND (tr.trainingDate < :cursorDate OR (tr.trainingDate = :cursorDate AND tr.id < :cursorId))";
+    }
+
+    private void bindCursor(TypedQuery<?> query, TrainerTrainingFilterDto filter) {
+        if (filter.getCursorDate() != null) {
+            query.setParameter("cursorDate", filter.getCursorDate());
+            query.setParameter("cursorId", filter.getCursorId());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.response.TrainerWorkloadDto;
+import com.gym_project.repository.TrainerWorkloadRepository;
+import com.gym_project.sharding.TrainingRow;
+import com.gym_project.sharding.TrainingShardQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class TrainerWorkloadRepositoryImpl implements TrainerWorkloadRepository {
+
+    private static final String SELECT_WORKLOAD =
+            "SELECT u.username, w.workload_month, w.total_minutes, w.training_count " +
+                    "FROM trainer_workload w JOIN users u ON u.id = w.trainer_id " +
+                    "WHERE u.username = :username";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TrainingShards trainingShards;
+
+    @Override
+    @Transactional
+    public void add(Long trainerId, LocalDate trainingDate, long minutes, int trainings) {
+        entityManager.createNativeQuery(
+                        "INSERT INTO trainer_workload (trainer_id, workload_month, total_minutes, training_count) " +
+                                "VALUES (:trainerId, :month, :minutes, :trainings) " +
+                                "ON CONFLICT (trainer_id, workload_month) DO UPDATE SET " +
+                                "total_minutes = trainer_workload.total_minutes + EXCLUDED.total_minutes, " +
+                                "training_count = trainer_workload.training_count + EXCLUDED.training_count")
+                .setParameter("trainerId", trainerId)
+                .setParameter("month", Date.valueOf(trainingDate.withDayOfMonth(1)))
+                .setParameter("minutes", minutes)
+                .setParameter("trainings", trainings)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void subtractTraineeTrainings(Long traineeId) {
+        // pending trainings must reach the database before they are summed
+        entityManager.flush();
+        entityManager.createNativeQuery(
+                        "UPDATE trainer_workload w SET " +
+                                "total_minutes = w.total_minutes - d.minutes, " +
+                                "training_count = w.training_count - d.trainings " +
+                                "FROM (SELECT trainer_id, date_trunc('month', training_date)::date AS workload_month, " +
+                                "SUM(training_duration) AS minutes, COUNT(*) AS trainings " +
+                                "FROM trainings WHERE trainee_id = :traineeId " +
+                                "GROUP BY trainer_id, date_trunc('month', training_date)) d " +
+                                "WHERE w.trainer_id = d.trainer_id AND w.workload_month = d.workload_month")
+                .setParameter("traineeId", traineeId)
+                .executeUpdate();
+
+        if (!trainingShards.isSharded()) {
+            return;
+        }
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setTraineeId(traineeId);
+        for (TrainingRow row : trainingShards.findOnAdditionalShards(query)) {
+            add(row.getTrainerId(), row.getTrainingDate(), -row.getTrainingDuration(), -1);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TrainerWorkloadDto> findByTrainerAndMonth(String trainerUsername, YearMonth month) {
+        List<?> rows = entityManager.createNativeQuery(SELECT_WORKLOAD + " AND w.workload_month = :month")
+                .setParameter("username", trainerUsername)
+                .setParameter("month", Date.valueOf(month.atDay(1)))
+                .getResultList();
+        return rows.stream().map(row -> toDto((Object[]) row)).findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TrainerWorkloadDto> findByTrainer(String trainerUsername) {
+        List<?> rows = entityManager.createNativeQuery(SELECT_WORKLOAD + " ORDER BY w.workload_month")
+                .setParameter("username", trainerUsername)
+                .getResultList();
+        return rows.stream()
+                .map(row -> toDto((Object[]) row))
+                .collect(Collectors.toList());
+    }
+
+    private static TrainerWorkloadDto toDto(Object[] row) {
+        return new TrainerWorkloadDto(
+                (String) row[0],
+                YearMonth.from(((Date) row[1]).toLocalDate()),
+                ((Number) row[2]).longValue(),
+                ((Number) row[3]).intValue());
+    }
+}
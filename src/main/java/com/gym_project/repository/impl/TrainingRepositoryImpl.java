@@ -1,68 +1,141 @@
 package com.gym_project.repository.impl;
 
+import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.entity.Trainee;
 import com.gym_project.entity.Trainer;
 import com.gym_project.entity.Training;
 import com.gym_project.entity.TrainingType;
 import com.gym_project.repository.TrainingRepository;
+import com.gym_project.sharding.TrainingShardQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
 
 @Repository
+@RequiredArgsConstructor
 public class TrainingRepositoryImpl implements TrainingRepository {
 
+    private static final String SCAN_QUERY =
+            "SELECT new com.gym_project.dto.response.TrainingResponseDto(" +
+                    "tr.id, te.username, t.username, tt.trainingTypeName, " +
+                    "tr.trainingName, tr.trainingDate, tr.trainingDuration) " +
+                    "FROM Training tr JOIN tr.trainee te JOIN tr.trainer t JOIN tr.trainingType tt";
+
+    private static final int SCAN_FETCH_SIZE = 1000;
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final TrainingShards trainingShards;
+
     @Override
     @Transactional
     public void save(Training training) {
+        OptionalInt shard = shardOf(training);
+        if (shard.isPresent()) {
+            trainingShards.insert(shard.getAsInt(), training);
+            return;
+        }
         entityManager.persist(training);
     }
 
     @Override
     @Transactional
     public Training update(Training training) {
+        OptionalInt shard = shardOf(training);
+        if (shard.isPresent()) {
+            trainingShards.update(shard.getAsInt(), training);
+            return training;
+        }
         return entityManager.merge(training);
     }
 
+    @Override
+    @Transactional
+    public Training update(Training training, Long previousTrainerId) {
+        OptionalInt from = trainingShards.additionalShardOf(previousTrainerId);
+        OptionalInt to = shardOf(training);
+        if (from.equals(to)) {
+            return update(training);
+        }
+
+        if (to.isPresent()) {
+            trainingShards.insertKeepingId(to.getAsInt(), training);
+        } else {
+            insertOnMainDatabase(training);
+        }
+        if (from.isPresent()) {
+            trainingShards.deleteAfterCommit(from.getAsInt(), training);
+        } else {
+            entityManager.remove(entityManager.contains(training) ? training : entityManager.merge(training));
+        }
+        return training;
+    }
+
     @Override
     @Transactional
     public void delete(Training training) {
+        OptionalInt shard = shardOf(training);
+        if (shard.isPresent()) {
+            trainingShards.delete(shard.getAsInt(), training);
+            return;
+        }
         entityManager.remove(entityManager.contains(training) ? training : entityManager.merge(training));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<Training> findById(Long id) {
-        return Optional.ofNullable(entityManager.find(Training.class, id));
+        Training training = entityManager.find(Training.class, id);
+        if (training != null) {
+            return Optional.of(training);
+        }
+        return trainingShards.findByIdOnAdditionalShards(entityManager, id);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Training> findAll() {
-        return entityManager.createQuery("SELECT t FROM Training t", Training.class)
+        List<Training> trainings = entityManager.createQuery("SELECT t FROM Training t", Training.class)
                 .getResultList();
+        return withAdditionalShards(trainings, new TrainingShardQuery());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Training> findByTrainee(Trainee trainee) {
-        return entityManager.createQuery(
+        List<Training> trainings = entityManager.createQuery(
                         "SELECT t FROM Training t WHERE t.trainee = :trainee", Training.class)
                 .setParameter("trainee", trainee)
                 .getResultList();
+
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setTraineeId(trainee.getId());
+        return withAdditionalShards(trainings, query);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Training> findByTrainer(Trainer trainer) {
+        OptionalInt shard = trainingShards.additionalShardOf(trainer.getId());
+        if (shard.isPresent()) {
+            TrainingShardQuery query = new TrainingShardQuery();
+            query.setTrainerId(trainer.getId());
+            return trainingShards.toEntities(entityManager, trainingShards.find(shard.getAsInt(), query));
+        }
         return entityManager.createQuery(
                         "SELECT t FROM Training t WHERE t.trainer = :trainer", Training.class)
                 .setParameter("trainer", trainer)
@@ -72,28 +145,98 @@ public class TrainingRepositoryImpl implements TrainingRepository {
     @Override
     @Transactional(readOnly = true)
     public List<Training> findByTrainingType(TrainingType trainingType) {
-        return entityManager.createQuery(
+        List<Training> trainings = entityManager.createQuery(
                         "SELECT t FROM Training t WHERE t.trainingType = :type", Training.class)
                 .setParameter("type", trainingType)
                 .getResultList();
+
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setTrainingTypeId(trainingType.getId());
+        return withAdditionalShards(trainings, query);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Training> findByDate(LocalDate date) {
-        return entityManager.createQuery(
+        List<Training> trainings = entityManager.createQuery(
                         "SELECT t FROM Training t WHERE t.trainingDate = :date", Training.class)
                 .setParameter("date", date)
                 .getResultList();
+
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setFromDate(date);
+        query.setToDate(date);
+        return withAdditionalShards(trainings, query);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Training> findByDateRange(LocalDate startDate, LocalDate endDate) {
-        return entityManager.createQuery(
+        List<Training> trainings = entityManager.createQuery(
                         "SELECT t FROM Training t WHERE t.trainingDate BETWEEN :start AND :end", Training.class)
                 .setParameter("start", startDate)
                 .setParameter("end", endDate)
                 .getResultList();
+
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setFromDate(startDate);
+        query.setToDate(endDate);
+        return withAdditionalShards(trainings, query);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long scanAll(Consumer<TrainingResponseDto> action) {
+        Session session = entityManager.unwrap(Session.class);
+
+        // runs on the transaction's connection, so the scan sees the same snapshot and the fetch
+        // size turns into a server-side cursor
+        long scanned = session.doReturningWork(connection -> {
+            try (StatelessSession stateless = session.getSessionFactory().openStatelessSession(connection);
+                 ScrollableResults rows = stateless.createQuery(SCAN_QUERY)
+                         .setReadOnly(true)
+                         .setFetchSize(SCAN_FETCH_SIZE)
+                         .scroll(ScrollMode.FORWARD_ONLY)) {
+                long count = 0;
+                while (rows.next()) {
+                    action.accept((TrainingResponseDto) rows.get(0));
+                    count++;
+                }
+                return count;
+            }
+        });
+
+        return scanned + trainingShards.scanAdditionalShards(entityManager, SCAN_FETCH_SIZE, action);
+    }
+
+    /**
+     * Inserts a training coming from another shard with its id; {@code persist} would assign a new one.
+     */
+    private void insertOnMainDatabase(Training training) {
+        entityManager.createNativeQuery("INSERT INTO trainings (id, trainee_id, trainer_id, training_type_id, "
+                        + "training_name, training_date, training_duration) VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7)")
+                .setParameter(1, training.getId())
+                .setParameter(2, training.getTrainee().getId())
+                .setParameter(3, training.getTrainer().getId())
+                .setParameter(4, training.getTrainingType().getId())
+                .setParameter(5, training.getTrainingName())
+                .setParameter(6, training.getTrainingDate())
+                .setParameter(7, training.getTrainingDuration())
+                .executeUpdate();
+    }
+
+    private OptionalInt shardOf(Training training) {
+        return training.getTrainer() == null
+                ? OptionalInt.empty()
+                : trainingShards.additionalShardOf(training.getTrainer().getId());
+    }
+
+    private List<Training> withAdditionalShards(List<Training> local, TrainingShardQuery query) {
+        if (!trainingShards.isSharded()) {
+            return local;
+        }
+        List<Training> merged = new ArrayList<>(local);
+        merged.addAll(trainingShards.findEntitiesOnAdditionalShards(entityManager, query));
+        return merged;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,323 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.entity.Training;
+import com.gym_project.entity.TrainingType;
+import com.gym_project.entity.User;
+import com.gym_project.sharding.ShardMap;
+import com.gym_project.sharding.ShardedTrainingStore;
+import com.gym_project.sharding.Shards;
+import com.gym_project.sharding.TrainingRow;
+import com.gym_project.sharding.TrainingShardQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Glue between the JPA repositories and the training shards.
+ * <p>
+ * Shard 0 is the main database and keeps going through JPA unchanged; rows on the other shards are
+ * read and written with {@link ShardedTrainingStore} and turned back into {@link Training} entities
+ * (with lazy references to users and types on the main database) or into
+ * {@link TrainingResponseDto}s. With a single shard every method here is a no-op.
+ * <p>
+ * Writes to an additional shard autocommit, so each one registers its own undo with the main
+ * transaction: on rollback an inserted row is deleted again and an updated or deleted row is put
+ * back as it was.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrainingShards {
+
+    static final Comparator<TrainingResponseDto> NEWEST_FIRST =
+            Comparator.comparing(TrainingResponseDto::getTrainingDate)
+                    .thenComparing(TrainingResponseDto::getId)
+                    .reversed();
+
+    static final Comparator<Training> NEWEST_TRAINING_FIRST =
+            Comparator.comparing(Training::getTrainingDate)
+                    .thenComparing(Training::getId)
+                    .reversed();
+
+    /**
+     * Ids per {@code IN} list when resolving names, well below PostgreSQL's limit of 32767 bind
+     * parameters per statement.
+     */
+    static final int NAME_LOOKUP_CHUNK_SIZE = 1000;
+
+    private final Shards shards;
+    private final ShardMap shardMap;
+    private final ShardedTrainingStore store;
+
+    public boolean isSharded() {
+        return shards.isSharded();
+    }
+
+    /**
+     * The shard holding the trainer's trainings, or empty when that is the main database.
+     */
+    public OptionalInt additionalShardOf(Long trainerId) {
+        if (!shards.isSharded() || trainerId == null) {
+            return OptionalInt.empty();
+        }
+        int shard = shardMap.shardFor(trainerId);
+        return shard == 0 ? OptionalInt.empty() : OptionalInt.of(shard);
+    }
+
+    public void insert(int shard, Training training) {
+        training.setId(store.nextId());
+        store.insert(shard, toRow(training));
+        Long id = training.getId();
+        AfterCommit.onRollback(() -> store.delete(shard, id));
+    }
+
+    public void update(int shard, Training training) {
+        Optional<TrainingRow> previous = findRow(shard, training.getId());
+        if (store.update(shard, toRow(training)) == 0) {
+            throw new RuntimeException("Training not found: " + training.getId());
+        }
+        previous.ifPresent(row -> AfterCommit.onRollback(() -> store.update(shard, row)));
+    }
+
+    public void delete(int shard, Training training) {
+        Optional<TrainingRow> previous = findRow(shard, training.getId());
+        store.delete(shard, training.getId());
+        previous.ifPresent(row -> AfterCommit.onRollback(() -> store.insert(shard, row)));
+    }
+
+    /**
+     * Copies a training to another shard under its current id, as {@link com.gym_project.sharding.ShardRebalancer}
+     * does. The insert autocommits, so it is deleted again if the main transaction rolls back.
+     */
+    public void insertKeepingId(int shard, Training training) {
+        store.insert(shard, toRow(training));
+        AfterCommit.onRollback(() -> store.delete(shard, training.getId()));
+    }
+
+    /**
+     * Deletes the copy a training left on its previous shard, once the main transaction has committed.
+     */
+    public void deleteAfterCommit(int shard, Training training) {
+        Long id = training.getId();
+        AfterCommit.run(() -> store.delete(shard, id));
+    }
+
+    /**
+     * Trainings of a trainee on shards other than the main database, where no foreign key
+     * cascades the delete of the trainee. Shard statements autocommit, so the rows are counted
+     * now but deleted only after the main transaction commits: a rollback keeps them, while a
+     * failure after the commit leaves orphaned rows behind, which is logged.
+     */
+    public int deleteTraineeTrainings(Long traineeId) {
+        if (!shards.isSharded()) {
+            return 0;
+        }
+        int count = store.countByTraineeOnAdditionalShards(traineeId);
+        AfterCommit.run(() -> deleteOrphans("trainee", traineeId,
+                () -> store.deleteByTraineeOnAdditionalShards(traineeId)));
+        return count;
+    }
+
+    /**
+     * Trainings of a trainer on its shard, deleted after commit like {@link #deleteTraineeTrainings}.
+     */
+    public int deleteTrainerTrainings(Long trainerId) {
+        OptionalInt shard = additionalShardOf(trainerId);
+        if (shard.isEmpty()) {
+            return 0;
+        }
+        int count = store.countByTrainer(shard.getAsInt(), trainerId);
+        AfterCommit.run(() -> deleteOrphans("trainer", trainerId,
+                () -> store.deleteByTrainer(shard.getAsInt(), trainerId)));
+        return count;
+    }
+
+    public List<TrainingRow> find(int shard, TrainingShardQuery query) {
+        return store.find(shard, query);
+    }
+
+    public List<TrainingRow> findOnAdditionalShards(TrainingShardQuery query) {
+        return shards.isSharded() ? store.findOnAdditionalShards(query) : List.of();
+    }
+
+    /**
+     * Streams every training on the additional shards to {@code action}, one shard after the other
+     * and {@code batchSize} rows at a time; returns the number of trainings visited.
+     */
+    public long scanAdditionalShards(EntityManager entityManager, int batchSize, Consumer<TrainingResponseDto> action) {
+        if (!shards.isSharded()) {
+            return 0;
+        }
+        long scanned = 0;
+        for (int shard : shards.additionalShards()) {
+            scanned += store.scan(shard, batchSize, batch -> toDtos(entityManager, batch).forEach(action));
+        }
+        return scanned;
+    }
+
+    public List<Training> findEntitiesOnAdditionalShards(EntityManager entityManager, TrainingShardQuery query) {
+        return toEntities(entityManager, findOnAdditionalShards(query));
+    }
+
+    public Optional<Training> findByIdOnAdditionalShards(EntityManager entityManager, Long id) {
+        if (!shards.isSharded()) {
+            return Optional.empty();
+        }
+        return store.findOnAdditionalShards(id).map(row -> toEntity(entityManager, row));
+    }
+
+    public List<Training> toEntities(EntityManager entityManager, List<TrainingRow> rows) {
+        return rows.stream().map(row -> toEntity(entityManager, row)).toList();
+    }
+
+    /**
+     * Resolves usernames and type names on the main database, in one query per
+     * {@value #NAME_LOOKUP_CHUNK_SIZE} ids.
+     */
+    public List<TrainingResponseDto> toDtos(EntityManager entityManager, List<TrainingRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> typeIds = new HashSet<>();
+        rows.forEach(row -> {
+            userIds.add(row.getTraineeId());
+            userIds.add(row.getTrainerId());
+            typeIds.add(row.getTrainingTypeId());
+        });
+
+        Map<Long, String> usernames =
+                namesById(entityManager, "SELECT u.id, u.username FROM User u WHERE u.id IN :ids", userIds);
+        Map<Long, String> typeNames = namesById(entityManager,
+                "SELECT tt.id, tt.trainingTypeName FROM TrainingType tt WHERE tt.id IN :ids", typeIds);
+
+        return rows.stream()
+                .map(row -> new TrainingResponseDto(
+                        row.getId(),
+                        usernames.get(row.getTraineeId()),
+                        usernames.get(row.getTrainerId()),
+                        typeNames.get(row.getTrainingTypeId()),
+                        row.getTrainingName(),
+                        row.getTrainingDate(),
+                        row.getTrainingDuration()))
+                .toList();
+    }
+
+    private static Map<Long, String> namesById(EntityManager entityManager, String jpql, Set<Long> ids) {
+        Map<Long, String> names = new HashMap<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += NAME_LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(all.size(), from + NAME_LOOKUP_CHUNK_SIZE));
+            entityManager.createQuery(jpql, Object[].class)
+                    .setParameter("ids", chunk)
+                    .getResultList()
+                    .forEach(row -> names.put((Long) row[0], (String) row[1]));
+        }
+        return names;
+    }
+
+    /**
+     * Ids of users of the given type whose first or last name contains {@code name}, matched like
+     * the JPA name filters.
+     */
+    public List<Long> userIdsMatchingName(EntityManager entityManager, Class<? extends User> type, String name) {
+        return entityManager.createQuery(
+                        "SELECT u.id FROM " + type.getSimpleName() + " u WHERE " + NameSearch.condition("u", "name"),
+                        Long.class)
+                .setParameter("name", NameSearch.pattern(name))
+                .getResultList();
+    }
+
+    public List<Long> trainingTypeIdsByName(EntityManager entityManager, String trainingTypeName) {
+        return entityManager.createQuery(
+                        "SELECT tt.id FROM TrainingType tt WHERE tt.trainingTypeName = :name", Long.class)
+                .setParameter("name", trainingTypeName)
+                .getResultList();
+    }
+
+    public Long userIdByUsername(EntityManager entityManager, Class<? extends User> type, String username) {
+        return entityManager.createQuery(
+                        "SELECT u.id FROM " + type.getSimpleName() + " u WHERE u.username = :username", Long.class)
+                .setParameter("username", username)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Merges listings that are each sorted newest first and keeps at most {@code limit} rows.
+     */
+    public static List<TrainingResponseDto> mergeNewestFirst(List<TrainingResponseDto> first,
+                                                             List<TrainingResponseDto> second,
+                                                             int limit) {
+        List<TrainingResponseDto> merged = new ArrayList<>(first.size() + second.size());
+        merged.addAll(first);
+        merged.addAll(second);
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * Merges unpaged training listings from several shards into the order of the paged listings.
+     */
+    public static List<Training> mergeEntitiesNewestFirst(List<Training> first, List<Training> second) {
+        List<Training> merged = new ArrayList<>(first.size() + second.size());
+        merged.addAll(first);
+        merged.addAll(second);
+        merged.sort(NEWEST_TRAINING_FIRST);
+        return merged;
+    }
+
+    private Optional<TrainingRow> findRow(int shard, Long id) {
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setId(id);
+        return store.find(shard, query).stream().findFirst();
+    }
+
+    private static void deleteOrphans(String owner, Long id, Runnable delete) {
+        try {
+            delete.run();
+        } catch (RuntimeException e) {
+            // the user is gone already; its remaining rows match no listing and can be removed by hand
+            log.error("Failed to delete shard trainings of deleted {} {}", owner, id, e);
+        }
+    }
+
+    static TrainingRow toRow(Training training) {
+        return new TrainingRow(
+                training.getId(),
+                training.getTrainee().getId(),
+                training.getTrainer().getId(),
+                training.getTrainingType().getId(),
+                training.getTrainingName(),
+                training.getTrainingDate(),
+                training.getTrainingDuration());
+    }
+
+    private static Training toEntity(EntityManager entityManager, TrainingRow row) {
+        Training training = new Training();
+        training.setId(row.getId());
+        training.setTrainee(entityManager.getReference(Trainee.class, row.getTraineeId()));
+        training.setTrainer(entityManager.getReference(Trainer.class, row.getTrainerId()));
+        training.setTrainingType(entityManager.getReference(TrainingType.class, row.getTrainingTypeId()));
+        training.setTrainingName(row.getTrainingName());
+        training.setTrainingDate(row.getTrainingDate());
+        training.setTrainingDuration(row.getTrainingDuration());
+        return training;
+    }
+}
@@ -0,0 +1,90 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.entity.User;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Single-statement updates of {@code users} rows, restricted to one role table.
+ * <p>
+ * The statements bypass the persistence context, so any managed instance of an updated row is
+ * detached and the row is evicted from the second-level cache, once right away for the rest of
+ * the transaction and again after commit, since a concurrent reader may have cached the old row
+ * in between; the next lookup reads the new state.
+ * Username lists are split into chunks to stay well below the JDBC bind-parameter limit.
+ */
+final class UserBulkUpdates {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private UserBulkUpdates() {
+    }
+
+    static int setActive(EntityManager entityManager, Class<? extends User> type, String roleTable,
+                         Collection<String> usernames, boolean active) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(usernames));
+        if (distinct.isEmpty()) {
+            return 0;
+        }
+
+        entityManager.flush();
+
+        int updated = 0;
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            List<String> chunk = distinct.subList(from, Math.min(from + CHUNK_SIZE, distinct.size()));
+            List<?> ids = entityManager.createNativeQuery(
+                            "UPDATE users SET is_active = :active " +
+                                    "WHERE username IN (:usernames) AND id IN (SELECT id FROM " + roleTable + ") " +
+                                    "RETURNING id")
+                    .setParameter("active", active)
+                    .setParameter("usernames", chunk)
+                    .getResultList();
+
+            evict(entityManager, type, ids);
+            updated += ids.size();
+        }
+        return updated;
+    }
+
+    static int setPassword(EntityManager entityManager, Class<? extends User> type, String roleTable,
+                           String username, String password) {
+        entityManager.flush();
+
+        List<?> ids = entityManager.createNativeQuery(
+                        "UPDATE users SET password = :password " +
+                                "WHERE username = :username AND id IN (SELECT id FROM " + roleTable + ") " +
+                                "RETURNING id")
+                .setParameter("password", password)
+                .setParameter("username", username)
+                .getResultList();
+
+        evict(entityManager, type, ids);
+        return ids.size();
+    }
+
+    private static void evict(EntityManager entityManager, Class<? extends User> type, List<?> rawIds) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(type);
+        List<Long> ids = rawIds.stream()
+                .map(id -> ((Number) id).longValue())
+                .toList();
+
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal()
+                    .getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                entityManager.detach(managed);
+            }
+        }
+
+        Cache cache = session.getFactory().getCache();
+        ids.forEach(id -> cache.evictEntityData(type, id));
+        AfterCommit.run(() -> ids.forEach(id -> cache.evictEntityData(type, id)));
+    }
+}
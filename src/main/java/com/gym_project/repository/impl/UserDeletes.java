@@ -0,0 +1,113 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.entity.User;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Set-based delete of a trainee or trainer and its dependent rows, child tables first:
+ * {@code trainings}, {@code trainer_trainee}, the role table, then {@code users}.
+ * <p>
+ * Unlike {@code EntityManager.remove}, which cascades by loading every training and deleting it
+ * row by row, each table is cleared with a single statement. The statements bypass the
+ * persistence context, so the deleted user is detached and evicted from the second-level cache
+ * together with the trainer/trainee collections it appeared in, right away and again after
+ * commit, since a concurrent reader may cache the old rows in between. The natural-id region is
+ * cleared as a whole, since a deleted username may be allocated again.
+ * <p>
+ * Only the main database is touched here; trainings on other shards are removed by
+ * {@link TrainingShards#deleteTraineeTrainings} and {@link TrainingShards#deleteTrainerTrainings}.
+ */
+final class UserDeletes {
+
+    static final String TRAINEE_TRAINERS_ROLE = Trainee.class.getName() + ".trainers";
+    static final String TRAINER_TRAINEES_ROLE = Trainer.class.getName() + ".trainees";
+
+    private UserDeletes() {
+    }
+
+    static DeletionResultDto deleteTrainee(EntityManager entityManager, Trainee trainee) {
+        Long id = trainee.getId();
+        prepare(entityManager, trainee);
+
+        long trainings = deleteWhere(entityManager, "trainings", "trainee_id", id);
+        List<Long> trainerIds = deleteLinks(entityManager, "trainee_id", "trainer_id", id);
+        int users = deleteUser(entityManager, "trainees", id);
+
+        evict(entityManager, cache -> {
+            cache.evictEntityData(Trainee.class, id);
+            cache.evictCollectionData(TRAINEE_TRAINERS_ROLE, id);
+            trainerIds.forEach(trainerId -> cache.evictCollectionData(TRAINER_TRAINEES_ROLE, trainerId));
+            cache.evictNaturalIdData(User.class);
+        });
+
+        return new DeletionResultDto(trainings, trainerIds.size(), users);
+    }
+
+    static DeletionResultDto deleteTrainer(EntityManager entityManager, Trainer trainer) {
+        Long id = trainer.getId();
+        prepare(entityManager, trainer);
+
+        long trainings = deleteWhere(entityManager, "trainings", "trainer_id", id);
+        List<Long> traineeIds = deleteLinks(entityManager, "trainer_id", "trainee_id", id);
+        int users = deleteUser(entityManager, "trainers", id);
+
+        evict(entityManager, cache -> {
+            cache.evictEntityData(Trainer.class, id);
+            cache.evictCollectionData(TRAINER_TRAINEES_ROLE, id);
+            traineeIds.forEach(traineeId -> cache.evictCollectionData(TRAINEE_TRAINERS_ROLE, traineeId));
+            cache.evictNaturalIdData(User.class);
+        });
+
+        return new DeletionResultDto(trainings, traineeIds.size(), users);
+    }
+
+    /**
+     * Writes pending changes, then detaches the user so the persistence context does not try
+     * to flush or cascade it after its rows are gone.
+     */
+    private static void prepare(EntityManager entityManager, User user) {
+        entityManager.flush();
+        if (entityManager.contains(user)) {
+            entityManager.detach(user);
+        }
+    }
+
+    private static long deleteWhere(EntityManager entityManager, String table, String column, Long id) {
+        Object deleted = entityManager.createNativeQuery(
+                        "WITH deleted AS (DELETE FROM " + table + " WHERE " + column + " = :id RETURNING 1) " +
+                                "SELECT COUNT(*) FROM deleted")
+                .setParameter("id", id)
+                .getSingleResult();
+        return ((Number) deleted).longValue();
+    }
+
+    private static List<Long> deleteLinks(EntityManager entityManager, String column, String otherColumn, Long id) {
+        List<?> others = entityManager.createNativeQuery(
+                        "DELETE FROM trainer_trainee WHERE " + column + " = :id RETURNING " + otherColumn)
+                .setParameter("id", id)
+                .getResultList();
+        return others.stream()
+                .map(other -> ((Number) other).longValue())
+                .toList();
+    }
+
+    private static int deleteUser(EntityManager entityManager, String roleTable, Long id) {
+        deleteWhere(entityManager, roleTable, "id", id);
+        return (int) deleteWhere(entityManager, "users", "id", id);
+    }
+
+    private static void evict(EntityManager entityManager, Consumer<Cache> eviction) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        eviction.accept(cache);
+        AfterCommit.run(() -> eviction.accept(cache));
+    }
+}
@@ -0,0 +1,81 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.repository.UsernameCounterRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Counter updates run in their own transactions: a reserved suffix must stay reserved
+ * even if the registration that asked for it rolls back, otherwise another node could
+ * hand out the same suffix again.
+ */
+@Repository
+public class UsernameCounterRepositoryImpl implements UsernameCounterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<Long> incrementIfPresent(String base, int blockSize) {
+        List<?> result = entityManager.createNativeQuery(
+                        "UPDATE username_counters SET next_suffix = next_suffix + :block " +
+                                "WHERE base = :base RETURNING next_suffix")
+                .setParameter("block", blockSize)
+                .setParameter("base", base)
+                .getResultList();
+
+        return result.stream()
+                .findFirst()
+                .map(value -> ((Number) value).longValue());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long insertOrIncrement(String base, long initialValue, int blockSize) {
+        Object result = entityManager.createNativeQuery(
+                        "INSERT INTO username_counters (base, next_suffix) VALUES (:base, :initial) " +
+                                "ON CONFLICT (base) DO UPDATE " +
+                                "SET next_suffix = username_counters.next_suffix + :block " +
+                                "RETURNING next_suffix")
+                .setParameter("base", base)
+                .setParameter("initial", initialValue)
+                .setParameter("block", blockSize)
+                .getSingleResult();
+
+        return ((Number) result).longValue();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<String> findUsernamesStartingWith(String base) {
+        return entityManager.createNativeQuery(
+                        "SELECT username FROM users WHERE username LIKE :prefix ESCAPE '\\'")
+                .setParameter("prefix", escapeLike(base) + "%")
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public boolean usernameExists(String username) {
+        // not read-only, so the check sees the primary rather than a lagging replica
+        return !entityManager.createNativeQuery("SELECT 1 FROM users WHERE username = :username")
+                .setParameter("username", username)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
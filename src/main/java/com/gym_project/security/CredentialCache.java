@@ -0,0 +1,86 @@
+package com.gym_project.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Remembers recent successful logins so repeated verifications skip the database.
+ * <p>
+ * Only a SHA-256 digest of the verified password is kept, keyed by role and username.
+ * Entries expire after a short TTL and must be invalidated whenever the password
+ * or the active flag of the user changes. Writers use {@link #invalidateOnCommit}: a login
+ * that runs before the change commits still reads the old row and would otherwise put the
+ * stale verification straight back.
+ */
+@Component
+public class CredentialCache {
+
+    private final Cache<String, byte[]> verified;
+
+    public CredentialCache(@Value("${security.credentials-cache.ttl-seconds}") long ttlSeconds,
+                           @Value("${security.credentials-cache.max-entries}") long maxEntries) {
+        this.verified = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    public boolean isVerified(Role role, String username, String password) {
+        byte[] digest = verified.getIfPresent(key(role, username));
+        return digest != null && MessageDigest.isEqual(digest, digest(password));
+    }
+
+    public void markVerified(Role role, String username, String password) {
+        verified.put(key(role, username), digest(password));
+    }
+
+    public void invalidate(Role role, String username) {
+        verified.invalidate(key(role, username));
+    }
+
+    public void invalidateOnCommit(Role role, String username) {
+        invalidateOnCommit(role, List.of(username));
+    }
+
+    /**
+     * Invalidates the users once the surrounding transaction commits, or right away when
+     * there is none. A rollback leaves the cached verifications in place.
+     */
+    public void invalidateOnCommit(Role role, Collection<String> usernames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            usernames.forEach(username -> invalidate(role, username));
+            return;
+        }
+        List<String> pending = List.copyOf(usernames);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.forEach(username -> invalidate(role, username));
+            }
+        });
+    }
+
+    private static String key(Role role, String username) {
+        return role.name() + ":" + username;
+    }
+
+    private static byte[] digest(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
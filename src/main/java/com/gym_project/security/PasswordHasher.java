@@ -0,0 +1,171 @@
+package com.gym_project.security;
+
+import com.gym_project.config.WaitTimeHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hashes and verifies passwords with a deliberately slow algorithm.
+ * <p>
+ * Hashes are stored as {@code {id}hash} so the algorithm or its cost can change without
+ * invalidating existing rows; values without an id prefix are legacy plaintext passwords.
+ * All hashing runs on a dedicated, bounded executor so a burst of logins queues up here
+ * (and is rejected once the queue is full) instead of occupying request threads.
+ */
+@Slf4j
+@Component
+public class PasswordHasher implements DisposableBean {
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String PBKDF2 = "pbkdf2";
+
+    private final String algorithm;
+    private final DelegatingPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutMs;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final WaitTimeHistogram queueWaits = new WaitTimeHistogram();
+
+    public PasswordHasher(@Value("${security.password.algorithm}") String algorithm,
+                          @Value("${security.password.bcrypt-strength}") int bcryptStrength,
+                          @Value("${security.password.pbkdf2-iterations}") int pbkdf2Iterations,
+                          @Value("${security.password.executor.threads}") int threads,
+                          @Value("${security.password.executor.queue-capacity}") int queueCapacity,
+                          @Value("${security.password.executor.timeout-ms}") long timeoutMs) {
+        if (!BCRYPT.equals(algorithm) && !PBKDF2.equals(algorithm)) {
+            throw new IllegalArgumentException("Unsupported password algorithm: " + algorithm);
+        }
+
+        this.algorithm = algorithm;
+        this.encoder = new DelegatingPasswordEncoder(algorithm, Map.of(
+                BCRYPT, new BCryptPasswordEncoder(bcryptStrength),
+                PBKDF2, new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations,
+                        Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256)));
+        this.encoder.setDefaultPasswordEncoderForMatches(new LegacyPlaintextEncoder());
+
+        this.queueCapacity = queueCapacity;
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HasherThreadFactory());
+    }
+
+    public String hash(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        return submit(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    /**
+     * True for legacy plaintext values and for hashes produced with another algorithm or cost.
+     */
+    public boolean needsRehash(String storedPassword) {
+        return encoder.upgradeEncoding(storedPassword);
+    }
+
+    public PasswordHashingSnapshot snapshot() {
+        return new PasswordHashingSnapshot(
+                algorithm,
+                executor.getPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                executor.getCompletedTaskCount(),
+                rejected.sum(),
+                timedOut.sum(),
+                queueWaits.getAverageMicros(),
+                queueWaits.getMaxMicros(),
+                queueWaits.getBucketUpperBoundsMicros(),
+                queueWaits.getBucketCounts()
+        );
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaits.record(System.nanoTime() - enqueuedAt);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue is full ({} pending)", executor.getQueue().size());
+            throw new RuntimeException("Too many concurrent logins, try again later");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new RuntimeException("Password check timed out");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password check interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Password check failed", e.getCause());
+        }
+    }
+
+    private static class LegacyPlaintextEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("Plaintext passwords are only accepted for matching");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String storedPassword) {
+            return storedPassword != null && MessageDigest.isEqual(
+                    rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static class HasherThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hasher-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
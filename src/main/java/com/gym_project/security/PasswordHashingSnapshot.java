@@ -0,0 +1,27 @@
+package com.gym_project.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class PasswordHashingSnapshot {
+
+    private final String algorithm;
+
+    private final int poolSize;
+    private final int activeThreads;
+    private final int queueDepth;
+    private final int queueCapacity;
+
+    private final long completedTasks;
+    private final long rejectedTasks;
+    private final long timedOutTasks;
+
+    private final long averageQueueWaitMicros;
+    private final long maxQueueWaitMicros;
+    private final long[] queueWaitBucketUpperBoundsMicros;
+    private final long[] queueWaitBucketCounts;
+}
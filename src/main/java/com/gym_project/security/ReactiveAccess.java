@@ -0,0 +1,54 @@
+package com.gym_project.security;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * The {@code @PreAuthorize} checks of the blocking services for reactive pipelines, which run on
+ * threads that do not carry the caller's {@code SecurityContextHolder}. Callers subscribe with
+ * {@code contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))}.
+ */
+public final class ReactiveAccess {
+
+    private ReactiveAccess() {
+    }
+
+    /**
+     * Completes when the current user is {@code username} or, if {@code role} is given, has that
+     * role; errors with {@link AccessDeniedException} otherwise.
+     */
+    public static Mono<Void> requireUserOrRole(String username, Role role) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(authentication -> isUser(authentication, username) || hasRole(authentication, role))
+                .switchIfEmpty(Mono.error(() -> new AccessDeniedException("Access is denied")))
+                .then();
+    }
+
+    public static Mono<Void> requireUser(String username) {
+        return requireUserOrRole(username, null);
+    }
+
+    /**
+     * Name of the current user, or empty when the pipeline carries no authentication.
+     */
+    public static Mono<Optional<String>> currentUsername() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> Optional.ofNullable(context.getAuthentication()).map(Authentication::getName))
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    private static boolean isUser(Authentication authentication, String username) {
+        return authentication.isAuthenticated() && authentication.getName().equals(username);
+    }
+
+    private static boolean hasRole(Authentication authentication, Role role) {
+        return role != null && authentication.isAuthenticated() && authentication.getAuthorities().stream()
+                .anyMatch(authority -> role.asAuthority().equals(authority.getAuthority()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.gym_project.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Login-relevant columns of a user, projected straight from {@code users}
+ * without loading the entity or its associations.
+ */
+@Getter
+@AllArgsConstructor
+public class UserCredentials {
+
+    private final String username;
+    private final String password;
+    private final boolean active;
+}
@@ -0,0 +1,17 @@
+package com.gym_project.service;
+
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterparts of the {@link TraineeService} reads.
+ */
+public interface ReactiveTraineeService {
+
+    Mono<TraineeResponseDto> getByUsername(String username);
+
+    Flux<TrainingResponseDto> getTrainings(String traineeUsername, TraineeTrainingFilterDto filter);
+}
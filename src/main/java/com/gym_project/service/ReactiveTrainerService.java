@@ -0,0 +1,17 @@
+package com.gym_project.service;
+
+import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterparts of the {@link TrainerService} reads.
+ */
+public interface ReactiveTrainerService {
+
+    Mono<TrainerResponseDto> getByUsername(String username);
+
+    Flux<TrainingResponseDto> getTrainings(String trainerUsername, TrainerTrainingFilterDto filter);
+}
@@ -0,0 +1,13 @@
+package com.gym_project.service;
+
+import com.gym_project.dto.create.TrainingCreateDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link TrainingService#create}.
+ */
+public interface ReactiveTrainingService {
+
+    Mono<TrainingResponseDto> create(TrainingCreateDto dto);
+}
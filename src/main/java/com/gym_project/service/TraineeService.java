@@ -3,9 +3,12 @@ package com.gym_project.service;
 import com.gym_project.dto.create.TraineeCreateDto;
 import com.gym_project.dto.filter.TraineeTrainingFilterDto;
 import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
 import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.dto.update.TraineeUpdateDto;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface TraineeService {
@@ -16,17 +19,28 @@ public interface TraineeService {
 
     List<TraineeResponseDto> getAll();
 
+    /**
+     * Trainees ordered by username, starting after {@code cursorUsername} when given.
+     */
+    PageDto<TraineeResponseDto> getAllPage(String cursorUsername, Integer pageSize);
+
     TraineeResponseDto update(String username, TraineeUpdateDto dto);
 
-    void deleteByUsername(String username);
+    DeletionResultDto deleteByUsername(String username);
 
     TraineeResponseDto activate(String username);
 
     TraineeResponseDto deactivate(String username);
 
+    int activateAll(Collection<String> usernames);
+
+    int deactivateAll(Collection<String> usernames);
+
     void changePassword(String username, String newPassword);
 
     List<TrainingResponseDto> getTrainings(String traineeUsername, TraineeTrainingFilterDto filter);
 
-    TraineeResponseDto validateCredentials(String username, String password);
+    PageDto<TrainingResponseDto> getTrainingsPage(String traineeUsername, TraineeTrainingFilterDto filter);
+
+    void validateCredentials(String username, String password);
 }
\ No newline at end of file
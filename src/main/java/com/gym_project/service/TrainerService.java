@@ -2,11 +2,15 @@ package com.gym_project.service;
 
 import com.gym_project.dto.create.TrainerCreateDto;
 import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.filter.UnassignedTrainerFilterDto;
 import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
 import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.dto.update.TraineeTrainersUpdateDto;
 import com.gym_project.dto.update.TrainerUpdateDto;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface TrainerService {
@@ -17,21 +21,33 @@ public interface TrainerService {
 
     List<TrainerResponseDto> getAll();
 
+    /**
+     * Trainers ordered by username, starting after {@code cursorUsername} when given.
+     */
+    PageDto<TrainerResponseDto> getAllPage(String cursorUsername, Integer pageSize);
+
     TrainerResponseDto update(String username, TrainerUpdateDto dto);
 
-    void deleteByUsername(String username);
+    DeletionResultDto deleteByUsername(String username);
 
     TrainerResponseDto activate(String username);
 
     TrainerResponseDto deactivate(String username);
 
+    int activateAll(Collection<String> usernames);
+
+    int deactivateAll(Collection<String> usernames);
+
     void changePassword(String username, String newPassword);
 
     List<TrainingResponseDto> getTrainings(String trainerUsername, TrainerTrainingFilterDto filter);
 
-    List<TrainerResponseDto> getUnassignedTrainersByTraineeUsername(String traineeUsername);
+    PageDto<TrainingResponseDto> getTrainingsPage(String trainerUsername, TrainerTrainingFilterDto filter);
+
+    PageDto<TrainerResponseDto> getUnassignedTrainersByTraineeUsername(String traineeUsername,
+                                                                      UnassignedTrainerFilterDto filter);
 
     List<TrainerResponseDto> updateTraineeTrainers(String traineeUsername, TraineeTrainersUpdateDto dto);
 
-    TrainerResponseDto validateCredentials(String username, String password);
+    void validateCredentials(String username, String password);
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.gym_project.service;
+
+import com.gym_project.dto.response.TrainerWorkloadDto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface TrainerWorkloadService {
+
+    /**
+     * Totals of the trainer's trainings in {@code month}; zero when there were none.
+     */
+    TrainerWorkloadDto getMonthlyWorkload(String trainerUsername, YearMonth month);
+
+    /**
+     * Totals for every month the trainer has trainings in, oldest first.
+     */
+    List<TrainerWorkloadDto> getWorkload(String trainerUsername);
+}
@@ -2,8 +2,23 @@ package com.gym_project.service;
 
 import com.gym_project.dto.create.TrainingCreateDto;
 import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.dto.update.TrainingUpdateDto;
+
+import java.util.function.Consumer;
 
 public interface TrainingService {
 
     TrainingResponseDto create(TrainingCreateDto dto);
-}
\ No newline at end of file
+
+    /**
+     * Applies the non-null fields of {@code dto} to the training.
+     */
+    TrainingResponseDto update(Long id, TrainingUpdateDto dto);
+
+    void delete(Long id);
+
+    /**
+     * Visits every training without loading entities; returns the number visited.
+     */
+    long scanAll(Consumer<TrainingResponseDto> action);
+}
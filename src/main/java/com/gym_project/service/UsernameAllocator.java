@@ -0,0 +1,6 @@
+package com.gym_project.service;
+
+public interface UsernameAllocator {
+
+    String allocate(String firstName, String lastName);
+}
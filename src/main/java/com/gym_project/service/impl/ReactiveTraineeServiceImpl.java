@@ -0,0 +1,41 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.repository.ReactiveTraineeRepository;
+import com.gym_project.security.ReactiveAccess;
+import com.gym_project.security.Role;
+import com.gym_project.service.ReactiveTraineeService;
+import com.gym_project.sharding.Shards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveTraineeServiceImpl implements ReactiveTraineeService {
+
+    private final ReactiveTraineeRepository traineeRepository;
+    private final Shards shards;
+
+    @Override
+    public Mono<TraineeResponseDto> getByUsername(String username) {
+        return ReactiveAccess.requireUser(username)
+                .then(traineeRepository.findProfileByUsername(username))
+                .switchIfEmpty(Mono.error(() -> {
+                    log.warn("Trainee not found: {}", username);
+                    return new RuntimeException("Trainee not found");
+                }));
+    }
+
+    @Override
+    public Flux<TrainingResponseDto> getTrainings(String traineeUsername, TraineeTrainingFilterDto filter) {
+        return ReactiveAccess.requireUserOrRole(traineeUsername, Role.TRAINEE)
+                .then(ReactiveTrainingServiceImpl.requireSingleShard(shards))
+                .thenMany(traineeRepository.findTrainingsByTraineeAndFilter(traineeUsername, filter));
+    }
+}
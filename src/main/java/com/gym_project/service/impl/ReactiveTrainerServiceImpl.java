@@ -0,0 +1,41 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.repository.ReactiveTrainerRepository;
+import com.gym_project.security.ReactiveAccess;
+import com.gym_project.security.Role;
+import com.gym_project.service.ReactiveTrainerService;
+import com.gym_project.sharding.Shards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveTrainerServiceImpl implements ReactiveTrainerService {
+
+    private final ReactiveTrainerRepository trainerRepository;
+    private final Shards shards;
+
+    @Override
+    public Mono<TrainerResponseDto> getByUsername(String username) {
+        return ReactiveAccess.requireUser(username)
+                .then(trainerRepository.findProfileByUsername(username))
+                .switchIfEmpty(Mono.error(() -> {
+                    log.warn("Trainer not found: {}", username);
+                    return new RuntimeException("Trainer not found");
+                }));
+    }
+
+    @Override
+    public Flux<TrainingResponseDto> getTrainings(String trainerUsername, TrainerTrainingFilterDto filter) {
+        return ReactiveAccess.requireUserOrRole(trainerUsername, Role.TRAINER)
+                .then(ReactiveTrainingServiceImpl.requireSingleShard(shards))
+                .thenMany(trainerRepository.findTrainingsByTrainerAndFilter(trainerUsername, filter));
+    }
+}
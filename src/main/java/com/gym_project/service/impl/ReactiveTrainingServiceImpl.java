@@ -0,0 +1,135 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.analytics.TrainingAnalytics;
+import com.gym_project.config.ReadYourWritesTracker;
+import com.gym_project.dto.create.TrainingCreateDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.repository.ReactiveTraineeRepository;
+import com.gym_project.repository.ReactiveTrainerRepository;
+import com.gym_project.repository.ReactiveTrainingRepository;
+import com.gym_project.security.ReactiveAccess;
+import com.gym_project.service.ReactiveTrainingService;
+import com.gym_project.sharding.Shards;
+import com.gym_project.sharding.TrainingRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+
+/**
+ * Creates trainings over R2DBC in one reactive transaction: link, insert and workload update.
+ * <p>
+ * Hibernate does not see these writes, so once the transaction commits the cached trainer/trainee
+ * collections of a newly linked pair are evicted, the analytics store is updated and the write is
+ * recorded for read-your-writes routing, as the blocking {@link TrainingServiceImpl} does.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveTrainingServiceImpl implements ReactiveTrainingService {
+
+    private static final String TRAINER_TRAINEES_ROLE = Trainer.class.getName() + ".trainees";
+
+    private static final String TRAINEE_TRAINERS_ROLE = Trainee.class.getName() + ".trainers";
+
+    private final ReactiveTrainingRepository trainingRepository;
+    private final ReactiveTraineeRepository traineeRepository;
+    private final ReactiveTrainerRepository trainerRepository;
+    private final TransactionalOperator reactiveTransactionalOperator;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TrainingAnalytics trainingAnalytics;
+    private final Shards shards;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Override
+    public Mono<TrainingResponseDto> create(TrainingCreateDto dto) {
+        return Mono.fromRunnable(() -> {
+                    log.info("Creating training: trainee={}, trainer={}, typeId={}",
+                            dto.getTraineeUsername(), dto.getTrainerUsername(), dto.getTrainingTypeId());
+                    TrainingServiceImpl.validate(dto);
+                })
+                .then(requireSingleShard(shards))
+                .then(ReactiveAccess.currentUsername())
+                .flatMap(username -> Mono.defer(() -> insert(dto))
+                        .as(reactiveTransactionalOperator::transactional)
+                        .doOnNext(created -> afterCommit(created.row, created.linked, username)))
+                .map(created -> toDto(created.row, dto, created.trainingTypeName));
+    }
+
+    /**
+     * Fails when trainings are sharded: the reactive repositories only see the main database.
+     */
+    static Mono<Void> requireSingleShard(Shards shards) {
+        return shards.isSharded()
+                ? Mono.error(new IllegalStateException("Reactive data access does not support additional training shards"))
+                : Mono.empty();
+    }
+
+    private Mono<Created> insert(TrainingCreateDto dto) {
+        // statements run one after another: they share the transaction's single connection
+        return traineeRepository.findIdByUsername(dto.getTraineeUsername())
+                .switchIfEmpty(notFound("Trainee", dto.getTraineeUsername()))
+                .flatMap(traineeId -> trainerRepository.findIdByUsername(dto.getTrainerUsername())
+                        .switchIfEmpty(notFound("Trainer", dto.getTrainerUsername()))
+                        .flatMap(trainerId -> trainingRepository.findTrainingTypeName(dto.getTrainingTypeId())
+                                .switchIfEmpty(notFound("Training type", dto.getTrainingTypeId()))
+                                .flatMap(typeName -> write(dto, traineeId, trainerId, typeName))));
+    }
+
+    private Mono<Created> write(TrainingCreateDto dto, long traineeId, long trainerId, String trainingTypeName) {
+        return trainerRepository.linkTrainee(trainerId, traineeId)
+                .flatMap(linked -> trainingRepository.nextId()
+                        .map(id -> new TrainingRow(id, traineeId, trainerId, dto.getTrainingTypeId(),
+                                dto.getTrainingName(), dto.getTrainingDate(), dto.getTrainingDuration()))
+                        .flatMap(row -> trainingRepository.insert(row)
+                                .then(trainerRepository.addToWorkload(trainerId, row.getTrainingDate(),
+                                        row.getTrainingDuration(), 1))
+                                .thenReturn(new Created(row, trainingTypeName, linked))));
+    }
+
+    private void afterCommit(TrainingRow row, boolean linked, Optional<String> username) {
+        if (linked) {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            cache.evictCollectionData(TRAINER_TRAINEES_ROLE, row.getTrainerId());
+            cache.evictCollectionData(TRAINEE_TRAINERS_ROLE, row.getTraineeId());
+        }
+        if (trainingAnalytics.isEnabled()) {
+            trainingAnalytics.add(row.getId(), row.getTrainerId(), row.getTraineeId(), row.getTrainingTypeId(),
+                    row.getTrainingDate(), row.getTrainingDuration());
+        }
+        username.ifPresent(readYourWritesTracker::recordWrite);
+        log.info("Training successfully created: id={}, name={}", row.getId(), row.getTrainingName());
+    }
+
+    private static <T> Mono<T> notFound(String what, Object key) {
+        return Mono.error(() -> {
+            log.error("{} not found: {}", what, key);
+            return new RuntimeException(what + " not found");
+        });
+    }
+
+    private static TrainingResponseDto toDto(TrainingRow row, TrainingCreateDto dto, String trainingTypeName) {
+        return new TrainingResponseDto(row.getId(), dto.getTraineeUsername(), dto.getTrainerUsername(),
+                trainingTypeName, row.getTrainingName(), row.getTrainingDate(), row.getTrainingDuration());
+    }
+
+    private static final class Created {
+        private final TrainingRow row;
+        private final String trainingTypeName;
+        private final boolean linked;
+
+        private Created(TrainingRow row, String trainingTypeName, boolean linked) {
+            this.row = row;
+            this.trainingTypeName = trainingTypeName;
+            this.linked = linked;
+        }
+    }
+}
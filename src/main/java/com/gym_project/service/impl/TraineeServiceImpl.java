@@ -1,27 +1,35 @@
 package com.gym_project.service.impl;
 
 
+import com.gym_project.analytics.TrainingAnalytics;
 import com.gym_project.dto.create.TraineeCreateDto;
 import com.gym_project.dto.filter.TraineeTrainingFilterDto;
 import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
 import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.dto.update.TraineeUpdateDto;
 import com.gym_project.entity.Trainee;
-import com.gym_project.entity.Training;
 import com.gym_project.mapper.TraineeMapper;
-import com.gym_project.mapper.TrainingMapper;
 import com.gym_project.repository.TraineeRepository;
+import com.gym_project.repository.TrainerWorkloadRepository;
+import com.gym_project.security.CredentialCache;
+import com.gym_project.security.PasswordHasher;
+import com.gym_project.security.Role;
+import com.gym_project.security.UserCredentials;
 import com.gym_project.service.TraineeService;
+import com.gym_project.service.UsernameAllocator;
 
 import com.gym_project.utils.PasswordGenerator;
-import com.gym_project.utils.UsernameGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Slf4j
@@ -31,6 +39,11 @@ import java.util.List;
 public class TraineeServiceImpl implements TraineeService {
 
     private final TraineeRepository traineeRepository;
+    private final UsernameAllocator usernameAllocator;
+    private final CredentialCache credentialCache;
+    private final PasswordHasher passwordHasher;
+    private final TrainerWorkloadRepository trainerWorkloadRepository;
+    private final TrainingAnalytics trainingAnalytics;
 
     @Override
     public TraineeResponseDto create(TraineeCreateDto dto) {
@@ -38,20 +51,20 @@ public class TraineeServiceImpl implements TraineeService {
 
         validate(dto);
 
-        String base = dto.getFirstName() + "." + dto.getLastName();
-        List<String> existingUsernames = traineeRepository.findUsernamesStartingWith(base);
-        String generatedUsername =
-                UsernameGenerator.generate(dto.getFirstName(), dto.getLastName(), existingUsernames);
+        String generatedUsername = usernameAllocator.allocate(dto.getFirstName(), dto.getLastName());
 
         Trainee trainee = TraineeMapper.toEntity(dto);
         trainee.setUsername(generatedUsername);
-        trainee.setPassword(PasswordGenerator.generate());
+        String password = PasswordGenerator.generate();
+        trainee.setPassword(passwordHasher.hash(password));
 
         traineeRepository.save(trainee);
 
         log.info("Trainee created successfully: {}", generatedUsername);
 
-        return TraineeMapper.toDto(trainee);
+        TraineeResponseDto response = TraineeMapper.toDto(trainee);
+        response.setPassword(password);
+        return response;
     }
 
     @Override
@@ -61,13 +74,11 @@ public class TraineeServiceImpl implements TraineeService {
 
         log.debug("Fetching trainee by username: {}", username);
 
-        Trainee trainee = traineeRepository.findByUsername(username)
+        return traineeRepository.findProfileByUsername(username)
                 .orElseThrow(() -> {
                     log.warn("Trainee not found: {}", username);
                     return new RuntimeException("Trainee not found");
                 });
-
-        return TraineeMapper.toDto(trainee);
     }
 
     @Override
@@ -81,6 +92,18 @@ public class TraineeServiceImpl implements TraineeService {
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAnyRole('TRAINEE', 'TRAINER')")
+    public PageDto<TraineeResponseDto> getAllPage(String cursorUsername, Integer pageSize) {
+        log.debug("Fetching trainees page, cursor={}", cursorUsername);
+        int size = PageDto.resolvePageSize(pageSize);
+        return PageDto.of(traineeRepository.findPage(cursorUsername, size + 1)
+                .stream()
+                .map(TraineeMapper::toDto)
+                .toList(), size);
+    }
+
     @Override
     @PreAuthorize("#username == authentication.name")
     public TraineeResponseDto update(String username, TraineeUpdateDto dto) {
@@ -104,7 +127,7 @@ public class TraineeServiceImpl implements TraineeService {
 
     @Override
     @PreAuthorize("#username == authentication.name")
-    public void deleteByUsername(String username) {
+    public DeletionResultDto deleteByUsername(String username) {
 
         log.info("Deleting trainee: {}", username);
 
@@ -114,10 +137,15 @@ public class TraineeServiceImpl implements TraineeService {
                     return new RuntimeException("Trainee not found");
                 });
 
-        traineeRepository.delete(trainee);
+        trainerWorkloadRepository.subtractTraineeTrainings(trainee.getId());
+        DeletionResultDto result = traineeRepository.deleteCascading(trainee);
+        trainingAnalytics.recordTraineeDeleted(trainee.getId());
+        credentialCache.invalidateOnCommit(Role.TRAINEE, username);
 
-        log.info("Trainee deleted: {}", username);
+        log.info("Trainee deleted: {} ({} trainings, {} trainer links)",
+                username, result.getTrainings(), result.getTrainerTraineeLinks());
 
+        return result;
     }
 
     @Override
@@ -129,6 +157,7 @@ public class TraineeServiceImpl implements TraineeService {
                 .orElseThrow(() -> new RuntimeException("Trainee not found"));
 
         trainee.setActive(true);
+        credentialCache.invalidateOnCommit(Role.TRAINEE, username);
 
         return TraineeMapper.toDto(trainee);
     }
@@ -142,10 +171,35 @@ public class TraineeServiceImpl implements TraineeService {
                 .orElseThrow(() -> new RuntimeException("Trainee not found"));
 
         trainee.setActive(false);
+        credentialCache.invalidateOnCommit(Role.TRAINEE, username);
 
         return TraineeMapper.toDto(trainee);
     }
 
+    @Override
+    @PreAuthorize("hasRole('TRAINER')")
+    public int activateAll(Collection<String> usernames) {
+        log.info("Activating {} trainees", usernames.size());
+
+        int updated = traineeRepository.activate(usernames);
+        credentialCache.invalidateOnCommit(Role.TRAINEE, usernames);
+
+        log.info("Activated {} of {} trainees", updated, usernames.size());
+        return updated;
+    }
+
+    @Override
+    @PreAuthorize("hasRole('TRAINER')")
+    public int deactivateAll(Collection<String> usernames) {
+        log.info("Deactivating {} trainees", usernames.size());
+
+        int updated = traineeRepository.deactivate(usernames);
+        credentialCache.invalidateOnCommit(Role.TRAINEE, usernames);
+
+        log.info("Deactivated {} of {} trainees", updated, usernames.size());
+        return updated;
+    }
+
     @Override
     @PreAuthorize("#username == authentication.name")
     public void changePassword(String username, String newPassword) {
@@ -155,7 +209,11 @@ public class TraineeServiceImpl implements TraineeService {
             log.warn("Attempt to set blank password for trainee: {}", username);
             throw new IllegalArgumentException("Password cannot be blank");
         }
-        traineeRepository.changePassword(username, newPassword);
+        if (traineeRepository.changePassword(username, passwordHasher.hash(newPassword)) == 0) {
+            log.warn("Trainee not found for password change: {}", username);
+            throw new RuntimeException("Trainee not found");
+        }
+        credentialCache.invalidateOnCommit(Role.TRAINEE, username);
 
         log.info("Password changed successfully for trainee: {}", username);
     }
@@ -164,38 +222,68 @@ public class TraineeServiceImpl implements TraineeService {
     @Transactional(readOnly = true)
     @PreAuthorize("#username == authentication.name or hasRole('TRAINEE')")
     public List<TrainingResponseDto> getTrainings(String traineeUsername, TraineeTrainingFilterDto filter) {
-        List<Training> trainings = traineeRepository.findTrainingsByTraineeAndFilter(traineeUsername, filter);
-        return trainings.stream()
-                .map(TrainingMapper::toDto)
-                .toList();
+        return traineeRepository.findTrainingDtosByTraineeAndFilter(traineeUsername, filter);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public TraineeResponseDto validateCredentials(String username, String password) {
+    @PreAuthorize("#username == authentication.name or hasRole('TRAINEE')")
+    public PageDto<TrainingResponseDto> getTrainingsPage(String traineeUsername, TraineeTrainingFilterDto filter) {
+        log.debug("Fetching trainings page for trainee: {}, cursor=({}, {})",
+                traineeUsername, filter.getCursorDate(), filter.getCursorId());
+
+        if ((filter.getCursorDate() == null) != (filter.getCursorId() == null)) {
+            throw new IllegalArgumentException("Cursor date and cursor id must be provided together");
+        }
+
+        return traineeRepository.findTrainingDtoPageByTraineeAndFilter(traineeUsername, filter);
+    }
+
+    @Override
+    // not read-only: a lagging replica would still accept the password replaced by changePassword
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void validateCredentials(String username, String password) {
 
         log.debug("Validating credentials for trainee: {}", username);
 
-        Trainee trainee = traineeRepository.findByUsername(username)
+        if (credentialCache.isVerified(Role.TRAINEE, username, password)) {
+            log.debug("Trainee credentials served from cache: {}", username);
+            return;
+        }
+
+        UserCredentials credentials = traineeRepository.findCredentialsByUsername(username)
                 .orElseThrow(() -> {
                     log.warn("Login failed - trainee not found: {}", username);
                     return new RuntimeException("Trainee not found");
                 });
 
-        if (!trainee.isActive()) {
+        if (!credentials.isActive()) {
             log.warn("Login attempt for deactivated trainee: {}", username);
             throw new RuntimeException("Trainee is deactivated");
         }
 
-
-        if (!trainee.getPassword().equals(password)) {
+        if (!passwordHasher.matches(password, credentials.getPassword())) {
             log.warn("Invalid password for trainee: {}", username);
             throw new RuntimeException("Invalid password");
         }
 
+        if (passwordHasher.needsRehash(credentials.getPassword())) {
+            rehashPassword(username, password);
+        }
+
+        credentialCache.markVerified(Role.TRAINEE, username, password);
+
         log.info("Trainee successfully authenticated: {}", username);
+    }
 
-        return TraineeMapper.toDto(trainee);
+    private void rehashPassword(String username, String password) {
+        try {
+            traineeRepository.changePassword(username, passwordHasher.hash(password));
+            log.info("Upgraded stored password hash for trainee: {}", username);
+        } catch (RuntimeException e) {
+            // the login itself succeeded; the upgrade is retried on the next login
+            log.warn("Could not upgrade password hash for trainee: {}", username, e);
+        }
     }
 
     private void validateUpdate(TraineeUpdateDto dto) {
@@ -1,28 +1,40 @@
 package com.gym_project.service.impl;
 
+import com.gym_project.analytics.TrainingAnalytics;
 import com.gym_project.dto.create.TrainerCreateDto;
 import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.filter.UnassignedTrainerFilterDto;
 import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
 import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.dto.update.TraineeTrainersUpdateDto;
 import com.gym_project.dto.update.TrainerUpdateDto;
 import com.gym_project.entity.Trainee;
 import com.gym_project.entity.Trainer;
-import com.gym_project.entity.Training;
 import com.gym_project.mapper.TrainerMapper;
-import com.gym_project.mapper.TrainingMapper;
 import lombok.extern.slf4j.Slf4j;
 import com.gym_project.repository.TraineeRepository;
 import com.gym_project.repository.TrainerRepository;
+import com.gym_project.security.CredentialCache;
+import com.gym_project.security.PasswordHasher;
+import com.gym_project.security.Role;
+import com.gym_project.security.UserCredentials;
 import com.gym_project.service.TrainerService;
+import com.gym_project.service.UsernameAllocator;
 import com.gym_project.utils.PasswordGenerator;
-import com.gym_project.utils.UsernameGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -32,6 +44,10 @@ public class TrainerServiceImpl implements TrainerService {
 
     private final TrainerRepository trainerRepository;
     private final TraineeRepository traineeRepository;
+    private final UsernameAllocator usernameAllocator;
+    private final CredentialCache credentialCache;
+    private final PasswordHasher passwordHasher;
+    private final TrainingAnalytics trainingAnalytics;
 
     @Override
     public TrainerResponseDto create(TrainerCreateDto dto) {
@@ -40,21 +56,21 @@ public class TrainerServiceImpl implements TrainerService {
 
         validateCreate(dto);
 
-        String base = dto.getFirstName() + "." + dto.getLastName();
-        List<String> existingUsernames = trainerRepository.findUsernamesStartingWith(base);
-
-        String generatedUsername = UsernameGenerator.generate(dto.getFirstName(), dto.getLastName(), existingUsernames);
+        String generatedUsername = usernameAllocator.allocate(dto.getFirstName(), dto.getLastName());
         log.debug("Generated trainer username: {}", generatedUsername);
 
         Trainer trainer = TrainerMapper.toEntity(dto);
         trainer.setUsername(generatedUsername);
-        trainer.setPassword(PasswordGenerator.generate());
+        String password = PasswordGenerator.generate();
+        trainer.setPassword(passwordHasher.hash(password));
 
         trainerRepository.save(trainer);
 
         log.info("Trainer created successfully: {}", generatedUsername);
 
-        return TrainerMapper.toDto(trainer);
+        TrainerResponseDto response = TrainerMapper.toDto(trainer);
+        response.setPassword(password);
+        return response;
     }
 
     @Override
@@ -64,13 +80,11 @@ public class TrainerServiceImpl implements TrainerService {
 
         log.debug("Fetching trainer by username: {}", username);
 
-        Trainer trainer = trainerRepository.findByUsername(username)
+        return trainerRepository.findProfileByUsername(username)
                 .orElseThrow(() -> {
                     log.warn("Trainer not found: {}", username);
                     return new RuntimeException("Trainer not found");
                 });
-
-        return TrainerMapper.toDto(trainer);
     }
 
     @Override
@@ -83,6 +97,17 @@ public class TrainerServiceImpl implements TrainerService {
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAnyRole('TRAINER', 'TRAINEE')")
+    public PageDto<TrainerResponseDto> getAllPage(String cursorUsername, Integer pageSize) {
+        log.debug("Fetching trainers page, cursor={}", cursorUsername);
+        int size = PageDto.resolvePageSize(pageSize);
+        return PageDto.of(trainerRepository.findPage(cursorUsername, size + 1).stream()
+                .map(TrainerMapper::toDto)
+                .toList(), size);
+    }
+
     @Override
     public TrainerResponseDto update(String username, TrainerUpdateDto dto) {
 
@@ -105,7 +130,7 @@ public class TrainerServiceImpl implements TrainerService {
 
     @Override
     @PreAuthorize("#username == authentication.name")
-    public void deleteByUsername(String username) {
+    public DeletionResultDto deleteByUsername(String username) {
 
         log.info("Deleting trainer: {}", username);
 
@@ -115,9 +140,14 @@ public class TrainerServiceImpl implements TrainerService {
                     return new RuntimeException("Trainer not found");
                 });
 
-        trainerRepository.deleteByUsername(username);
+        DeletionResultDto result = trainerRepository.deleteCascading(trainer);
+        trainingAnalytics.recordTrainerDeleted(trainer.getId());
+        credentialCache.invalidateOnCommit(Role.TRAINER, username);
+
+        log.info("Trainer deleted: {} ({} trainings, {} trainee links)",
+                username, result.getTrainings(), result.getTrainerTraineeLinks());
 
-        log.info("Trainer deleted: {}", username);
+        return result;
     }
 
     @Override
@@ -132,6 +162,7 @@ public class TrainerServiceImpl implements TrainerService {
                 });
 
         trainer.setActive(true);
+        credentialCache.invalidateOnCommit(Role.TRAINER, username);
         return TrainerMapper.toDto(trainer);
     }
 
@@ -147,9 +178,34 @@ public class TrainerServiceImpl implements TrainerService {
                 });
 
         trainer.setActive(false);
+        credentialCache.invalidateOnCommit(Role.TRAINER, username);
         return TrainerMapper.toDto(trainer);
     }
 
+    @Override
+    @PreAuthorize("hasRole('TRAINER')")
+    public int activateAll(Collection<String> usernames) {
+        log.info("Activating {} trainers", usernames.size());
+
+        int updated = trainerRepository.activate(usernames);
+        credentialCache.invalidateOnCommit(Role.TRAINER, usernames);
+
+        log.info("Activated {} of {} trainers", updated, usernames.size());
+        return updated;
+    }
+
+    @Override
+    @PreAuthorize("hasRole('TRAINER')")
+    public int deactivateAll(Collection<String> usernames) {
+        log.info("Deactivating {} trainers", usernames.size());
+
+        int updated = trainerRepository.deactivate(usernames);
+        credentialCache.invalidateOnCommit(Role.TRAINER, usernames);
+
+        log.info("Deactivated {} of {} trainers", updated, usernames.size());
+        return updated;
+    }
+
     @Override
     @PreAuthorize("#username == authentication.name")
     public void changePassword(String username, String newPassword) {
@@ -161,7 +217,11 @@ public class TrainerServiceImpl implements TrainerService {
             throw new IllegalArgumentException("Password cannot be blank");
         }
 
-        trainerRepository.changePassword(username, newPassword);
+        if (trainerRepository.changePassword(username, passwordHasher.hash(newPassword)) == 0) {
+            log.warn("Trainer not found for password change: {}", username);
+            throw new RuntimeException("Trainer not found");
+        }
+        credentialCache.invalidateOnCommit(Role.TRAINER, username);
 
         log.info("Password changed successfully for trainer: {}", username);
     }
@@ -170,33 +230,49 @@ public class TrainerServiceImpl implements TrainerService {
     @Transactional(readOnly = true)
     @PreAuthorize("#username == authentication.name or hasRole('TRAINER')")
     public List<TrainingResponseDto> getTrainings(String trainerUsername, TrainerTrainingFilterDto filter) {
-        List<Training> trainings = trainerRepository.findTrainingsByTrainerAndFilter(trainerUsername, filter);
-        return trainings.stream()
-                .map(TrainingMapper::toDto)
-                .toList();
+        return trainerRepository.findTrainingDtosByTrainerAndFilter(trainerUsername, filter);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @PreAuthorize("#username == authentication.name or hasRole('TRAINER')")
+    public PageDto<TrainingResponseDto> getTrainingsPage(String trainerUsername, TrainerTrainingFilterDto filter) {
+        log.debug("Fetching trainings page for trainer: {}, cursor=({}, {})",
+                trainerUsername, filter.getCursorDate(), filter.getCursorId());
+
+        if ((filter.getCursorDate() == null) != (filter.getCursorId() == null)) {
+            throw new IllegalArgumentException("Cursor date and cursor id must be provided together");
+        }
+
+        return trainerRepository.findTrainingDtoPageByTrainerAndFilter(trainerUsername, filter);
     }
 
     @Override
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('TRAINER')")
-    public List<TrainerResponseDto> getUnassignedTrainersByTraineeUsername(String traineeUsername) {
+    public PageDto<TrainerResponseDto> getUnassignedTrainersByTraineeUsername(String traineeUsername,
+                                                                             UnassignedTrainerFilterDto filter) {
 
-        log.debug("Fetching unassigned trainers for trainee: {}", traineeUsername);
+        log.debug("Fetching unassigned trainers for trainee: {}, cursor={}",
+                traineeUsername, filter.getCursorUsername());
 
         if (traineeUsername == null || traineeUsername.isBlank()) {
             log.warn("Blank trainee username provided for unassigned trainers search");
             throw new IllegalArgumentException("Trainee username must not be blank");
         }
 
-        List<Trainer> trainers =
-                trainerRepository.findUnassignedTrainersByTraineeUsername(traineeUsername);
+        Trainee trainee = traineeRepository.findByUsername(traineeUsername)
+                .orElseThrow(() -> {
+                    log.warn("Trainee not found: {}", traineeUsername);
+                    return new RuntimeException("Trainee not found");
+                });
+
+        PageDto<TrainerResponseDto> page = trainerRepository.findUnassignedTrainerPage(trainee.getId(), filter);
 
-        log.info("Found {} unassigned trainers for trainee: {}",
-                trainers.size(), traineeUsername);
+        log.info("Found {} unassigned trainers for trainee: {} (more: {})",
+                page.getContent().size(), traineeUsername, page.isHasNext());
 
-        return trainers.stream()
-                .map(TrainerMapper::toDto)
-                .toList();
+        return page;
     }
 
     @Override
@@ -212,61 +288,90 @@ public class TrainerServiceImpl implements TrainerService {
             throw new IllegalArgumentException("Trainee username must not be blank");
         }
 
+        if (dto.getTrainerUsernames() == null) {
+            throw new IllegalArgumentException("Trainer usernames must not be null");
+        }
+
         Trainee trainee = traineeRepository.findByUsername(traineeUsername)
                 .orElseThrow(() -> {
                     log.warn("Trainee not found: {}", traineeUsername);
                     return new RuntimeException("Trainee not found");
                 });
 
-        if (trainee.getTrainers() != null) {
-            for (Trainer trainer : trainee.getTrainers()) {
-                trainer.getTrainees().remove(trainee);
-            }
-            trainee.getTrainers().clear();
+        Set<String> requestedUsernames = new LinkedHashSet<>(dto.getTrainerUsernames());
+        List<Trainer> requestedTrainers = trainerRepository.findByUsernames(requestedUsernames);
+
+        if (requestedTrainers.size() != requestedUsernames.size()) {
+            requestedTrainers.forEach(trainer -> requestedUsernames.remove(trainer.getUsername()));
+            throw new RuntimeException("Trainer not found: " + String.join(", ", requestedUsernames));
         }
 
-        List<Trainer> newTrainers = dto.getTrainerUsernames().stream()
-                .map(username -> trainerRepository.findByUsername(username)
-                        .orElseThrow(() -> new RuntimeException("Trainer not found: " + username)))
-                .toList();
+        Set<Long> currentIds = trainerRepository.findTrainerIdsByTraineeId(trainee.getId());
+        Set<Long> requestedIds = requestedTrainers.stream()
+                .map(Trainer::getId)
+                .collect(Collectors.toSet());
 
-        for (Trainer trainer : newTrainers) {
-            trainer.getTrainees().add(trainee);
-            trainee.getTrainers().add(trainer);
-        }
+        Set<Long> removedIds = new HashSet<>(currentIds);
+        removedIds.removeAll(requestedIds);
+        Set<Long> addedIds = new HashSet<>(requestedIds);
+        addedIds.removeAll(currentIds);
 
-        log.info("Assigned {} trainers to trainee: {}",
-                newTrainers.size(), traineeUsername);
+        trainerRepository.unlinkTrainers(trainee.getId(), removedIds);
+        trainerRepository.linkTrainers(trainee.getId(), addedIds);
 
-        return newTrainers.stream()
-                .map(TrainerMapper::toDto)
+        log.info("Assigned {} trainers to trainee: {} (added {}, removed {})",
+                requestedTrainers.size(), traineeUsername, addedIds.size(), removedIds.size());
+
+        return requestedTrainers.stream()
+                .map(TrainerMapper::toSummaryDto)
                 .toList();
     }
 
     @Override
-    public TrainerResponseDto validateCredentials(String username, String password) {
+    // not read-only: a lagging replica would still accept the password replaced by changePassword
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void validateCredentials(String username, String password) {
 
         log.debug("Validating credentials for trainer: {}", username);
 
-        Trainer trainer = trainerRepository.findByUsername(username)
+        if (credentialCache.isVerified(Role.TRAINER, username, password)) {
+            log.debug("Trainer credentials served from cache: {}", username);
+            return;
+        }
+
+        UserCredentials credentials = trainerRepository.findCredentialsByUsername(username)
                 .orElseThrow(() -> {
                     log.warn("Login failed - trainer not found: {}", username);
                     return new RuntimeException("Trainer not found");
                 });
 
-        if (!trainer.isActive()) {
+        if (!credentials.isActive()) {
             log.warn("Login attempt for deactivated trainer: {}", username);
             throw new RuntimeException("Trainer is deactivated");
         }
 
-        if (!trainer.getPassword().equals(password)) {
+        if (!passwordHasher.matches(password, credentials.getPassword())) {
             log.warn("Invalid password for trainer: {}", username);
             throw new RuntimeException("Invalid password");
         }
 
+        if (passwordHasher.needsRehash(credentials.getPassword())) {
+            rehashPassword(username, password);
+        }
+
+        credentialCache.markVerified(Role.TRAINER, username, password);
+
         log.info("Trainer successfully authenticated: {}", username);
+    }
 
-        return TrainerMapper.toDto(trainer) ;
+    private void rehashPassword(String username, String password) {
+        try {
+            trainerRepository.changePassword(username, passwordHasher.hash(password));
+            log.info("Upgraded stored password hash for trainer: {}", username);
+        } catch (RuntimeException e) {
+            // the login itself succeeded; the upgrade is retried on the next login
+            log.warn("Could not upgrade password hash for trainer: {}", username, e);
+        }
     }
 
     private void validateCreate(TrainerCreateDto dto) {
@@ -0,0 +1,194 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.sharding.Shards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rebuilds {@code trainer_workload} from {@code trainings}, repairing any drift in the
+ * incrementally maintained totals. Trainers are split into {@code parallelism} slices by
+ * {@code MOD(trainer_id, parallelism)}; slices are aggregated across all shards and rewritten on
+ * the main database in parallel, each in its own transaction.
+ * <p>
+ * The rewrite takes an exclusive lock on {@code trainer_workload} before aggregating shard 0 on
+ * the same connection, so increments block until it commits and then apply on top of totals that
+ * do not include them. Slices take turns on that lock; the other shards are read beforehand,
+ * without it. Their rows commit apart from the increment on the main database, so a training
+ * booked there while its slice is rebuilt can still be counted twice or missed until the next run.
+ */
+@Slf4j
+@Component
+public class TrainerWorkloadReconciler {
+
+    static final String AGGREGATE_SQL =
+            "SELECT trainer_id, date_trunc('month', training_date)::date, SUM(training_duration), COUNT(*) " +
+                    "FROM trainings WHERE MOD(trainer_id, ?) = ? " +
+                    "GROUP BY trainer_id, date_trunc('month', training_date)";
+
+    static final String LOCK_SQL = "LOCK TABLE trainer_workload IN EXCLUSIVE MODE";
+
+    private static final String DELETE_SLICE_SQL =
+            "DELETE FROM trainer_workload WHERE MOD(trainer_id, ?) = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO trainer_workload (trainer_id, workload_month, total_minutes, training_count) " +
+                    "VALUES (?, ?, ?, ?)";
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final Shards shards;
+    private final int parallelism;
+
+    public TrainerWorkloadReconciler(Shards shards,
+                                     @Value("${trainings.workload.reconcile-parallelism}") int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Workload reconcile parallelism must be positive");
+        }
+        this.shards = shards;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Rebuilds all slices; returns the number of summary rows written.
+     */
+    @Scheduled(cron = "${trainings.workload.reconcile-cron}")
+    public long reconcile() {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Integer>> slices = new ArrayList<>();
+            for (int slice = 0; slice < parallelism; slice++) {
+                int current = slice;
+                slices.add(executor.submit(() -> reconcileSlice(current)));
+            }
+
+            long rows = 0;
+            for (Future<Integer> slice : slices) {
+                rows += slice.get();
+            }
+            log.info("Reconciled trainer workload: {} rows in {} slices, {} ms",
+                    rows, parallelism, (System.nanoTime() - start) / 1_000_000);
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Workload reconciliation interrupted", e);
+        } catch (ExecutionException e) {
+            log.error("Workload reconciliation failed", e.getCause());
+            throw new RuntimeException("Workload reconciliation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    int reconcileSlice(int slice) throws SQLException {
+        // slices already run in parallel; shards are read one after another so a long aggregate
+        // is not cut off by the interactive fan-out timeout
+        List<WorkloadTotal> others = new ArrayList<>();
+        for (int shard : shards.additionalShards()) {
+            others.addAll(shards.call(shard, (index, dataSource) -> aggregate(dataSource, slice)));
+        }
+
+        try (Connection connection = shards.get(0).getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement lock = connection.createStatement()) {
+                    lock.execute(LOCK_SQL);
+                }
+                List<WorkloadTotal> totals = aggregate(connection, slice);
+                totals.addAll(others);
+                int rows = replaceSlice(connection, slice, merge(totals));
+                connection.commit();
+                return rows;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    static Map<WorkloadKey, WorkloadTotal> merge(List<WorkloadTotal> totals) {
+        Map<WorkloadKey, WorkloadTotal> merged = new LinkedHashMap<>();
+        for (WorkloadTotal total : totals) {
+            merged.merge(total.key(), total, WorkloadTotal::plus);
+        }
+        return merged;
+    }
+
+    private List<WorkloadTotal> aggregate(DataSource dataSource, int slice) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return aggregate(connection, slice);
+        }
+    }
+
+    private List<WorkloadTotal> aggregate(Connection connection, int slice) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(AGGREGATE_SQL)) {
+            statement.setInt(1, parallelism);
+            statement.setInt(2, slice);
+            List<WorkloadTotal> totals = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    totals.add(new WorkloadTotal(
+                            new WorkloadKey(rs.getLong(1), rs.getDate(2).toLocalDate()),
+                            rs.getLong(3),
+                            rs.getInt(4)));
+                }
+            }
+            return totals;
+        }
+    }
+
+    private int replaceSlice(Connection connection, int slice, Map<WorkloadKey, WorkloadTotal> totals)
+            throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_SLICE_SQL);
+             PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            delete.setInt(1, parallelism);
+            delete.setInt(2, slice);
+            delete.executeUpdate();
+
+            int pending = 0;
+            for (WorkloadTotal total : totals.values()) {
+                insert.setLong(1, total.key().trainerId());
+                insert.setDate(2, Date.valueOf(total.key().month()));
+                insert.setLong(3, total.minutes());
+                insert.setInt(4, total.trainings());
+                insert.addBatch();
+                if (++pending % INSERT_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            return totals.size();
+        }
+    }
+
+    record WorkloadKey(long trainerId, LocalDate month) {
+    }
+
+    record WorkloadTotal(WorkloadKey key, long minutes, int trainings) {
+
+        WorkloadTotal plus(WorkloadTotal other) {
+            return new WorkloadTotal(key, minutes + other.minutes, trainings + other.trainings);
+        }
+    }
+}
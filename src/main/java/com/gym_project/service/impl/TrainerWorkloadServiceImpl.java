@@ -0,0 +1,68 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.dto.response.TrainerWorkloadDto;
+import com.gym_project.repository.TrainerRepository;
+import com.gym_project.repository.TrainerWorkloadRepository;
+import com.gym_project.service.TrainerWorkloadService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TrainerWorkloadServiceImpl implements TrainerWorkloadService {
+
+    private final TrainerWorkloadRepository trainerWorkloadRepository;
+    private final TrainerRepository trainerRepository;
+
+    @Override
+    @PreAuthorize("#trainerUsername == authentication.name")
+    public TrainerWorkloadDto getMonthlyWorkload(String trainerUsername, YearMonth month) {
+        validateUsername(trainerUsername);
+        if (month == null) {
+            throw new IllegalArgumentException("Month is required");
+        }
+
+        log.debug("Fetching workload of trainer {} for {}", trainerUsername, month);
+
+        return trainerWorkloadRepository.findByTrainerAndMonth(trainerUsername, month)
+                .orElseGet(() -> {
+                    requireTrainer(trainerUsername);
+                    return new TrainerWorkloadDto(trainerUsername, month, 0, 0);
+                });
+    }
+
+    @Override
+    @PreAuthorize("#trainerUsername == authentication.name")
+    public List<TrainerWorkloadDto> getWorkload(String trainerUsername) {
+        validateUsername(trainerUsername);
+
+        log.debug("Fetching workload of trainer {}", trainerUsername);
+
+        List<TrainerWorkloadDto> workload = trainerWorkloadRepository.findByTrainer(trainerUsername);
+        if (workload.isEmpty()) {
+            requireTrainer(trainerUsername);
+        }
+        return workload;
+    }
+
+    private void validateUsername(String trainerUsername) {
+        if (trainerUsername == null || trainerUsername.isBlank()) {
+            throw new IllegalArgumentException("Trainer username is required");
+        }
+    }
+
+    private void requireTrainer(String trainerUsername) {
+        if (trainerRepository.findByUsername(trainerUsername).isEmpty()) {
+            log.warn("Trainer not found: {}", trainerUsername);
+            throw new RuntimeException("Trainer not found");
+        }
+    }
+}
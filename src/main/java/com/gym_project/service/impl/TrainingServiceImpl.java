@@ -1,7 +1,9 @@
 package com.gym_project.service.impl;
 
+import com.gym_project.analytics.TrainingAnalytics;
 import com.gym_project.dto.create.TrainingCreateDto;
 import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.dto.update.TrainingUpdateDto;
 import com.gym_project.entity.*;
 import com.gym_project.mapper.TrainingMapper;
 import com.gym_project.repository.*;
@@ -11,6 +13,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -21,6 +26,8 @@ public class TrainingServiceImpl implements TrainingService {
     private final TraineeRepository traineeRepository;
     private final TrainerRepository trainerRepository;
     private final TrainingTypeRepository trainingTypeRepository;
+    private final TrainerWorkloadRepository trainerWorkloadRepository;
+    private final TrainingAnalytics trainingAnalytics;
 
     @Override
     public TrainingResponseDto create(TrainingCreateDto dto) {
@@ -58,14 +65,14 @@ public class TrainingServiceImpl implements TrainingService {
         training.setTrainingDate(dto.getTrainingDate());
         training.setTrainingDuration(dto.getTrainingDuration());
 
-        if (!trainer.getTrainees().contains(trainee)) {
-            trainer.getTrainees().add(trainee);
-            trainee.getTrainers().add(trainer);
+        if (trainerRepository.linkTrainee(trainer.getId(), trainee.getId())) {
             log.debug("Linked trainer {} with trainee {}",
                     trainer.getUsername(), trainee.getUsername());
         }
 
         trainingRepository.save(training);
+        trainerWorkloadRepository.add(trainer.getId(), training.getTrainingDate(), training.getTrainingDuration(), 1);
+        trainingAnalytics.recordCreated(training);
 
         log.info("Training successfully created: id={}, name={}",
                 training.getId(), training.getTrainingName());
@@ -73,7 +80,98 @@ public class TrainingServiceImpl implements TrainingService {
         return TrainingMapper.toDto(training);
     }
 
-    private void validate(TrainingCreateDto dto) {
+    @Override
+    public TrainingResponseDto update(Long id, TrainingUpdateDto dto) {
+
+        log.info("Updating training: {}", id);
+
+        Training training = findTraining(id);
+        Long previousTrainerId = training.getTrainer().getId();
+        LocalDate previousDate = training.getTrainingDate();
+        Integer previousDuration = training.getTrainingDuration();
+
+        if (dto.getTraineeUsername() != null) {
+            training.setTrainee(traineeRepository.findByUsername(dto.getTraineeUsername())
+                    .orElseThrow(() -> new RuntimeException("Trainee not found")));
+        }
+        if (dto.getTrainerUsername() != null) {
+            training.setTrainer(trainerRepository.findByUsername(dto.getTrainerUsername())
+                    .orElseThrow(() -> new RuntimeException("Trainer not found")));
+        }
+        if (dto.getTrainingTypeName() != null) {
+            training.setTrainingType(trainingTypeRepository.findByName(dto.getTrainingTypeName())
+                    .orElseThrow(() -> new RuntimeException("Training type not found")));
+        }
+        if (dto.getTrainingName() != null) {
+            if (dto.getTrainingName().isBlank()) {
+                throw new IllegalArgumentException("Training name is required");
+            }
+            training.setTrainingName(dto.getTrainingName());
+        }
+        if (dto.getTrainingDate() != null) {
+            training.setTrainingDate(dto.getTrainingDate());
+        }
+        if (dto.getTrainingDuration() != null) {
+            if (dto.getTrainingDuration() <= 0) {
+                throw new IllegalArgumentException("Training duration must be positive");
+            }
+            training.setTrainingDuration(dto.getTrainingDuration());
+        }
+
+        if (dto.getTraineeUsername() != null || dto.getTrainerUsername() != null) {
+            trainerRepository.linkTrainee(training.getTrainer().getId(), training.getTrainee().getId());
+        }
+
+        // routed by the previous trainer too, in case the new one keeps its trainings on another shard
+        Training updated = trainingRepository.update(training, previousTrainerId);
+
+        trainerWorkloadRepository.add(previousTrainerId, previousDate, -previousDuration, -1);
+        trainerWorkloadRepository.add(updated.getTrainer().getId(), updated.getTrainingDate(),
+                updated.getTrainingDuration(), 1);
+        trainingAnalytics.recordUpdated(updated);
+
+        log.info("Training updated: {}", id);
+
+        return TrainingMapper.toDto(updated);
+    }
+
+    @Override
+    public void delete(Long id) {
+
+        log.info("Deleting training: {}", id);
+
+        Training training = findTraining(id);
+        trainingRepository.delete(training);
+        trainerWorkloadRepository.add(training.getTrainer().getId(), training.getTrainingDate(),
+                -training.getTrainingDuration(), -1);
+        trainingAnalytics.recordDeleted(training.getId());
+
+        log.info("Training deleted: {}", id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long scanAll(Consumer<TrainingResponseDto> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Scan action is required");
+        }
+        long scanned = trainingRepository.scanAll(action);
+        log.debug("Scanned {} trainings", scanned);
+        return scanned;
+    }
+
+    private Training findTraining(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Training id is required");
+        }
+        return trainingRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Training not found: {}", id);
+                    return new RuntimeException("Training not found");
+                });
+    }
+
+    static void validate(TrainingCreateDto dto) {
 
         if (dto.getTraineeUsername() == null || dto.getTraineeUsername().isBlank()) {
             log.error("Validation failed: trainee username is blank");
@@ -0,0 +1,115 @@
+package com.gym_project.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gym_project.repository.UsernameCounterRepository;
+import com.gym_project.service.UsernameAllocator;
+import com.gym_project.utils.UsernameGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out username suffixes from a durable per-base counter in {@code username_counters}.
+ * <p>
+ * Each node reserves suffixes in blocks of {@code blockSize} with a single atomic UPDATE/UPSERT
+ * and serves them from memory, so concurrent registrations on any number of nodes never get the
+ * same suffix. Allocations for the same base on one node are serialized by a striped lock.
+ * Suffixes of a block that is evicted or lost on restart are skipped, never reused.
+ * <p>
+ * Counters are per base, but a base ending in digits can spell a suffixed name of a shorter base:
+ * "John"/"Smith1" gives "John.Smith1", suffix 1 of "John.Smith". A candidate ending in a digit is
+ * therefore checked against {@code users} and skipped when taken. Two such registrations racing
+ * each other can still both pass the check; the unique username constraint rejects the second.
+ */
+@Slf4j
+@Service
+public class UsernameAllocatorImpl implements UsernameAllocator {
+
+    private final UsernameCounterRepository counterRepository;
+    private final int blockSize;
+    private final Lock[] stripes;
+    private final Cache<String, Block> blocks;
+
+    public UsernameAllocatorImpl(UsernameCounterRepository counterRepository,
+                                 @Value("${username.allocator.block-size}") int blockSize,
+                                 @Value("${username.allocator.lock-stripes}") int lockStripes,
+                                 @Value("${username.allocator.cached-bases}") long cachedBases) {
+        if (blockSize <= 0 || lockStripes <= 0) {
+            throw new IllegalArgumentException("Block size and lock stripes must be positive");
+        }
+        this.counterRepository = counterRepository;
+        this.blockSize = blockSize;
+        this.stripes = new Lock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.blocks = Caffeine.newBuilder()
+                .maximumSize(cachedBases)
+                .build();
+    }
+
+    @Override
+    public String allocate(String firstName, String lastName) {
+        String base = firstName + "." + lastName;
+
+        Lock lock = stripeFor(base);
+        lock.lock();
+        try {
+            String username;
+            do {
+                username = UsernameGenerator.withSuffix(base, nextSuffix(base));
+            } while (mayBelongToAnotherBase(username) && counterRepository.usernameExists(username));
+            return username;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long nextSuffix(String base) {
+        Block block = blocks.getIfPresent(base);
+        if (block == null || block.isExhausted()) {
+            block = reserveBlock(base);
+            blocks.put(base, block);
+        }
+        return block.next++;
+    }
+
+    private static boolean mayBelongToAnotherBase(String username) {
+        return Character.isDigit(username.charAt(username.length() - 1));
+    }
+
+    private Block reserveBlock(String base) {
+        long end = counterRepository.incrementIfPresent(base, blockSize)
+                .orElseGet(() -> {
+                    // first registration for this base: seed the counter once from the existing usernames
+                    long seed = UsernameGenerator.nextSuffix(base, counterRepository.findUsernamesStartingWith(base));
+                    log.debug("Initializing username counter for base {} at suffix {}", base, seed);
+                    return counterRepository.insertOrIncrement(base, seed + blockSize, blockSize);
+                });
+
+        return new Block(end - blockSize, end);
+    }
+
+    private Lock stripeFor(String base) {
+        return stripes[Math.floorMod(base.hashCode(), stripes.length)];
+    }
+
+    private static class Block {
+
+        private long next;
+        private final long end;
+
+        Block(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+
+        boolean isExhausted() {
+            return next >= end;
+        }
+    }
+}
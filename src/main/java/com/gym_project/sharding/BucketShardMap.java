@@ -0,0 +1,117 @@
+package com.gym_project.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * {@link ShardMap} backed by the {@code shard_buckets} table on the main database.
+ * <p>
+ * Buckets without a row are seeded on shard 0 the first time the application starts with more
+ * than one shard, because that is where all existing trainings live; {@link ShardRebalancer}
+ * then spreads them out one bucket at a time, moving the rows along. The assignment is reloaded
+ * periodically, so a bucket moved in one instance is picked up by the others.
+ * With a single shard the table is never touched and every bucket maps to shard 0.
+ */
+@Slf4j
+@Component
+@DependsOn("flyway")
+public class BucketShardMap implements ShardMap, InitializingBean {
+
+    private final DataSource dataSource;
+    private final int shardCount;
+    private final AtomicIntegerArray assignment;
+
+    public BucketShardMap(DataSource dataSource, Shards shards, @Value("${sharding.buckets}") int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("sharding.buckets must be positive");
+        }
+        this.dataSource = dataSource;
+        this.shardCount = shards.count();
+        this.assignment = new AtomicIntegerArray(buckets);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if (shardCount == 1) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement seed = connection.prepareStatement(
+                     "INSERT INTO shard_buckets (bucket, shard) VALUES (?, ?) ON CONFLICT DO NOTHING")) {
+            for (int bucket = 0; bucket < assignment.length(); bucket++) {
+                seed.setInt(1, bucket);
+                seed.setInt(2, 0);
+                seed.addBatch();
+            }
+            seed.executeBatch();
+        }
+        reload();
+        log.info("Shard map loaded: {} buckets over {} shards", assignment.length(), shardCount);
+    }
+
+    @Scheduled(fixedDelayString = "${sharding.map-refresh-ms}", initialDelayString = "${sharding.map-refresh-ms}")
+    public void reload() throws SQLException {
+        if (shardCount == 1) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT bucket, shard FROM shard_buckets WHERE bucket < ?")) {
+            statement.setInt(1, assignment.length());
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    assignment.set(rs.getInt(1), checkShard(rs.getInt(1), rs.getInt(2)));
+                }
+            }
+        }
+    }
+
+    @Override
+    public int shardCount() {
+        return shardCount;
+    }
+
+    @Override
+    public int bucketCount() {
+        return assignment.length();
+    }
+
+    @Override
+    public int shardOfBucket(int bucket) {
+        return assignment.get(bucket);
+    }
+
+    @Override
+    public void reassign(int bucket, int shard) {
+        checkShard(bucket, shard);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE shard_buckets SET shard = ? WHERE bucket = ?")) {
+            statement.setInt(1, shard);
+            statement.setInt(2, bucket);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not reassign bucket " + bucket, e);
+        }
+        assignment.set(bucket, shard);
+    }
+
+    private int checkShard(int bucket, int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalStateException("Bucket " + bucket + " is assigned to shard " + shard
+                    + " but only " + shardCount + " shards are configured");
+        }
+        return shard;
+    }
+}
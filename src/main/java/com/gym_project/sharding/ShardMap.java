@@ -0,0 +1,32 @@
+package com.gym_project.sharding;
+
+/**
+ * Decides which shard holds the trainings of a trainer.
+ * <p>
+ * Trainer ids are hashed into a fixed number of buckets, and each bucket is assigned to a shard.
+ * Rebalancing moves whole buckets, so the bucket of a trainer never changes, only the shard
+ * behind it. Shard 0 is the main database. The default implementation is
+ * {@link BucketShardMap}; declare another {@code @Primary} bean of this type to replace it.
+ */
+public interface ShardMap {
+
+    int shardCount();
+
+    int bucketCount();
+
+    /**
+     * Must be reproducible in SQL, since {@link ShardRebalancer} selects the rows of a bucket
+     * with {@code MOD(trainer_id, bucketCount)}.
+     */
+    default int bucketFor(long trainerId) {
+        return (int) Math.floorMod(trainerId, (long) bucketCount());
+    }
+
+    int shardOfBucket(int bucket);
+
+    default int shardFor(long trainerId) {
+        return shardOfBucket(bucketFor(trainerId));
+    }
+
+    void reassign(int bucket, int shard);
+}
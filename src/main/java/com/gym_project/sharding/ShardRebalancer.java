@@ -0,0 +1,222 @@
+package com.gym_project.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves buckets of trainings between shards, e.g. after a shard has been added.
+ * <p>
+ * A move copies the bucket's rows to the target and switches the bucket in the {@link ShardMap} so
+ * new writes go to the target. Other instances and transactions already in flight can keep writing
+ * to the source until they pick up the new assignment, so the move then waits
+ * {@code sharding.map-refresh-ms} plus {@code sharding.rebalance.max-transaction-ms} and finally
+ * drains the source: rows are deleted from it with {@code DELETE ... RETURNING} in batches, and
+ * each batch is inserted on the target before the delete commits, until the bucket is empty on
+ * the source. A row written there late is therefore moved rather than lost. Reads in between may
+ * see a row on both shards for a moment. Updates and deletes of existing rows in the bucket during
+ * a move are not carried over, so run it when booking traffic is low.
+ */
+@Slf4j
+@Component
+public class ShardRebalancer {
+
+    private static final int COPY_BATCH_SIZE = 500;
+
+    private final Shards shards;
+    private final ShardMap shardMap;
+    private final long settleMs;
+
+    public ShardRebalancer(Shards shards, ShardMap shardMap,
+                           @Value("${sharding.map-refresh-ms}") long mapRefreshMs,
+                           @Value("${sharding.rebalance.max-transaction-ms}") long maxTransactionMs) {
+        this.shards = shards;
+        this.shardMap = shardMap;
+        this.settleMs = mapRefreshMs + maxTransactionMs;
+    }
+
+    /**
+     * Buckets to move, with their target shard, so that bucket counts per shard differ by at most one.
+     */
+    public Map<Integer, Integer> plan() {
+        List<List<Integer>> owned = new ArrayList<>();
+        for (int shard = 0; shard < shardMap.shardCount(); shard++) {
+            owned.add(new ArrayList<>());
+        }
+        for (int bucket = 0; bucket < shardMap.bucketCount(); bucket++) {
+            owned.get(shardMap.shardOfBucket(bucket)).add(bucket);
+        }
+
+        Map<Integer, Integer> moves = new LinkedHashMap<>();
+        while (true) {
+            int largest = 0;
+            int smallest = 0;
+            for (int shard = 1; shard < owned.size(); shard++) {
+                if (owned.get(shard).size() > owned.get(largest).size()) largest = shard;
+                if (owned.get(shard).size() < owned.get(smallest).size()) smallest = shard;
+            }
+            if (owned.get(largest).size() - owned.get(smallest).size() <= 1) {
+                return moves;
+            }
+            List<Integer> from = owned.get(largest);
+            int bucket = from.remove(from.size() - 1);
+            owned.get(smallest).add(bucket);
+            moves.put(bucket, smallest);
+        }
+    }
+
+    /**
+     * Applies {@link #plan()}; returns the number of buckets moved.
+     */
+    public int rebalance() {
+        Map<Integer, Integer> moves = plan();
+        moves.forEach(this::moveBucket);
+        log.info("Rebalanced {} buckets over {} shards", moves.size(), shardMap.shardCount());
+        return moves.size();
+    }
+
+    /**
+     * Moves one bucket to {@code targetShard}; returns the number of rows copied.
+     */
+    public long moveBucket(int bucket, int targetShard) {
+        if (targetShard < 0 || targetShard >= shardMap.shardCount()) {
+            throw new IllegalArgumentException("Unknown shard: " + targetShard);
+        }
+        int sourceShard = shardMap.shardOfBucket(bucket);
+        if (sourceShard == targetShard) {
+            return 0;
+        }
+
+        DataSource source = shards.get(sourceShard);
+        DataSource target = shards.get(targetShard);
+        try {
+            long copied = copy(bucket, source, target);
+            shardMap.reassign(bucket, targetShard);
+            awaitStaleWriters();
+            long drained = drain(bucket, source, target);
+
+            log.info("Moved bucket {} from shard {} to shard {}: {} rows copied, {} drained from the source",
+                    bucket, sourceShard, targetShard, copied, drained);
+            return copied;
+        } catch (SQLException e) {
+            throw new RuntimeException("Moving bucket " + bucket + " to shard " + targetShard + " failed", e);
+        }
+    }
+
+    private long copy(int bucket, DataSource source, DataSource target) throws SQLException {
+        long copied = 0;
+        try (Connection read = source.getConnection();
+             Connection write = target.getConnection()) {
+
+            // PostgreSQL only streams with a fetch size outside autocommit
+            read.setAutoCommit(false);
+            try (PreparedStatement select = read.prepareStatement(
+                         "SELECT " + ShardedTrainingStore.COLUMNS + " FROM trainings WHERE MOD(trainer_id, ?) = ?");
+                 PreparedStatement insert = write.prepareStatement(
+                         "INSERT INTO trainings (" + ShardedTrainingStore.COLUMNS + ") " +
+                                 "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING")) {
+
+                select.setFetchSize(COPY_BATCH_SIZE);
+                select.setInt(1, shardMap.bucketCount());
+                select.setInt(2, bucket);
+
+                int pending = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        ShardedTrainingStore.bindRow(insert, ShardedTrainingStore.readRow(rs));
+                        insert.addBatch();
+                        if (++pending == COPY_BATCH_SIZE) {
+                            copied += inserted(insert.executeBatch());
+                            pending = 0;
+                        }
+                    }
+                }
+                if (pending > 0) {
+                    copied += inserted(insert.executeBatch());
+                }
+            } finally {
+                read.rollback();
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Waits until no instance or open transaction can still be writing to the old shard of a bucket.
+     */
+    private void awaitStaleWriters() {
+        if (settleMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(settleMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for writers to pick up the shard map", e);
+        }
+    }
+
+    /**
+     * Moves whatever is left of the bucket on the source to the target, one batch per source
+     * transaction; the target insert commits before the source delete, so a failure in between
+     * leaves a duplicate rather than a lost row. Returns the number of rows deleted from the source.
+     */
+    private long drain(int bucket, DataSource source, DataSource target) throws SQLException {
+        long drained = 0;
+        try (Connection read = source.getConnection();
+             Connection write = target.getConnection()) {
+            read.setAutoCommit(false);
+            try (PreparedStatement delete = read.prepareStatement(
+                         "DELETE FROM trainings WHERE id IN (SELECT id FROM trainings WHERE MOD(trainer_id, ?) = ? " +
+                                 "LIMIT ?) RETURNING " + ShardedTrainingStore.COLUMNS);
+                 PreparedStatement insert = write.prepareStatement(
+                         "INSERT INTO trainings (" + ShardedTrainingStore.COLUMNS + ") " +
+                                 "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING")) {
+                delete.setInt(1, shardMap.bucketCount());
+                delete.setInt(2, bucket);
+                delete.setInt(3, COPY_BATCH_SIZE);
+
+                while (true) {
+                    int batch = 0;
+                    try (ResultSet rs = delete.executeQuery()) {
+                        while (rs.next()) {
+                            ShardedTrainingStore.bindRow(insert, ShardedTrainingStore.readRow(rs));
+                            insert.addBatch();
+                            batch++;
+                        }
+                    }
+                    if (batch == 0) {
+                        read.commit();
+                        return drained;
+                    }
+                    insert.executeBatch();
+                    read.commit();
+                    drained += batch;
+                }
+            } catch (SQLException | RuntimeException e) {
+                read.rollback();
+                throw e;
+            } finally {
+                read.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static long inserted(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,305 @@
+package com.gym_project.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to the {@code trainings} table of any shard.
+ * <p>
+ * Statements run in autocommit on the shard's own pool, so a write to a shard other than 0 is
+ * not part of the caller's JPA transaction on the main database.
+ * <p>
+ * Ids come from {@code trainings_seq} on the main database, in the same blocks of
+ * {@value #ID_BLOCK_SIZE} that Hibernate's pooled optimizer uses for {@code Training}, so ids stay
+ * unique across shards.
+ */
+@Slf4j
+@Component
+public class ShardedTrainingStore {
+
+    /**
+     * Must match the allocationSize of {@code trainings_seq} on {@code Training}.
+     */
+    public static final int ID_BLOCK_SIZE = 50;
+
+    static final String COLUMNS =
+            "id, trainee_id, trainer_id, training_type_id, training_name, training_date, training_duration";
+
+    private final Shards shards;
+
+    private long nextId;
+    private long lastIdInBlock = -1;
+
+    public ShardedTrainingStore(Shards shards) {
+        this.shards = shards;
+    }
+
+    public synchronized long nextId() {
+        if (nextId > lastIdInBlock) {
+            long hi = shards.call(0, (shard, dataSource) -> {
+                try (Connection connection = dataSource.getConnection();
+                     PreparedStatement statement = connection.prepareStatement("SELECT nextval('trainings_seq')");
+                     ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return List.of(rs.getLong(1));
+                }
+            }).get(0);
+            nextId = Math.max(hi - ID_BLOCK_SIZE + 1, 1);
+            lastIdInBlock = hi;
+        }
+        return nextId++;
+    }
+
+    public void insert(int shard, TrainingRow row) {
+        shards.call(shard, (s, dataSource) -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "INSERT INTO trainings (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                bindRow(statement, row);
+                statement.executeUpdate();
+            }
+            return List.of();
+        });
+    }
+
+    public int update(int shard, TrainingRow row) {
+        return shards.call(shard, (s, dataSource) -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "UPDATE trainings SET trainee_id = ?, trainer_id = ?, training_type_id = ?, " +
+                                 "training_name = ?, training_date = ?, training_duration = ? WHERE id = ?")) {
+                statement.setLong(1, row.getTraineeId());
+                statement.setLong(2, row.getTrainerId());
+                statement.setLong(3, row.getTrainingTypeId());
+                statement.setString(4, row.getTrainingName());
+                statement.setDate(5, Date.valueOf(row.getTrainingDate()));
+                statement.setInt(6, row.getTrainingDuration());
+                statement.setLong(7, row.getId());
+                return List.of(statement.executeUpdate());
+            }
+        }).get(0);
+    }
+
+    public int delete(int shard, long id) {
+        return shards.call(shard, (s, dataSource) -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("DELETE FROM trainings WHERE id = ?")) {
+                statement.setLong(1, id);
+                return List.of(statement.executeUpdate());
+            }
+        }).get(0);
+    }
+
+    public int countByTrainer(int shard, long trainerId) {
+        return shards.call(shard, (s, dataSource) -> List.of(countWhere(dataSource, "trainer_id", trainerId))).get(0);
+    }
+
+    public int countByTraineeOnAdditionalShards(long traineeId) {
+        if (!shards.isSharded()) {
+            return 0;
+        }
+        return shards.fanOut(shards.additionalShards(), (s, dataSource) ->
+                        List.of(countWhere(dataSource, "trainee_id", traineeId)))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    public int deleteByTrainer(int shard, long trainerId) {
+        return shards.call(shard, (s, dataSource) -> List.of(deleteWhere(dataSource, "trainer_id", trainerId))).get(0);
+    }
+
+    public int deleteByTraineeOnAdditionalShards(long traineeId) {
+        if (!shards.isSharded()) {
+            return 0;
+        }
+        return shards.fanOut(shards.additionalShards(), (s, dataSource) ->
+                        List.of(deleteWhere(dataSource, "trainee_id", traineeId)))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    public Optional<TrainingRow> findOnAdditionalShards(long id) {
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setId(id);
+        return findOnAdditionalShards(query).stream().findFirst();
+    }
+
+    public List<TrainingRow> find(int shard, TrainingShardQuery query) {
+        return shards.call(shard, (s, dataSource) -> select(dataSource, query));
+    }
+
+    /**
+     * Runs the query on every shard except the main database, in parallel.
+     */
+    public List<TrainingRow> findOnAdditionalShards(TrainingShardQuery query) {
+        if (!shards.isSharded()) {
+            return List.of();
+        }
+        return shards.fanOut(shards.additionalShards(), (s, dataSource) -> select(dataSource, query));
+    }
+
+    /**
+     * Streams every row of one shard to {@code batchAction} in batches of {@code fetchSize}, through
+     * a forward-only cursor so that the table is never held in memory; returns the number of rows.
+     */
+    public long scan(int shard, int fetchSize, Consumer<List<TrainingRow>> batchAction) {
+        return shards.call(shard, (s, dataSource) -> {
+            // a cursor instead of the whole result set needs a transaction on PostgreSQL
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT " + COLUMNS + " FROM trainings",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(fetchSize);
+                    long count = 0;
+                    List<TrainingRow> batch = new ArrayList<>(fetchSize);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            batch.add(readRow(rs));
+                            if (batch.size() == fetchSize) {
+                                batchAction.accept(batch);
+                                count += batch.size();
+                                batch = new ArrayList<>(fetchSize);
+                            }
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        batchAction.accept(batch);
+                        count += batch.size();
+                    }
+                    return List.of(count);
+                } finally {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            }
+        }).get(0);
+    }
+
+    static void bindRow(PreparedStatement statement, TrainingRow row) throws SQLException {
+        statement.setLong(1, row.getId());
+        statement.setLong(2, row.getTraineeId());
+        statement.setLong(3, row.getTrainerId());
+        statement.setLong(4, row.getTrainingTypeId());
+        statement.setString(5, row.getTrainingName());
+        statement.setDate(6, Date.valueOf(row.getTrainingDate()));
+        statement.setInt(7, row.getTrainingDuration());
+    }
+
+    static TrainingRow readRow(ResultSet rs) throws SQLException {
+        return new TrainingRow(
+                rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                rs.getString(5), rs.getDate(6).toLocalDate(), rs.getInt(7));
+    }
+
+    static String buildSql(TrainingShardQuery query, List<Object> parameters) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM trainings WHERE 1 = 1");
+
+        appendEquals(sql, parameters, "id", query.getId());
+        appendEquals(sql, parameters, "trainee_id", query.getTraineeId());
+        appendEquals(sql, parameters, "trainer_id", query.getTrainerId());
+        appendEquals(sql, parameters, "training_type_id", query.getTrainingTypeId());
+        appendIn(sql, parameters, "trainee_id", query.getTraineeIds());
+        appendIn(sql, parameters, "trainer_id", query.getTrainerIds());
+        appendIn(sql, parameters, "training_type_id", query.getTrainingTypeIds());
+
+        if (query.getFromDate() != null) {
+            sql.append(" AND training_date >= ?");
+            parameters.add(Date.valueOf(query.getFromDate()));
+        }
+        if (query.getToDate() != null) {
+            sql.append(" AND training_date <= ?");
+            parameters.add(Date.valueOf(query.getToDate()));
+        }
+        if (query.getCursorDate() != null) {
+            sql.append(" AND (training_date < ? OR (training_date = ? AND id < ?))");
+            parameters.add(Date.valueOf(query.getCursorDate()));
+            parameters.add(Date.valueOf(query.getCursorDate()));
+            parameters.add(query.getCursorId());
+        }
+        if (query.getLimit() != null) {
+            sql.append(" ORDER BY training_date DESC, id DESC LIMIT ?");
+            parameters.add(query.getLimit());
+        }
+        return sql.toString();
+    }
+
+    private static List<TrainingRow> select(DataSource dataSource, TrainingShardQuery query) throws SQLException {
+        if (matchesNothing(query)) {
+            return List.of();
+        }
+        List<Object> parameters = new ArrayList<>();
+        String sql = buildSql(query, parameters);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            List<TrainingRow> rows = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(readRow(rs));
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static int deleteWhere(DataSource dataSource, String column, long id) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM trainings WHERE " + column + " = ?")) {
+            statement.setLong(1, id);
+            return statement.executeUpdate();
+        }
+    }
+
+    private static int countWhere(DataSource dataSource, String column, long id) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT COUNT(*) FROM trainings WHERE " + column + " = ?")) {
+            statement.setLong(1, id);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static boolean matchesNothing(TrainingShardQuery query) {
+        return isEmpty(query.getTraineeIds()) || isEmpty(query.getTrainerIds()) || isEmpty(query.getTrainingTypeIds());
+    }
+
+    private static boolean isEmpty(Collection<Long> ids) {
+        return ids != null && ids.isEmpty();
+    }
+
+    private static void appendEquals(StringBuilder sql, List<Object> parameters, String column, Long value) {
+        if (value != null) {
+            sql.append(" AND ").append(column).append(" = ?");
+            parameters.add(value);
+        }
+    }
+
+    private static void appendIn(StringBuilder sql, List<Object> parameters, String column, Collection<Long> values) {
+        if (values != null && !values.isEmpty()) {
+            sql.append(" AND ").append(column).append(" = ANY (?)");
+            parameters.add(values.toArray(Long[]::new));
+        }
+    }
+}
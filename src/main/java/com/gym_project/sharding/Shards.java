@@ -0,0 +1,123 @@
+package com.gym_project.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+/**
+ * The databases that hold training data. Shard 0 is the main database, which also keeps users,
+ * training types and rosters; the others only carry a {@code trainings} table
+ * ({@code db/shard} migrations).
+ * <p>
+ * Cross-shard reads run on a bounded pool, one task per shard, and fail as a whole if any shard
+ * fails or exceeds the timeout, so callers never see silently partial results.
+ */
+@Slf4j
+public class Shards implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface ShardCall<T> {
+        List<T> run(int shard, DataSource dataSource) throws SQLException;
+    }
+
+    private final List<DataSource> dataSources = new ArrayList<>();
+    private final ExecutorService fanOutExecutor;
+    private final long fanOutTimeoutMs;
+
+    public Shards(DataSource main, List<DataSource> additional, int fanOutThreads, long fanOutTimeoutMs) {
+        dataSources.add(main);
+        dataSources.addAll(additional);
+        this.fanOutExecutor = Executors.newFixedThreadPool(Math.max(1, fanOutThreads), runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.fanOutTimeoutMs = fanOutTimeoutMs;
+    }
+
+    public int count() {
+        return dataSources.size();
+    }
+
+    public boolean isSharded() {
+        return dataSources.size() > 1;
+    }
+
+    public DataSource get(int shard) {
+        if (shard < 0 || shard >= dataSources.size()) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSources.get(shard);
+    }
+
+    /**
+     * Shards other than the main database.
+     */
+    public List<Integer> additionalShards() {
+        return IntStream.range(1, dataSources.size()).boxed().toList();
+    }
+
+    public <T> List<T> call(int shard, ShardCall<T> call) {
+        try {
+            return call.run(shard, get(shard));
+        } catch (SQLException e) {
+            throw new RuntimeException("Query on shard " + shard + " failed", e);
+        }
+    }
+
+    /**
+     * Runs {@code call} on every listed shard in parallel and concatenates the results in shard order.
+     */
+    public <T> List<T> fanOut(Collection<Integer> shards, ShardCall<T> call) {
+        if (shards.size() == 1) {
+            return call(shards.iterator().next(), call);
+        }
+
+        List<Integer> order = new ArrayList<>(shards);
+        List<Future<List<T>>> futures = new ArrayList<>(order.size());
+        for (int shard : order) {
+            DataSource dataSource = get(shard);
+            futures.add(fanOutExecutor.submit(() -> call.run(shard, dataSource)));
+        }
+
+        List<T> merged = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fanOutTimeoutMs);
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                merged.addAll(futures.get(i).get(remaining, TimeUnit.NANOSECONDS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Query on a shard failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Shards did not answer within " + fanOutTimeoutMs + " ms", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return merged;
+    }
+
+    @Override
+    public void close() throws Exception {
+        fanOutExecutor.shutdownNow();
+        for (DataSource dataSource : dataSources.subList(1, dataSources.size())) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
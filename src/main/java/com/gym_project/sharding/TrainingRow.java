@@ -0,0 +1,25 @@
+package com.gym_project.sharding;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * A {@code trainings} row as stored on a shard: associations are plain ids, since users and
+ * training types live on the main database.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TrainingRow {
+
+    private final long id;
+    private final long traineeId;
+    private final long trainerId;
+    private final long trainingTypeId;
+    private final String trainingName;
+    private final LocalDate trainingDate;
+    private final int trainingDuration;
+}
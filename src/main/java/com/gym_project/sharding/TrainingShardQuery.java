@@ -0,0 +1,33 @@
+package com.gym_project.sharding;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Criteria for reading {@code trainings} rows from a shard. Null fields are not filtered on; an
+ * empty id collection matches nothing. With a {@code limit} the rows come newest first, in the
+ * same (training_date, id) order as the keyset-paginated listings.
+ */
+@Getter
+@Setter
+public class TrainingShardQuery {
+
+    private Long id;
+    private Long traineeId;
+    private Long trainerId;
+    private Long trainingTypeId;
+
+    private Collection<Long> traineeIds;
+    private Collection<Long> trainerIds;
+    private Collection<Long> trainingTypeIds;
+
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    private LocalDate cursorDate;
+    private Long cursorId;
+    private Integer limit;
+}
@@ -2,28 +2,54 @@ package com.gym_project.utils;
 
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 
 @Component
 public class UsernameGenerator {
 
+    private static final int MAX_SUFFIX_DIGITS = 18;
+
     public static String generate(String firstName, String lastName, List<String> existingUsernames) {
         String base = firstName + "." + lastName;
+        return withSuffix(base, nextSuffix(base, existingUsernames));
+    }
+
+    public static String withSuffix(String base, long suffix) {
+        return suffix == 0 ? base : base + suffix;
+    }
+
+    /**
+     * Returns the suffix following the highest one taken among {@code existingUsernames},
+     * or 0 when the bare base is still free. Names whose remainder is not a number are ignored.
+     */
+    public static long nextSuffix(String base, Collection<String> existingUsernames) {
+        long maxIndex = -1;
+
+        for (String name : existingUsernames) {
+            if (!name.startsWith(base)) {
+                continue;
+            }
+            String suffix = name.substring(base.length());
+            if (suffix.isEmpty()) {
+                maxIndex = Math.max(maxIndex, 0);
+            } else if (isNumber(suffix)) {
+                maxIndex = Math.max(maxIndex, Long.parseLong(suffix));
+            }
+        }
+
+        return maxIndex + 1;
+    }
 
-        int maxIndex = existingUsernames.stream()
-                .filter(name -> name.startsWith(base))
-                .map(name -> {
-                    String suffix = name.substring(base.length());
-                    if (suffix.isEmpty()) return 0;
-                    try {
-                        return Integer.parseInt(suffix);
-                    } catch (NumberFormatException e) {
-                        return 0;
-                    }
-                })
-                .max(Integer::compare)
-                .orElse(-1);
-
-        return maxIndex < 0 ? base : base + (maxIndex + 1);
+    private static boolean isNumber(String value) {
+        if (value.length() > MAX_SUFFIX_DIGITS) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,66 @@
+-- Schema as previously produced by hibernate.hbm2ddl.auto=update.
+-- IF NOT EXISTS keeps this a no-op on databases that were created that way.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS trainings_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS training_types_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT       NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    username   VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    is_active  BOOLEAN      NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS trainees (
+    id            BIGINT NOT NULL,
+    date_of_birth DATE,
+    address       VARCHAR(255),
+    CONSTRAINT pk_trainees PRIMARY KEY (id),
+    CONSTRAINT fk_trainees_user FOREIGN KEY (id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS trainers (
+    id             BIGINT       NOT NULL,
+    specialization VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_trainers PRIMARY KEY (id),
+    CONSTRAINT fk_trainers_user FOREIGN KEY (id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS training_types (
+    id                 BIGINT       NOT NULL,
+    training_type_name VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_training_types PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS trainings (
+    id                BIGINT       NOT NULL,
+    trainee_id        BIGINT       NOT NULL,
+    trainer_id        BIGINT       NOT NULL,
+    training_type_id  BIGINT       NOT NULL,
+    training_name     VARCHAR(255) NOT NULL,
+    training_date     DATE         NOT NULL,
+    training_duration INTEGER      NOT NULL,
+    CONSTRAINT pk_trainings PRIMARY KEY (id),
+    CONSTRAINT fk_trainings_trainee FOREIGN KEY (trainee_id) REFERENCES trainees (id),
+    CONSTRAINT fk_trainings_trainer FOREIGN KEY (trainer_id) REFERENCES trainers (id),
+    CONSTRAINT fk_trainings_training_type FOREIGN KEY (training_type_id) REFERENCES training_types (id)
+);
+
+CREATE TABLE IF NOT EXISTS trainer_trainee (
+    trainer_id BIGINT NOT NULL,
+    trainee_id BIGINT NOT NULL,
+    CONSTRAINT uk_trainer_trainee UNIQUE (trainer_id, trainee_id),
+    CONSTRAINT fk_trainer_trainee_trainer FOREIGN KEY (trainer_id) REFERENCES trainers (id),
+    CONSTRAINT fk_trainer_trainee_trainee FOREIGN KEY (trainee_id) REFERENCES trainees (id)
+);
+
+CREATE TABLE IF NOT EXISTS username_counters (
+    base        VARCHAR(255) NOT NULL,
+    next_suffix BIGINT       NOT NULL,
+    CONSTRAINT pk_username_counters PRIMARY KEY (base)
+);
@@ -0,0 +1,7 @@
+-- Databases created before the switch to pooled sequences still hold IDENTITY-generated ids.
+-- Move each sequence past the current max(id) so the pooled optimizer (increment 50) never
+-- hands out an id that is already taken.
+
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50);
+SELECT setval('trainings_seq', COALESCE((SELECT MAX(id) FROM trainings), 0) + 50);
+SELECT setval('training_types_seq', COALESCE((SELECT MAX(id) FROM training_types), 0) + 50);
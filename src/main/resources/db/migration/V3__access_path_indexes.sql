@@ -0,0 +1,14 @@
+-- Training history of one trainee / one trainer, newest first; also serves the keyset cursor
+-- (training_date, id) and the date-range filters.
+CREATE INDEX IF NOT EXISTS idx_trainings_trainee_date ON trainings (trainee_id, training_date, id);
+CREATE INDEX IF NOT EXISTS idx_trainings_trainer_date ON trainings (trainer_id, training_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_trainings_training_type ON trainings (training_type_id);
+CREATE INDEX IF NOT EXISTS idx_trainings_date ON trainings (training_date);
+
+-- uk_trainer_trainee leads with trainer_id; this covers lookups starting from the trainee.
+CREATE INDEX IF NOT EXISTS idx_trainer_trainee_trainee ON trainer_trainee (trainee_id, trainer_id);
+
+CREATE INDEX IF NOT EXISTS idx_training_types_name ON training_types (training_type_name);
+
+CREATE INDEX IF NOT EXISTS idx_trainers_specialization ON trainers (specialization);
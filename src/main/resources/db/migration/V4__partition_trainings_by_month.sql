@@ -0,0 +1,53 @@
+-- Range-partition trainings by month on training_date. Partitions are created for every month
+-- that already has data; TrainingPartitionMaintainer keeps creating them ahead of time, and the
+-- default partition catches anything that arrives before its month exists.
+-- A partitioned table's primary key must contain the partition key, hence (id, training_date).
+
+ALTER TABLE trainings RENAME TO trainings_unpartitioned;
+
+CREATE TABLE trainings (
+    id                BIGINT       NOT NULL,
+    trainee_id        BIGINT       NOT NULL,
+    trainer_id        BIGINT       NOT NULL,
+    training_type_id  BIGINT       NOT NULL,
+    training_name     VARCHAR(255) NOT NULL,
+    training_date     DATE         NOT NULL,
+    training_duration INTEGER      NOT NULL
+) PARTITION BY RANGE (training_date);
+
+CREATE TABLE trainings_default PARTITION OF trainings DEFAULT;
+
+DO $$
+DECLARE
+    partition_start DATE;
+BEGIN
+    FOR partition_start IN
+        SELECT m::date
+        FROM generate_series(
+                     (SELECT date_trunc('month', LEAST(COALESCE(MIN(training_date), CURRENT_DATE), CURRENT_DATE))
+                      FROM trainings_unpartitioned),
+                     date_trunc('month', CURRENT_DATE),
+                     INTERVAL '1 month') AS m
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF trainings FOR VALUES FROM (%L) TO (%L)',
+                       'trainings_p' || to_char(partition_start, 'YYYY_MM'),
+                       partition_start,
+                       (partition_start + INTERVAL '1 month')::date);
+    END LOOP;
+END $$;
+
+INSERT INTO trainings (id, trainee_id, trainer_id, training_type_id, training_name, training_date, training_duration)
+SELECT id, trainee_id, trainer_id, training_type_id, training_name, training_date, training_duration
+FROM trainings_unpartitioned;
+
+DROP TABLE trainings_unpartitioned;
+
+ALTER TABLE trainings ADD CONSTRAINT pk_trainings PRIMARY KEY (id, training_date);
+ALTER TABLE trainings ADD CONSTRAINT fk_trainings_trainee FOREIGN KEY (trainee_id) REFERENCES trainees (id);
+ALTER TABLE trainings ADD CONSTRAINT fk_trainings_trainer FOREIGN KEY (trainer_id) REFERENCES trainers (id);
+ALTER TABLE trainings ADD CONSTRAINT fk_trainings_training_type FOREIGN KEY (training_type_id) REFERENCES training_types (id);
+
+CREATE INDEX idx_trainings_trainee_date ON trainings (trainee_id, training_date, id);
+CREATE INDEX idx_trainings_trainer_date ON trainings (trainer_id, training_date, id);
+CREATE INDEX idx_trainings_training_type ON trainings (training_type_id);
+CREATE INDEX idx_trainings_date ON trainings (training_date);
@@ -0,0 +1,6 @@
+-- Bucket -> shard assignment of trainings (see BucketShardMap). Lives on the main database only.
+CREATE TABLE IF NOT EXISTS shard_buckets (
+    bucket INTEGER NOT NULL,
+    shard  INTEGER NOT NULL,
+    CONSTRAINT pk_shard_buckets PRIMARY KEY (bucket)
+);
@@ -0,0 +1,16 @@
+-- Per trainer and calendar month totals of trainings, maintained incrementally by the training
+-- write paths (see TrainerWorkloadRepository) and rebuilt by TrainerWorkloadReconciler.
+CREATE TABLE IF NOT EXISTS trainer_workload (
+    trainer_id     BIGINT  NOT NULL,
+    workload_month DATE    NOT NULL,
+    total_minutes  BIGINT  NOT NULL DEFAULT 0,
+    training_count INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT pk_trainer_workload PRIMARY KEY (trainer_id, workload_month),
+    CONSTRAINT fk_trainer_workload_trainer FOREIGN KEY (trainer_id) REFERENCES trainers (id) ON DELETE CASCADE
+);
+
+INSERT INTO trainer_workload (trainer_id, workload_month, total_minutes, training_count)
+SELECT trainer_id, date_trunc('month', training_date)::date, SUM(training_duration), COUNT(*)
+FROM trainings
+GROUP BY trainer_id, date_trunc('month', training_date)
+ON CONFLICT (trainer_id, workload_month) DO NOTHING;
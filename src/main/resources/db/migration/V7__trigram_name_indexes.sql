@@ -0,0 +1,24 @@
+-- Trigram GIN indexes behind the case-insensitive name filters: LIKE '%name%' cannot use a
+-- B-tree index, but a gin_trgm_ops index on lower(first_name) / lower(last_name) can serve it.
+-- pg_trgm ships with contrib but may be missing, or creating it may need rights the migration
+-- user lacks on a managed database; then the indexes are skipped and the filters keep working
+-- by scanning. If the extension only becomes available later, a new migration has to add them.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        IF NOT EXISTS (SELECT 1 FROM pg_available_extensions WHERE name = 'pg_trgm') THEN
+            RAISE NOTICE 'pg_trgm is not available, name filters will scan';
+            RETURN;
+        END IF;
+        BEGIN
+            CREATE EXTENSION pg_trgm;
+        EXCEPTION WHEN insufficient_privilege THEN
+            RAISE NOTICE 'Not allowed to create pg_trgm, name filters will scan';
+            RETURN;
+        END;
+    END IF;
+
+    CREATE INDEX IF NOT EXISTS idx_users_first_name_trgm ON users USING gin (lower(first_name) gin_trgm_ops);
+    CREATE INDEX IF NOT EXISTS idx_users_last_name_trgm ON users USING gin (lower(last_name) gin_trgm_ops);
+END
+$$;
@@ -0,0 +1,18 @@
+-- Schema of an additional training shard. Users, training types and rosters stay on the main
+-- database, so the id columns carry no foreign keys here.
+
+CREATE TABLE IF NOT EXISTS trainings (
+    id                BIGINT       NOT NULL,
+    trainee_id        BIGINT       NOT NULL,
+    trainer_id        BIGINT       NOT NULL,
+    training_type_id  BIGINT       NOT NULL,
+    training_name     VARCHAR(255) NOT NULL,
+    training_date     DATE         NOT NULL,
+    training_duration INTEGER      NOT NULL,
+    CONSTRAINT pk_trainings PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_trainings_trainee_date ON trainings (trainee_id, training_date, id);
+CREATE INDEX IF NOT EXISTS idx_trainings_trainer_date ON trainings (trainer_id, training_date, id);
+CREATE INDEX IF NOT EXISTS idx_trainings_training_type ON trainings (training_type_id);
+CREATE INDEX IF NOT EXISTS idx_trainings_date ON trainings (training_date);
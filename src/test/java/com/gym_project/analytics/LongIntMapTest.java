@@ -0,0 +1,66 @@
+package com.gym_project.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntMapTest {
+
+    @Test
+    void put_shouldReturnPreviousValue() {
+        LongIntMap map = new LongIntMap();
+
+        assertEquals(-1, map.put(7L, 0));
+        assertEquals(0, map.put(7L, 3));
+        assertEquals(3, map.get(7L));
+        assertEquals(-1, map.get(8L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void put_shouldRejectNegativeValue() {
+        assertThrows(IllegalArgumentException.class, () -> new LongIntMap().put(1L, -1));
+    }
+
+    @Test
+    void remove_shouldKeepLaterEntriesOfTheSameProbeReachable() {
+        LongIntMap map = new LongIntMap();
+        for (int i = 0; i < 5000; i++) {
+            map.put(i * 1024L, i);
+        }
+
+        for (int i = 0; i < 5000; i += 2) {
+            assertEquals(i, map.remove(i * 1024L));
+        }
+
+        assertEquals(2500, map.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i % 2 == 0 ? -1 : i, map.get(i * 1024L));
+        }
+    }
+
+    @Test
+    void randomOperations_shouldMatchHashMap() {
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(20_000) - 10_000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, -1), map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals(expected.getOrDefault(key, -1), map.put(key, i));
+                expected.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+    }
+}
@@ -0,0 +1,138 @@
+package com.gym_project.analytics;
+
+import com.gym_project.sharding.Shards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrainingAnalyticsTest {
+
+    private TrainingAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        analytics = new TrainingAnalytics(mock(Shards.class), true);
+        analytics.add(1L, 100L, 10L, 1L, LocalDate.of(2026, 1, 5), 60);
+        analytics.add(2L, 100L, 11L, 2L, LocalDate.of(2026, 1, 20), 30);
+        analytics.add(3L, 200L, 10L, 1L, LocalDate.of(2026, 3, 1), 45);
+    }
+
+    @Test
+    void minutesByTrainer_shouldSumPerTrainer() {
+        Map<Long, AnalyticsTotal> result = analytics.minutesByTrainer(null);
+
+        assertEquals(new AnalyticsTotal(90, 2), result.get(100L));
+        assertEquals(new AnalyticsTotal(45, 1), result.get(200L));
+    }
+
+    @Test
+    void minutesByMonth_shouldSkipMonthsWithoutTrainings() {
+        Map<YearMonth, AnalyticsTotal> result = analytics.minutesByMonth(null);
+
+        assertEquals(Set.of(YearMonth.of(2026, 1), YearMonth.of(2026, 3)), result.keySet());
+        assertEquals(new AnalyticsTotal(90, 2), result.get(YearMonth.of(2026, 1)));
+    }
+
+    @Test
+    void minutesByTrainingType_shouldApplyFilter() {
+        AnalyticsFilter filter = new AnalyticsFilter();
+        filter.setTraineeIds(Set.of(10L));
+        filter.setToDate(LocalDate.of(2026, 2, 1));
+
+        Map<Long, AnalyticsTotal> result = analytics.minutesByTrainingType(filter);
+
+        assertEquals(Map.of(1L, new AnalyticsTotal(60, 1)), result);
+    }
+
+    @Test
+    void total_shouldMatchNothingForUnknownIds() {
+        AnalyticsFilter filter = new AnalyticsFilter();
+        filter.setTrainerIds(Set.of(999L));
+
+        assertEquals(new AnalyticsTotal(0, 0), analytics.total(filter));
+    }
+
+    @Test
+    void remove_shouldTombstoneRows() {
+        analytics.remove(1L);
+        analytics.removeTrainee(11L);
+
+        assertEquals(1, analytics.size());
+        assertEquals(new AnalyticsTotal(45, 1), analytics.total(null));
+    }
+
+    @Test
+    void rowsAddedAfterCompaction_shouldBeCounted() {
+        analytics.removeTrainer(100L);
+        analytics.add(4L, 100L, 12L, 2L, LocalDate.of(2026, 3, 2), 15);
+
+        assertEquals(Map.of(100L, new AnalyticsTotal(15, 1), 200L, new AnalyticsTotal(45, 1)),
+                analytics.minutesByTrainer(null));
+    }
+
+    @Test
+    void add_withKnownId_shouldReplaceTheRow() {
+        analytics.add(1L, 200L, 10L, 1L, LocalDate.of(2026, 1, 5), 90);
+        analytics.remove(1L);
+
+        assertEquals(2, analytics.size());
+        assertEquals(Map.of(100L, new AnalyticsTotal(30, 1), 200L, new AnalyticsTotal(45, 1)),
+                analytics.minutesByTrainer(null));
+    }
+
+    @Test
+    void reload_shouldReplaceStoreAndReplayChangesMadeWhileLoading() throws Exception {
+        Shards shards = mock(Shards.class);
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(TrainingAnalytics.LOAD_SQL)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getLong(1)).thenReturn(2L, 3L);
+        when(rs.getLong(2)).thenReturn(100L, 200L);
+        when(rs.getLong(3)).thenReturn(11L, 10L);
+        when(rs.getLong(4)).thenReturn(2L, 1L);
+        when(rs.getDate(5)).thenReturn(Date.valueOf("2026-01-20"), Date.valueOf("2026-03-01"));
+        when(rs.getInt(6)).thenReturn(30, 45);
+
+        TrainingAnalytics reloaded = new TrainingAnalytics(shards, true);
+        // no longer in the database, e.g. deleted through another instance
+        reloaded.add(1L, 100L, 10L, 1L, LocalDate.of(2026, 1, 5), 60);
+        when(shards.count()).thenReturn(1);
+        when(shards.call(eq(0), any())).thenAnswer(invocation -> {
+            // committed while the shard was being read
+            reloaded.add(4L, 200L, 12L, 2L, LocalDate.of(2026, 3, 2), 15);
+            reloaded.remove(3L);
+            Shards.ShardCall<?> call = invocation.getArgument(1);
+            return call.run(0, dataSource);
+        });
+
+        reloaded.reload();
+
+        assertEquals(Map.of(100L, new AnalyticsTotal(30, 1), 200L, new AnalyticsTotal(15, 1)),
+                reloaded.minutesByTrainer(null));
+        verify(statement).setFetchSize(anyInt());
+    }
+
+    @Test
+    void queries_shouldFailWhenDisabled() {
+        TrainingAnalytics disabled = new TrainingAnalytics(mock(Shards.class), false);
+
+        assertThrows(IllegalStateException.class, () -> disabled.total(null));
+    }
+}
@@ -0,0 +1,149 @@
+package com.gym_project.benchmark;
+
+import com.gym_project.config.ApplicationConfig;
+import com.gym_project.dto.create.TrainingCreateDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.entity.TrainingType;
+import com.gym_project.service.TrainingService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency of {@link TrainingService#create} for trainers with growing rosters, against a real
+ * PostgreSQL database. With the insert-if-absent link the per-booking cost should not depend
+ * on how many trainees the trainer already has.
+ * <p>
+ * Writes data, so point it at a scratch database:
+ * {@code gradle test --tests '*BookingLatencyBenchmark' -Dbenchmark.enabled=true -Ddb.url=... -Dhibernate.show_sql=false}
+ */
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+class BookingLatencyBenchmark {
+
+    private static final int[] ROSTER_SIZES = {10, 1_000, 10_000};
+    private static final int BOOKINGS = Integer.getInteger("benchmark.bookings", 200);
+    private static final int BATCH_SIZE = 50;
+
+    private static AnnotationConfigApplicationContext context;
+    private static EntityManager entityManager;
+    private static TransactionTemplate transactionTemplate;
+    private static TrainingService trainingService;
+
+    private final String runId = Long.toString(System.nanoTime(), 36);
+
+    @BeforeAll
+    static void startContext() {
+        context = new AnnotationConfigApplicationContext(ApplicationConfig.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        trainingService = context.getBean(TrainingService.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    @Test
+    void bookingLatencyByRosterSize() {
+        Long typeId = transactionTemplate.execute(status -> {
+            TrainingType type = new TrainingType();
+            type.setTrainingTypeName("booking-" + runId);
+            entityManager.persist(type);
+            return type.getId();
+        });
+
+        List<Double> averages = new ArrayList<>();
+        for (int rosterSize : ROSTER_SIZES) {
+            String trainerUsername = seedTrainerWithRoster(rosterSize);
+            List<String> newTrainees = seedTrainees("new" + rosterSize, BOOKINGS);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < BOOKINGS; i++) {
+                trainingService.create(booking(newTrainees.get(i), trainerUsername, typeId, i));
+            }
+            double averageMicros = (System.nanoTime() - start) / 1_000.0 / BOOKINGS;
+
+            averages.add(averageMicros);
+            System.out.printf("roster %,7d trainees  %,6d bookings  %,10.0f us/booking%n",
+                    rosterSize, BOOKINGS, averageMicros);
+        }
+
+        System.out.printf("largest/smallest roster latency ratio: %.2f%n",
+                averages.get(averages.size() - 1) / averages.get(0));
+        assertTrue(averages.get(0) > 0);
+    }
+
+    private String seedTrainerWithRoster(int rosterSize) {
+        List<String> roster = seedTrainees("roster" + rosterSize, rosterSize);
+        String username = "bench." + runId + ".trainer" + rosterSize;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Trainer trainer = new Trainer();
+            trainer.setFirstName("Bench");
+            trainer.setLastName("Trainer");
+            trainer.setUsername(username);
+            trainer.setPassword("password");
+            trainer.setSpecialization("benchmark");
+            entityManager.persist(trainer);
+            entityManager.flush();
+
+            entityManager.createNativeQuery(
+                            "INSERT INTO trainer_trainee (trainer_id, trainee_id) " +
+                                    "SELECT :trainerId, id FROM users WHERE username IN (:usernames)")
+                    .setParameter("trainerId", trainer.getId())
+                    .setParameter("usernames", roster)
+                    .executeUpdate();
+        });
+        return username;
+    }
+
+    private List<String> seedTrainees(String prefix, int count) {
+        List<String> usernames = new ArrayList<>(count);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < count; i++) {
+                Trainee trainee = new Trainee();
+                trainee.setFirstName("Bench");
+                trainee.setLastName("Trainee");
+                trainee.setUsername("bench." + runId + "." + prefix + "." + i);
+                trainee.setPassword("password");
+                trainee.setAddress("Benchmark street " + i);
+                trainee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+                entityManager.persist(trainee);
+                usernames.add(trainee.getUsername());
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        return usernames;
+    }
+
+    private TrainingCreateDto booking(String traineeUsername, String trainerUsername, Long typeId, int i) {
+        TrainingCreateDto dto = new TrainingCreateDto();
+        dto.setTraineeUsername(traineeUsername);
+        dto.setTrainerUsername(trainerUsername);
+        dto.setTrainingTypeId(typeId);
+        dto.setTrainingName("booking " + i);
+        dto.setTrainingDate(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+        dto.setTrainingDuration(60);
+        return dto;
+    }
+}
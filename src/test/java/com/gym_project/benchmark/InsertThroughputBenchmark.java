@@ -0,0 +1,142 @@
+package com.gym_project.benchmark;
+
+import com.gym_project.config.ApplicationConfig;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.entity.Training;
+import com.gym_project.entity.TrainingType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Insert throughput of trainees and trainings against a real PostgreSQL database.
+ * <p>
+ * "row-by-row" flushes after every persist, which is what the former IDENTITY ids forced
+ * Hibernate to do; "batched" flushes once per {@code hibernate.jdbc.batch_size} rows so the
+ * pooled sequence ids and JDBC batching can kick in.
+ * <p>
+ * Writes data, so point it at a scratch database:
+ * {@code gradle test --tests '*InsertThroughputBenchmark' -Dbenchmark.enabled=true -Ddb.url=... -Dhibernate.show_sql=false}
+ */
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+class InsertThroughputBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5_000);
+    private static final int BATCH_SIZE = 50;
+
+    private static AnnotationConfigApplicationContext context;
+    private static EntityManager entityManager;
+    private static TransactionTemplate transactionTemplate;
+
+    private final String runId = Long.toString(System.nanoTime(), 36);
+
+    @BeforeAll
+    static void startContext() {
+        context = new AnnotationConfigApplicationContext(ApplicationConfig.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    @Test
+    void traineeInserts() {
+        double rowByRow = insert("trainee row-by-row", true, (em, i) -> trainee("rb", i));
+        double batched = insert("trainee batched", false, (em, i) -> trainee("b", i));
+
+        report("trainee", rowByRow, batched);
+        assertTrue(batched > 0);
+    }
+
+    @Test
+    void trainingInserts() {
+        Long[] ids = transactionTemplate.execute(status -> {
+            Trainee trainee = trainee("owner", 0);
+            Trainer trainer = trainer();
+            TrainingType type = new TrainingType();
+            type.setTrainingTypeName("benchmark-" + runId);
+
+            entityManager.persist(trainee);
+            entityManager.persist(trainer);
+            entityManager.persist(type);
+            return new Long[]{trainee.getId(), trainer.getId(), type.getId()};
+        });
+
+        BiFunction<EntityManager, Integer, Object> training = (em, i) -> {
+            Training t = new Training();
+            t.setTrainee(em.getReference(Trainee.class, ids[0]));
+            t.setTrainer(em.getReference(Trainer.class, ids[1]));
+            t.setTrainingType(em.getReference(TrainingType.class, ids[2]));
+            t.setTrainingName("benchmark " + i);
+            t.setTrainingDate(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+            t.setTrainingDuration(60);
+            return t;
+        };
+
+        double rowByRow = insert("training row-by-row", true, training);
+        double batched = insert("training batched", false, training);
+
+        report("training", rowByRow, batched);
+        assertTrue(batched > 0);
+    }
+
+    private double insert(String label, boolean flushEachRow, BiFunction<EntityManager, Integer, Object> factory) {
+        long start = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(factory.apply(entityManager, i));
+                if (flushEachRow || (i + 1) % BATCH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+
+        double rowsPerSecond = ROWS / ((System.nanoTime() - start) / 1_000_000_000.0);
+        System.out.printf("%-22s %,10d rows  %,12.0f rows/s%n", label, ROWS, rowsPerSecond);
+        return rowsPerSecond;
+    }
+
+    private void report(String entity, double rowByRow, double batched) {
+        System.out.printf("%s inserts: %.1fx faster with batching%n", entity, batched / rowByRow);
+    }
+
+    private Trainee trainee(String prefix, int i) {
+        Trainee trainee = new Trainee();
+        trainee.setFirstName("Bench");
+        trainee.setLastName("Trainee");
+        trainee.setUsername("bench." + runId + "." + prefix + i);
+        trainee.setPassword("password");
+        trainee.setAddress("Benchmark street " + i);
+        trainee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        return trainee;
+    }
+
+    private Trainer trainer() {
+        Trainer trainer = new Trainer();
+        trainer.setFirstName("Bench");
+        trainer.setLastName("Trainer");
+        trainer.setUsername("bench." + runId + ".trainer");
+        trainer.setPassword("password");
+        trainer.setSpecialization("benchmark");
+        return trainer;
+    }
+}
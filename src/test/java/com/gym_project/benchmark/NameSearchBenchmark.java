@@ -0,0 +1,157 @@
+package com.gym_project.benchmark;
+
+import com.gym_project.config.ApplicationConfig;
+import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.entity.Training;
+import com.gym_project.entity.TrainingType;
+import com.gym_project.repository.TrainerRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Latency of the trainee-name filter on a trainer's training listing, with and without the
+ * trigram indexes, against a real PostgreSQL database with {@code pg_trgm} available.
+ * <p>
+ * The "without" run drops the indexes inside a transaction that is rolled back, so the
+ * schema is left as it was. Writes data, so point it at a scratch database:
+ * {@code gradle test --tests '*NameSearchBenchmark' -Dbenchmark.enabled=true -Ddb.url=... -Dhibernate.show_sql=false}
+ */
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+class NameSearchBenchmark {
+
+    private static final int TRAINEES = Integer.getInteger("benchmark.trainees", 50_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 50);
+    private static final int BATCH_SIZE = 50;
+
+    private static AnnotationConfigApplicationContext context;
+    private static EntityManager entityManager;
+    private static TransactionTemplate transactionTemplate;
+    private static TrainerRepository trainerRepository;
+
+    private final String runId = Long.toString(System.nanoTime(), 36);
+
+    @BeforeAll
+    static void startContext() {
+        context = new AnnotationConfigApplicationContext(ApplicationConfig.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        trainerRepository = context.getBean(TrainerRepository.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    @Test
+    void nameFilterLatencyWithAndWithoutTrigramIndexes() {
+        assumeTrue(trigramIndexesPresent(), "pg_trgm is not available in this database");
+
+        String trainerUsername = seed();
+        String needle = "needle" + runId;
+
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createNativeQuery("ANALYZE users").executeUpdate());
+
+        double indexed = averageMicros(trainerUsername, needle);
+
+        Double scanned = transactionTemplate.execute(status -> {
+            entityManager.createNativeQuery(
+                            "DROP INDEX idx_users_first_name_trgm, idx_users_last_name_trgm")
+                    .executeUpdate();
+            double micros = averageMicros(trainerUsername, needle);
+            status.setRollbackOnly();
+            return micros;
+        });
+
+        System.out.printf("%,d trainees  %,d queries%n", TRAINEES, QUERIES);
+        System.out.printf("trigram index  %,10.0f us/query%n", indexed);
+        System.out.printf("no index       %,10.0f us/query%n", scanned);
+        System.out.printf("speedup: %.1fx%n", scanned / indexed);
+    }
+
+    private boolean trigramIndexesPresent() {
+        Number indexes = (Number) entityManager.createNativeQuery(
+                        "SELECT COUNT(*) FROM pg_indexes WHERE indexname IN " +
+                                "('idx_users_first_name_trgm', 'idx_users_last_name_trgm')")
+                .getSingleResult();
+        return indexes.intValue() == 2;
+    }
+
+    private double averageMicros(String trainerUsername, String needle) {
+        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
+        filter.setTraineeName(needle.toUpperCase());
+
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            found = trainerRepository.findTrainingDtosByTrainerAndFilter(trainerUsername, filter).size();
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / QUERIES;
+
+        assertEquals(1, found);
+        return micros;
+    }
+
+    private String seed() {
+        String trainerUsername = "bench." + runId + ".trainer";
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TrainingType type = new TrainingType();
+            type.setTrainingTypeName("search-" + runId);
+            entityManager.persist(type);
+
+            Trainer trainer = new Trainer();
+            trainer.setFirstName("Bench");
+            trainer.setLastName("Trainer");
+            trainer.setUsername(trainerUsername);
+            trainer.setPassword("password");
+            trainer.setSpecialization("benchmark");
+            entityManager.persist(trainer);
+
+            for (int i = 0; i < TRAINEES; i++) {
+                Trainee trainee = new Trainee();
+                trainee.setFirstName(i == TRAINEES / 2 ? "Needle" + runId : "Bench" + i);
+                trainee.setLastName("Trainee" + i);
+                trainee.setUsername("bench." + runId + ".trainee" + i);
+                trainee.setPassword("password");
+                trainee.setAddress("Benchmark street " + i);
+                trainee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+                entityManager.persist(trainee);
+
+                Training training = new Training();
+                training.setTrainee(trainee);
+                training.setTrainer(trainer);
+                training.setTrainingType(type);
+                training.setTrainingName("search " + i);
+                training.setTrainingDate(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+                training.setTrainingDuration(60);
+                entityManager.persist(training);
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    trainer = entityManager.getReference(Trainer.class, trainer.getId());
+                    type = entityManager.getReference(TrainingType.class, type.getId());
+                }
+            }
+        });
+        return trainerUsername;
+    }
+}
@@ -0,0 +1,237 @@
+package com.gym_project.benchmark;
+
+import com.gym_project.config.ApplicationConfig;
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.filter.UnassignedTrainerFilterDto;
+import com.gym_project.entity.TrainingType;
+import com.gym_project.repository.TraineeRepository;
+import com.gym_project.repository.TrainerRepository;
+import com.gym_project.repository.TrainingRepository;
+import com.gym_project.repository.TrainingTypeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Calls the repositories against a migrated PostgreSQL database, runs {@code EXPLAIN} for every
+ * query they send and fails if a plan falls back to a sequential scan of the driving table.
+ * <p>
+ * The {@code dataSource} bean is wrapped so that each {@code SELECT} is explained with the same
+ * SQL and bind values right before it executes; the checked queries therefore always are the
+ * ones the repositories generate. Sequential scans are discouraged for the transaction so that
+ * the check also holds on a small or empty database, where the planner would otherwise prefer
+ * scanning. Read-only:
+ * {@code gradle test --tests '*QueryPlanCheck' -Dbenchmark.enabled=true -Ddb.url=...}
+ */
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+class QueryPlanCheck {
+
+    private static final Pattern PARTITION_SCAN = Pattern.compile(" on (trainings_(?:p\\d{4}_\\d{2}|default)) ");
+
+    private static final List<String> plans = new ArrayList<>();
+    private static volatile boolean capturing;
+
+    private static AnnotationConfigApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(ApplicationConfig.class);
+        context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return "dataSource".equals(beanName) ? explaining((DataSource) bean) : bean;
+            }
+        });
+        context.refresh();
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        String username = "plan.check";
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+
+        TraineeTrainingFilterDto traineeFilter = new TraineeTrainingFilterDto();
+        traineeFilter.setFromDate(from);
+        TrainerTrainingFilterDto trainerFilter = new TrainerTrainingFilterDto();
+        trainerFilter.setFromDate(from);
+        TrainingType yoga = new TrainingType();
+        yoga.setId(1L);
+
+        return Stream.of(
+                query("user by username", "users",
+                        () -> bean(TraineeRepository.class).findCredentialsByUsername(username)),
+                query("trainee training page", "trainings",
+                        () -> bean(TraineeRepository.class).findTrainingDtoPageByTraineeAndFilter(username, traineeFilter)),
+                query("trainer training page", "trainings",
+                        () -> bean(TrainerRepository.class).findTrainingDtoPageByTrainerAndFilter(username, trainerFilter)),
+                query("trainings by date range", "trainings",
+                        () -> bean(TrainingRepository.class).findByDateRange(from, to)),
+                query("trainings by type", "trainings",
+                        () -> bean(TrainingRepository.class).findByTrainingType(yoga)),
+                query("trainer ids by trainee", "trainer_trainee",
+                        () -> bean(TrainerRepository.class).findTrainerIdsByTraineeId(1L)),
+                query("unassigned trainers", "trainer_trainee",
+                        () -> bean(TrainerRepository.class).findUnassignedTrainerPage(1L, new UnassignedTrainerFilterDto())),
+                query("training type by name", "training_types",
+                        () -> bean(TrainingTypeRepository.class).findByName("Yoga")),
+                query("trainers by specialization", "trainers",
+                        () -> bean(TrainerRepository.class).findBySpecialization("Yoga")));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void queryUsesAnIndex(String name, String table, Runnable call) {
+        List<String> explained = explain(call);
+        assertFalse(explained.isEmpty(), () -> name + " sent no query");
+
+        for (String plan : explained) {
+            System.out.printf("-- %s%n%s%n", name, plan);
+            // partitions of trainings show up as "Seq Scan on trainings_p2024_01 trainings_1"
+            assertFalse(plan.contains("Seq Scan on " + table + " ") || plan.contains("Seq Scan on " + table + "_"),
+                    () -> name + " scans " + table + ":\n" + plan);
+        }
+    }
+
+    @Test
+    void dateRangeQueryIsPrunedToOnePartition() {
+        YearMonth month = YearMonth.now();
+        List<String> explained = explain(() ->
+                bean(TrainingRepository.class).findByDateRange(month.atDay(1), month.atEndOfMonth()));
+        assertEquals(1, explained.size(), () -> "expected a single query:\n" + explained);
+
+        String plan = explained.get(0);
+        System.out.printf("-- pruned date range%n%s%n", plan);
+
+        long partitionsScanned = PARTITION_SCAN.matcher(plan).results()
+                .map(match -> match.group(1))
+                .distinct()
+                .count();
+        assertEquals(1, partitionsScanned, () -> "expected a single partition:\n" + plan);
+    }
+
+    private static Arguments query(String name, String table, Runnable call) {
+        return Arguments.of(name, table, call);
+    }
+
+    private static <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private static List<String> explain(Runnable call) {
+        synchronized (plans) {
+            plans.clear();
+            capturing = true;
+            try {
+                call.run();
+            } finally {
+                capturing = false;
+            }
+            return List.copyOf(plans);
+        }
+    }
+
+    private static DataSource explaining(DataSource target) {
+        return proxy(DataSource.class, target, (method, args, result) ->
+                result instanceof Connection connection ? explaining(connection) : result);
+    }
+
+    private static Connection explaining(Connection target) {
+        return proxy(Connection.class, target, (method, args, result) ->
+                method.getName().equals("prepareStatement") && args[0] instanceof String sql
+                        ? explaining(target, sql, (PreparedStatement) result)
+                        : result);
+    }
+
+    /**
+     * Records the bind calls on the statement and, when a {@code SELECT} is executed while
+     * capturing, replays them on an {@code EXPLAIN} of the same SQL first.
+     */
+    private static PreparedStatement explaining(Connection connection, String sql, PreparedStatement target) {
+        List<Object[]> binds = new ArrayList<>();
+        List<Method> setters = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(QueryPlanCheck.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer) {
+                        setters.add(method);
+                        binds.add(args);
+                    } else if (method.getName().equals("clearParameters")) {
+                        setters.clear();
+                        binds.clear();
+                    } else if (method.getName().equals("executeQuery") && capturing
+                            && sql.strip().toLowerCase(Locale.ROOT).startsWith("select")) {
+                        plans.add(plan(connection, sql, setters, binds));
+                    }
+                    return invoke(method, target, args);
+                });
+    }
+
+    private static String plan(Connection connection, String sql, List<Method> setters, List<Object[]> binds)
+            throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LOCAL enable_seqscan = off");
+        }
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < setters.size(); i++) {
+                setters.get(i).invoke(statement, binds.get(i));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private interface ResultWrapper {
+        Object wrap(Method method, Object[] args, Object result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+        return (T) Proxy.newProxyInstance(QueryPlanCheck.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> wrapper.wrap(method, args, invoke(method, target, args)));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
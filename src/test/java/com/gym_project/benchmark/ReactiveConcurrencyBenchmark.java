@@ -0,0 +1,105 @@
+package com.gym_project.benchmark;
+
+import com.gym_project.config.ApplicationConfig;
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.security.Role;
+import com.gym_project.service.ReactiveTraineeService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Thousands of concurrent profile lookups and training listings through the reactive services,
+ * against a real PostgreSQL database. Reports throughput and how many distinct threads did the
+ * work; the reactive pool multiplexes every request over {@code db.r2dbc.pool.max-size} connections.
+ * <p>
+ * Writes a trainee, so point it at a scratch database:
+ * {@code gradle test --tests '*ReactiveConcurrencyBenchmark' -Dbenchmark.enabled=true -Ddb.url=... -Ddb.r2dbc.url=...}
+ */
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+class ReactiveConcurrencyBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 5_000);
+
+    private static AnnotationConfigApplicationContext context;
+    private static EntityManager entityManager;
+    private static TransactionTemplate transactionTemplate;
+    private static ReactiveTraineeService traineeService;
+
+    private final String username = "bench." + Long.toString(System.nanoTime(), 36) + ".reactive";
+
+    @BeforeAll
+    static void startContext() {
+        context = new AnnotationConfigApplicationContext(ApplicationConfig.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        traineeService = context.getBean(ReactiveTraineeService.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    @Test
+    void concurrentReads() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Trainee trainee = new Trainee();
+            trainee.setFirstName("Bench");
+            trainee.setLastName("Trainee");
+            trainee.setUsername(username);
+            trainee.setPassword("password");
+            trainee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            entityManager.persist(trainee);
+        });
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority(Role.TRAINEE.asAuthority())));
+
+        // warm-up, so connection setup does not count
+        run(200, authentication);
+
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        long start = System.nanoTime();
+        long completed = Flux.range(0, REQUESTS)
+                .flatMap(i -> traineeService.getByUsername(username)
+                        .thenMany(traineeService.getTrainings(username, new TraineeTrainingFilterDto()))
+                        .then()
+                        .doOnSuccess(ignored -> threads.add(Thread.currentThread().getName()))
+                        .thenReturn(i)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication)), REQUESTS)
+                .count()
+                .block();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%,d concurrent requests  %.2f s  %,.0f req/s  %d threads%n",
+                completed, seconds, completed / seconds, threads.size());
+        assertEquals(REQUESTS, completed);
+    }
+
+    private static void run(int requests, UsernamePasswordAuthenticationToken authentication) {
+        Flux.range(0, requests)
+                .flatMap(i -> traineeService.getByUsername(authentication.getName())
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication)))
+                .blockLast();
+    }
+}
@@ -0,0 +1,163 @@
+package com.gym_project.benchmark;
+
+import com.gym_project.config.ApplicationConfig;
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.entity.TrainingType;
+import com.gym_project.mapper.TrainingMapper;
+import com.gym_project.repository.TrainingRepository;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cost of listing trainings in a read-write transaction, in a {@code readOnly} transaction and
+ * through the stateless scan, against a real PostgreSQL database. For each mode it reports wall
+ * and CPU time, bytes allocated and the heap still held by the open persistence context.
+ * <p>
+ * Seeds {@code benchmark.trainings} trainings (100k by default) and lists every training in the
+ * table, so point it at a scratch database:
+ * {@code gradle test --tests '*ReadOnlySessionBenchmark' -Dbenchmark.enabled=true -Ddb.url=... -Dhibernate.show_sql=false}
+ */
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+class ReadOnlySessionBenchmark {
+
+    private static final int TRAININGS = Integer.getInteger("benchmark.trainings", 100_000);
+
+    private static AnnotationConfigApplicationContext context;
+    private static EntityManager entityManager;
+    private static PlatformTransactionManager transactionManager;
+    private static TrainingRepository trainingRepository;
+
+    private final String runId = Long.toString(System.nanoTime(), 36);
+
+    @BeforeAll
+    static void startContext() {
+        context = new AnnotationConfigApplicationContext(ApplicationConfig.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        transactionManager = context.getBean(PlatformTransactionManager.class);
+        trainingRepository = context.getBean(TrainingRepository.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    @Test
+    void listTrainings() {
+        seed();
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            assertTrue(session.isDefaultReadOnly(), "readOnly transaction should mark entities read-only");
+            assertEquals(FlushMode.MANUAL, session.getHibernateFlushMode());
+            assertTrue(session.doReturningWork(Connection::isReadOnly), "JDBC connection should be read-only");
+        });
+
+        // warm-up, so class loading and JIT do not count against the first mode
+        readOnly.execute(status -> listEntities());
+
+        measure("read-write transaction", () -> readWrite.execute(status -> listEntities()));
+        measure("readOnly transaction", () -> readOnly.execute(status -> listEntities()));
+        measure("stateless scan", () -> readOnly.execute(status -> {
+            long[] minutes = {0};
+            long scanned = trainingRepository.scanAll(dto -> minutes[0] += dto.getTrainingDuration());
+            return new long[]{scanned, heapAfterGc()};
+        }));
+    }
+
+    private long[] listEntities() {
+        List<TrainingResponseDto> dtos = trainingRepository.findAll().stream()
+                .map(TrainingMapper::toDto)
+                .collect(Collectors.toList());
+        // measured while the transaction, and so the persistence context, is still open
+        return new long[]{dtos.size(), heapAfterGc()};
+    }
+
+    private static long heapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void measure(String label, Supplier<long[]> run) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long heapBefore = heapAfterGc();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        long start = System.nanoTime();
+
+        long[] rowsAndHeap = run.get();
+
+        long wall = System.nanoTime() - start;
+        long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-24s %,9d rows  wall %,7d ms  cpu %,7d ms  allocated %,6d MB  retained %,5d MB%n",
+                label, rowsAndHeap[0], wall / 1_000_000, cpu / 1_000_000, allocated >> 20,
+                Math.max(0, rowsAndHeap[1] - heapBefore) >> 20);
+    }
+
+    private void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            TrainingType type = new TrainingType();
+            type.setTrainingTypeName("readonly-" + runId);
+            entityManager.persist(type);
+
+            Trainee trainee = new Trainee();
+            trainee.setFirstName("Bench");
+            trainee.setLastName("Trainee");
+            trainee.setUsername("bench." + runId + ".trainee");
+            trainee.setPassword("password");
+            trainee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            entityManager.persist(trainee);
+
+            Trainer trainer = new Trainer();
+            trainer.setFirstName("Bench");
+            trainer.setLastName("Trainer");
+            trainer.setUsername("bench." + runId + ".trainer");
+            trainer.setPassword("password");
+            trainer.setSpecialization("benchmark");
+            entityManager.persist(trainer);
+            entityManager.flush();
+
+            entityManager.createNativeQuery(
+                            "INSERT INTO trainings (id, trainee_id, trainer_id, training_type_id, " +
+                                    "training_name, training_date, training_duration) " +
+                                    "SELECT nextval('trainings_seq'), :trainee, :trainer, :type, 'bench ' || i, " +
+                                    "DATE '2024-01-01' + (i % 365), 30 + i % 60 " +
+                                    "FROM generate_series(1, :count) AS i")
+                    .setParameter("trainee", trainee.getId())
+                    .setParameter("trainer", trainer.getId())
+                    .setParameter("type", type.getId())
+                    .setParameter("count", TRAININGS)
+                    .executeUpdate();
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.gym_project.benchmark;
+
+import com.gym_project.analytics.AnalyticsFilter;
+import com.gym_project.analytics.TrainingAnalytics;
+import com.gym_project.sharding.Shards;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Aggregation latency of {@link TrainingAnalytics} over synthetic trainings, and the heap the
+ * columns take. Needs no database; give the JVM enough heap for the row count:
+ * {@code gradle test --tests '*TrainingAnalyticsBenchmark' -Dbenchmark.enabled=true -Dbenchmark.rows=20000000}
+ */
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+class TrainingAnalyticsBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000_000);
+    private static final int TRAINERS = 5_000;
+    private static final int TRAINEES = 200_000;
+    private static final int TYPES = 20;
+    private static final int RUNS = 10;
+
+    @Test
+    void aggregationLatency() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        TrainingAnalytics analytics = new TrainingAnalytics(mock(Shards.class), true);
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        long loadStart = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            analytics.add(i, random.nextInt(TRAINERS), random.nextInt(TRAINEES), random.nextInt(TYPES),
+                    start.plusDays(random.nextInt(6 * 365)), 15 + random.nextInt(106));
+        }
+        double loadSeconds = (System.nanoTime() - loadStart) / 1e9;
+
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%,d rows loaded in %.1f s, ~%,d MB heap (%.1f bytes/row)%n",
+                ROWS, loadSeconds, (heapAfter - heapBefore) >> 20, (heapAfter - heapBefore) / (double) ROWS);
+
+        AnalyticsFilter lastYear = new AnalyticsFilter();
+        lastYear.setFromDate(LocalDate.of(2025, 1, 1));
+        AnalyticsFilter someTypes = new AnalyticsFilter();
+        someTypes.setTrainingTypeIds(Set.of(1L, 2L, 3L));
+
+        time("total", () -> analytics.total(null));
+        time("by type", () -> analytics.minutesByTrainingType(null));
+        time("by trainer, last year", () -> analytics.minutesByTrainer(lastYear));
+        time("by trainee", () -> analytics.minutesByTrainee(null));
+        time("by month, 3 types", () -> analytics.minutesByMonth(someTypes));
+
+        assertEquals(ROWS, analytics.total(null).getTrainingCount());
+    }
+
+    private static void time(String label, Supplier<?> query) {
+        query.get();
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            query.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-24s best of %d: %,8.2f ms%n", label, RUNS, best / 1e6);
+    }
+}
@@ -0,0 +1,67 @@
+package com.gym_project.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolMetricsTest {
+
+    @Test
+    void snapshot_shouldExposePoolCounters() {
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+        metrics.create("primary", new FixedPoolStats(3, 7, 2));
+
+        ConnectionPoolSnapshot snapshot = metrics.snapshot("primary").orElseThrow();
+
+        assertEquals("primary", snapshot.getPoolName());
+        assertEquals(3, snapshot.getActiveConnections());
+        assertEquals(7, snapshot.getIdleConnections());
+        assertEquals(10, snapshot.getTotalConnections());
+        assertEquals(2, snapshot.getPendingThreads());
+    }
+
+    @Test
+    void snapshot_shouldRecordWaitTimesIntoHistogram() {
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+        IMetricsTracker tracker = metrics.create("primary", new FixedPoolStats(0, 0, 0));
+
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.SECONDS.toNanos(10));
+        tracker.recordConnectionTimeout();
+
+        ConnectionPoolSnapshot snapshot = metrics.snapshot("primary").orElseThrow();
+        long[] counts = snapshot.getWaitBucketCounts();
+
+        assertEquals(3, snapshot.getAcquisitions());
+        assertEquals(1, snapshot.getConnectionTimeouts());
+        assertEquals(TimeUnit.SECONDS.toMicros(10), snapshot.getMaxWaitMicros());
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[3]);
+        assertEquals(1, counts[counts.length - 1]);
+    }
+
+    @Test
+    void snapshot_shouldBeEmptyForUnknownPool() {
+        assertTrue(new ConnectionPoolMetrics().snapshot("missing").isEmpty());
+    }
+
+    private static class FixedPoolStats extends PoolStats {
+
+        FixedPoolStats(int active, int idle, int pending) {
+            super(0);
+            this.activeConnections = active;
+            this.idleConnections = idle;
+            this.totalConnections = active + idle;
+            this.pendingThreads = pending;
+        }
+
+        @Override
+        protected void update() {
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.gym_project.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaSet replicaSet;
+    private ReadYourWritesTracker tracker;
+    private ReplicaRoutingDataSource routing;
+
+    private long replica1Lag;
+    private long replica2Lag;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica(() -> replica1Lag));
+        replicas.put("replica-2", replica(() -> replica2Lag));
+
+        replicaSet = new ReplicaSet(replicas, 1000);
+        tracker = new ReadYourWritesTracker(5000, 100);
+        routing = new ReplicaRoutingDataSource(mock(DataSource.class), replicaSet, tracker);
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("john", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnly_shouldUsePrimaryBeforeFirstLagCheck() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnly_shouldRoundRobinOverHealthyReplicas() {
+        replicaSet.checkLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object first = routing.determineCurrentLookupKey();
+        Object second = routing.determineCurrentLookupKey();
+
+        assertNotEquals(first, second);
+        assertTrue(List.of("replica-1", "replica-2").containsAll(List.of(first, second)));
+    }
+
+    @Test
+    void readOnly_shouldSkipLaggingReplicaAndFallBackWhenAllLag() {
+        replica1Lag = 5000;
+        replicaSet.checkLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-2", routing.determineCurrentLookupKey());
+        assertEquals("replica-2", routing.determineCurrentLookupKey());
+
+        replica2Lag = 5000;
+        replicaSet.checkLag();
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        assertEquals(Map.of("replica-1", 5000L, "replica-2", 5000L), replicaSet.lagSnapshot());
+    }
+
+    @Test
+    void write_shouldUsePrimaryAndPinReadsAfterCommit() {
+        replicaSet.checkLag();
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("jane", null, List.of()));
+        assertNotEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void write_shouldNotPinReadsWhenRolledBack() {
+        replicaSet.checkLag();
+
+        routing.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertNotEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void supportsWithoutTransaction_shouldUsePrimaryWithoutPinningReads() {
+        replicaSet.checkLag();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertNotEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void unreachableReplica_shouldBeTakenOutOfRotation() throws Exception {
+        DataSource broken = mock(DataSource.class);
+        when(broken.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaSet set = new ReplicaSet(Map.of("replica-x", broken), 1000);
+
+        set.checkLag();
+
+        assertTrue(set.pick().isEmpty());
+        assertEquals(-1L, set.lagSnapshot().get("replica-x"));
+    }
+
+    private static DataSource replica(LagSource lag) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaSet.LAG_QUERY)).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong(1)).thenAnswer(invocation -> lag.get());
+        return dataSource;
+    }
+
+    private interface LagSource {
+        long get();
+    }
+}
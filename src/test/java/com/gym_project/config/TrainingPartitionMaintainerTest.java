@@ -0,0 +1,158 @@
+package com.gym_project.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrainingPartitionMaintainerTest {
+
+    private static final Clock MARCH_2026 = Clock.fixed(Instant.parse("2026-03-15T10:00:00Z"), ZoneOffset.UTC);
+
+    private DataSource dataSource;
+    private Connection connection;
+    private Statement statement;
+    private ResultSet partitions;
+    private ResultSet defaultMonths;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(Statement.class);
+        partitions = mock(ResultSet.class);
+        defaultMonths = mock(ResultSet.class);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(partitions);
+        when(statement.executeQuery(contains(TrainingPartitionMaintainer.DEFAULT_PARTITION))).thenReturn(defaultMonths);
+    }
+
+    @Test
+    void partitionName_shouldRoundTrip() {
+        YearMonth month = YearMonth.of(2026, 3);
+
+        assertEquals("trainings_p2026_03", TrainingPartitionMaintainer.partitionName(month));
+        assertEquals(Optional.of(month), TrainingPartitionMaintainer.parsePartitionName("trainings_p2026_03"));
+        assertEquals(Optional.empty(), TrainingPartitionMaintainer.parsePartitionName("trainings_default"));
+    }
+
+    @Test
+    void createSql_shouldCoverOneMonth() {
+        assertEquals("CREATE TABLE IF NOT EXISTS trainings_p2026_12 PARTITION OF trainings " +
+                        "FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')",
+                TrainingPartitionMaintainer.createSql(YearMonth.of(2026, 12)));
+    }
+
+    @Test
+    void maintain_shouldCreateMissingFuturePartitions() throws Exception {
+        when(partitions.next()).thenReturn(true, true, false);
+        when(partitions.getString(1)).thenReturn("trainings_p2026_03", "trainings_default");
+
+        new TrainingPartitionMaintainer(dataSource, 2, 0, "archive", MARCH_2026).maintain();
+
+        verify(statement, never()).execute(TrainingPartitionMaintainer.createSql(YearMonth.of(2026, 3)));
+        verify(statement).execute(TrainingPartitionMaintainer.createSql(YearMonth.of(2026, 4)));
+        verify(statement).execute(TrainingPartitionMaintainer.createSql(YearMonth.of(2026, 5)));
+        verify(statement, never()).execute(contains("DETACH"));
+    }
+
+    @Test
+    void maintain_shouldMoveRowsOutOfDefaultPartitionBeforeCreatingTheirMonth() throws Exception {
+        when(partitions.next()).thenReturn(true, false);
+        when(partitions.getString(1)).thenReturn("trainings_p2026_03");
+        when(defaultMonths.next()).thenReturn(true, true, false);
+        when(defaultMonths.getString(1)).thenReturn("2025_11", "2026_04");
+
+        new TrainingPartitionMaintainer(dataSource, 2, 0, "archive", MARCH_2026).maintain();
+
+        for (YearMonth month : List.of(YearMonth.of(2025, 11), YearMonth.of(2026, 4))) {
+            for (String sql : TrainingPartitionMaintainer.moveOutOfDefaultSql(month)) {
+                verify(statement).execute(sql);
+            }
+            verify(statement, never()).execute(TrainingPartitionMaintainer.createSql(month));
+        }
+        verify(statement).execute(TrainingPartitionMaintainer.createSql(YearMonth.of(2026, 5)));
+        verify(connection, times(2)).commit();
+    }
+
+    @Test
+    void maintain_shouldRollBackFailedMove() throws Exception {
+        when(partitions.next()).thenReturn(false);
+        when(defaultMonths.next()).thenReturn(true, false);
+        when(defaultMonths.getString(1)).thenReturn("2026_03");
+        List<String> move = TrainingPartitionMaintainer.moveOutOfDefaultSql(YearMonth.of(2026, 3));
+        when(statement.execute(move.get(2))).thenThrow(new SQLException("lock timeout"));
+
+        assertDoesNotThrow(new TrainingPartitionMaintainer(dataSource, 0, 0, "archive", MARCH_2026)::maintain);
+
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).setAutoCommit(true);
+    }
+
+    @Test
+    void moveOutOfDefaultSql_shouldAttachTheMovedMonth() {
+        List<String> sql = TrainingPartitionMaintainer.moveOutOfDefaultSql(YearMonth.of(2026, 12));
+
+        assertEquals("CREATE TABLE trainings_p2026_12 (LIKE trainings INCLUDING DEFAULTS)", sql.get(0));
+        assertTrue(sql.get(1).startsWith("WITH moved AS (DELETE FROM trainings_default " +
+                "WHERE training_date >= '2026-12-01' AND training_date < '2027-01-01'"));
+        assertEquals("ALTER TABLE trainings ATTACH PARTITION trainings_p2026_12 " +
+                "FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')", sql.get(2));
+    }
+
+    @Test
+    void maintain_shouldDetachAndArchiveExpiredPartitions() throws Exception {
+        when(partitions.next()).thenReturn(true, true, true, false);
+        when(partitions.getString(1)).thenReturn("trainings_p2025_01", "trainings_p2025_02", "trainings_p2026_03");
+
+        TrainingPartitionMaintainer maintainer = new TrainingPartitionMaintainer(dataSource, 0, 13, "archive", MARCH_2026);
+        maintainer.maintain();
+
+        verify(statement).execute("CREATE SCHEMA IF NOT EXISTS archive");
+        verify(statement).execute(TrainingPartitionMaintainer.detachSql(YearMonth.of(2025, 1)));
+        verify(statement).execute(maintainer.archiveSql(YearMonth.of(2025, 1)));
+        verify(statement, never()).execute(TrainingPartitionMaintainer.detachSql(YearMonth.of(2025, 2)));
+    }
+
+    @Test
+    void maintain_shouldNotArchiveWhenDetachFails() throws Exception {
+        when(partitions.next()).thenReturn(true, false);
+        when(partitions.getString(1)).thenReturn("trainings_p2020_01");
+        when(statement.execute(TrainingPartitionMaintainer.detachSql(YearMonth.of(2020, 1))))
+                .thenThrow(new SQLException("lock timeout"));
+
+        TrainingPartitionMaintainer maintainer = new TrainingPartitionMaintainer(dataSource, 0, 12, "archive", MARCH_2026);
+        assertDoesNotThrow(maintainer::maintain);
+
+        verify(statement, never()).execute(maintainer.archiveSql(YearMonth.of(2020, 1)));
+    }
+
+    @Test
+    void monthsToArchive_shouldKeepEverythingWhenRetentionIsZero() {
+        TrainingPartitionMaintainer maintainer = new TrainingPartitionMaintainer(dataSource, 3, 0, "archive", MARCH_2026);
+
+        assertEquals(List.of(), maintainer.monthsToArchive(YearMonth.of(2026, 3), List.of(YearMonth.of(2000, 1))));
+    }
+
+    @Test
+    void constructor_shouldRejectNegativeWindows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TrainingPartitionMaintainer(dataSource, -1, 0, "archive", MARCH_2026));
+    }
+}
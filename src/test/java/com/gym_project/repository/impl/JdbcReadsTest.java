@@ -0,0 +1,146 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import org.hibernate.Session;
+import org.hibernate.jdbc.ReturningWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JdbcReadsTest {
+
+    private EntityManager entityManager;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private JdbcReads jdbcReads;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        entityManager = mock(EntityManager.class);
+        Session session = mock(Session.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        jdbcReads = new JdbcReads("jdbc", 128);
+
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.doReturningWork(any())).thenAnswer(invocation ->
+                invocation.<ReturningWork<?>>getArgument(0).execute(connection));
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+    }
+
+    @Test
+    void constructor_shouldRejectUnknownReadPath() {
+        assertThrows(IllegalArgumentException.class, () -> new JdbcReads("jooq", 128));
+        assertFalse(new JdbcReads("jpa", 128).isEnabled());
+        assertTrue(jdbcReads.isEnabled());
+    }
+
+    @Test
+    void findTraineeTrainings_shouldMapRowsWithoutEntities() throws Exception {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        filter.setFromDate(LocalDate.of(2026, 1, 1));
+        filter.setTrainerName("Jo");
+        filter.setCursorDate(LocalDate.of(2026, 3, 1));
+        filter.setCursorId(9L);
+
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getLong(1)).thenReturn(7L);
+        when(resultSet.getString(2)).thenReturn("trainee1");
+        when(resultSet.getString(3)).thenReturn("trainer1");
+        when(resultSet.getString(4)).thenReturn("Yoga");
+        when(resultSet.getString(5)).thenReturn("Morning");
+        when(resultSet.getObject(6, LocalDate.class)).thenReturn(LocalDate.of(2026, 2, 1));
+        when(resultSet.getInt(7)).thenReturn(60);
+
+        List<TrainingResponseDto> result = jdbcReads.findTraineeTrainings(entityManager, "trainee1", filter, 21);
+
+        assertEquals(1, result.size());
+        assertEquals(7L, result.get(0).getId());
+        assertEquals("trainer1", result.get(0).getTrainerUsername());
+        assertEquals(LocalDate.of(2026, 2, 1), result.get(0).getTrainingDate());
+        assertEquals(60, result.get(0).getTrainingDuration());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().startsWith(JdbcReads.TRAINING_SELECT + " WHERE te.username = ?"));
+        assertTrue(sql.getValue().contains("LOWER(t.first_name) LIKE ?"));
+        assertTrue(sql.getValue().endsWith("ORDER BY tr.training_date DESC, tr.id DESC LIMIT ?"));
+        verify(statement).setFetchSize(128);
+        verify(statement).setObject(1, "trainee1");
+        verify(statement).setObject(2, LocalDate.of(2026, 1, 1));
+        verify(statement).setObject(3, "%jo%");
+        verify(statement).setObject(4, "%jo%");
+        verify(statement).setObject(7, 9L);
+        verify(statement).setObject(8, 21);
+    }
+
+    @Test
+    void findTrainerTrainings_withoutLimitShouldIgnoreCursor() throws Exception {
+        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
+        filter.setCursorDate(LocalDate.of(2026, 3, 1));
+        filter.setCursorId(9L);
+        when(resultSet.next()).thenReturn(false);
+
+        assertTrue(jdbcReads.findTrainerTrainings(entityManager, "trainer1", filter, null).isEmpty());
+
+        verify(connection).prepareStatement(JdbcReads.TRAINING_SELECT + " WHERE t.username = ?");
+        verify(statement).setObject(1, "trainer1");
+        verify(statement, never()).setObject(eq(2), any());
+    }
+
+    @Test
+    void findTraineeProfile_shouldCollectTrainersFromJoinedRows() throws Exception {
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString(1)).thenReturn("john.doe");
+        when(resultSet.getBoolean(4)).thenReturn(true);
+        when(resultSet.getString(7)).thenReturn("trainer1", "trainer2");
+
+        Optional<TraineeResponseDto> result = jdbcReads.findTraineeProfile(entityManager, "john.doe");
+
+        assertTrue(result.isPresent());
+        assertEquals("john.doe", result.get().getUsername());
+        assertTrue(result.get().isActive());
+        assertEquals(Set.of("trainer1", "trainer2"), result.get().getTrainerUsernames());
+        verify(connection).prepareStatement(JdbcReads.TRAINEE_PROFILE_SQL);
+        verify(statement).setString(1, "john.doe");
+    }
+
+    @Test
+    void findTrainerProfile_shouldReturnEmptyTraineesForUnlinkedTrainer() throws Exception {
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString(1)).thenReturn("trainer1");
+        when(resultSet.getString(5)).thenReturn("Yoga");
+        when(resultSet.getString(6)).thenReturn(null);
+
+        TrainerResponseDto result = jdbcReads.findTrainerProfile(entityManager, "trainer1").orElseThrow();
+
+        assertEquals("Yoga", result.getSpecialization());
+        assertTrue(result.getTraineeUsernames().isEmpty());
+    }
+
+    @Test
+    void findTrainerProfile_shouldReturnEmptyWhenNoRows() throws Exception {
+        when(resultSet.next()).thenReturn(false);
+
+        assertTrue(jdbcReads.findTrainerProfile(entityManager, "missing").isEmpty());
+    }
+}
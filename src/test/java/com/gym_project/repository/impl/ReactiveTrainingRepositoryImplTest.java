@@ -0,0 +1,41 @@
+package com.gym_project.repository.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveTrainingRepositoryImplTest {
+
+    private RowsFetchSpec<Long> sequence;
+    private ReactiveTrainingRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        DatabaseClient databaseClient = mock(DatabaseClient.class);
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        sequence = mock(RowsFetchSpec.class);
+        when(databaseClient.sql("SELECT nextval('trainings_seq')")).thenReturn(spec);
+        when(spec.map(any(Function.class))).thenReturn(sequence);
+        repository = new ReactiveTrainingRepositoryImpl(databaseClient);
+    }
+
+    @Test
+    void nextId_shouldHandOutHibernateSizedBlocks() {
+        when(sequence.one()).thenReturn(Mono.just(100L), Mono.just(150L));
+
+        assertEquals(51L, repository.nextId().block());
+        for (long expected = 52; expected <= 100; expected++) {
+            assertEquals(expected, repository.nextId().block());
+        }
+        assertEquals(101L, repository.nextId().block());
+
+        verify(sequence, times(2)).one();
+    }
+}
@@ -1,17 +1,38 @@
 package com.gym_project.repository.impl;
 
 import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
 import com.gym_project.entity.Training;
+import com.gym_project.entity.User;
+import com.gym_project.security.UserCredentials;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SimpleNaturalIdLoadAccess;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,11 +41,16 @@ class TraineeRepositoryImplTest {
 
     private TraineeRepositoryImpl repository;
     private EntityManager entityManager;
+    private PersistenceContext persistenceContext;
+    private JdbcReads jdbcReads;
+    private TrainingShards trainingShards;
 
     @BeforeEach
     void setUp() throws Exception {
         entityManager = mock(EntityManager.class);
-        repository = new TraineeRepositoryImpl();
+        jdbcReads = mock(JdbcReads.class);
+        trainingShards = mock(TrainingShards.class);
+        repository = new TraineeRepositoryImpl(trainingShards, jdbcReads);
 
         Field emField = TraineeRepositoryImpl.class.getDeclaredField("entityManager");
         emField.setAccessible(true);
@@ -77,16 +103,76 @@ class TraineeRepositoryImplTest {
     }
 
     @Test
-    void findByUsername_shouldReturnOptional() {
-        TypedQuery<Trainee> query = mock(TypedQuery.class);
+    void findPage_shouldPageIdsThenFetchTrainersForThoseIds() {
+        TypedQuery<Long> idQuery = mock(TypedQuery.class);
+        TypedQuery<Trainee> fetchQuery = mock(TypedQuery.class);
+        Trainee trainee = new Trainee();
         when(entityManager.createQuery(
-                "SELECT t FROM Trainee t WHERE t.username = :username", Trainee.class))
-                .thenReturn(query);
-        when(query.setParameter("username", "john")).thenReturn(query);
-        when(query.getResultStream()).thenReturn(List.of(new Trainee()).stream());
+                "SELECT t.id FROM Trainee t WHERE t.username > :after ORDER BY t.username", Long.class))
+                .thenReturn(idQuery);
+        when(idQuery.setMaxResults(3)).thenReturn(idQuery);
+        when(idQuery.setParameter("after", "anna")).thenReturn(idQuery);
+        when(idQuery.getResultList()).thenReturn(List.of(5L, 7L));
+        when(entityManager.createQuery(contains("LEFT JOIN FETCH t.trainers"), eq(Trainee.class)))
+                .thenReturn(fetchQuery);
+        when(fetchQuery.setParameter("ids", List.of(5L, 7L))).thenReturn(fetchQuery);
+        when(fetchQuery.setHint(anyString(), any())).thenReturn(fetchQuery);
+        when(fetchQuery.getResultList()).thenReturn(List.of(trainee));
+
+        List<Trainee> result = repository.findPage("anna", 3);
+
+        assertEquals(List.of(trainee), result);
+        verify(fetchQuery, never()).setMaxResults(anyInt());
+    }
+
+    @Test
+    void findPage_shouldSkipFetchQueryWhenPageIsEmpty() {
+        TypedQuery<Long> idQuery = mock(TypedQuery.class);
+        when(entityManager.createQuery("SELECT t.id FROM Trainee t ORDER BY t.username", Long.class))
+                .thenReturn(idQuery);
+        when(idQuery.setMaxResults(3)).thenReturn(idQuery);
+        when(idQuery.getResultList()).thenReturn(List.of());
+
+        assertTrue(repository.findPage(null, 3).isEmpty());
+        verify(idQuery, never()).setParameter(anyString(), any());
+        verify(entityManager, never()).createQuery(anyString(), eq(Trainee.class));
+    }
+
+    @Test
+    void findByUsername_shouldLoadByNaturalId() {
+        Trainee trainee = new Trainee();
+        stubNaturalIdLoad("john", trainee);
 
         Optional<Trainee> result = repository.findByUsername("john");
+
         assertTrue(result.isPresent());
+        assertSame(trainee, result.get());
+        verify(entityManager, never()).createQuery(anyString(), eq(Trainee.class));
+    }
+
+    @Test
+    void findByUsername_shouldIgnoreUsersOfOtherRole() {
+        stubNaturalIdLoad("trainer1", new Trainer());
+
+        assertTrue(repository.findByUsername("trainer1").isEmpty());
+    }
+
+    @Test
+    void findCredentialsByUsername_shouldProjectLoginColumnsOnly() {
+        TypedQuery<UserCredentials> query = mock(TypedQuery.class);
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        UserCredentials credentials = new UserCredentials("john", "pass", true);
+
+        when(entityManager.createQuery(jpql.capture(), eq(UserCredentials.class))).thenReturn(query);
+        when(query.setParameter("username", "john")).thenReturn(query);
+        when(query.getResultStream()).thenReturn(Stream.of(credentials));
+
+        Optional<UserCredentials> result = repository.findCredentialsByUsername("john");
+
+        assertSame(credentials, result.orElseThrow());
+        assertTrue(jpql.getValue().startsWith("SELECT new com.gym_project.security.UserCredentials("));
+        assertTrue(jpql.getValue().contains("FROM Trainee t"));
+        verify(entityManager, never()).unwrap(Session.class);
     }
 
     @Test
@@ -103,59 +189,94 @@ class TraineeRepositoryImplTest {
     }
 
     @Test
-    void changePassword_shouldMergeUpdatedEntity() {
-        Trainee trainee = new Trainee();
-        trainee.setUsername("john");
+    void changePassword_shouldRunSingleUpdateAndEvictRow() {
+        Query query = stubBulkUpdate(List.of(7L));
+        CacheImplementor cache = stubSecondLevelCache();
+        Trainee managed = new Trainee();
+        when(persistenceContext.getEntity(any(EntityKey.class))).thenReturn(managed);
+
+        int updated = repository.changePassword("john", "newpass");
+
+        assertEquals(1, updated);
+        verify(query).setParameter("password", "newpass");
+        verify(query).setParameter("username", "john");
+        verify(cache, atLeastOnce()).evictEntityData(Trainee.class, 7L);
+        verify(entityManager).detach(managed);
+        verify(entityManager, never()).merge(any());
+    }
 
-        TraineeRepositoryImpl spyRepo = spy(repository);
-        doReturn(Optional.of(trainee)).when(spyRepo).findByUsername("john");
+    @Test
+    void changePassword_shouldReportZeroWhenTraineeMissing() {
+        stubBulkUpdate(List.of());
+        stubSecondLevelCache();
 
-        spyRepo.changePassword("john", "newpass");
-        assertEquals("newpass", trainee.getPassword());
-        verify(entityManager).merge(trainee);
+        assertEquals(0, repository.changePassword("ghost", "newpass"));
     }
 
     @Test
-    void activate_shouldSetActiveTrue() {
-        Trainee trainee = new Trainee();
-        trainee.setUsername("john");
+    void activate_shouldUpdateActiveFlagInOneStatement() {
+        Query query = stubBulkUpdate(List.of(1L));
+        stubSecondLevelCache();
 
-        TraineeRepositoryImpl spyRepo = spy(repository);
-        doReturn(Optional.of(trainee)).when(spyRepo).findByUsername("john");
+        int updated = repository.activate("john");
 
-        spyRepo.activate("john");
-        assertTrue(trainee.isActive());
-        verify(entityManager).merge(trainee);
+        assertEquals(1, updated);
+        verify(query).setParameter("active", true);
+        verify(query).setParameter("usernames", List.of("john"));
+        verify(entityManager, never()).unwrap(Session.class);
     }
 
     @Test
-    void deactivate_shouldSetActiveFalse() {
-        Trainee trainee = new Trainee();
-        trainee.setUsername("john");
-        trainee.setActive(true);
+    void deactivate_shouldUpdateAllUsernamesAndCountRows() {
+        Query query = stubBulkUpdate(List.of(1L, 2L));
+        CacheImplementor cache = stubSecondLevelCache();
 
-        TraineeRepositoryImpl spyRepo = spy(repository);
-        doReturn(Optional.of(trainee)).when(spyRepo).findByUsername("john");
+        int updated = repository.deactivate(List.of("john", "jane", "ghost"));
 
-        spyRepo.deactivate("john");
-        assertFalse(trainee.isActive());
-        verify(entityManager).merge(trainee);
+        assertEquals(2, updated);
+        verify(query).setParameter("active", false);
+        verify(query).setParameter("usernames", List.of("john", "jane", "ghost"));
+        verify(cache, atLeastOnce()).evictEntityData(Trainee.class, 1L);
+        verify(cache, atLeastOnce()).evictEntityData(Trainee.class, 2L);
     }
 
     @Test
-    void deleteByUsername_shouldCallRemove() {
+    void deleteByUsername_shouldDeleteWithSetStatements() {
         Trainee trainee = new Trainee();
+        trainee.setId(5L);
         trainee.setUsername("john");
 
         TraineeRepositoryImpl spyRepo = spy(repository);
         doReturn(Optional.of(trainee)).when(spyRepo).findByUsername("john");
 
-        when(entityManager.contains(trainee)).thenReturn(false);
-        when(entityManager.merge(trainee)).thenReturn(trainee);
+        EntityManagerFactory factory = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Query query = mock(Query.class);
+        when(entityManager.getEntityManagerFactory()).thenReturn(factory);
+        when(factory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(mock(org.hibernate.Cache.class));
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getSingleResult()).thenReturn(12L, 1L, 1L);
+        when(query.getResultList()).thenReturn(List.of(7L));
 
-        spyRepo.deleteByUsername("john");
+        DeletionResultDto result = spyRepo.deleteByUsername("john");
 
-        verify(entityManager).remove(trainee);
+        assertEquals(12L, result.getTrainings());
+        assertEquals(1, result.getTrainerTraineeLinks());
+        assertEquals(1, result.getUsers());
+        verify(entityManager, never()).remove(any());
+    }
+
+    @Test
+    void deleteByUsername_shouldReportNothingForUnknownUser() {
+        TraineeRepositoryImpl spyRepo = spy(repository);
+        doReturn(Optional.empty()).when(spyRepo).findByUsername("ghost");
+
+        DeletionResultDto result = spyRepo.deleteByUsername("ghost");
+
+        assertEquals(0, result.getUsers());
+        verify(entityManager, never()).createNativeQuery(anyString());
     }
 
     @Test
@@ -174,6 +295,24 @@ class TraineeRepositoryImplTest {
         verify(query).getResultList();
     }
 
+    @Test
+    void findTrainingsByTraineeAndFilter_shouldMatchNamesCaseInsensitivelyAndEscapeWildcards() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        filter.setTrainerName(" Jo_hn% ");
+
+        TypedQuery<Training> typedQuery = mock(TypedQuery.class);
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        when(entityManager.createQuery(jpql.capture(), eq(Training.class))).thenReturn(typedQuery);
+        when(typedQuery.setParameter(anyString(), any())).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of());
+
+        repository.findTrainingsByTraineeAndFilter("trainee1", filter);
+
+        assertTrue(jpql.getValue().contains("LOWER(t.firstName) LIKE :trainerName"));
+        assertTrue(jpql.getValue().contains("LOWER(t.lastName) LIKE :trainerName"));
+        verify(typedQuery).setParameter("trainerName", "%jo\\_hn\\%%");
+    }
+
     @Test
     void findTrainingsByTraineeAndFilter_shouldReturnList() {
         TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
@@ -197,7 +336,7 @@ class TraineeRepositoryImplTest {
         verify(typedQuery).setParameter("username", "trainee1");
         verify(typedQuery).setParameter("fromDate", filter.getFromDate());
         verify(typedQuery).setParameter("toDate", filter.getToDate());
-        verify(typedQuery).setParameter("trainerName", "%John%");
+        verify(typedQuery).setParameter("trainerName", "%john%");
         verify(typedQuery).setParameter("trainingTypeName", "Yoga");
     }
 
@@ -222,4 +361,177 @@ class TraineeRepositoryImplTest {
         verify(typedQuery, never()).setParameter(eq("trainerName"), any());
         verify(typedQuery, never()).setParameter(eq("trainingTypeName"), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findTrainingDtosByTraineeAndFilter_shouldProjectWithJoins() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        filter.setTrainerName("John");
+
+        TrainingResponseDto dto = new TrainingResponseDto();
+        TypedQuery<TrainingResponseDto> query = mock(TypedQuery.class);
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        when(entityManager.createQuery(jpql.capture(), eq(TrainingResponseDto.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(dto));
+
+        List<TrainingResponseDto> result = repository.findTrainingDtosByTraineeAndFilter("trainee1", filter);
+
+        assertSame(dto, result.get(0));
+        assertTrue(jpql.getValue().startsWith("SELECT new com.gym_project.dto.response.TrainingResponseDto("));
+        assertTrue(jpql.getValue().contains("JOIN tr.trainee te JOIN tr.trainer t JOIN tr.trainingType tt"));
+        verify(query).setParameter("username", "trainee1");
+        verify(query).setParameter("trainerName", "%john%");
+        verify(entityManager, never()).createQuery(anyString(), eq(Training.class));
+    }
+
+    @Test
+    void findTrainingDtosByTraineeAndFilter_whenSharded_shouldMergeNewestFirst() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        TrainingResponseDto localOld = dto(1L, LocalDate.of(2026, 1, 5));
+        TrainingResponseDto localNew = dto(4L, LocalDate.of(2026, 3, 1));
+        TrainingResponseDto remoteSameDay = dto(7L, LocalDate.of(2026, 1, 5));
+        TrainingResponseDto remoteMiddle = dto(2L, LocalDate.of(2026, 2, 10));
+
+        TypedQuery<TrainingResponseDto> query = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(TrainingResponseDto.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(localOld, localNew));
+        when(trainingShards.isSharded()).thenReturn(true);
+        when(trainingShards.userIdByUsername(entityManager, Trainee.class, "trainee1")).thenReturn(9L);
+        when(trainingShards.toDtos(eq(entityManager), any())).thenReturn(List.of(remoteSameDay, remoteMiddle));
+
+        List<TrainingResponseDto> result = repository.findTrainingDtosByTraineeAndFilter("trainee1", filter);
+
+        assertEquals(List.of(localNew, remoteMiddle, remoteSameDay, localOld), result);
+    }
+
+    @Test
+    void findTrainingsByTraineeAndFilter_whenSharded_shouldMergeNewestFirst() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        Training local = training(3L, LocalDate.of(2026, 1, 5));
+        Training remote = training(8L, LocalDate.of(2026, 2, 1));
+
+        TypedQuery<Training> query = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(Training.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(local));
+        when(trainingShards.isSharded()).thenReturn(true);
+        when(trainingShards.userIdByUsername(entityManager, Trainee.class, "trainee1")).thenReturn(9L);
+        when(trainingShards.findEntitiesOnAdditionalShards(eq(entityManager), any())).thenReturn(List.of(remote));
+
+        List<Training> result = repository.findTrainingsByTraineeAndFilter("trainee1", filter);
+
+        assertEquals(List.of(remote, local), result);
+    }
+
+    @Test
+    void findTrainingDtoPageByTraineeAndFilter_shouldSeekPastCursorAndDetectNextPage() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        filter.setCursorDate(LocalDate.of(2026, 2, 1));
+        filter.setCursorId(42L);
+        filter.setPageSize(2);
+
+        TypedQuery<TrainingResponseDto> query = mock(TypedQuery.class);
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        when(entityManager.createQuery(jpql.capture(), eq(TrainingResponseDto.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(
+                new TrainingResponseDto(), new TrainingResponseDto(), new TrainingResponseDto()));
+
+        PageDto<TrainingResponseDto> page = repository.findTrainingDtoPageByTraineeAndFilter("trainee1", filter);
+
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasNext());
+        assertTrue(jpql.getValue().endsWith(
+                "AND (tr.trainingDate < :cursorDate OR (tr.trainingDate = :cursorDate AND tr.id < :cursorId))"
+                        + " ORDER BY tr.trainingDate DESC, tr.id DESC"));
+        verify(query).setParameter("cursorDate", filter.getCursorDate());
+        verify(query).setParameter("cursorId", 42L);
+        verify(query).setMaxResults(3);
+    }
+
+    @Test
+    void findTrainingDtoPageByTraineeAndFilter_firstPageShouldNotBindCursor() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+
+        TypedQuery<TrainingResponseDto> query = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(TrainingResponseDto.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(new TrainingResponseDto()));
+
+        PageDto<TrainingResponseDto> page = repository.findTrainingDtoPageByTraineeAndFilter("trainee1", filter);
+
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasNext());
+        verify(query, never()).setParameter(eq("cursorDate"), any());
+        verify(query).setMaxResults(PageDto.DEFAULT_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void findTrainingDtoPageByTraineeAndFilter_shouldReadThroughJdbcWhenEnabled() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        filter.setPageSize(1);
+        when(jdbcReads.isEnabled()).thenReturn(true);
+        when(jdbcReads.findTraineeTrainings(entityManager, "trainee1", filter, 2))
+                .thenReturn(List.of(new TrainingResponseDto(), new TrainingResponseDto()));
+
+        PageDto<TrainingResponseDto> page = repository.findTrainingDtoPageByTraineeAndFilter("trainee1", filter);
+
+        assertEquals(1, page.getContent().size());
+        assertTrue(page.isHasNext());
+        verify(entityManager, never()).createQuery(anyString(), eq(TrainingResponseDto.class));
+    }
+
+    @Test
+    void findProfileByUsername_shouldMapEntityOnJpaPath() {
+        Trainee trainee = new Trainee();
+        trainee.setUsername("john");
+        trainee.setTrainers(Set.of());
+        stubNaturalIdLoad("john", trainee);
+
+        Optional<TraineeResponseDto> result = repository.findProfileByUsername("john");
+
+        assertTrue(result.isPresent());
+        assertEquals("john", result.get().getUsername());
+        verify(jdbcReads, never()).findTraineeProfile(any(), any());
+    }
+
+    private Query stubBulkUpdate(List<?> updatedIds) {
+        Query query = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(updatedIds);
+        return query;
+    }
+
+    private CacheImplementor stubSecondLevelCache() {
+        SessionImplementor session = mock(SessionImplementor.class);
+        SessionFactoryImplementor factory = mock(SessionFactoryImplementor.class);
+        CacheImplementor cache = mock(CacheImplementor.class);
+        persistenceContext = mock(PersistenceContext.class);
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(session.getFactory()).thenReturn(factory);
+        when(session.getPersistenceContextInternal()).thenReturn(persistenceContext);
+        when(session.generateEntityKey(any(), any())).thenAnswer(invocation -> mock(EntityKey.class));
+        when(factory.getMetamodel()).thenReturn(mock(MetamodelImplementor.class));
+        when(factory.getCache()).thenReturn(cache);
+        return cache;
+    }
+
+    private void stubNaturalIdLoad(String username, User user) {
+        Session session = mock(Session.class);
+        SimpleNaturalIdLoadAccess<User> loadAccess = mock(SimpleNaturalIdLoadAccess.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.bySimpleNaturalId(User.class)).thenReturn(loadAccess);
+        when(loadAccess.loadOptional(username)).thenReturn(Optional.ofNullable(user));
+    }
+
+    private static TrainingResponseDto dto(Long id, LocalDate date) {
+        TrainingResponseDto dto = new TrainingResponseDto();
+        dto.setId(id);
+        dto.setTrainingDate(date);
+        return dto;
+    }
+
+    private static Training training(Long id, LocalDate date) {
+        Training training = new Training();
+        training.setId(id);
+        training.setTrainingDate(date);
+        return training;
+    }
+}
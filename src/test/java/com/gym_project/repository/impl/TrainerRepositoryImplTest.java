@@ -1,17 +1,40 @@
 package com.gym_project.repository.impl;
 
 import com.gym_project.dto.filter.TrainerTrainingFilterDto;
+import com.gym_project.dto.filter.UnassignedTrainerFilterDto;
+import com.gym_project.dto.response.PageDto;
+import com.gym_project.dto.response.TrainerResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.entity.Trainee;
 import com.gym_project.entity.Trainer;
 import com.gym_project.entity.Training;
+import com.gym_project.entity.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SimpleNaturalIdLoadAccess;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.jdbc.ReturningWork;
+import org.hibernate.jdbc.Work;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.mockito.ArgumentCaptor;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,12 +42,15 @@ import static org.mockito.Mockito.*;
 class TrainerRepositoryImplTest {
 
     private EntityManager entityManager;
+    private PersistenceContext persistenceContext;
+    private JdbcReads jdbcReads;
     private TrainerRepositoryImpl repository;
 
     @BeforeEach
     void setUp() throws Exception {
         entityManager = mock(EntityManager.class);
-        repository = new TrainerRepositoryImpl();
+        jdbcReads = mock(JdbcReads.class);
+        repository = new TrainerRepositoryImpl(mock(TrainingShards.class), jdbcReads);
 
         var field = TrainerRepositoryImpl.class.getDeclaredField("entityManager");
         field.setAccessible(true);
@@ -91,6 +117,27 @@ class TrainerRepositoryImplTest {
         verify(query).getResultList();
     }
 
+    @Test
+    void findPage_shouldPageIdsThenFetchTraineesForThoseIds() {
+        TypedQuery<Long> idQuery = mock(TypedQuery.class);
+        TypedQuery<Trainer> fetchQuery = mock(TypedQuery.class);
+        Trainer trainer = new Trainer();
+        when(entityManager.createQuery("SELECT t.id FROM Trainer t ORDER BY t.username", Long.class))
+                .thenReturn(idQuery);
+        when(idQuery.setMaxResults(21)).thenReturn(idQuery);
+        when(idQuery.getResultList()).thenReturn(List.of(2L));
+        when(entityManager.createQuery(contains("LEFT JOIN FETCH t.trainees"), eq(Trainer.class)))
+                .thenReturn(fetchQuery);
+        when(fetchQuery.setParameter("ids", List.of(2L))).thenReturn(fetchQuery);
+        when(fetchQuery.setHint(anyString(), any())).thenReturn(fetchQuery);
+        when(fetchQuery.getResultList()).thenReturn(List.of(trainer));
+
+        List<Trainer> result = repository.findPage(null, 21);
+
+        assertEquals(List.of(trainer), result);
+        verify(fetchQuery, never()).setMaxResults(anyInt());
+    }
+
     @Test
     void findBySpecialization_shouldReturnList() {
         TypedQuery<Trainer> query = mock(TypedQuery.class);
@@ -105,80 +152,245 @@ class TrainerRepositoryImplTest {
     }
 
     @Test
-    void changePassword_shouldCallMerge() {
-        Trainer trainer = new Trainer();
-        trainer.setUsername("john");
+    void changePassword_shouldRunSingleUpdateAndEvictRow() {
+        Query query = stubBulkUpdate(List.of(3L));
+        CacheImplementor cache = stubSecondLevelCache();
 
-        TypedQuery<Trainer> query = mock(TypedQuery.class);
-        when(entityManager.createQuery("SELECT t FROM Trainer t WHERE t.username = :username", Trainer.class))
-                .thenReturn(query);
-        when(query.setParameter("username", "john")).thenReturn(query);
-        when(query.getResultStream()).thenReturn(Stream.of(trainer));
+        int updated = repository.changePassword("john", "newpass");
 
-        repository.changePassword("john", "newpass");
+        assertEquals(1, updated);
+        verify(query).setParameter("password", "newpass");
+        verify(cache, atLeastOnce()).evictEntityData(Trainer.class, 3L);
+        verify(entityManager, never()).merge(any());
+    }
 
-        assertEquals("newpass", trainer.getPassword());
-        verify(entityManager).merge(trainer);
+    @Test
+    void activate_shouldUpdateActiveFlagInOneStatement() {
+        Query query = stubBulkUpdate(List.of(3L));
+        stubSecondLevelCache();
+
+        assertEquals(1, repository.activate("john"));
+        verify(query).setParameter("active", true);
     }
 
     @Test
-    void activate_shouldSetActiveTrue() {
-        Trainer trainer = new Trainer();
+    void deactivate_shouldReportAffectedRows() {
+        Query query = stubBulkUpdate(List.of(3L, 4L));
+        stubSecondLevelCache();
 
-        TypedQuery<Trainer> query = mock(TypedQuery.class);
-        when(entityManager.createQuery("SELECT t FROM Trainer t WHERE t.username = :username", Trainer.class))
-                .thenReturn(query);
-        when(query.setParameter("username", "john")).thenReturn(query);
-        when(query.getResultStream()).thenReturn(Stream.of(trainer));
+        assertEquals(2, repository.deactivate(List.of("john", "jane")));
+        verify(query).setParameter("active", false);
+        verify(query).setParameter("usernames", List.of("john", "jane"));
+    }
+
+    @Test
+    void findTrainingsByTrainerAndFilter_shouldReturnList() {
+        TypedQuery<Training> query = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(Training.class))).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(new Training()));
 
-        repository.activate("john");
+        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
+        filter.setFromDate(LocalDate.now());
+        filter.setToDate(LocalDate.now());
 
-        assertTrue(trainer.isActive());
-        verify(entityManager).merge(trainer);
+        List<Training> result = repository.findTrainingsByTrainerAndFilter("john", filter);
+        assertEquals(1, result.size());
     }
 
+    @Test
+    void findTrainingDtosByTrainerAndFilter_shouldProjectWithJoins() {
+        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
+        filter.setFromDate(LocalDate.now());
+
+        TypedQuery<TrainingResponseDto> query = mock(TypedQuery.class);
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        when(entityManager.createQuery(jpql.capture(), eq(TrainingResponseDto.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(new TrainingResponseDto()));
+
+        List<TrainingResponseDto> result = repository.findTrainingDtosByTrainerAndFilter("john", filter);
+
+        assertEquals(1, result.size());
+        assertTrue(jpql.getValue().startsWith("SELECT new com.gym_project.dto.response.TrainingResponseDto("));
+        assertTrue(jpql.getValue().contains(" WHERE t.username = :username AND tr.trainingDate >= :fromDate"));
+        verify(query).setParameter("username", "john");
+        verify(query).setParameter("fromDate", filter.getFromDate());
+    }
 
     @Test
-    void deactivate_shouldSetActiveFalse() {
-        Trainer trainer = new Trainer();
-        trainer.setActive(true);
+    void findTrainingDtoPageByTrainerAndFilter_shouldRejectOversizedPage() {
+        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
+        filter.setPageSize(PageDto.MAX_PAGE_SIZE + 1);
 
-        TypedQuery<Trainer> query = mock(TypedQuery.class);
-        when(entityManager.createQuery("SELECT t FROM Trainer t WHERE t.username = :username", Trainer.class))
-                .thenReturn(query);
-        when(query.setParameter("username", "john")).thenReturn(query);
-        when(query.getResultStream()).thenReturn(Stream.of(trainer));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.findTrainingDtoPageByTrainerAndFilter("john", filter));
+        verify(entityManager, never()).createQuery(anyString(), eq(TrainingResponseDto.class));
+    }
 
-        repository.deactivate("john");
+    @Test
+    void findProfileByUsername_shouldReadThroughJdbcWhenEnabled() {
+        TrainerResponseDto profile = new TrainerResponseDto();
+        when(jdbcReads.isEnabled()).thenReturn(true);
+        when(jdbcReads.findTrainerProfile(entityManager, "john")).thenReturn(Optional.of(profile));
 
-        assertFalse(trainer.isActive());
-        verify(entityManager).merge(trainer);
+        assertSame(profile, repository.findProfileByUsername("john").orElseThrow());
+        verify(entityManager, never()).unwrap(Session.class);
     }
 
     @Test
-    void findUsernamesStartingWith_shouldReturnList() {
-        TypedQuery<String> query = mock(TypedQuery.class);
-        when(entityManager.createQuery("SELECT t.username FROM Trainer t WHERE t.username LIKE :pattern", String.class))
-                .thenReturn(query);
-        when(query.setParameter("pattern", "jo%")).thenReturn(query);
-        when(query.getResultList()).thenReturn(List.of("john"));
+    void findUnassignedTrainerPage_shouldAntiJoinAndSeekPastCursor() {
+        Query query = mock(Query.class);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        when(entityManager.createNativeQuery(sql.capture())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.setMaxResults(anyInt())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(
+                new Object[]{"anna", "Anna", "Lee", true, "yoga"},
+                new Object[]{"bob", "Bob", "Ray", true, "yoga"},
+                new Object[]{"carl", "Carl", "Fox", true, "yoga"}));
+
+        UnassignedTrainerFilterDto filter = new UnassignedTrainerFilterDto();
+        filter.setSpecialization("yoga");
+        filter.setActiveOnly(true);
+        filter.setCursorUsername("aaron");
+        filter.setPageSize(2);
+
+        PageDto<TrainerResponseDto> page = repository.findUnassignedTrainerPage(10L, filter);
+
+        assertTrue(sql.getValue().contains("NOT EXISTS"));
+        assertTrue(sql.getValue().contains("u.is_active = true"));
+        assertTrue(sql.getValue().endsWith("ORDER BY u.username"));
+        verify(query).setParameter("traineeId", 10L);
+        verify(query).setParameter("specialization", "yoga");
+        verify(query).setParameter("cursorUsername", "aaron");
+        verify(query).setMaxResults(3);
+
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasNext());
+        assertEquals("bob", page.getLast().getUsername());
+        assertEquals("yoga", page.getLast().getSpecialization());
+        assertNull(page.getLast().getTraineeUsernames());
+    }
 
-        List<String> result = repository.findUsernamesStartingWith("jo");
-        assertEquals(1, result.size());
+    @Test
+    void findUnassignedTrainerPage_shouldOmitUnsetFilters() {
+        Query query = mock(Query.class);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        when(entityManager.createNativeQuery(sql.capture())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.setMaxResults(anyInt())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+
+        PageDto<TrainerResponseDto> page =
+                repository.findUnassignedTrainerPage(10L, new UnassignedTrainerFilterDto());
+
+        assertFalse(sql.getValue().contains(":specialization"));
+        assertFalse(sql.getValue().contains(":cursorUsername"));
+        assertFalse(sql.getValue().contains("u.is_active = true"));
+        verify(query).setMaxResults(PageDto.DEFAULT_PAGE_SIZE + 1);
+        assertFalse(page.isHasNext());
     }
 
     @Test
-    void findTrainingsByTrainerAndFilter_shouldReturnList() {
-        TypedQuery<Training> query = mock(TypedQuery.class);
-        when(entityManager.createQuery(anyString(), eq(Training.class))).thenReturn(query);
+    void linkTrainers_shouldBatchInsertsAndEvictCollections() throws Exception {
+        Session session = mock(Session.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        org.hibernate.Cache cache = mock(org.hibernate.Cache.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.getSessionFactory()).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        doAnswer(invocation -> {
+            invocation.<Work>getArgument(0).execute(connection);
+            return null;
+        }).when(session).doWork(any(Work.class));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            repository.linkTrainers(10L, List.of(1L, 2L));
+
+            verify(cache).evictCollectionData(Trainee.class.getName() + ".trainers", 10L);
+            verify(cache).evictCollectionData(Trainer.class.getName() + ".trainees", 1L);
+            verify(cache).evictCollectionData(Trainer.class.getName() + ".trainees", 2L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(connection).prepareStatement(
+                "INSERT INTO trainer_trainee (trainer_id, trainee_id) VALUES (?, ?) ON CONFLICT DO NOTHING");
+        verify(statement, times(2)).addBatch();
+        verify(statement).executeBatch();
+        verify(cache, times(2)).evictCollectionData(Trainee.class.getName() + ".trainers", 10L);
+        verify(cache, times(2)).evictCollectionData(Trainer.class.getName() + ".trainees", 1L);
+        verify(cache, times(2)).evictCollectionData(Trainer.class.getName() + ".trainees", 2L);
+    }
+
+    @Test
+    void linkTrainee_shouldEvictCollectionsOnlyWhenRowInserted() throws Exception {
+        Session session = mock(Session.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        org.hibernate.Cache cache = mock(org.hibernate.Cache.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.getSessionFactory()).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeUpdate()).thenReturn(1, 0);
+        when(session.doReturningWork(any())).thenAnswer(invocation ->
+                invocation.<ReturningWork<Integer>>getArgument(0).execute(connection));
+
+        assertTrue(repository.linkTrainee(1L, 10L));
+        assertFalse(repository.linkTrainee(1L, 10L));
+
+        verify(statement, times(2)).setLong(1, 1L);
+        verify(statement, times(2)).setLong(2, 10L);
+        // the first call evicts before and, without a transaction, right after; the second not at all
+        verify(cache, times(2)).evictCollectionData(Trainer.class.getName() + ".trainees", 1L);
+        verify(session, never()).bySimpleNaturalId(User.class);
+    }
+
+    @Test
+    void unlinkTrainers_shouldSkipEmptyDelta() {
+        repository.unlinkTrainers(10L, List.of());
+
+        verify(entityManager, never()).unwrap(Session.class);
+    }
+
+    private Query stubBulkUpdate(List<?> updatedIds) {
+        Query query = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
         when(query.setParameter(anyString(), any())).thenReturn(query);
-        when(query.getResultList()).thenReturn(List.of(new Training()));
+        when(query.getResultList()).thenReturn(updatedIds);
+        return query;
+    }
 
-        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
-        filter.setFromDate(LocalDate.now());
-        filter.setToDate(LocalDate.now());
+    private CacheImplementor stubSecondLevelCache() {
+        SessionImplementor session = mock(SessionImplementor.class);
+        SessionFactoryImplementor factory = mock(SessionFactoryImplementor.class);
+        CacheImplementor cache = mock(CacheImplementor.class);
+        persistenceContext = mock(PersistenceContext.class);
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(session.getFactory()).thenReturn(factory);
+        when(session.getPersistenceContextInternal()).thenReturn(persistenceContext);
+        when(session.generateEntityKey(any(), any())).thenAnswer(invocation -> mock(EntityKey.class));
+        when(factory.getMetamodel()).thenReturn(mock(MetamodelImplementor.class));
+        when(factory.getCache()).thenReturn(cache);
+        return cache;
+    }
 
-        List<Training> result = repository.findTrainingsByTrainerAndFilter("john", filter);
-        assertEquals(1, result.size());
+    private void stubNaturalIdLoad(String username, User user) {
+        Session session = mock(Session.class);
+        SimpleNaturalIdLoadAccess<User> loadAccess = mock(SimpleNaturalIdLoadAccess.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.bySimpleNaturalId(User.class)).thenReturn(loadAccess);
+        when(loadAccess.loadOptional(username)).thenReturn(Optional.ofNullable(user));
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,29 @@
 package com.gym_project.repository.impl;
 
+import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.entity.Trainee;
 import com.gym_project.entity.Trainer;
 import com.gym_project.entity.Training;
 import com.gym_project.entity.TrainingType;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jdbc.ReturningWork;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.lang.reflect.Field;
+import java.sql.Connection;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,11 +32,13 @@ class TrainingRepositoryImplTest {
 
     private TrainingRepositoryImpl repository;
     private EntityManager entityManager;
+    private TrainingShards trainingShards;
 
     @BeforeEach
     void setUp() throws Exception {
         entityManager = mock(EntityManager.class);
-        repository = new TrainingRepositoryImpl();
+        trainingShards = mock(TrainingShards.class);
+        repository = new TrainingRepositoryImpl(trainingShards);
 
         Field emField = TrainingRepositoryImpl.class.getDeclaredField("entityManager");
         emField.setAccessible(true);
@@ -39,6 +52,20 @@ class TrainingRepositoryImplTest {
         verify(entityManager).persist(training);
     }
 
+    @Test
+    void save_shouldRouteToTrainerShard() {
+        Trainer trainer = new Trainer();
+        trainer.setId(5L);
+        Training training = new Training();
+        training.setTrainer(trainer);
+        when(trainingShards.additionalShardOf(5L)).thenReturn(OptionalInt.of(2));
+
+        repository.save(training);
+
+        verify(trainingShards).insert(2, training);
+        verify(entityManager, never()).persist(any());
+    }
+
     @Test
     void update_shouldCallMerge() {
         Training training = new Training();
@@ -48,6 +75,51 @@ class TrainingRepositoryImplTest {
         verify(entityManager).merge(training);
     }
 
+    @Test
+    void update_withSameShard_shouldUpdateInPlace() {
+        Training training = trainingOfTrainer(7L);
+        when(trainingShards.additionalShardOf(5L)).thenReturn(OptionalInt.of(2));
+        when(trainingShards.additionalShardOf(7L)).thenReturn(OptionalInt.of(2));
+
+        repository.update(training, 5L);
+
+        verify(trainingShards).update(2, training);
+        verify(trainingShards, never()).insertKeepingId(anyInt(), any());
+        verify(trainingShards, never()).deleteAfterCommit(anyInt(), any());
+    }
+
+    @Test
+    void update_withTrainerOnAnotherShard_shouldMoveFromMainDatabase() {
+        Training training = trainingOfTrainer(7L);
+        when(trainingShards.additionalShardOf(7L)).thenReturn(OptionalInt.of(2));
+        when(entityManager.contains(training)).thenReturn(true);
+
+        Training moved = repository.update(training, 5L);
+
+        assertSame(training, moved);
+        verify(trainingShards).insertKeepingId(2, training);
+        verify(entityManager).remove(training);
+        verify(entityManager, never()).merge(any());
+        verify(trainingShards, never()).update(anyInt(), any());
+    }
+
+    @Test
+    void update_withTrainerOnMainDatabase_shouldMoveFromAdditionalShard() {
+        Training training = trainingOfTrainer(7L);
+        when(trainingShards.additionalShardOf(5L)).thenReturn(OptionalInt.of(3));
+        Query insert = mock(Query.class, RETURNS_SELF);
+        when(entityManager.createNativeQuery(startsWith("INSERT INTO trainings (id,"))).thenReturn(insert);
+
+        repository.update(training, 5L);
+
+        verify(insert).setParameter(1, 30L);
+        verify(insert).setParameter(3, 7L);
+        verify(insert).executeUpdate();
+        verify(trainingShards).deleteAfterCommit(3, training);
+        verify(entityManager, never()).merge(any());
+        verify(entityManager, never()).remove(any());
+    }
+
     @Test
     void delete_shouldCallRemove() {
         Training training = mock(Training.class);
@@ -66,6 +138,14 @@ class TrainingRepositoryImplTest {
         assertEquals(training, result.get());
     }
 
+    @Test
+    void findById_shouldFallBackToAdditionalShards() {
+        Training training = new Training();
+        when(trainingShards.findByIdOnAdditionalShards(entityManager, 9L)).thenReturn(Optional.of(training));
+
+        assertEquals(Optional.of(training), repository.findById(9L));
+    }
+
     @Test
     void findAll_shouldCallQueryGetResultList() {
         TypedQuery<Training> query = mock(TypedQuery.class);
@@ -215,4 +295,56 @@ class TrainingRepositoryImplTest {
         assertEquals(merged, result);
         verify(entityManager).merge(original);
     }
-}
\ No newline at end of file
+
+    @Test
+    void scanAll_shouldStreamDtosThroughStatelessSession() throws Exception {
+        Session session = mock(Session.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        StatelessSession stateless = mock(StatelessSession.class);
+        org.hibernate.query.Query<?> query = mock(org.hibernate.query.Query.class);
+        ScrollableResults rows = mock(ScrollableResults.class);
+        Connection connection = mock(Connection.class);
+        TrainingResponseDto first = new TrainingResponseDto();
+        TrainingResponseDto second = new TrainingResponseDto();
+
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.getSessionFactory()).thenReturn(sessionFactory);
+        when(session.doReturningWork(any())).thenAnswer(invocation ->
+                invocation.<ReturningWork<?>>getArgument(0).execute(connection));
+        when(sessionFactory.openStatelessSession(connection)).thenReturn(stateless);
+        doReturn(query).when(stateless).createQuery(anyString());
+        doReturn(query).when(query).setReadOnly(true);
+        doReturn(query).when(query).setFetchSize(anyInt());
+        when(query.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(rows);
+        when(rows.next()).thenReturn(true, true, false);
+        when(rows.get(0)).thenReturn(first, second);
+
+        List<TrainingResponseDto> visited = new ArrayList<>();
+        long scanned = repository.scanAll(visited::add);
+
+        assertEquals(2, scanned);
+        assertEquals(List.of(first, second), visited);
+        verify(rows).close();
+        verify(stateless).close();
+        verify(entityManager, never()).createQuery(anyString(), any());
+    }
+
+    private static Training trainingOfTrainer(Long trainerId) {
+        Trainee trainee = new Trainee();
+        trainee.setId(10L);
+        Trainer trainer = new Trainer();
+        trainer.setId(trainerId);
+        TrainingType type = new TrainingType();
+        type.setId(1L);
+
+        Training training = new Training();
+        training.setId(30L);
+        training.setTrainee(trainee);
+        training.setTrainer(trainer);
+        training.setTrainingType(type);
+        training.setTrainingName("Yoga");
+        training.setTrainingDate(LocalDate.of(2026, 1, 15));
+        training.setTrainingDuration(45);
+        return training;
+    }
+}
@@ -0,0 +1,164 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.entity.Training;
+import com.gym_project.entity.TrainingType;
+import com.gym_project.sharding.ShardMap;
+import com.gym_project.sharding.ShardedTrainingStore;
+import com.gym_project.sharding.Shards;
+import com.gym_project.sharding.TrainingRow;
+import com.gym_project.sharding.TrainingShardQuery;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrainingShardsTest {
+
+    private final Shards shards = mock(Shards.class);
+    private final ShardedTrainingStore store = mock(ShardedTrainingStore.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final TrainingShards trainingShards = new TrainingShards(shards, mock(ShardMap.class), store);
+
+    @Test
+    void toDtos_shouldResolveNamesInBoundedChunks() {
+        int trainees = TrainingShards.NAME_LOOKUP_CHUNK_SIZE * 2;
+        List<TrainingRow> rows = LongStream.rangeClosed(1, trainees)
+                .mapToObj(TrainingShardsTest::row)
+                .toList();
+        TypedQuery<Object[]> query = mock(TypedQuery.class);
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.setParameter(eq("ids"), any())).thenAnswer(invocation -> {
+            chunkSizes.add(invocation.<Collection<?>>getArgument(1).size());
+            return query;
+        });
+        when(query.getResultList()).thenReturn(List.of());
+
+        List<TrainingResponseDto> dtos = trainingShards.toDtos(entityManager, rows);
+
+        assertEquals(trainees, dtos.size());
+        // trainees plus one trainer, then one training type
+        assertEquals(List.of(1000, 1000, 1, 1), chunkSizes);
+    }
+
+    @Test
+    void scanAdditionalShards_shouldStreamEachShardInBatches() {
+        TypedQuery<Object[]> query = mock(TypedQuery.class, RETURNS_SELF);
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+        when(shards.isSharded()).thenReturn(true);
+        when(shards.additionalShards()).thenReturn(List.of(1, 2));
+        when(store.scan(anyInt(), eq(500), any())).thenAnswer(invocation -> {
+            Consumer<List<TrainingRow>> batchAction = invocation.getArgument(2);
+            int shard = invocation.getArgument(0);
+            batchAction.accept(List.of(row(shard * 10L)));
+            return 1L;
+        });
+        List<Long> visited = new ArrayList<>();
+
+        long scanned = trainingShards.scanAdditionalShards(entityManager, 500, dto -> visited.add(dto.getId()));
+
+        assertEquals(2, scanned);
+        assertEquals(List.of(10L, 20L), visited);
+        verify(store, never()).findOnAdditionalShards(any(TrainingShardQuery.class));
+    }
+
+    @Test
+    void scanAdditionalShards_shouldDoNothingWithoutShards() {
+        assertEquals(0, trainingShards.scanAdditionalShards(entityManager, 500, dto -> fail()));
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void insert_shouldDeleteTheRowAgainOnRollback() {
+        when(store.nextId()).thenReturn(51L);
+        Training training = training();
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK, () -> trainingShards.insert(2, training));
+
+        verify(store).insert(eq(2), any());
+        verify(store).delete(2, 51L);
+    }
+
+    @Test
+    void insert_shouldKeepTheRowOnCommit() {
+        when(store.nextId()).thenReturn(51L);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED, () -> trainingShards.insert(2, training()));
+
+        verify(store, never()).delete(anyInt(), anyLong());
+    }
+
+    @Test
+    void update_shouldRestoreThePreviousRowOnRollback() {
+        Training training = training();
+        training.setId(51L);
+        TrainingRow previous = row(51L);
+        when(store.find(eq(2), any())).thenReturn(List.of(previous));
+        when(store.update(eq(2), any())).thenReturn(1);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK, () -> trainingShards.update(2, training));
+
+        verify(store).update(2, previous);
+    }
+
+    @Test
+    void delete_shouldReinsertThePreviousRowOnRollback() {
+        Training training = training();
+        training.setId(51L);
+        TrainingRow previous = row(51L);
+        when(store.find(eq(2), any())).thenReturn(List.of(previous));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK, () -> trainingShards.delete(2, training));
+
+        verify(store).delete(2, 51L);
+        verify(store).insert(2, previous);
+    }
+
+    private static void complete(int status, Runnable write) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            write.run();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Training training() {
+        Trainee trainee = new Trainee();
+        trainee.setId(10L);
+        Trainer trainer = new Trainer();
+        trainer.setId(20L);
+        TrainingType type = new TrainingType();
+        type.setId(1L);
+
+        Training training = new Training();
+        training.setTrainee(trainee);
+        training.setTrainer(trainer);
+        training.setTrainingType(type);
+        training.setTrainingName("Yoga");
+        training.setTrainingDate(LocalDate.of(2026, 1, 5));
+        training.setTrainingDuration(60);
+        return training;
+    }
+
+    private static TrainingRow row(long id) {
+        return new TrainingRow(id, id, 0L, 1L, "Yoga", LocalDate.of(2026, 1, 5), 60);
+    }
+}
@@ -0,0 +1,101 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.entity.Trainee;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserBulkUpdatesTest {
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final PersistenceContext persistenceContext = mock(PersistenceContext.class);
+    private final CacheImplementor cache = mock(CacheImplementor.class);
+
+    @Test
+    void setActive_shouldSplitLargeUsernameListsIntoChunks() {
+        Query query = stubBulkUpdate(List.of(1L, 2L));
+
+        List<String> usernames = IntStream.range(0, 2_500)
+                .mapToObj(i -> "user" + i)
+                .toList();
+
+        int updated = UserBulkUpdates.setActive(entityManager, Trainee.class, "trainees", usernames, false);
+
+        ArgumentCaptor<Object> chunks = ArgumentCaptor.forClass(Object.class);
+        verify(query, times(3)).setParameter(eq("usernames"), chunks.capture());
+        List<Integer> sizes = new ArrayList<>();
+        chunks.getAllValues().forEach(chunk -> sizes.add(((List<?>) chunk).size()));
+
+        assertEquals(List.of(1000, 1000, 500), sizes);
+        assertEquals(6, updated);
+        verify(entityManager).flush();
+    }
+
+    @Test
+    void setActive_shouldSkipEmptyInput() {
+        assertEquals(0, UserBulkUpdates.setActive(entityManager, Trainee.class, "trainees", List.of(), true));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void setPassword_shouldDetachManagedInstanceWithoutLoadingIt() {
+        stubBulkUpdate(List.of(7L));
+        Trainee managed = new Trainee();
+        when(persistenceContext.getEntity(any(EntityKey.class))).thenReturn(managed);
+
+        assertEquals(1, UserBulkUpdates.setPassword(entityManager, Trainee.class, "trainees", "john", "hash"));
+
+        verify(entityManager).detach(managed);
+        verify(entityManager, never()).getReference(any(), any());
+    }
+
+    @Test
+    void setPassword_shouldEvictAgainAfterCommit() {
+        stubBulkUpdate(List.of(7L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            UserBulkUpdates.setPassword(entityManager, Trainee.class, "trainees", "john", "hash");
+            verify(cache, times(1)).evictEntityData(Trainee.class, 7L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cache, times(2)).evictEntityData(Trainee.class, 7L);
+    }
+
+    private Query stubBulkUpdate(List<?> updatedIds) {
+        SessionImplementor session = mock(SessionImplementor.class);
+        SessionFactoryImplementor factory = mock(SessionFactoryImplementor.class);
+        Query query = mock(Query.class);
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(session.getFactory()).thenReturn(factory);
+        when(session.getPersistenceContextInternal()).thenReturn(persistenceContext);
+        when(session.generateEntityKey(any(), any())).thenAnswer(invocation -> mock(EntityKey.class));
+        when(factory.getMetamodel()).thenReturn(mock(MetamodelImplementor.class));
+        when(factory.getCache()).thenReturn(cache);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(updatedIds);
+        return query;
+    }
+}
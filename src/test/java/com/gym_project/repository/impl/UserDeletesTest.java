@@ -0,0 +1,128 @@
+package com.gym_project.repository.impl;
+
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.entity.User;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserDeletesTest {
+
+    private EntityManager entityManager;
+    private Query query;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        query = mock(Query.class);
+        cache = mock(Cache.class);
+        EntityManagerFactory factory = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+
+        when(entityManager.getEntityManagerFactory()).thenReturn(factory);
+        when(factory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+    }
+
+    @Test
+    void deleteTrainee_shouldDeleteChildTablesFirst() {
+        Trainee trainee = new Trainee();
+        trainee.setId(5L);
+        when(entityManager.contains(trainee)).thenReturn(true);
+        when(query.getSingleResult()).thenReturn(20_000L, 1L, 1L);
+        when(query.getResultList()).thenReturn(List.of(7L, 8L));
+
+        DeletionResultDto result = UserDeletes.deleteTrainee(entityManager, trainee);
+
+        assertEquals(20_000L, result.getTrainings());
+        assertEquals(2, result.getTrainerTraineeLinks());
+        assertEquals(1, result.getUsers());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager, times(4)).createNativeQuery(sql.capture());
+        assertTrue(sql.getAllValues().get(0).contains("DELETE FROM trainings WHERE trainee_id = :id"));
+        assertTrue(sql.getAllValues().get(1).contains("DELETE FROM trainer_trainee WHERE trainee_id = :id"));
+        assertTrue(sql.getAllValues().get(2).contains("DELETE FROM trainees WHERE id = :id"));
+        assertTrue(sql.getAllValues().get(3).contains("DELETE FROM users WHERE id = :id"));
+
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).detach(trainee);
+        verify(entityManager, never()).remove(any());
+    }
+
+    @Test
+    void deleteTrainee_shouldEvictUserAndLinkedCollections() {
+        Trainee trainee = new Trainee();
+        trainee.setId(5L);
+        when(query.getSingleResult()).thenReturn(0L, 1L, 1L);
+        when(query.getResultList()).thenReturn(List.of(7L));
+
+        UserDeletes.deleteTrainee(entityManager, trainee);
+
+        verify(cache, atLeastOnce()).evictEntityData(Trainee.class, 5L);
+        verify(cache, atLeastOnce()).evictCollectionData(UserDeletes.TRAINEE_TRAINERS_ROLE, 5L);
+        verify(cache, atLeastOnce()).evictCollectionData(UserDeletes.TRAINER_TRAINEES_ROLE, 7L);
+        verify(cache, atLeastOnce()).evictNaturalIdData(User.class);
+    }
+
+    @Test
+    void deleteTrainee_shouldEvictAgainAfterCommit() {
+        Trainee trainee = new Trainee();
+        trainee.setId(5L);
+        when(query.getSingleResult()).thenReturn(0L, 1L, 1L);
+        when(query.getResultList()).thenReturn(List.of(7L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            UserDeletes.deleteTrainee(entityManager, trainee);
+            verify(cache, times(1)).evictEntityData(Trainee.class, 5L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cache, times(2)).evictEntityData(Trainee.class, 5L);
+        verify(cache, times(2)).evictCollectionData(UserDeletes.TRAINER_TRAINEES_ROLE, 7L);
+    }
+
+    @Test
+    void deleteTrainer_shouldDeleteByTrainerColumns() {
+        Trainer trainer = new Trainer();
+        trainer.setId(9L);
+        when(query.getSingleResult()).thenReturn(3L, 1L, 1L);
+        when(query.getResultList()).thenReturn(List.of());
+
+        DeletionResultDto result = UserDeletes.deleteTrainer(entityManager, trainer);
+
+        assertEquals(3L, result.getTrainings());
+        assertEquals(0, result.getTrainerTraineeLinks());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager, times(4)).createNativeQuery(sql.capture());
+        assertTrue(sql.getAllValues().get(0).contains("DELETE FROM trainings WHERE trainer_id = :id"));
+        assertTrue(sql.getAllValues().get(1).contains("DELETE FROM trainer_trainee WHERE trainer_id = :id RETURNING trainee_id"));
+        assertTrue(sql.getAllValues().get(2).contains("DELETE FROM trainers WHERE id = :id"));
+        verify(cache, atLeastOnce()).evictEntityData(Trainer.class, 9L);
+    }
+}
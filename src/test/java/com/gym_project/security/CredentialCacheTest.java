@@ -0,0 +1,75 @@
+package com.gym_project.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialCacheTest {
+
+    private final CredentialCache cache = new CredentialCache(60, 100);
+
+    @Test
+    void isVerified_shouldMatchOnlyTheVerifiedPassword() {
+        cache.markVerified(Role.TRAINEE, "john", "pass");
+
+        assertTrue(cache.isVerified(Role.TRAINEE, "john", "pass"));
+        assertFalse(cache.isVerified(Role.TRAINEE, "john", "wrong"));
+    }
+
+    @Test
+    void isVerified_shouldKeepRolesApart() {
+        cache.markVerified(Role.TRAINEE, "john", "pass");
+
+        assertFalse(cache.isVerified(Role.TRAINER, "john", "pass"));
+    }
+
+    @Test
+    void invalidate_shouldForgetVerification() {
+        cache.markVerified(Role.TRAINER, "john", "pass");
+
+        cache.invalidate(Role.TRAINER, "john");
+
+        assertFalse(cache.isVerified(Role.TRAINER, "john", "pass"));
+    }
+
+    @Test
+    void invalidateOnCommit_shouldWaitForCommit() {
+        cache.markVerified(Role.TRAINEE, "john", "pass");
+        cache.markVerified(Role.TRAINEE, "jane", "pass");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidateOnCommit(Role.TRAINEE, List.of("john", "jane"));
+
+            assertTrue(cache.isVerified(Role.TRAINEE, "john", "pass"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(cache.isVerified(Role.TRAINEE, "john", "pass"));
+        assertFalse(cache.isVerified(Role.TRAINEE, "jane", "pass"));
+    }
+
+    @Test
+    void invalidateOnCommit_shouldInvalidateRightAwayWithoutTransaction() {
+        cache.markVerified(Role.TRAINER, "john", "pass");
+
+        cache.invalidateOnCommit(Role.TRAINER, "john");
+
+        assertFalse(cache.isVerified(Role.TRAINER, "john", "pass"));
+    }
+
+    @Test
+    void isVerified_shouldExpireWithZeroTtl() {
+        CredentialCache expiring = new CredentialCache(0, 100);
+        expiring.markVerified(Role.TRAINEE, "john", "pass");
+
+        assertFalse(expiring.isVerified(Role.TRAINEE, "john", "pass"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.gym_project.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher("bcrypt", 4, 1000, 2, 10, 5000);
+
+    @AfterEach
+    void tearDown() {
+        hasher.destroy();
+    }
+
+    @Test
+    void hash_shouldProduceSaltedPrefixedHash() {
+        String first = hasher.hash("secret");
+        String second = hasher.hash("secret");
+
+        assertTrue(first.startsWith("{bcrypt}"));
+        assertNotEquals(first, second);
+        assertTrue(hasher.matches("secret", first));
+        assertFalse(hasher.matches("other", first));
+    }
+
+    @Test
+    void matches_shouldAcceptLegacyPlaintextAndFlagItForRehash() {
+        assertTrue(hasher.matches("secret", "secret"));
+        assertFalse(hasher.matches("other", "secret"));
+        assertTrue(hasher.needsRehash("secret"));
+        assertFalse(hasher.needsRehash(hasher.hash("secret")));
+    }
+
+    @Test
+    void needsRehash_shouldFlagHashesOfAnotherAlgorithm() {
+        PasswordHasher pbkdf2 = new PasswordHasher("pbkdf2", 4, 1000, 1, 10, 5000);
+        try {
+            String legacyHash = pbkdf2.hash("secret");
+
+            assertTrue(legacyHash.startsWith("{pbkdf2}"));
+            assertTrue(hasher.matches("secret", legacyHash));
+            assertTrue(hasher.needsRehash(legacyHash));
+        } finally {
+            pbkdf2.destroy();
+        }
+    }
+
+    @Test
+    void constructor_shouldRejectUnknownAlgorithm() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PasswordHasher("md5", 4, 1000, 1, 10, 5000));
+    }
+
+    @Test
+    void submit_shouldRejectWhenQueueIsFull() throws Exception {
+        PasswordHasher tiny = new PasswordHasher("bcrypt", 12, 1000, 1, 1, 30000);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return tiny.hash("secret");
+                }));
+            }
+            start.countDown();
+
+            int rejected = 0;
+            for (Future<String> result : results) {
+                try {
+                    result.get(60, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    rejected++;
+                }
+            }
+
+            assertTrue(rejected > 0);
+            assertEquals(rejected, tiny.snapshot().getRejectedTasks());
+            assertEquals(0, tiny.snapshot().getQueueDepth());
+        } finally {
+            callers.shutdownNow();
+            tiny.destroy();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.response.TraineeResponseDto;
+import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.repository.ReactiveTraineeRepository;
+import com.gym_project.security.Role;
+import com.gym_project.sharding.Shards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class ReactiveTraineeServiceImplTest {
+
+    private ReactiveTraineeRepository traineeRepository;
+    private ReactiveTraineeServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        traineeRepository = mock(ReactiveTraineeRepository.class);
+        service = new ReactiveTraineeServiceImpl(traineeRepository, mock(Shards.class));
+    }
+
+    @Test
+    void getByUsername_shouldReturnOwnProfile() {
+        TraineeResponseDto profile = new TraineeResponseDto();
+        when(traineeRepository.findProfileByUsername("john")).thenReturn(Mono.just(profile));
+
+        StepVerifier.create(service.getByUsername("john")
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(login("john", Role.TRAINEE))))
+                .expectNext(profile)
+                .verifyComplete();
+    }
+
+    @Test
+    void getByUsername_shouldDenyOtherUsers() {
+        when(traineeRepository.findProfileByUsername("john")).thenReturn(Mono.just(new TraineeResponseDto()));
+
+        StepVerifier.create(service.getByUsername("john")
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(login("anna", Role.TRAINEE))))
+                .expectError(AccessDeniedException.class)
+                .verify();
+    }
+
+    @Test
+    void getByUsername_shouldDenyWithoutSecurityContext() {
+        when(traineeRepository.findProfileByUsername("john")).thenReturn(Mono.just(new TraineeResponseDto()));
+
+        StepVerifier.create(service.getByUsername("john"))
+                .expectError(AccessDeniedException.class)
+                .verify();
+    }
+
+    @Test
+    void getByUsername_shouldFailWhenNotFound() {
+        when(traineeRepository.findProfileByUsername("john")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getByUsername("john")
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(login("john", Role.TRAINEE))))
+                .expectErrorMessage("Trainee not found")
+                .verify();
+    }
+
+    @Test
+    void getTrainings_shouldStreamOnDemand() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        when(traineeRepository.findTrainingsByTraineeAndFilter("john", filter))
+                .thenReturn(Flux.fromIterable(List.of(new TrainingResponseDto(), new TrainingResponseDto())));
+
+        StepVerifier.create(service.getTrainings("john", filter)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(login("anna", Role.TRAINEE))),
+                        1)
+                .expectNextCount(1)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    private static Authentication login(String username, Role role) {
+        return new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority(role.asAuthority())));
+    }
+}
@@ -0,0 +1,176 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.analytics.TrainingAnalytics;
+import com.gym_project.config.ReadYourWritesTracker;
+import com.gym_project.dto.create.TrainingCreateDto;
+import com.gym_project.entity.Trainee;
+import com.gym_project.entity.Trainer;
+import com.gym_project.repository.ReactiveTraineeRepository;
+import com.gym_project.repository.ReactiveTrainerRepository;
+import com.gym_project.repository.ReactiveTrainingRepository;
+import com.gym_project.sharding.Shards;
+import com.gym_project.sharding.TrainingRow;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveTrainingServiceImplTest {
+
+    private ReactiveTrainingRepository trainingRepository;
+    private ReactiveTraineeRepository traineeRepository;
+    private ReactiveTrainerRepository trainerRepository;
+    private TrainingAnalytics trainingAnalytics;
+    private Shards shards;
+    private Cache cache;
+    private ReadYourWritesTracker readYourWritesTracker;
+    private ReactiveTrainingServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        trainingRepository = mock(ReactiveTrainingRepository.class);
+        traineeRepository = mock(ReactiveTraineeRepository.class);
+        trainerRepository = mock(ReactiveTrainerRepository.class);
+        trainingAnalytics = mock(TrainingAnalytics.class);
+        shards = mock(Shards.class);
+        cache = mock(Cache.class);
+        readYourWritesTracker = mock(ReadYourWritesTracker.class);
+
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        service = new ReactiveTrainingServiceImpl(trainingRepository, traineeRepository, trainerRepository,
+                transactionalOperator, entityManagerFactory, trainingAnalytics, shards, readYourWritesTracker);
+    }
+
+    @Test
+    void create_shouldLinkInsertAndUpdateWorkload() {
+        when(traineeRepository.findIdByUsername("trainee1")).thenReturn(Mono.just(10L));
+        when(trainerRepository.findIdByUsername("trainer1")).thenReturn(Mono.just(1L));
+        when(trainingRepository.findTrainingTypeName(5L)).thenReturn(Mono.just("Yoga"));
+        when(trainerRepository.linkTrainee(1L, 10L)).thenReturn(Mono.just(true));
+        when(trainingRepository.nextId()).thenReturn(Mono.just(51L));
+        when(trainingRepository.insert(any())).thenReturn(Mono.empty());
+        when(trainerRepository.addToWorkload(1L, LocalDate.of(2026, 3, 14), 60, 1)).thenReturn(Mono.empty());
+        when(trainingAnalytics.isEnabled()).thenReturn(true);
+
+        StepVerifier.create(service.create(validDto()))
+                .assertNext(dto -> {
+                    assertEquals(51L, dto.getId());
+                    assertEquals("Yoga", dto.getTrainingTypeName());
+                    assertEquals("trainer1", dto.getTrainerUsername());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<TrainingRow> row = ArgumentCaptor.forClass(TrainingRow.class);
+        verify(trainingRepository).insert(row.capture());
+        assertEquals(10L, row.getValue().getTraineeId());
+        assertEquals(5L, row.getValue().getTrainingTypeId());
+        verify(cache).evictCollectionData(Trainer.class.getName() + ".trainees", 1L);
+        verify(cache).evictCollectionData(Trainee.class.getName() + ".trainers", 10L);
+        verify(trainingAnalytics).add(51L, 1L, 10L, 5L, LocalDate.of(2026, 3, 14), 60);
+        verify(readYourWritesTracker, never()).recordWrite(anyString());
+    }
+
+    @Test
+    void create_shouldRecordWriteOfCallerAfterCommit() {
+        when(traineeRepository.findIdByUsername("trainee1")).thenReturn(Mono.just(10L));
+        when(trainerRepository.findIdByUsername("trainer1")).thenReturn(Mono.just(1L));
+        when(trainingRepository.findTrainingTypeName(5L)).thenReturn(Mono.just("Yoga"));
+        when(trainerRepository.linkTrainee(1L, 10L)).thenReturn(Mono.just(false));
+        when(trainingRepository.nextId()).thenReturn(Mono.just(53L));
+        when(trainingRepository.insert(any())).thenReturn(Mono.empty());
+        when(trainerRepository.addToWorkload(any(), any(), anyLong(), anyInt())).thenReturn(Mono.empty());
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken("trainee1", null, List.of());
+
+        StepVerifier.create(service.create(validDto())
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(readYourWritesTracker).recordWrite("trainee1");
+    }
+
+    @Test
+    void create_shouldNotEvictWhenPairWasAlreadyLinked() {
+        when(traineeRepository.findIdByUsername("trainee1")).thenReturn(Mono.just(10L));
+        when(trainerRepository.findIdByUsername("trainer1")).thenReturn(Mono.just(1L));
+        when(trainingRepository.findTrainingTypeName(5L)).thenReturn(Mono.just("Yoga"));
+        when(trainerRepository.linkTrainee(1L, 10L)).thenReturn(Mono.just(false));
+        when(trainingRepository.nextId()).thenReturn(Mono.just(52L));
+        when(trainingRepository.insert(any())).thenReturn(Mono.empty());
+        when(trainerRepository.addToWorkload(any(), any(), anyLong(), anyInt())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.create(validDto()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verifyNoInteractions(cache);
+        verify(trainingAnalytics, never()).add(anyLong(), anyLong(), anyLong(), anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void create_shouldFailWhenTrainerNotFound() {
+        when(traineeRepository.findIdByUsername("trainee1")).thenReturn(Mono.just(10L));
+        when(trainerRepository.findIdByUsername("trainer1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.create(validDto()))
+                .expectErrorMessage("Trainer not found")
+                .verify();
+
+        verify(trainingRepository, never()).insert(any());
+        verifyNoInteractions(readYourWritesTracker);
+    }
+
+    @Test
+    void create_shouldRejectInvalidDtoBeforeQuerying() {
+        TrainingCreateDto dto = validDto();
+        dto.setTrainingDuration(0);
+
+        StepVerifier.create(service.create(dto))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(traineeRepository, trainerRepository, trainingRepository);
+    }
+
+    @Test
+    void create_shouldFailWhenTrainingsAreSharded() {
+        when(shards.isSharded()).thenReturn(true);
+
+        StepVerifier.create(service.create(validDto()))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verifyNoInteractions(traineeRepository);
+    }
+
+    private static TrainingCreateDto validDto() {
+        TrainingCreateDto dto = new TrainingCreateDto();
+        dto.setTraineeUsername("trainee1");
+        dto.setTrainerUsername("trainer1");
+        dto.setTrainingTypeId(5L);
+        dto.setTrainingName("Morning");
+        dto.setTrainingDate(LocalDate.of(2026, 3, 14));
+        dto.setTrainingDuration(60);
+        return dto;
+    }
+}
@@ -1,7 +1,10 @@
 package com.gym_project.service.impl;
 
+import com.gym_project.analytics.TrainingAnalytics;
 import com.gym_project.dto.create.TraineeCreateDto;
 import com.gym_project.dto.filter.TraineeTrainingFilterDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
 import com.gym_project.dto.response.TraineeResponseDto;
 import com.gym_project.dto.response.TrainingResponseDto;
 import com.gym_project.dto.update.TraineeUpdateDto;
@@ -10,9 +13,15 @@ import com.gym_project.entity.Trainer;
 import com.gym_project.entity.Training;
 import com.gym_project.entity.TrainingType;
 import com.gym_project.repository.TraineeRepository;
+import com.gym_project.repository.TrainerWorkloadRepository;
+import com.gym_project.security.CredentialCache;
+import com.gym_project.security.PasswordHasher;
+import com.gym_project.security.UserCredentials;
+import com.gym_project.service.UsernameAllocator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,12 +33,23 @@ import static org.mockito.Mockito.*;
 class TraineeServiceImplTest {
 
     private TraineeRepository traineeRepository;
+    private UsernameAllocator usernameAllocator;
+    private CredentialCache credentialCache;
+    private PasswordHasher passwordHasher;
+    private TrainerWorkloadRepository trainerWorkloadRepository;
+    private TrainingAnalytics trainingAnalytics;
     private TraineeServiceImpl traineeService;
 
     @BeforeEach
     void setUp() {
         traineeRepository = mock(TraineeRepository.class);
-        traineeService = new TraineeServiceImpl(traineeRepository);
+        usernameAllocator = mock(UsernameAllocator.class);
+        credentialCache = new CredentialCache(60, 100);
+        trainerWorkloadRepository = mock(TrainerWorkloadRepository.class);
+        trainingAnalytics = mock(TrainingAnalytics.class);
+        passwordHasher = new PasswordHasher("bcrypt", 4, 1000, 2, 10, 5000);
+        traineeService = new TraineeServiceImpl(traineeRepository, usernameAllocator, credentialCache, passwordHasher,
+                trainerWorkloadRepository, trainingAnalytics);
     }
 
     @Test
@@ -40,14 +60,13 @@ class TraineeServiceImplTest {
         dto.setDateOfBirth(LocalDate.of(2000, 1, 1));
         dto.setAddress("Yerevan");
 
-        when(traineeRepository.findUsernamesStartingWith("John.Doe"))
-                .thenReturn(List.of());
+        when(usernameAllocator.allocate("John", "Doe")).thenReturn("John.Doe");
 
         TraineeResponseDto response = traineeService.create(dto);
 
         verify(traineeRepository).save(any(Trainee.class));
 
-        assertNotNull(response.getUsername());
+        assertEquals("John.Doe", response.getUsername());
         assertEquals("John", response.getFirstName());
         assertEquals("Doe", response.getLastName());
     }
@@ -60,15 +79,13 @@ class TraineeServiceImplTest {
         dto.setDateOfBirth(LocalDate.of(2000, 1, 1));
         dto.setAddress("Yerevan");
 
-        when(traineeRepository.findUsernamesStartingWith("John.Doe"))
-                .thenReturn(List.of("John.Doe", "John.Doe1"));
+        when(usernameAllocator.allocate("John", "Doe")).thenReturn("John.Doe2");
 
         TraineeResponseDto response = traineeService.create(dto);
 
         verify(traineeRepository).save(any(Trainee.class));
 
-        assertNotNull(response.getUsername());
-        assertTrue(response.getUsername().startsWith("John.Doe"));
+        assertEquals("John.Doe2", response.getUsername());
     }
 
     @Test
@@ -79,8 +96,7 @@ class TraineeServiceImplTest {
         dto.setDateOfBirth(LocalDate.of(1995, 5, 5));
         dto.setAddress("Yerevan");
 
-        when(traineeRepository.findUsernamesStartingWith("Jane.Smith"))
-                .thenReturn(List.of());
+        when(usernameAllocator.allocate("Jane", "Smith")).thenReturn("Jane.Smith");
 
         traineeService.create(dto);
 
@@ -90,7 +106,31 @@ class TraineeServiceImplTest {
         Trainee saved = captor.getValue();
 
         assertNotNull(saved.getPassword());
-        assertFalse(saved.getPassword().isBlank());
+        assertTrue(saved.getPassword().startsWith("{bcrypt}"));
+    }
+
+    @Test
+    void create_shouldReturnGeneratedPasswordThatLogsIn() {
+        TraineeCreateDto dto = new TraineeCreateDto();
+        dto.setFirstName("Jane");
+        dto.setLastName("Smith");
+        dto.setDateOfBirth(LocalDate.of(1995, 5, 5));
+        dto.setAddress("Yerevan");
+
+        when(usernameAllocator.allocate("Jane", "Smith")).thenReturn("Jane.Smith");
+
+        TraineeResponseDto response = traineeService.create(dto);
+
+        ArgumentCaptor<Trainee> captor = ArgumentCaptor.forClass(Trainee.class);
+        verify(traineeRepository).save(captor.capture());
+        Trainee saved = captor.getValue();
+        when(traineeRepository.findCredentialsByUsername("Jane.Smith"))
+                .thenReturn(Optional.of(new UserCredentials("Jane.Smith", saved.getPassword(), saved.isActive())));
+
+        assertNotNull(response.getPassword());
+        assertNotEquals(saved.getPassword(), response.getPassword());
+        assertDoesNotThrow(() -> traineeService.validateCredentials("Jane.Smith", response.getPassword()));
+        assertFalse(response.toString().contains(response.getPassword()));
     }
 
     @Test
@@ -119,13 +159,21 @@ class TraineeServiceImplTest {
     @Test
     void deleteByUsername_shouldCallDelete() {
         Trainee trainee = new Trainee();
+        trainee.setId(3L);
         trainee.setUsername("john.doe");
 
         when(traineeRepository.findByUsername("john.doe")).thenReturn(Optional.of(trainee));
 
-        traineeService.deleteByUsername("john.doe");
+        DeletionResultDto deleted = new DeletionResultDto(4, 2, 1);
+        when(traineeRepository.deleteCascading(trainee)).thenReturn(deleted);
+
+        assertSame(deleted, traineeService.deleteByUsername("john.doe"));
 
-        verify(traineeRepository).delete(trainee);
+        InOrder inOrder = inOrder(trainerWorkloadRepository, traineeRepository);
+        inOrder.verify(trainerWorkloadRepository).subtractTraineeTrainings(3L);
+        inOrder.verify(traineeRepository).deleteCascading(trainee);
+        verify(traineeRepository, never()).delete(any());
+        verify(trainingAnalytics).recordTraineeDeleted(3L);
     }
 
     @Test
@@ -157,8 +205,36 @@ class TraineeServiceImplTest {
     @Test
     void changePassword_shouldCallRepository() {
         String newPassword = "newPass123";
+        when(traineeRepository.changePassword(eq("john.doe"), anyString())).thenReturn(1);
+
         traineeService.changePassword("john.doe", newPassword);
-        verify(traineeRepository).changePassword("john.doe", newPassword);
+
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(traineeRepository).changePassword(eq("john.doe"), stored.capture());
+        assertNotEquals(newPassword, stored.getValue());
+        assertTrue(passwordHasher.matches(newPassword, stored.getValue()));
+    }
+
+    @Test
+    void changePassword_shouldThrowWhenTraineeMissing() {
+        when(traineeRepository.changePassword(eq("ghost"), anyString())).thenReturn(0);
+
+        assertThrows(RuntimeException.class, () -> traineeService.changePassword("ghost", "newPass123"));
+    }
+
+    @Test
+    void deactivateAll_shouldRunBulkUpdateAndReturnCount() {
+        List<String> usernames = List.of("john.doe", "jane.doe");
+        when(traineeRepository.deactivate(usernames)).thenReturn(2);
+        when(traineeRepository.findCredentialsByUsername("john.doe"))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", "pass", true)))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", "pass", false)));
+        traineeService.validateCredentials("john.doe", "pass");
+
+        assertEquals(2, traineeService.deactivateAll(usernames));
+
+        verify(traineeRepository, never()).findByUsername(anyString());
+        assertThrows(RuntimeException.class, () -> traineeService.validateCredentials("john.doe", "pass"));
     }
 
     @Test
@@ -168,27 +244,18 @@ class TraineeServiceImplTest {
     }
 
     @Test
-    void validateCredentials_shouldReturnDtoWhenCorrect() {
-        Trainee trainee = new Trainee();
-        trainee.setUsername("john.doe");
-        trainee.setPassword("pass");
-        trainee.setActive(true);
-
-        when(traineeRepository.findByUsername("john.doe")).thenReturn(Optional.of(trainee));
-
-        TraineeResponseDto dto = traineeService.validateCredentials("john.doe", "pass");
+    void validateCredentials_shouldPassWhenCorrect() {
+        when(traineeRepository.findCredentialsByUsername("john.doe"))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", "pass", true)));
 
-        assertEquals("john.doe", dto.getUsername());
+        assertDoesNotThrow(() -> traineeService.validateCredentials("john.doe", "pass"));
+        verify(traineeRepository, never()).findByUsername(anyString());
     }
 
     @Test
     void validateCredentials_shouldThrowWhenInactive() {
-        Trainee trainee = new Trainee();
-        trainee.setUsername("john.doe");
-        trainee.setPassword("pass");
-        trainee.setActive(false);
-
-        when(traineeRepository.findByUsername("john.doe")).thenReturn(Optional.of(trainee));
+        when(traineeRepository.findCredentialsByUsername("john.doe"))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", "pass", false)));
 
         assertThrows(RuntimeException.class, () ->
                 traineeService.validateCredentials("john.doe", "pass"));
@@ -196,15 +263,61 @@ class TraineeServiceImplTest {
 
     @Test
     void validateCredentials_shouldThrowWhenPasswordIncorrect() {
+        when(traineeRepository.findCredentialsByUsername("john.doe"))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", "pass", true)));
+
+        assertThrows(RuntimeException.class, () ->
+                traineeService.validateCredentials("john.doe", "wrong"));
+    }
+
+    @Test
+    void validateCredentials_shouldServeRepeatedLoginFromCache() {
+        when(traineeRepository.findCredentialsByUsername("john.doe"))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", "pass", true)));
+
+        traineeService.validateCredentials("john.doe", "pass");
+        traineeService.validateCredentials("john.doe", "pass");
+
+        verify(traineeRepository, times(1)).findCredentialsByUsername("john.doe");
+    }
+
+    @Test
+    void validateCredentials_shouldRehashLegacyPlaintextPassword() {
+        when(traineeRepository.findCredentialsByUsername("john.doe"))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", "pass", true)));
+
+        traineeService.validateCredentials("john.doe", "pass");
+
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(traineeRepository).changePassword(eq("john.doe"), stored.capture());
+        assertTrue(passwordHasher.matches("pass", stored.getValue()));
+        assertFalse(passwordHasher.needsRehash(stored.getValue()));
+    }
+
+    @Test
+    void validateCredentials_shouldNotRehashCurrentHash() {
+        when(traineeRepository.findCredentialsByUsername("john.doe"))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", passwordHasher.hash("pass"), true)));
+
+        traineeService.validateCredentials("john.doe", "pass");
+
+        verify(traineeRepository, never()).changePassword(anyString(), anyString());
+    }
+
+    @Test
+    void validateCredentials_shouldRecheckAfterDeactivation() {
         Trainee trainee = new Trainee();
         trainee.setUsername("john.doe");
-        trainee.setPassword("pass");
-        trainee.setActive(true);
-
         when(traineeRepository.findByUsername("john.doe")).thenReturn(Optional.of(trainee));
+        when(traineeRepository.findCredentialsByUsername("john.doe"))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", "pass", true)))
+                .thenReturn(Optional.of(new UserCredentials("john.doe", "pass", false)));
+
+        traineeService.validateCredentials("john.doe", "pass");
+        traineeService.deactivate("john.doe");
 
         assertThrows(RuntimeException.class, () ->
-                traineeService.validateCredentials("john.doe", "wrong"));
+                traineeService.validateCredentials("john.doe", "pass"));
     }
 
     @Test
@@ -228,12 +341,12 @@ class TraineeServiceImplTest {
 
     @Test
     void getByUsername_shouldReturnDto() {
-        Trainee trainee = new Trainee();
-        trainee.setUsername("john.doe");
-        trainee.setFirstName("John");
-        trainee.setLastName("Doe");
+        TraineeResponseDto profile = new TraineeResponseDto();
+        profile.setUsername("john.doe");
+        profile.setFirstName("John");
+        profile.setLastName("Doe");
 
-        when(traineeRepository.findByUsername("john.doe")).thenReturn(Optional.of(trainee));
+        when(traineeRepository.findProfileByUsername("john.doe")).thenReturn(Optional.of(profile));
 
         TraineeResponseDto dto = traineeService.getByUsername("john.doe");
 
@@ -244,7 +357,7 @@ class TraineeServiceImplTest {
 
     @Test
     void getByUsername_shouldThrowIfNotFound() {
-        when(traineeRepository.findByUsername("missing")).thenReturn(Optional.empty());
+        when(traineeRepository.findProfileByUsername("missing")).thenReturn(Optional.empty());
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
                 traineeService.getByUsername("missing")
@@ -270,19 +383,37 @@ class TraineeServiceImplTest {
     }
 
     @Test
-    void getTrainings_shouldReturnMappedDtos() {
+    void getAllPage_shouldFetchOneExtraRowToDetectNextPage() {
+        Trainee t1 = new Trainee();
+        t1.setUsername("u1");
+        Trainee t2 = new Trainee();
+        t2.setUsername("u2");
+        Trainee t3 = new Trainee();
+        t3.setUsername("u3");
+
+        when(traineeRepository.findPage("u0", 3)).thenReturn(List.of(t1, t2, t3));
+
+        PageDto<TraineeResponseDto> page = traineeService.getAllPage("u0", 2);
+
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasNext());
+        assertEquals("u2", page.getLast().getUsername());
+    }
+
+    @Test
+    void getAllPage_shouldRejectOversizedPage() {
+        assertThrows(IllegalArgumentException.class,
+                () -> traineeService.getAllPage(null, PageDto.MAX_PAGE_SIZE + 1));
+        verify(traineeRepository, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void getTrainings_shouldReturnProjectedDtos() {
         TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
-        Training training = new Training();
-        Trainee trainee = new Trainee();
-        trainee.setUsername("john.doe");
-        training.setTrainee(trainee);
-        training.setTrainer(new Trainer());
-        training.setTrainingType(new TrainingType());
-        training.setTrainingName("Yoga");
-        training.setTrainingDate(LocalDate.now());
-        training.setTrainingDuration(60);
-
-        when(traineeRepository.findTrainingsByTraineeAndFilter("john.doe", filter))
+        TrainingResponseDto training = new TrainingResponseDto(
+                1L, "john.doe", "trainer1", "Yoga", "Yoga", LocalDate.now(), 60);
+
+        when(traineeRepository.findTrainingDtosByTraineeAndFilter("john.doe", filter))
                 .thenReturn(List.of(training));
 
         List<TrainingResponseDto> result = traineeService.getTrainings("john.doe", filter);
@@ -290,6 +421,7 @@ class TraineeServiceImplTest {
         assertEquals(1, result.size());
         assertEquals("john.doe", result.get(0).getTraineeUsername());
         assertEquals("Yoga", result.get(0).getTrainingName());
+        verify(traineeRepository, never()).findTrainingsByTraineeAndFilter(any(), any());
     }
 
     @Test
@@ -360,4 +492,22 @@ class TraineeServiceImplTest {
         );
         assertEquals("Address cannot be empty", ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTrainingsPage_shouldDelegateToRepository() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        PageDto<TrainingResponseDto> page = new PageDto<>(List.of(new TrainingResponseDto()), false);
+        when(traineeRepository.findTrainingDtoPageByTraineeAndFilter("john.doe", filter)).thenReturn(page);
+
+        assertSame(page, traineeService.getTrainingsPage("john.doe", filter));
+    }
+
+    @Test
+    void getTrainingsPage_shouldRejectHalfCursor() {
+        TraineeTrainingFilterDto filter = new TraineeTrainingFilterDto();
+        filter.setCursorDate(LocalDate.now());
+
+        assertThrows(IllegalArgumentException.class, () -> traineeService.getTrainingsPage("john.doe", filter));
+        verify(traineeRepository, never()).findTrainingDtoPageByTraineeAndFilter(any(), any());
+    }
+}
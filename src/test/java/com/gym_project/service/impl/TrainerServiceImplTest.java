@@ -1,6 +1,10 @@
 package com.gym_project.service.impl;
 
+import com.gym_project.analytics.TrainingAnalytics;
 import com.gym_project.dto.create.TrainerCreateDto;
+import com.gym_project.dto.filter.UnassignedTrainerFilterDto;
+import com.gym_project.dto.response.DeletionResultDto;
+import com.gym_project.dto.response.PageDto;
 import com.gym_project.dto.update.TrainerUpdateDto;
 import com.gym_project.dto.update.TraineeTrainersUpdateDto;
 import com.gym_project.dto.filter.TrainerTrainingFilterDto;
@@ -10,13 +14,19 @@ import com.gym_project.entity.Training;
 import com.gym_project.entity.TrainingType;
 import com.gym_project.repository.TrainerRepository;
 import com.gym_project.repository.TraineeRepository;
+import com.gym_project.security.CredentialCache;
+import com.gym_project.security.PasswordHasher;
+import com.gym_project.security.UserCredentials;
+import com.gym_project.service.UsernameAllocator;
 import com.gym_project.dto.response.TrainerResponseDto;
 import com.gym_project.dto.response.TrainingResponseDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,13 +35,22 @@ class TrainerServiceImplTest {
 
     private TrainerRepository trainerRepository;
     private TraineeRepository traineeRepository;
+    private UsernameAllocator usernameAllocator;
+    private CredentialCache credentialCache;
+    private PasswordHasher passwordHasher;
+    private TrainingAnalytics trainingAnalytics;
     private TrainerServiceImpl service;
 
     @BeforeEach
     void setUp() {
         trainerRepository = mock(TrainerRepository.class);
         traineeRepository = mock(TraineeRepository.class);
-        service = new TrainerServiceImpl(trainerRepository, traineeRepository);
+        usernameAllocator = mock(UsernameAllocator.class);
+        credentialCache = new CredentialCache(60, 100);
+        trainingAnalytics = mock(TrainingAnalytics.class);
+        passwordHasher = new PasswordHasher("bcrypt", 4, 1000, 2, 10, 5000);
+        service = new TrainerServiceImpl(trainerRepository, traineeRepository, usernameAllocator,
+                credentialCache, passwordHasher, trainingAnalytics);
     }
 
     @Test
@@ -41,19 +60,41 @@ class TrainerServiceImplTest {
         dto.setLastName("Doe");
         dto.setSpecialization("Yoga");
 
-        when(trainerRepository.findUsernamesStartingWith("John.Doe")).thenReturn(List.of());
+        when(usernameAllocator.allocate("John", "Doe")).thenReturn("John.Doe");
 
         TrainerResponseDto response = service.create(dto);
 
-        assertNotNull(response.getUsername());
+        assertEquals("John.Doe", response.getUsername());
         verify(trainerRepository).save(any(Trainer.class));
     }
 
+    @Test
+    void create_shouldReturnGeneratedPasswordThatLogsIn() {
+        TrainerCreateDto dto = new TrainerCreateDto();
+        dto.setFirstName("John");
+        dto.setLastName("Doe");
+        dto.setSpecialization("Yoga");
+
+        when(usernameAllocator.allocate("John", "Doe")).thenReturn("John.Doe");
+
+        TrainerResponseDto response = service.create(dto);
+
+        ArgumentCaptor<Trainer> captor = ArgumentCaptor.forClass(Trainer.class);
+        verify(trainerRepository).save(captor.capture());
+        Trainer saved = captor.getValue();
+        when(trainerRepository.findCredentialsByUsername("John.Doe"))
+                .thenReturn(Optional.of(new UserCredentials("John.Doe", saved.getPassword(), saved.isActive())));
+
+        assertNotNull(response.getPassword());
+        assertNotEquals(saved.getPassword(), response.getPassword());
+        assertDoesNotThrow(() -> service.validateCredentials("John.Doe", response.getPassword()));
+    }
+
     @Test
     void getByUsername_shouldReturnTrainer() {
-        Trainer trainer = new Trainer();
-        trainer.setUsername("john");
-        when(trainerRepository.findByUsername("john")).thenReturn(Optional.of(trainer));
+        TrainerResponseDto profile = new TrainerResponseDto();
+        profile.setUsername("john");
+        when(trainerRepository.findProfileByUsername("john")).thenReturn(Optional.of(profile));
 
         TrainerResponseDto dto = service.getByUsername("john");
 
@@ -100,17 +141,25 @@ class TrainerServiceImplTest {
 
     @Test
     void changePassword_shouldCallRepository() {
+        when(trainerRepository.changePassword(eq("john"), anyString())).thenReturn(1);
+
         service.changePassword("john", "newpass");
-        verify(trainerRepository).changePassword("john", "newpass");
+        verify(trainerRepository).changePassword(eq("john"), argThat(hash -> passwordHasher.matches("newpass", hash)));
+    }
+
+    @Test
+    void activateAll_shouldRunBulkUpdateAndReturnCount() {
+        List<String> usernames = List.of("john", "jane", "ghost");
+        when(trainerRepository.activate(usernames)).thenReturn(2);
+
+        assertEquals(2, service.activateAll(usernames));
+        verify(trainerRepository).activate(usernames);
     }
 
     @Test
     void validateCredentials_shouldThrowIfInactive() {
-        Trainer trainer = new Trainer();
-        trainer.setUsername("john");
-        trainer.setActive(false);
-        trainer.setPassword("pass");
-        when(trainerRepository.findByUsername("john")).thenReturn(Optional.of(trainer));
+        when(trainerRepository.findCredentialsByUsername("john"))
+                .thenReturn(Optional.of(new UserCredentials("john", "pass", false)));
 
         Exception ex = assertThrows(RuntimeException.class, () -> service.validateCredentials("john", "pass"));
         assertEquals("Trainer is deactivated", ex.getMessage());
@@ -118,33 +167,46 @@ class TrainerServiceImplTest {
 
     @Test
     void validateCredentials_shouldThrowIfPasswordIncorrect() {
-        Trainer trainer = new Trainer();
-        trainer.setUsername("john");
-        trainer.setActive(true);
-        trainer.setPassword("pass");
-        when(trainerRepository.findByUsername("john")).thenReturn(Optional.of(trainer));
+        when(trainerRepository.findCredentialsByUsername("john"))
+                .thenReturn(Optional.of(new UserCredentials("john", "pass", true)));
 
         Exception ex = assertThrows(RuntimeException.class, () -> service.validateCredentials("john", "wrong"));
         assertEquals("Invalid password", ex.getMessage());
     }
 
     @Test
-    void updateTraineeTrainers_shouldAssignNewTrainers() {
+    void validateCredentials_shouldRecheckAfterPasswordChange() {
+        when(trainerRepository.findCredentialsByUsername("john"))
+                .thenReturn(Optional.of(new UserCredentials("john", "pass", true)))
+                .thenReturn(Optional.of(new UserCredentials("john", passwordHasher.hash("newpass"), true)));
+
+        when(trainerRepository.changePassword(eq("john"), anyString())).thenReturn(1);
+
+        service.validateCredentials("john", "pass");
+        service.changePassword("john", "newpass");
+
+        Exception ex = assertThrows(RuntimeException.class, () -> service.validateCredentials("john", "pass"));
+        assertEquals("Invalid password", ex.getMessage());
+        verify(trainerRepository, times(2)).findCredentialsByUsername("john");
+    }
+
+    @Test
+    void updateTraineeTrainers_shouldApplyOnlyTheDelta() {
         Trainee trainee = new Trainee();
+        trainee.setId(10L);
         trainee.setUsername("trainee1");
-        trainee.setTrainers(new java.util.HashSet<>());
 
         Trainer trainer1 = new Trainer();
+        trainer1.setId(1L);
         trainer1.setUsername("t1");
-        trainer1.setTrainees(new java.util.HashSet<>());
 
         Trainer trainer2 = new Trainer();
+        trainer2.setId(2L);
         trainer2.setUsername("t2");
-        trainer2.setTrainees(new java.util.HashSet<>());
 
         when(traineeRepository.findByUsername("trainee1")).thenReturn(Optional.of(trainee));
-        when(trainerRepository.findByUsername("t1")).thenReturn(Optional.of(trainer1));
-        when(trainerRepository.findByUsername("t2")).thenReturn(Optional.of(trainer2));
+        when(trainerRepository.findByUsernames(Set.of("t1", "t2"))).thenReturn(List.of(trainer1, trainer2));
+        when(trainerRepository.findTrainerIdsByTraineeId(10L)).thenReturn(Set.of(1L, 3L));
 
         TraineeTrainersUpdateDto dto = new TraineeTrainersUpdateDto();
         dto.setTrainerUsernames(List.of("t1", "t2"));
@@ -152,62 +214,84 @@ class TrainerServiceImplTest {
         List<TrainerResponseDto> result = service.updateTraineeTrainers("trainee1", dto);
 
         assertEquals(2, result.size());
-        assertTrue(trainee.getTrainers().contains(trainer1));
-        assertTrue(trainee.getTrainers().contains(trainer2));
-        assertTrue(trainer1.getTrainees().contains(trainee));
-        assertTrue(trainer2.getTrainees().contains(trainee));
+        assertNull(result.get(0).getTraineeUsernames());
+        verify(trainerRepository).unlinkTrainers(10L, Set.of(3L));
+        verify(trainerRepository).linkTrainers(10L, Set.of(2L));
+        verify(trainerRepository, never()).findByUsername(anyString());
     }
 
     @Test
-    void getUnassignedTrainersByTraineeUsername_shouldThrowIfBlank() {
-        Exception ex = assertThrows(IllegalArgumentException.class,
-                () -> service.getUnassignedTrainersByTraineeUsername("  "));
-        assertEquals("Trainee username must not be blank", ex.getMessage());
-    }
+    void updateTraineeTrainers_shouldThrowForUnknownTrainer() {
+        Trainee trainee = new Trainee();
+        trainee.setId(10L);
+        trainee.setUsername("trainee1");
 
-    @Test
-    void getUnassignedTrainersByTraineeUsername_shouldReturnMappedDtos() {
         Trainer trainer1 = new Trainer();
-        trainer1.setUsername("trainer1");
-        trainer1.setFirstName("John");
-        trainer1.setLastName("Smith");
-
-        Trainer trainer2 = new Trainer();
-        trainer2.setUsername("trainer2");
-        trainer2.setFirstName("Mike");
-        trainer2.setLastName("Brown");
+        trainer1.setId(1L);
+        trainer1.setUsername("t1");
 
-        when(trainerRepository.findUnassignedTrainersByTraineeUsername("trainee1"))
-                .thenReturn(List.of(trainer1, trainer2));
+        when(traineeRepository.findByUsername("trainee1")).thenReturn(Optional.of(trainee));
+        when(trainerRepository.findByUsernames(Set.of("t1", "ghost"))).thenReturn(List.of(trainer1));
 
-        List<TrainerResponseDto> result =
-                service.getUnassignedTrainersByTraineeUsername("trainee1");
+        TraineeTrainersUpdateDto dto = new TraineeTrainersUpdateDto();
+        dto.setTrainerUsernames(List.of("t1", "ghost"));
 
-        assertEquals(2, result.size());
-        assertEquals("trainer1", result.get(0).getUsername());
-        assertEquals("trainer2", result.get(1).getUsername());
+        Exception ex = assertThrows(RuntimeException.class, () -> service.updateTraineeTrainers("trainee1", dto));
+        assertEquals("Trainer not found: ghost", ex.getMessage());
+        verify(trainerRepository, never()).linkTrainers(anyLong(), anyCollection());
     }
 
+    @Test
+    void getUnassignedTrainersByTraineeUsername_shouldThrowIfBlank() {
+        Exception ex = assertThrows(IllegalArgumentException.class,
+                () -> service.getUnassignedTrainersByTraineeUsername("  ", new UnassignedTrainerFilterDto()));
+        assertEquals("Trainee username must not be blank", ex.getMessage());
+    }
 
     @Test
-    void getTrainings_shouldReturnMappedDtos() {
-        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
+    void getUnassignedTrainersByTraineeUsername_shouldThrowIfTraineeMissing() {
+        when(traineeRepository.findByUsername("ghost")).thenReturn(Optional.empty());
 
-        Training training = new Training();
+        Exception ex = assertThrows(RuntimeException.class,
+                () -> service.getUnassignedTrainersByTraineeUsername("ghost", new UnassignedTrainerFilterDto()));
+        assertEquals("Trainee not found", ex.getMessage());
+        verify(trainerRepository, never()).findUnassignedTrainerPage(any(), any());
+    }
 
+    @Test
+    void getUnassignedTrainersByTraineeUsername_shouldQueryByTraineeId() {
         Trainee trainee = new Trainee();
+        trainee.setId(10L);
         trainee.setUsername("trainee1");
-        training.setTrainee(trainee);
 
-        Trainer trainer = new Trainer();
-        trainer.setUsername("john");
-        training.setTrainer(trainer);
+        TrainerResponseDto trainer1 = new TrainerResponseDto();
+        trainer1.setUsername("trainer1");
+        TrainerResponseDto trainer2 = new TrainerResponseDto();
+        trainer2.setUsername("trainer2");
 
-        TrainingType type = new TrainingType();
-        type.setTrainingTypeName("Yoga");
-        training.setTrainingType(type);
+        UnassignedTrainerFilterDto filter = new UnassignedTrainerFilterDto();
+        filter.setActiveOnly(true);
 
-        when(trainerRepository.findTrainingsByTrainerAndFilter("john", filter))
+        when(traineeRepository.findByUsername("trainee1")).thenReturn(Optional.of(trainee));
+        when(trainerRepository.findUnassignedTrainerPage(10L, filter))
+                .thenReturn(new PageDto<>(List.of(trainer1, trainer2), true));
+
+        PageDto<TrainerResponseDto> result =
+                service.getUnassignedTrainersByTraineeUsername("trainee1", filter);
+
+        assertEquals(2, result.getContent().size());
+        assertEquals("trainer1", result.getContent().get(0).getUsername());
+        assertEquals("trainer2", result.getLast().getUsername());
+        assertTrue(result.isHasNext());
+    }
+
+    @Test
+    void getTrainings_shouldReturnProjectedDtos() {
+        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
+        TrainingResponseDto training = new TrainingResponseDto(
+                1L, "trainee1", "john", "Yoga", "Morning Yoga", null, 60);
+
+        when(trainerRepository.findTrainingDtosByTrainerAndFilter("john", filter))
                 .thenReturn(List.of(training));
 
         List<TrainingResponseDto> trainings = service.getTrainings("john", filter);
@@ -215,6 +299,7 @@ class TrainerServiceImplTest {
         assertEquals(1, trainings.size());
         assertEquals("trainee1", trainings.get(0).getTraineeUsername());
         assertEquals("Yoga", trainings.get(0).getTrainingTypeName());
+        verify(trainerRepository, never()).findTrainingsByTrainerAndFilter(any(), any());
     }
 
     @Test
@@ -257,15 +342,20 @@ class TrainerServiceImplTest {
     }
 
     @Test
-    void deleteByUsername_shouldCallRepositoryDelete() {
+    void deleteByUsername_shouldDeleteCascadingAndReportCounts() {
         Trainer trainer = new Trainer();
+        trainer.setId(4L);
         trainer.setUsername("john.doe");
 
         when(trainerRepository.findByUsername("john.doe")).thenReturn(Optional.of(trainer));
 
-        service.deleteByUsername("john.doe");
+        DeletionResultDto deleted = new DeletionResultDto(20_000, 35, 1);
+        when(trainerRepository.deleteCascading(trainer)).thenReturn(deleted);
+
+        assertSame(deleted, service.deleteByUsername("john.doe"));
 
-        verify(trainerRepository).deleteByUsername("john.doe");
+        verify(trainerRepository).deleteCascading(trainer);
+        verify(trainingAnalytics).recordTrainerDeleted(4L);
     }
 
     @Test
@@ -295,6 +385,19 @@ class TrainerServiceImplTest {
         assertEquals("t2", result.get(1).getUsername());
     }
 
+    @Test
+    void getAllPage_shouldUseDefaultPageSize() {
+        Trainer trainer = new Trainer();
+        trainer.setUsername("t1");
+
+        when(trainerRepository.findPage(null, PageDto.DEFAULT_PAGE_SIZE + 1)).thenReturn(List.of(trainer));
+
+        PageDto<TrainerResponseDto> page = service.getAllPage(null, null);
+
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasNext());
+    }
+
     @Test
     void create_shouldThrowIfFirstNameNull() {
         TrainerCreateDto dto = new TrainerCreateDto();
@@ -375,4 +478,13 @@ class TrainerServiceImplTest {
 
         assertEquals("Specialization cannot be empty", ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTrainingsPage_shouldRejectHalfCursor() {
+        TrainerTrainingFilterDto filter = new TrainerTrainingFilterDto();
+        filter.setCursorId(7L);
+
+        assertThrows(IllegalArgumentException.class, () -> service.getTrainingsPage("john", filter));
+        verify(trainerRepository, never()).findTrainingDtoPageByTrainerAndFilter(any(), any());
+    }
+}
@@ -0,0 +1,81 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.service.impl.TrainerWorkloadReconciler.WorkloadKey;
+import com.gym_project.service.impl.TrainerWorkloadReconciler.WorkloadTotal;
+import com.gym_project.sharding.Shards;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrainerWorkloadReconcilerTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FEBRUARY = LocalDate.of(2026, 2, 1);
+
+    @Test
+    void merge_shouldSumTotalsFromAllShards() {
+        Map<WorkloadKey, WorkloadTotal> merged = TrainerWorkloadReconciler.merge(List.of(
+                new WorkloadTotal(new WorkloadKey(1L, JANUARY), 60, 1),
+                new WorkloadTotal(new WorkloadKey(1L, FEBRUARY), 30, 1),
+                new WorkloadTotal(new WorkloadKey(1L, JANUARY), 90, 2)));
+
+        assertEquals(2, merged.size());
+        WorkloadTotal january = merged.get(new WorkloadKey(1L, JANUARY));
+        assertEquals(150, january.minutes());
+        assertEquals(3, january.trainings());
+    }
+
+    @Test
+    void reconcileSlice_shouldLockWorkloadBeforeAggregatingMainShard() throws Exception {
+        Shards shards = mock(Shards.class);
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement lock = mock(Statement.class);
+        PreparedStatement aggregate = mock(PreparedStatement.class);
+        PreparedStatement delete = mock(PreparedStatement.class);
+        PreparedStatement insert = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+
+        when(shards.additionalShards()).thenReturn(List.of());
+        when(shards.get(0)).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(lock);
+        when(connection.prepareStatement(TrainerWorkloadReconciler.AGGREGATE_SQL)).thenReturn(aggregate);
+        when(connection.prepareStatement(startsWith("DELETE"))).thenReturn(delete);
+        when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(insert);
+        when(aggregate.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getLong(1)).thenReturn(1L);
+        when(rs.getDate(2)).thenReturn(java.sql.Date.valueOf(JANUARY));
+        when(rs.getLong(3)).thenReturn(60L);
+        when(rs.getInt(4)).thenReturn(1);
+
+        assertEquals(1, new TrainerWorkloadReconciler(shards, 4).reconcileSlice(2));
+
+        InOrder order = inOrder(connection, lock, aggregate, delete, insert);
+        order.verify(connection).setAutoCommit(false);
+        order.verify(lock).execute(TrainerWorkloadReconciler.LOCK_SQL);
+        order.verify(aggregate).executeQuery();
+        order.verify(delete).executeUpdate();
+        order.verify(insert).executeBatch();
+        order.verify(connection).commit();
+        verify(connection, never()).rollback();
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveParallelism() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TrainerWorkloadReconciler(mock(Shards.class), 0));
+    }
+}
@@ -0,0 +1,76 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.dto.response.TrainerWorkloadDto;
+import com.gym_project.entity.Trainer;
+import com.gym_project.repository.TrainerRepository;
+import com.gym_project.repository.TrainerWorkloadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrainerWorkloadServiceImplTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2026, 3);
+
+    private TrainerWorkloadRepository trainerWorkloadRepository;
+    private TrainerRepository trainerRepository;
+    private TrainerWorkloadServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        trainerWorkloadRepository = mock(TrainerWorkloadRepository.class);
+        trainerRepository = mock(TrainerRepository.class);
+        service = new TrainerWorkloadServiceImpl(trainerWorkloadRepository, trainerRepository);
+    }
+
+    @Test
+    void getMonthlyWorkload_shouldReadSummaryRow() {
+        TrainerWorkloadDto summary = new TrainerWorkloadDto("trainer1", MARCH, 240, 4);
+        when(trainerWorkloadRepository.findByTrainerAndMonth("trainer1", MARCH)).thenReturn(Optional.of(summary));
+
+        assertSame(summary, service.getMonthlyWorkload("trainer1", MARCH));
+        verifyNoInteractions(trainerRepository);
+    }
+
+    @Test
+    void getMonthlyWorkload_shouldReturnZeroForMonthWithoutTrainings() {
+        when(trainerWorkloadRepository.findByTrainerAndMonth("trainer1", MARCH)).thenReturn(Optional.empty());
+        when(trainerRepository.findByUsername("trainer1")).thenReturn(Optional.of(new Trainer()));
+
+        TrainerWorkloadDto workload = service.getMonthlyWorkload("trainer1", MARCH);
+
+        assertEquals(0, workload.getTotalMinutes());
+        assertEquals(0, workload.getTrainingCount());
+        assertEquals(MARCH, workload.getMonth());
+    }
+
+    @Test
+    void getMonthlyWorkload_shouldThrowIfTrainerNotFound() {
+        when(trainerWorkloadRepository.findByTrainerAndMonth("missing", MARCH)).thenReturn(Optional.empty());
+        when(trainerRepository.findByUsername("missing")).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> service.getMonthlyWorkload("missing", MARCH));
+    }
+
+    @Test
+    void getMonthlyWorkload_shouldRejectMissingArguments() {
+        assertThrows(IllegalArgumentException.class, () -> service.getMonthlyWorkload(" ", MARCH));
+        assertThrows(IllegalArgumentException.class, () -> service.getMonthlyWorkload("trainer1", null));
+    }
+
+    @Test
+    void getWorkload_shouldReturnAllMonths() {
+        List<TrainerWorkloadDto> months = List.of(
+                new TrainerWorkloadDto("trainer1", MARCH.minusMonths(1), 60, 1),
+                new TrainerWorkloadDto("trainer1", MARCH, 120, 2));
+        when(trainerWorkloadRepository.findByTrainer("trainer1")).thenReturn(months);
+
+        assertEquals(months, service.getWorkload("trainer1"));
+    }
+}
@@ -1,7 +1,9 @@
 package com.gym_project.service.impl;
 
+import com.gym_project.analytics.TrainingAnalytics;
 import com.gym_project.dto.create.TrainingCreateDto;
 import com.gym_project.dto.response.TrainingResponseDto;
+import com.gym_project.dto.update.TrainingUpdateDto;
 import com.gym_project.entity.*;
 import com.gym_project.repository.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +22,8 @@ class TrainingServiceImplTest {
     private TraineeRepository traineeRepository;
     private TrainerRepository trainerRepository;
     private TrainingTypeRepository trainingTypeRepository;
+    private TrainerWorkloadRepository trainerWorkloadRepository;
+    private TrainingAnalytics trainingAnalytics;
     private TrainingServiceImpl service;
 
     @BeforeEach
@@ -28,19 +32,24 @@ class TrainingServiceImplTest {
         traineeRepository = mock(TraineeRepository.class);
         trainerRepository = mock(TrainerRepository.class);
         trainingTypeRepository = mock(TrainingTypeRepository.class);
+        trainerWorkloadRepository = mock(TrainerWorkloadRepository.class);
+        trainingAnalytics = mock(TrainingAnalytics.class);
 
-        service = new TrainingServiceImpl(trainingRepository, traineeRepository, trainerRepository, trainingTypeRepository);
+        service = new TrainingServiceImpl(trainingRepository, traineeRepository, trainerRepository,
+                trainingTypeRepository, trainerWorkloadRepository, trainingAnalytics);
     }
 
     @Test
     void create_shouldSaveTrainingAndReturnDto() {
         Trainee trainee = new Trainee();
+        trainee.setId(10L);
         trainee.setUsername("trainee1");
-        trainee.setTrainers(new HashSet<>());
 
         Trainer trainer = new Trainer();
+        trainer.setId(20L);
         trainer.setUsername("trainer1");
-        trainer.setTrainees(new HashSet<>());
+        // a roster access would fail the test
+        trainer.setTrainees(null);
 
         TrainingType type = new TrainingType();
         type.setId(1L);
@@ -65,10 +74,10 @@ class TrainingServiceImplTest {
         assertEquals(LocalDate.of(2026, 2, 28), response.getTrainingDate());
         assertEquals(60, response.getTrainingDuration());
 
-        assertTrue(trainer.getTrainees().contains(trainee));
-        assertTrue(trainee.getTrainers().contains(trainer));
-
+        verify(trainerRepository).linkTrainee(20L, 10L);
         verify(trainingRepository).save(any(Training.class));
+        verify(trainerWorkloadRepository).add(20L, LocalDate.of(2026, 2, 28), 60, 1);
+        verify(trainingAnalytics).recordCreated(any(Training.class));
     }
 
     @Test
@@ -154,8 +163,8 @@ class TrainingServiceImplTest {
         TrainingResponseDto response = service.create(dto);
 
         assertEquals("Yoga", response.getTrainingName());
-        assertTrue(trainer.getTrainees().contains(trainee));
-        assertTrue(trainee.getTrainers().contains(trainer));
+        assertTrue(trainer.getTrainees().isEmpty());
+        assertTrue(trainee.getTrainers().isEmpty());
     }
 
 
@@ -165,4 +174,104 @@ class TrainingServiceImplTest {
         Exception exception = assertThrows(IllegalArgumentException.class, () -> service.create(dto));
         assertEquals("Trainee username is required", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void update_shouldMoveWorkloadToNewMonthAndTrainer() {
+        Training training = training(30L, LocalDate.of(2026, 1, 15), 45);
+        Trainer newTrainer = new Trainer();
+        newTrainer.setId(21L);
+        newTrainer.setUsername("trainer2");
+
+        TrainingUpdateDto dto = new TrainingUpdateDto();
+        dto.setTrainerUsername("trainer2");
+        dto.setTrainingDate(LocalDate.of(2026, 2, 1));
+
+        when(trainingRepository.findById(30L)).thenReturn(Optional.of(training));
+        when(trainerRepository.findByUsername("trainer2")).thenReturn(Optional.of(newTrainer));
+        when(trainingRepository.update(training, 20L)).thenReturn(training);
+
+        TrainingResponseDto response = service.update(30L, dto);
+
+        assertEquals("trainer2", response.getTrainerUsername());
+        verify(trainerRepository).linkTrainee(21L, 10L);
+        verify(trainerWorkloadRepository).add(20L, LocalDate.of(2026, 1, 15), -45, -1);
+        verify(trainerWorkloadRepository).add(21L, LocalDate.of(2026, 2, 1), 45, 1);
+    }
+
+    @Test
+    void update_shouldRouteByPreviousTrainerWhenTrainerChanges() {
+        Training training = training(30L, LocalDate.of(2026, 1, 15), 45);
+        Trainer newTrainer = new Trainer();
+        newTrainer.setId(21L);
+        newTrainer.setUsername("trainer2");
+
+        TrainingUpdateDto dto = new TrainingUpdateDto();
+        dto.setTrainerUsername("trainer2");
+
+        when(trainingRepository.findById(30L)).thenReturn(Optional.of(training));
+        when(trainerRepository.findByUsername("trainer2")).thenReturn(Optional.of(newTrainer));
+        when(trainingRepository.update(training, 20L)).thenReturn(training);
+
+        service.update(30L, dto);
+
+        verify(trainingRepository).update(training, 20L);
+        verify(trainingRepository, never()).update(training);
+        assertSame(newTrainer, training.getTrainer());
+    }
+
+    @Test
+    void update_shouldRejectNonPositiveDuration() {
+        TrainingUpdateDto dto = new TrainingUpdateDto();
+        dto.setTrainingDuration(0);
+        when(trainingRepository.findById(30L))
+                .thenReturn(Optional.of(training(30L, LocalDate.of(2026, 1, 15), 45)));
+
+        assertThrows(IllegalArgumentException.class, () -> service.update(30L, dto));
+        verify(trainingRepository, never()).update(any(), any());
+        verifyNoInteractions(trainerWorkloadRepository);
+    }
+
+    @Test
+    void delete_shouldRemoveTrainingFromWorkload() {
+        Training training = training(30L, LocalDate.of(2026, 1, 15), 45);
+        when(trainingRepository.findById(30L)).thenReturn(Optional.of(training));
+
+        service.delete(30L);
+
+        verify(trainingRepository).delete(training);
+        verify(trainerWorkloadRepository).add(20L, LocalDate.of(2026, 1, 15), -45, -1);
+        verify(trainingAnalytics).recordDeleted(30L);
+    }
+
+    @Test
+    void delete_shouldThrowIfTrainingNotFound() {
+        when(trainingRepository.findById(30L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> service.delete(30L));
+        verifyNoInteractions(trainerWorkloadRepository);
+    }
+
+    private static Training training(Long id, LocalDate date, int duration) {
+        Trainee trainee = new Trainee();
+        trainee.setId(10L);
+        trainee.setUsername("trainee1");
+
+        Trainer trainer = new Trainer();
+        trainer.setId(20L);
+        trainer.setUsername("trainer1");
+
+        TrainingType type = new TrainingType();
+        type.setId(1L);
+        type.setTrainingTypeName("Yoga");
+
+        Training training = new Training();
+        training.setId(id);
+        training.setTrainee(trainee);
+        training.setTrainer(trainer);
+        training.setTrainingType(type);
+        training.setTrainingName("Yoga");
+        training.setTrainingDate(date);
+        training.setTrainingDuration(duration);
+        return training;
+    }
+}
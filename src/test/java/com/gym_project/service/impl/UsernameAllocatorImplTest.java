@@ -0,0 +1,153 @@
+package com.gym_project.service.impl;
+
+import com.gym_project.repository.UsernameCounterRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsernameAllocatorImplTest {
+
+    @Test
+    void allocate_shouldReturnBaseForFirstRegistration() {
+        UsernameAllocatorImpl allocator = new UsernameAllocatorImpl(new InMemoryCounterRepository(), 10, 4, 100);
+
+        assertEquals("John.Doe", allocator.allocate("John", "Doe"));
+        assertEquals("John.Doe1", allocator.allocate("John", "Doe"));
+        assertEquals("Jane.Doe", allocator.allocate("Jane", "Doe"));
+    }
+
+    @Test
+    void allocate_shouldSeedCounterFromExistingUsernames() {
+        InMemoryCounterRepository repository = new InMemoryCounterRepository();
+        repository.existingUsernames.addAll(List.of("John.Doe", "John.Doe3", "John.DoeX"));
+        UsernameAllocatorImpl allocator = new UsernameAllocatorImpl(repository, 10, 4, 100);
+
+        assertEquals("John.Doe4", allocator.allocate("John", "Doe"));
+        assertEquals("John.Doe5", allocator.allocate("John", "Doe"));
+    }
+
+    @Test
+    void allocate_shouldReserveNextBlockWhenCurrentIsExhausted() {
+        InMemoryCounterRepository repository = new InMemoryCounterRepository();
+        UsernameAllocatorImpl allocator = new UsernameAllocatorImpl(repository, 2, 4, 100);
+
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            usernames.add(allocator.allocate("John", "Doe"));
+        }
+
+        assertEquals(List.of("John.Doe", "John.Doe1", "John.Doe2", "John.Doe3", "John.Doe4"), usernames);
+        assertEquals(3, repository.reservations);
+    }
+
+    @Test
+    void allocate_shouldNeverHandOutDuplicatesAcrossNodes() throws Exception {
+        InMemoryCounterRepository repository = new InMemoryCounterRepository();
+        UsernameAllocatorImpl nodeA = new UsernameAllocatorImpl(repository, 5, 4, 100);
+        UsernameAllocatorImpl nodeB = new UsernameAllocatorImpl(repository, 5, 4, 100);
+
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            UsernameAllocatorImpl node = t % 2 == 0 ? nodeA : nodeB;
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<String> allocated = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    allocated.add(node.allocate("John", "Doe"));
+                }
+                return allocated;
+            }));
+        }
+
+        start.countDown();
+        Set<String> unique = ConcurrentHashMap.newKeySet();
+        int total = 0;
+        for (Future<List<String>> future : futures) {
+            List<String> allocated = future.get(30, TimeUnit.SECONDS);
+            unique.addAll(allocated);
+            total += allocated.size();
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread, total);
+        assertEquals(total, unique.size());
+    }
+
+    @Test
+    void allocate_shouldSkipSuffixTakenByBaseEndingInDigits() {
+        InMemoryCounterRepository repository = new InMemoryCounterRepository();
+        UsernameAllocatorImpl allocator = new UsernameAllocatorImpl(repository, 10, 4, 100);
+
+        assertEquals("John.Smith", allocator.allocate("John", "Smith"));
+        String smith1 = allocator.allocate("John", "Smith1");
+        repository.existingUsernames.add(smith1);
+
+        assertEquals("John.Smith1", smith1);
+        assertEquals("John.Smith2", allocator.allocate("John", "Smith"));
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveBlockSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new UsernameAllocatorImpl(new InMemoryCounterRepository(), 0, 4, 100));
+    }
+
+    /**
+     * Mirrors the atomicity of the native UPDATE/UPSERT statements with a monitor.
+     */
+    private static class InMemoryCounterRepository implements UsernameCounterRepository {
+
+        private final Map<String, Long> counters = new HashMap<>();
+        private final List<String> existingUsernames = new ArrayList<>();
+        private int reservations;
+
+        @Override
+        public synchronized Optional<Long> incrementIfPresent(String base, int blockSize) {
+            if (!counters.containsKey(base)) {
+                return Optional.empty();
+            }
+            reservations++;
+            return Optional.of(counters.merge(base, (long) blockSize, Long::sum));
+        }
+
+        @Override
+        public synchronized long insertOrIncrement(String base, long initialValue, int blockSize) {
+            reservations++;
+            if (!counters.containsKey(base)) {
+                counters.put(base, initialValue);
+                return initialValue;
+            }
+            return counters.merge(base, (long) blockSize, Long::sum);
+        }
+
+        @Override
+        public synchronized List<String> findUsernamesStartingWith(String base) {
+            return existingUsernames.stream()
+                    .filter(name -> name.startsWith(base))
+                    .toList();
+        }
+
+        @Override
+        public synchronized boolean usernameExists(String username) {
+            return existingUsernames.contains(username);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.gym_project.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class BucketShardMapTest {
+
+    @Test
+    void afterPropertiesSet_shouldSeedEveryBucketOnTheMainDatabase() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement seed = mock(PreparedStatement.class);
+        PreparedStatement load = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        Shards shards = mock(Shards.class);
+
+        when(shards.count()).thenReturn(3);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(load);
+        when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(seed);
+        when(load.executeQuery()).thenReturn(rs);
+
+        BucketShardMap shardMap = new BucketShardMap(dataSource, shards, 4);
+        shardMap.afterPropertiesSet();
+
+        for (int bucket = 0; bucket < 4; bucket++) {
+            verify(seed).setInt(1, bucket);
+        }
+        verify(seed, times(4)).setInt(2, 0);
+        verify(seed, never()).setInt(eq(2), intThat(shard -> shard != 0));
+        verify(seed).executeBatch();
+        for (int bucket = 0; bucket < 4; bucket++) {
+            assertEquals(0, shardMap.shardOfBucket(bucket));
+        }
+    }
+}
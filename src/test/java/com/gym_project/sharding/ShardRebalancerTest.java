@@ -0,0 +1,123 @@
+package com.gym_project.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShardRebalancerTest {
+
+    @Test
+    void plan_shouldMoveBucketsToNewShard() {
+        // 12 buckets all on shards 0 and 1, shard 2 just added
+        ShardMap shardMap = shardMap(3, 12, bucket -> bucket % 2);
+        ShardRebalancer rebalancer = new ShardRebalancer(mock(Shards.class), shardMap, 0, 0);
+
+        Map<Integer, Integer> moves = rebalancer.plan();
+
+        assertEquals(4, moves.size());
+        assertTrue(moves.values().stream().allMatch(shard -> shard == 2));
+
+        int[] counts = new int[3];
+        for (int bucket = 0; bucket < 12; bucket++) {
+            counts[moves.getOrDefault(bucket, shardMap.shardOfBucket(bucket))]++;
+        }
+        assertArrayEquals(new int[]{4, 4, 4}, counts);
+    }
+
+    @Test
+    void plan_shouldBeEmptyWhenBalanced() {
+        ShardMap shardMap = shardMap(2, 5, bucket -> bucket % 2);
+        ShardRebalancer rebalancer = new ShardRebalancer(mock(Shards.class), shardMap, 0, 0);
+
+        assertTrue(rebalancer.plan().isEmpty());
+    }
+
+    @Test
+    void moveBucket_shouldRejectUnknownShard() {
+        ShardMap shardMap = shardMap(2, 4, bucket -> 0);
+        ShardRebalancer rebalancer = new ShardRebalancer(mock(Shards.class), shardMap, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> rebalancer.moveBucket(1, 5));
+    }
+
+    @Test
+    void moveBucket_shouldDrainRowsLeftOnTheSourceAfterReassigning() throws Exception {
+        ShardMap shardMap = shardMap(2, 4, bucket -> 0);
+        Shards shards = mock(Shards.class);
+        DataSource source = mock(DataSource.class);
+        DataSource target = mock(DataSource.class);
+        Connection sourceConnection = mock(Connection.class);
+        Connection targetConnection = mock(Connection.class);
+        PreparedStatement select = mock(PreparedStatement.class);
+        PreparedStatement delete = mock(PreparedStatement.class);
+        PreparedStatement insert = mock(PreparedStatement.class);
+        ResultSet copied = mock(ResultSet.class);
+        ResultSet late = mock(ResultSet.class);
+        ResultSet empty = mock(ResultSet.class);
+
+        when(shards.get(0)).thenReturn(source);
+        when(shards.get(1)).thenReturn(target);
+        when(source.getConnection()).thenReturn(sourceConnection);
+        when(target.getConnection()).thenReturn(targetConnection);
+        when(sourceConnection.prepareStatement(startsWith("SELECT"))).thenReturn(select);
+        when(sourceConnection.prepareStatement(startsWith("DELETE"))).thenReturn(delete);
+        when(targetConnection.prepareStatement(startsWith("INSERT"))).thenReturn(insert);
+        when(select.executeQuery()).thenReturn(copied);
+        // a row written to the source by an instance that had not seen the new assignment yet
+        when(delete.executeQuery()).thenAnswer(invocation -> {
+            assertEquals(1, shardMap.shardOfBucket(1));
+            return late;
+        }).thenReturn(empty);
+        when(late.next()).thenReturn(true, false);
+        when(late.getLong(1)).thenReturn(77L);
+        when(late.getDate(6)).thenReturn(Date.valueOf("2026-01-05"));
+
+        new ShardRebalancer(shards, shardMap, 0, 0).moveBucket(1, 1);
+
+        verify(insert).setLong(1, 77L);
+        verify(insert).executeBatch();
+        verify(sourceConnection, times(2)).commit();
+        // only the read-only copy transaction is rolled back
+        verify(sourceConnection, times(1)).rollback();
+        assertEquals(1, shardMap.shardOfBucket(1));
+    }
+
+    private static ShardMap shardMap(int shardCount, int bucketCount,
+                                     IntUnaryOperator assignment) {
+        Map<Integer, Integer> owners = new HashMap<>();
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            owners.put(bucket, assignment.applyAsInt(bucket));
+        }
+        return new ShardMap() {
+            @Override
+            public int shardCount() {
+                return shardCount;
+            }
+
+            @Override
+            public int bucketCount() {
+                return bucketCount;
+            }
+
+            @Override
+            public int shardOfBucket(int bucket) {
+                return owners.get(bucket);
+            }
+
+            @Override
+            public void reassign(int bucket, int shard) {
+                owners.put(bucket, shard);
+            }
+        };
+    }
+}
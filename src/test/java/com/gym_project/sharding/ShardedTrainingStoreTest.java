@@ -0,0 +1,111 @@
+package com.gym_project.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ShardedTrainingStoreTest {
+
+    @Test
+    void buildSql_shouldAddOnlyGivenFilters() {
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setTraineeId(7L);
+        query.setFromDate(LocalDate.of(2024, 1, 1));
+
+        List<Object> parameters = new ArrayList<>();
+        String sql = ShardedTrainingStore.buildSql(query, parameters);
+
+        assertEquals("SELECT " + ShardedTrainingStore.COLUMNS
+                + " FROM trainings WHERE 1 = 1 AND trainee_id = ? AND training_date >= ?", sql);
+        assertEquals(List.of(7L, Date.valueOf("2024-01-01")), parameters);
+    }
+
+    @Test
+    void buildSql_shouldBindIdSetsAsArrays() {
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setTrainerIds(Set.of(3L));
+
+        List<Object> parameters = new ArrayList<>();
+        String sql = ShardedTrainingStore.buildSql(query, parameters);
+
+        assertTrue(sql.endsWith(" AND trainer_id = ANY (?)"));
+        assertArrayEquals(new Long[]{3L}, (Long[]) parameters.get(0));
+    }
+
+    @Test
+    void buildSql_shouldApplyKeysetCursorAndLimit() {
+        TrainingShardQuery query = new TrainingShardQuery();
+        query.setCursorDate(LocalDate.of(2024, 3, 1));
+        query.setCursorId(42L);
+        query.setLimit(11);
+
+        List<Object> parameters = new ArrayList<>();
+        String sql = ShardedTrainingStore.buildSql(query, parameters);
+
+        assertTrue(sql.endsWith(
+                " AND (training_date < ? OR (training_date = ? AND id < ?)) ORDER BY training_date DESC, id DESC LIMIT ?"));
+        assertEquals(4, parameters.size());
+        assertEquals(42L, parameters.get(2));
+        assertEquals(11, parameters.get(3));
+    }
+
+    @Test
+    void nextId_shouldReserveBlocksFromSequence() throws Exception {
+        DataSource main = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(main.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong(1)).thenReturn(100L, 150L);
+
+        ShardedTrainingStore store = new ShardedTrainingStore(new Shards(main, List.of(), 1, 1000));
+
+        assertEquals(51L, store.nextId());
+        for (int i = 1; i < ShardedTrainingStore.ID_BLOCK_SIZE; i++) {
+            store.nextId();
+        }
+        assertEquals(101L, store.nextId());
+        verify(statement, times(2)).executeQuery();
+    }
+
+    @Test
+    void scan_shouldStreamRowsInBatchesThroughACursor() throws Exception {
+        DataSource main = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(main.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getLong(1)).thenReturn(1L, 2L, 3L);
+        when(rs.getDate(6)).thenReturn(Date.valueOf("2024-01-01"));
+
+        ShardedTrainingStore store = new ShardedTrainingStore(new Shards(main, List.of(), 1, 1000));
+        List<List<Long>> batches = new ArrayList<>();
+
+        long scanned = store.scan(0, 2, batch -> batches.add(batch.stream().map(TrainingRow::getId).toList()));
+
+        assertEquals(3, scanned);
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), batches);
+        verify(statement).setFetchSize(2);
+        verify(connection).setAutoCommit(false);
+        verify(connection).rollback();
+    }
+}